@@ -0,0 +1,143 @@
+package benchmark;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.AutoLogOutput;
+import org.psilynx.psikit.core.AutoLogOutputManager;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.LoggerContext;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares the cost of reading {@code @AutoLogOutput} members through method handles against the
+ * reflection fallback, with 300 members across 30 objects. Run with {@code ./gradlew
+ * :core:benchmark}; it is not part of the unit tests.
+ */
+public class AutoLogOutputBenchmark {
+  private static final int objectCount = 30;
+  private static final int warmupCycles = 2000;
+  private static final int measuredCycles = 5000;
+
+  /** Ten members of the kinds used most: doubles, ints, booleans and getters. */
+  static class Outputs {
+    private final String name;
+
+    @AutoLogOutput(key = "Bench/{name}/D0")
+    private double d0;
+
+    @AutoLogOutput(key = "Bench/{name}/D1")
+    private double d1 = 1.0;
+
+    @AutoLogOutput(key = "Bench/{name}/D2")
+    private double d2 = 2.0;
+
+    @AutoLogOutput(key = "Bench/{name}/I0")
+    private int i0;
+
+    @AutoLogOutput(key = "Bench/{name}/I1")
+    private int i1 = 1;
+
+    @AutoLogOutput(key = "Bench/{name}/B0")
+    private boolean b0;
+
+    @AutoLogOutput(key = "Bench/{name}/B1")
+    private boolean b1 = true;
+
+    Outputs(String name) {
+      this.name = name;
+    }
+
+    @AutoLogOutput(key = "Bench/{name}/G0")
+    public double getG0() {
+      return d0 * 2.0;
+    }
+
+    @AutoLogOutput(key = "Bench/{name}/G1")
+    public int getG1() {
+      return i0 + 1;
+    }
+
+    @AutoLogOutput(key = "Bench/{name}/G2")
+    public boolean getG2() {
+      return !b0;
+    }
+
+    void update(int cycle) {
+      d0 = cycle;
+      i0 = cycle;
+      b0 = cycle % 2 == 0;
+    }
+  }
+
+  /** Nanoseconds and bytes allocated by {@code @AutoLogOutput} per cycle. */
+  private static final class Result {
+    double nanos;
+    double bytes;
+  }
+
+  private static Result run() {
+    Result result = new Result();
+    LoggerContext.Binding binding = new LoggerContext().bind();
+    try {
+      double[] time = {0.0};
+      Logger.disableConsoleCapture();
+      Logger.setTimeSource(() -> time[0]);
+      Outputs[] outputs = new Outputs[objectCount];
+      for (int i = 0; i < objectCount; i++) {
+        outputs[i] = new Outputs("Object" + i);
+        AutoLogOutputManager.addObject(outputs[i]);
+      }
+      Logger.addDataReceiver(table -> {});
+      Logger.enableAllocationTracking();
+      Logger.start();
+
+      long nanos = 0;
+      long bytes = 0;
+      for (int cycle = 1; cycle <= warmupCycles + measuredCycles; cycle++) {
+        time[0] = cycle * 0.02;
+        Logger.periodicBeforeUser();
+        for (Outputs output : outputs) {
+          output.update(cycle);
+        }
+        long start = System.nanoTime();
+        Logger.periodicAfterUser(0, 0);
+        if (cycle > warmupCycles) {
+          nanos += System.nanoTime() - start;
+          bytes += Logger.getEntry().get("RealOutputs/PsiKit/Allocation/AutoLogBytes", 0L);
+        }
+      }
+
+      LogTable entry = Logger.getEntry();
+      int cycle = warmupCycles + measuredCycles;
+      assertEquals(cycle, entry.get("RealOutputs/Bench/Object29/D0", 0.0), 0.0);
+      assertEquals(cycle + 1, entry.get("RealOutputs/Bench/Object29/G1", 0));
+      assertEquals(cycle % 2 != 0, entry.get("RealOutputs/Bench/Object0/G2", cycle % 2 == 0));
+      Logger.end();
+      result.nanos = (double) nanos / measuredCycles;
+      result.bytes = (double) bytes / measuredCycles;
+    } finally {
+      binding.close();
+    }
+    return result;
+  }
+
+  @Test
+  public void testMethodHandlesAgainstReflection() {
+    Result handles = run();
+    Result reflection;
+    System.setProperty("psikit.autoLogReflection", "true");
+    try {
+      reflection = run();
+    } finally {
+      System.clearProperty("psikit.autoLogReflection");
+    }
+
+    String summary =
+        String.format(
+            "method handles: %.1f us, %.0f bytes per cycle; reflection: %.1f us, %.0f bytes",
+            handles.nanos / 1000.0, handles.bytes, reflection.nanos / 1000.0, reflection.bytes);
+    assertTrue("More allocation with " + summary, handles.bytes <= reflection.bytes);
+    assertTrue("Slower with " + summary, handles.nanos <= reflection.nanos * 1.5);
+  }
+}
@@ -0,0 +1,216 @@
+package org.psilynx.psikit.core;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.List;
+
+/**
+ * Measures the bytes allocated by the main thread in each phase of the Logger cycle, and the
+ * garbage collections since the previous cycle. Enabled with {@link
+ * Logger#enableAllocationTracking()}.
+ *
+ * <p>Per-thread allocation counts need HotSpot's {@code com.sun.management.ThreadMXBean}. Android
+ * has no management beans, so only GC count and time are read there (from ART runtime stats, API
+ * 23+). Values that cannot be measured are not logged.
+ */
+final class AllocationTracker {
+  private static final String prefix = "PsiKit/Allocation/";
+
+  private final Counters counters;
+  private final boolean allocationSupported;
+
+  private long beforeUserStart;
+  private long beforeUserEnd = -1;
+  private long afterUserStart;
+  private long autoLogStart;
+  private long beforeUserBytes = 0;
+  private long userCodeBytes = 0;
+  private long autoLogBytes = 0;
+  private long afterUserBytes = 0;
+  private long lastGcCount = -1;
+  private long lastGcTimeMs = -1;
+
+  private AllocationTracker(Counters counters) {
+    this.counters = counters;
+    this.allocationSupported = counters.getAllocatedBytes() >= 0;
+  }
+
+  /** Returns a tracker for this platform, or null if nothing can be measured. */
+  static AllocationTracker create() {
+    Counters counters = null;
+    try {
+      counters = new JvmCounters();
+    } catch (LinkageError | RuntimeException e) {
+      // No management beans, try Android
+    }
+    if (counters == null) {
+      try {
+        counters = new AndroidCounters();
+      } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+        return null;
+      }
+    }
+    return new AllocationTracker(counters);
+  }
+
+  void startBeforeUser() {
+    beforeUserStart = counters.getAllocatedBytes();
+  }
+
+  void endBeforeUser() {
+    beforeUserEnd = counters.getAllocatedBytes();
+    beforeUserBytes = delta(beforeUserStart, beforeUserEnd);
+  }
+
+  void startAfterUser() {
+    afterUserStart = counters.getAllocatedBytes();
+    userCodeBytes = beforeUserEnd < 0 ? 0 : delta(beforeUserEnd, afterUserStart);
+  }
+
+  void startAutoLog() {
+    autoLogStart = counters.getAllocatedBytes();
+  }
+
+  void endAutoLog() {
+    autoLogBytes = delta(autoLogStart, counters.getAllocatedBytes());
+  }
+
+  /** Finishes the cycle; PsiKit's own work after user code is reported with the next cycle. */
+  void endAfterUser() {
+    afterUserBytes =
+        Math.max(0, delta(afterUserStart, counters.getAllocatedBytes()) - autoLogBytes);
+  }
+
+  /** Records this cycle's values as outputs. */
+  void record() {
+    if (allocationSupported) {
+      Logger.recordOutput(prefix + "PeriodicBeforeUserBytes", beforeUserBytes);
+      Logger.recordOutput(prefix + "UserCodeBytes", userCodeBytes);
+      Logger.recordOutput(prefix + "AutoLogBytes", autoLogBytes);
+      Logger.recordOutput(prefix + "PeriodicAfterUserBytes", afterUserBytes);
+    }
+    long gcCount = counters.getGcCount();
+    long gcTimeMs = counters.getGcTimeMs();
+    if (gcCount >= 0 && lastGcCount >= 0) {
+      Logger.recordOutput("PsiKit/GC/Count", gcCount - lastGcCount);
+      Logger.recordOutput("PsiKit/GC/TimeMS", gcTimeMs - lastGcTimeMs);
+    }
+    lastGcCount = gcCount;
+    lastGcTimeMs = gcTimeMs;
+  }
+
+  private long delta(long start, long end) {
+    return Math.max(0, end - start - counters.getReadOverhead());
+  }
+
+  /** Platform counters; each returns -1 when unsupported. */
+  private abstract static class Counters {
+    abstract long getAllocatedBytes();
+
+    abstract long getGcCount();
+
+    abstract long getGcTimeMs();
+
+    /** Bytes allocated by reading the allocation counter itself. */
+    long getReadOverhead() {
+      return 0;
+    }
+  }
+
+  private static final class JvmCounters extends Counters {
+    private final com.sun.management.ThreadMXBean threadBean;
+    private final GarbageCollectorMXBean[] gcBeans;
+    private final long readOverhead;
+
+    JvmCounters() {
+      java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      com.sun.management.ThreadMXBean allocationBean = null;
+      if (bean instanceof com.sun.management.ThreadMXBean) {
+        allocationBean = (com.sun.management.ThreadMXBean) bean;
+        if (allocationBean.isThreadAllocatedMemorySupported()) {
+          allocationBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+          allocationBean = null;
+        }
+      }
+      threadBean = allocationBean;
+      List<GarbageCollectorMXBean> beans = ManagementFactory.getGarbageCollectorMXBeans();
+      gcBeans = beans.toArray(new GarbageCollectorMXBean[0]);
+
+      // Older JVMs allocate a small array on every read, which should not be attributed
+      long overhead = Long.MAX_VALUE;
+      for (int i = 0; i < 10; i++) {
+        long first = getAllocatedBytes();
+        long second = getAllocatedBytes();
+        overhead = Math.min(overhead, second - first);
+      }
+      readOverhead = Math.max(0, overhead);
+    }
+
+    @Override
+    long getAllocatedBytes() {
+      return threadBean == null
+          ? -1
+          : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    @Override
+    long getGcCount() {
+      long count = 0;
+      for (GarbageCollectorMXBean bean : gcBeans) {
+        count += Math.max(0, bean.getCollectionCount());
+      }
+      return count;
+    }
+
+    @Override
+    long getGcTimeMs() {
+      long time = 0;
+      for (GarbageCollectorMXBean bean : gcBeans) {
+        time += Math.max(0, bean.getCollectionTime());
+      }
+      return time;
+    }
+
+    @Override
+    long getReadOverhead() {
+      return readOverhead;
+    }
+  }
+
+  private static final class AndroidCounters extends Counters {
+    private final Method getRuntimeStat;
+
+    AndroidCounters() throws ReflectiveOperationException {
+      getRuntimeStat = Class.forName("android.os.Debug").getMethod("getRuntimeStat", String.class);
+      if (readStat("art.gc.gc-count") < 0) {
+        throw new ReflectiveOperationException("ART runtime stats are not available");
+      }
+    }
+
+    private long readStat(String name) {
+      try {
+        Object value = getRuntimeStat.invoke(null, name);
+        return value == null ? -1 : Long.parseLong((String) value);
+      } catch (ReflectiveOperationException | RuntimeException e) {
+        return -1;
+      }
+    }
+
+    @Override
+    long getAllocatedBytes() {
+      return -1;
+    }
+
+    @Override
+    long getGcCount() {
+      return readStat("art.gc.gc-count");
+    }
+
+    @Override
+    long getGcTimeMs() {
+      return readStat("art.gc.gc-time");
+    }
+  }
+}
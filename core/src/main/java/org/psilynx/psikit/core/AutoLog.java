@@ -14,4 +14,11 @@ import java.lang.annotation.Target;
 
 @Retention(RetentionPolicy.CLASS)
 @Target(ElementType.TYPE)
-public @interface AutoLog {}
+public @interface AutoLog {
+  /**
+   * Logs every field as one struct value under the inputs key instead of one key per field, which
+   * saves a key and a record per field each cycle. AdvantageScope still shows each field under the
+   * key. All fields must be primitives, enums or struct types such as {@code Pose2d}.
+   */
+  boolean struct() default false;
+}
@@ -0,0 +1,205 @@
+package org.psilynx.psikit.core;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Reads an {@code @AutoLogOutput} field or method of one object. Members are bound once when
+ * registered, and the typed getters read primitives without boxing.
+ *
+ * <p>Method handles are used where available. Android only supports invoking them from API 26, so
+ * older devices fall back to reflection, which still reads primitive fields without boxing. Set the
+ * {@code psikit.autoLogReflection} system property to {@code true} to always use reflection.
+ */
+abstract class AutoLogAccessor {
+  private static final boolean methodHandlesSupported = checkMethodHandlesSupported();
+
+  abstract boolean getBoolean() throws Throwable;
+
+  abstract int getInt() throws Throwable;
+
+  abstract long getLong() throws Throwable;
+
+  abstract float getFloat() throws Throwable;
+
+  abstract double getDouble() throws Throwable;
+
+  abstract Object getObject() throws Throwable;
+
+  /** Creates an accessor for a field, which must already be accessible. */
+  static AutoLogAccessor of(Field field, Object root) {
+    Object target = Modifier.isStatic(field.getModifiers()) ? null : root;
+    if (useMethodHandles()) {
+      try {
+        MethodHandle handle = MethodHandles.lookup().unreflectGetter(field);
+        return new HandleAccessor(target == null ? handle : handle.bindTo(target));
+      } catch (IllegalAccessException | RuntimeException e) {
+        // Fall back to reflection
+      }
+    }
+    return new FieldAccessor(field, target);
+  }
+
+  /** Creates an accessor for a method with no parameters, which must already be accessible. */
+  static AutoLogAccessor of(Method method, Object root) {
+    Object target = Modifier.isStatic(method.getModifiers()) ? null : root;
+    if (useMethodHandles()) {
+      try {
+        MethodHandle handle = MethodHandles.lookup().unreflect(method);
+        return new HandleAccessor(target == null ? handle : handle.bindTo(target));
+      } catch (IllegalAccessException | RuntimeException e) {
+        // Fall back to reflection
+      }
+    }
+    return new MethodAccessor(method, target);
+  }
+
+  private static boolean useMethodHandles() {
+    return methodHandlesSupported && !Boolean.getBoolean("psikit.autoLogReflection");
+  }
+
+  private static boolean checkMethodHandlesSupported() {
+    try {
+      int sdk = Class.forName("android.os.Build$VERSION").getField("SDK_INT").getInt(null);
+      if (sdk < 26) {
+        return false;
+      }
+    } catch (ReflectiveOperationException | LinkageError e) {
+      // Not running on Android
+    }
+    try {
+      MethodHandles.lookup();
+      return true;
+    } catch (LinkageError e) {
+      return false;
+    }
+  }
+
+  /**
+   * Reads through a bound method handle. Primitive handles keep their exact type so {@code
+   * invokeExact} returns the primitive directly; reference handles are adapted to return Object.
+   */
+  private static final class HandleAccessor extends AutoLogAccessor {
+    private final MethodHandle handle;
+
+    HandleAccessor(MethodHandle handle) {
+      Class<?> type = handle.type().returnType();
+      this.handle =
+          type.isPrimitive() ? handle : handle.asType(MethodType.methodType(Object.class));
+    }
+
+    @Override
+    boolean getBoolean() throws Throwable {
+      return (boolean) handle.invokeExact();
+    }
+
+    @Override
+    int getInt() throws Throwable {
+      return (int) handle.invokeExact();
+    }
+
+    @Override
+    long getLong() throws Throwable {
+      return (long) handle.invokeExact();
+    }
+
+    @Override
+    float getFloat() throws Throwable {
+      return (float) handle.invokeExact();
+    }
+
+    @Override
+    double getDouble() throws Throwable {
+      return (double) handle.invokeExact();
+    }
+
+    @Override
+    Object getObject() throws Throwable {
+      return (Object) handle.invokeExact();
+    }
+  }
+
+  private static final class FieldAccessor extends AutoLogAccessor {
+    private final Field field;
+    private final Object target;
+
+    FieldAccessor(Field field, Object target) {
+      this.field = field;
+      this.target = target;
+    }
+
+    @Override
+    boolean getBoolean() throws IllegalAccessException {
+      return field.getBoolean(target);
+    }
+
+    @Override
+    int getInt() throws IllegalAccessException {
+      return field.getInt(target);
+    }
+
+    @Override
+    long getLong() throws IllegalAccessException {
+      return field.getLong(target);
+    }
+
+    @Override
+    float getFloat() throws IllegalAccessException {
+      return field.getFloat(target);
+    }
+
+    @Override
+    double getDouble() throws IllegalAccessException {
+      return field.getDouble(target);
+    }
+
+    @Override
+    Object getObject() throws IllegalAccessException {
+      return field.get(target);
+    }
+  }
+
+  private static final class MethodAccessor extends AutoLogAccessor {
+    private final Method method;
+    private final Object target;
+
+    MethodAccessor(Method method, Object target) {
+      this.method = method;
+      this.target = target;
+    }
+
+    @Override
+    boolean getBoolean() throws ReflectiveOperationException {
+      return (boolean) method.invoke(target);
+    }
+
+    @Override
+    int getInt() throws ReflectiveOperationException {
+      return (int) method.invoke(target);
+    }
+
+    @Override
+    long getLong() throws ReflectiveOperationException {
+      return (long) method.invoke(target);
+    }
+
+    @Override
+    float getFloat() throws ReflectiveOperationException {
+      return (float) method.invoke(target);
+    }
+
+    @Override
+    double getDouble() throws ReflectiveOperationException {
+      return (double) method.invoke(target);
+    }
+
+    @Override
+    Object getObject() throws ReflectiveOperationException {
+      return method.invoke(target);
+    }
+  }
+}
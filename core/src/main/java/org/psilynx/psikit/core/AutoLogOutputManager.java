@@ -11,15 +11,19 @@ import org.psilynx.psikit.core.mechanism.LoggedMechanism2d;
 import org.psilynx.psikit.core.wpi.StructSerializable;
 import org.psilynx.psikit.core.wpi.WPISerializable;
 
+import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
 import java.util.function.IntSupplier;
@@ -27,9 +31,16 @@ import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 public class AutoLogOutputManager {
-  private static final List<Runnable> callbacks = new ArrayList<>();
-  private static final List<Integer> scannedObjectHashes = new ArrayList<>();
-  private static final Set<String> allowedPackages = new HashSet<>();
+  /** Annotated and scannable members of each class, shared by all contexts. */
+  private static final Map<Class<?>, ClassMembers> classMembersCache = new ConcurrentHashMap<>();
+
+  private final List<Runnable> callbacks = new ArrayList<>();
+  private final Set<Object> scannedObjects = Collections.newSetFromMap(new IdentityHashMap<>());
+  private final Set<String> allowedPackages = new HashSet<>();
+  private long scanNanos = 0;
+
+  /** Created by each {@link LoggerContext}; use the static methods to register objects. */
+  AutoLogOutputManager() {}
 
   /**
    * Adds a new allowed package to use when scanning for annotations. By default, the parent class
@@ -42,24 +53,30 @@ public class AutoLogOutputManager {
    * @param packageName The new allowed package name (e.g. "frc.lib")
    */
   public static void addPackage(String packageName) {
-    allowedPackages.add(packageName);
+    Logger.getContext().autoLogOutputManager.allowedPackages.add(packageName);
   }
 
   /** Records values from all registered fields. */
-  static void periodic() {
+  void periodic() {
     for (Runnable callback : callbacks) {
       callback.run();
     }
   }
 
   /**
-   * Registers a root object, scanning for loggable fields recursively.
+   * Registers a root object, scanning for loggable fields recursively. The total time spent
+   * scanning is recorded as the "AutoLogOutputScanMs" metadata, so objects should be added before
+   * {@link Logger#start()}.
    *
    * @param root The object to scan recursively.
    */
   public static void addObject(Object root) {
-    allowedPackages.add(root.getClass().getPackage().getName());
-    addObjectImpl(root);
+    AutoLogOutputManager manager = Logger.getContext().autoLogOutputManager;
+    manager.allowedPackages.add(root.getClass().getPackage().getName());
+    long startNanos = System.nanoTime();
+    manager.addObjectImpl(root);
+    manager.scanNanos += System.nanoTime() - startNanos;
+    Logger.recordMetadata("AutoLogOutputScanMs", String.format("%.3f", manager.scanNanos / 1e6));
   }
 
   /**
@@ -67,9 +84,23 @@ public class AutoLogOutputManager {
    *
    * @param root The object to scan recursively.
    */
-  private static void addObjectImpl(Object root) {
+  private void addObjectImpl(Object root) {
+    Class<?> rootClass = root.getClass();
+
+    // If array, loop over individual items (arrays have no package)
+    if (rootClass.isArray()) {
+      if (rootClass.getComponentType().isPrimitive() || !scannedObjects.add(root)) return;
+      for (Object item : (Object[]) root) {
+        if (item != null) {
+          addObjectImpl(item);
+        }
+      }
+      return;
+    }
+
     // Check if package name is valid
-    String packageName = root.getClass().getPackage().getName();
+    Package rootPackage = rootClass.getPackage();
+    String packageName = rootPackage == null ? "" : rootPackage.getName();
     boolean packageNameValid = false;
     for (String allowedPackage : allowedPackages) {
       if (packageName.startsWith(allowedPackage)) {
@@ -80,108 +111,98 @@ public class AutoLogOutputManager {
     if (!packageNameValid) return;
 
     // Check if object has already been scanned
-    if (scannedObjectHashes.contains(root.hashCode())) return;
-    scannedObjectHashes.add(root.hashCode());
+    if (!scannedObjects.add(root)) return;
 
-    // If array, loop over individual items
-    if (root.getClass().isArray()) {
-      Object[] rootArray = (Object[]) root;
-      for (Object item : rootArray) {
-        if (item != null) {
-          addObjectImpl(item);
-        }
+    ClassMembers members = getClassMembers(rootClass);
+
+    // Register annotated methods
+    for (MethodAndDeclaringClass methodAndDeclaringClass : members.annotatedMethods) {
+      Method method = methodAndDeclaringClass.method;
+      Class<?> declaringClass = methodAndDeclaringClass.declaringClass;
+      String keyParameter = method.getAnnotation(AutoLogOutput.class).key();
+      String key = makeKey(keyParameter, method.getName(), declaringClass, root);
+      registerField(
+          key,
+          method.getReturnType(),
+          AutoLogAccessor.of(method, root),
+          "method " + method.getName() + " from " + declaringClass.getSimpleName());
+    }
+
+    // Register annotated fields
+    for (FieldAndDeclaringClass fieldAndDeclaringClass : members.annotatedFields) {
+      Field field = fieldAndDeclaringClass.field;
+      Class<?> declaringClass = fieldAndDeclaringClass.declaringClass;
+      String keyParameter = field.getAnnotation(AutoLogOutput.class).key();
+      String key = makeKey(keyParameter, field.getName(), declaringClass, root);
+      registerField(
+          key,
+          field.getType(),
+          AutoLogAccessor.of(field, root),
+          "field " + field.getName() + " from " + declaringClass.getSimpleName());
+    }
+
+    // Scan other field values
+    for (Field field : members.scannedFields) {
+      Object fieldValue;
+      try {
+        fieldValue = field.get(root);
+      } catch (IllegalArgumentException | IllegalAccessException e) {
+        continue;
+      }
+      if (fieldValue != null) {
+        addObjectImpl(fieldValue);
       }
-      return;
     }
+  }
 
-    // Loop over declared methods
-    getAllMethods(root.getClass())
-        .forEach(
-            (methodAndDeclaringClass) -> {
-              Method method = methodAndDeclaringClass.method;
-              Class<?> declaringClass = methodAndDeclaringClass.declaringClass;
-              method.setAccessible(true);
-
-              // If annotated, try to add
-              if (method.isAnnotationPresent(AutoLogOutput.class)) {
-                // Exit if invalid signature
-                if (method.getReturnType().equals(Void.TYPE)
-                    || method.getParameterCount() > 0
-                    || method.getExceptionTypes().length > 0) {
-                  return;
-                }
+  private static ClassMembers getClassMembers(Class<?> type) {
+    return classMembersCache.computeIfAbsent(type, ClassMembers::new);
+  }
 
-                // Get key
-                String keyParameter = method.getAnnotation(AutoLogOutput.class).key();
-                String key = makeKey(keyParameter, method.getName(), declaringClass, root);
-
-                // Register method
-                registerField(
-                    key,
-                    method.getReturnType(),
-                    () -> {
-                      try {
-                        return method.invoke(root);
-                      } catch (IllegalAccessException
-                          | IllegalArgumentException
-                          | InvocationTargetException e) {
-                        Logger.logError(
-                            "error while registering method "
-                            + method.getName()
-                            + " from " + declaringClass.getSimpleName()
-                            + "\n" + Arrays.toString(e.getStackTrace())
-                        );
-                        return null;
-                      }
-                    });
-              }
-            });
+  /**
+   * The members of one class (including superclasses) that are relevant when scanning, made
+   * accessible once. Built on first use and shared by every instance and context.
+   */
+  private static class ClassMembers {
+    final List<MethodAndDeclaringClass> annotatedMethods = new ArrayList<>();
+    final List<FieldAndDeclaringClass> annotatedFields = new ArrayList<>();
+    final List<Field> scannedFields = new ArrayList<>();
 
-    // Loop over declared fields
-    getAllFields(root.getClass())
-        .forEach(
-            (fieldAndDeclaringClass) -> {
-              Field field = fieldAndDeclaringClass.field;
-              Class<?> declaringClass = fieldAndDeclaringClass.declaringClass;
-              field.setAccessible(true);
-
-              // If annotated, try to add
-              if (field.isAnnotationPresent(AutoLogOutput.class)) {
-                // Get key
-                String keyParameter = field.getAnnotation(AutoLogOutput.class).key();
-                String key = makeKey(keyParameter, field.getName(), declaringClass, root);
-
-                // Register field
-                registerField(
-                    key,
-                    field.getType(),
-                    () -> {
-                      try {
-                        return field.get(root);
-                      } catch (IllegalArgumentException | IllegalAccessException e) {
-                          Logger.logError(
-                              "error while registering field "
-                              + field.getName()
-                              + " from " + declaringClass.getSimpleName()
-                              + "\n" + Arrays.toString(e.getStackTrace())
-                          );
-                        return null;
-                      }
-                    });
-                return;
-              }
+    ClassMembers(Class<?> type) {
+      for (MethodAndDeclaringClass methodAndDeclaringClass : getAllMethods(type)) {
+        Method method = methodAndDeclaringClass.method;
+        // Skip if not annotated or invalid signature
+        if (!method.isAnnotationPresent(AutoLogOutput.class)
+            || method.getReturnType().equals(Void.TYPE)
+            || method.getParameterCount() > 0
+            || method.getExceptionTypes().length > 0
+            || !makeAccessible(method)) {
+          continue;
+        }
+        annotatedMethods.add(methodAndDeclaringClass);
+      }
+      for (FieldAndDeclaringClass fieldAndDeclaringClass : getAllFields(type)) {
+        Field field = fieldAndDeclaringClass.field;
+        if (field.isAnnotationPresent(AutoLogOutput.class)) {
+          if (makeAccessible(field)) {
+            annotatedFields.add(fieldAndDeclaringClass);
+          }
+        } else if (!field.getType().isPrimitive() && makeAccessible(field)) {
+          // Primitive values can never contain annotated members
+          scannedFields.add(field);
+        }
+      }
+    }
 
-              // Scan field value
-              Object fieldValue = null;
-              try {
-                fieldValue = field.get(root);
-              } catch (IllegalArgumentException | IllegalAccessException e) {
-                return;
-              }
-              if (fieldValue != null) {
-                addObjectImpl(fieldValue);
-              }
-            });
+    private static boolean makeAccessible(AccessibleObject member) {
+      try {
+        member.setAccessible(true);
+        return true;
+      } catch (RuntimeException e) {
+        // Members of JDK superclasses cannot be opened on newer JVMs
+        return false;
+      }
+    }
   }
 
   /** Returns the set of all methods on the class and its superclasses (public and private). */
@@ -312,40 +333,66 @@ public class AutoLogOutputManager {
    *
    * @param key The string key to use for logging.
    * @param type The type of object being logged.
-   * @param supplier A supplier for the field values.
+   * @param accessor The accessor for the field values.
+   * @param description The member name for error messages.
    */
-  private static void registerField(String key, Class<?> type, Supplier<?> supplier) {
+  private void registerField(
+      String key, Class<?> type, AutoLogAccessor accessor, String description) {
+    Supplier<?> supplier =
+        () -> {
+          try {
+            return accessor.getObject();
+          } catch (Throwable e) {
+            logReadError(description, e);
+            return null;
+          }
+        };
     if (!type.isArray()) {
       // Single types
       if (type.equals(boolean.class)) {
         callbacks.add(
             () -> {
-              Object value = supplier.get();
-              if (value != null) Logger.recordOutput(key, (boolean) value);
+              try {
+                Logger.recordOutput(key, accessor.getBoolean());
+              } catch (Throwable e) {
+                logReadError(description, e);
+              }
             });
       } else if (type.equals(int.class)) {
         callbacks.add(
             () -> {
-              Object value = supplier.get();
-              if (value != null) Logger.recordOutput(key, (int) value);
+              try {
+                Logger.recordOutput(key, accessor.getInt());
+              } catch (Throwable e) {
+                logReadError(description, e);
+              }
             });
       } else if (type.equals(long.class)) {
         callbacks.add(
             () -> {
-              Object value = supplier.get();
-              if (value != null) Logger.recordOutput(key, (long) value);
+              try {
+                Logger.recordOutput(key, accessor.getLong());
+              } catch (Throwable e) {
+                logReadError(description, e);
+              }
             });
       } else if (type.equals(float.class)) {
         callbacks.add(
             () -> {
-              Object value = supplier.get();
-              if (value != null) Logger.recordOutput(key, (float) value);
+              try {
+                Logger.recordOutput(key, accessor.getFloat());
+              } catch (Throwable e) {
+                logReadError(description, e);
+              }
             });
       } else if (type.equals(double.class)) {
         callbacks.add(
             () -> {
-              Object value = supplier.get();
-              if (value != null) Logger.recordOutput(key, (double) value);
+              try {
+                Logger.recordOutput(key, accessor.getDouble());
+              } catch (Throwable e) {
+                logReadError(description, e);
+              }
             });
       } else if (type.equals(String.class)) {
         callbacks.add(
@@ -564,4 +611,9 @@ public class AutoLogOutputManager {
       }
     }
   }
+
+  private static void logReadError(String description, Throwable e) {
+    Logger.logError(
+        "error while reading " + description + "\n" + Arrays.toString(e.getStackTrace()));
+  }
 }
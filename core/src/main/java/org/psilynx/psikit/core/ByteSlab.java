@@ -0,0 +1,77 @@
+package org.psilynx.psikit.core;
+
+import org.psilynx.psikit.core.LogTable.LogValue;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Map;
+
+/**
+ * Hands out regions of shared byte arrays for Raw and struct values, so that recording many small
+ * values allocates one array every few kilobytes instead of one per value. Used only by the thread
+ * writing the table.
+ *
+ * <p>A region is never written again once its value is stored, because the value may still be held
+ * by the table, queued snapshots and receivers that compare against the previous cycle. When a slab
+ * fills, the values the table still holds in it are copied into arrays of their own. The full slab
+ * is then only referenced by snapshots already taken, and is collected once the receivers have
+ * moved past them, so a value that rarely changes never keeps a whole slab alive.
+ */
+final class ByteSlab {
+  private static final int slabSize = 4096;
+  private static final int maxSliceSize = 512; // Larger values get their own array
+
+  private final Map<String, LogValue> data; // The table's values, checked when a slab fills
+  private ByteBuffer slab = null; // Little endian view of the current array
+  private ByteBuffer current = null;
+  private int start = 0;
+
+  ByteSlab(Map<String, LogValue> data) {
+    this.data = data;
+  }
+
+  /**
+   * Returns a little endian buffer positioned at a free region of at least the given length. Write
+   * the value, then call {@link #finish(String)}.
+   */
+  ByteBuffer begin(int length) {
+    if (length > maxSliceSize) {
+      current = ByteBuffer.wrap(new byte[length]).order(ByteOrder.LITTLE_ENDIAN);
+      start = 0;
+      return current;
+    }
+    if (slab == null || slab.capacity() - slab.limit() < length) {
+      if (slab != null) {
+        release(slab.array());
+      }
+      slab = ByteBuffer.wrap(new byte[slabSize]).order(ByteOrder.LITTLE_ENDIAN);
+      slab.limit(0);
+    }
+    start = slab.limit();
+    slab.limit(start + length);
+    slab.position(start);
+    current = slab;
+    return slab;
+  }
+
+  /** Returns a Raw value holding the bytes written since {@link #begin(int)}. */
+  LogValue finish(String typeStr) {
+    ByteBuffer buffer = current;
+    int end = buffer.position();
+    if (buffer == slab) {
+      slab.limit(end); // Give back any reserved bytes that were not written
+    }
+    current = null;
+    return LogValue.slice(buffer.array(), start, end - start, typeStr);
+  }
+
+  /** Copies the values the table still holds in a full slab out of it. */
+  private void release(byte[] full) {
+    for (Map.Entry<String, LogValue> entry : data.entrySet()) {
+      LogValue value = entry.getValue();
+      if (value.isSliceOf(full)) {
+        entry.setValue(value.compact());
+      }
+    }
+  }
+}
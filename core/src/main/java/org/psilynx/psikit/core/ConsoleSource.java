@@ -10,4 +10,9 @@ package org.psilynx.psikit.core;
 public interface ConsoleSource extends AutoCloseable {
   /** Reads all console data that has been produced since the last call to this method. */
   public String getNewData();
+
+  /** Returns the number of bytes that could not be captured because too much was written. */
+  public default long getDroppedBytes() {
+    return 0;
+  }
 }
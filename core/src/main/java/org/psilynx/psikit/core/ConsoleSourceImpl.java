@@ -7,22 +7,30 @@
 
 package org.psilynx.psikit.core;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Reads console data while running in the simulator. Saves stdout and sterr from Java only (not
  * native code), and only includes lines logged after this class was instantiated.
+ *
+ * <p>Each stream is captured into a fixed-size ring, and only the bytes written since the last read
+ * are decoded. Output that does not fit before the next read is dropped and counted, so memory and
+ * time per cycle stay bounded however much is printed.
  */
 public class ConsoleSourceImpl implements ConsoleSource {
+  private static final int captureCapacity = 64 * 1024; // Bytes per stream between reads
+
   private final PrintStream originalStdout;
   private final PrintStream originalStderr;
-  private final ByteArrayOutputStream customStdout = new ByteArrayOutputStream();
-  private final ByteArrayOutputStream customStderr = new ByteArrayOutputStream();
-  private int customStdoutPos = 0;
-  private int customStderrPos = 0;
+  private final CaptureBuffer customStdout = new CaptureBuffer(captureCapacity);
+  private final CaptureBuffer customStderr = new CaptureBuffer(captureCapacity);
 
   public ConsoleSourceImpl() {
     originalStdout = System.out;
@@ -33,23 +41,100 @@ public class ConsoleSourceImpl implements ConsoleSource {
 
   @Override
   public String getNewData() {
-    String fullStdoutStr = customStdout.toString();
-    String newStdoutStr = fullStdoutStr.substring(customStdoutPos);
-    customStdoutPos = fullStdoutStr.length();
-
-    String fullStderrStr = customStderr.toString();
-    String newStderrStr = fullStderrStr.substring(customStderrPos);
-    customStderrPos = fullStderrStr.length();
-
+    String newStdoutStr = customStdout.read();
+    String newStderrStr = customStderr.read();
+    if (newStderrStr.isEmpty()) {
+      return newStdoutStr;
+    }
     return newStdoutStr + newStderrStr;
   }
 
+  @Override
+  public long getDroppedBytes() {
+    return customStdout.getDroppedBytes() + customStderr.getDroppedBytes();
+  }
+
   @Override
   public void close() throws Exception {
     System.setOut(originalStdout);
     System.setErr(originalStderr);
   }
 
+  /**
+   * Bytes written by any thread since the last read, decoded as UTF-8 by the reading thread. A
+   * character split between reads is completed on the next read.
+   */
+  static final class CaptureBuffer extends OutputStream {
+    private final byte[] ring;
+    private int start = 0;
+    private int size = 0;
+    private long droppedBytes = 0;
+
+    // Reading thread only
+    private final ByteBuffer pending;
+    private final CharBuffer chars;
+    private final CharsetDecoder decoder =
+        StandardCharsets.UTF_8
+            .newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    CaptureBuffer(int capacity) {
+      ring = new byte[capacity];
+      pending = ByteBuffer.allocate(capacity + 4); // Room for an incomplete character
+      chars = CharBuffer.allocate(capacity + 4);
+    }
+
+    @Override
+    public synchronized void write(int b) {
+      if (size == ring.length) {
+        droppedBytes++;
+        return;
+      }
+      ring[(start + size) % ring.length] = (byte) b;
+      size++;
+    }
+
+    @Override
+    public synchronized void write(byte[] b, int off, int len) {
+      int free = ring.length - size;
+      if (len > free) {
+        droppedBytes += len - free;
+        len = free;
+      }
+      int end = (start + size) % ring.length;
+      int first = Math.min(len, ring.length - end);
+      System.arraycopy(b, off, ring, end, first);
+      System.arraycopy(b, off + first, ring, 0, len - first);
+      size += len;
+    }
+
+    /** Returns the bytes dropped because the buffer was full. */
+    synchronized long getDroppedBytes() {
+      return droppedBytes;
+    }
+
+    /** Decodes and removes everything written since the last read. */
+    String read() {
+      synchronized (this) {
+        if (size == 0) {
+          return "";
+        }
+        int first = Math.min(size, ring.length - start);
+        pending.put(ring, start, first);
+        pending.put(ring, 0, size - first);
+        start = 0;
+        size = 0;
+      }
+      pending.flip();
+      chars.clear();
+      decoder.decode(pending, chars, false);
+      pending.compact(); // Keep any incomplete character for the next read
+      chars.flip();
+      return chars.toString();
+    }
+  }
+
   private class SplitStream extends OutputStream {
     private final OutputStream[] streams;
 
@@ -63,5 +148,19 @@ public class ConsoleSourceImpl implements ConsoleSource {
         streams[i].write(b);
       }
     }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      for (int i = 0; i < streams.length; i++) {
+        streams[i].write(b, off, len);
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      for (int i = 0; i < streams.length; i++) {
+        streams[i].flush();
+      }
+    }
   }
 }
@@ -0,0 +1,90 @@
+package org.psilynx.psikit.core;
+
+/**
+ * Holds PsiKit's own log messages while logging is running, so they are recorded under {@code
+ * PsiKit/Diagnostics/} instead of being printed and captured back from the console.
+ *
+ * <p>Messages can come from any thread and are drained once per cycle by the main thread. The ring
+ * keeps the newest {@value #capacity} messages; older ones are overwritten and counted as dropped.
+ */
+final class DiagnosticsRing {
+  private static final int capacity = 256;
+  private static final String prefix = "PsiKit/Diagnostics/";
+
+  private final double[] timestamps = new double[capacity];
+  private final Logger.LogLevel[] levels = new Logger.LogLevel[capacity];
+  private final String[] messages = new String[capacity];
+  private int head = 0; // Index of the oldest message
+  private int size = 0;
+  private long dropped = 0;
+  private long recordedDropped = 0;
+
+  /** Adds a message, overwriting the oldest one if full. */
+  synchronized void add(double timestamp, Logger.LogLevel level, String message) {
+    int index = (head + size) % capacity;
+    if (size == capacity) {
+      head = (head + 1) % capacity;
+      dropped++;
+    } else {
+      size++;
+    }
+    timestamps[index] = timestamp;
+    levels[index] = level;
+    messages[index] = message;
+  }
+
+  /** Records the messages added since the last call as outputs. Called by the main thread. */
+  void record() {
+    double[] newTimestamps;
+    String[] newLevels;
+    String[] newMessages;
+    long newDropped;
+    synchronized (this) {
+      if (size == 0 && dropped == recordedDropped) {
+        return;
+      }
+      newTimestamps = new double[size];
+      newLevels = new String[size];
+      newMessages = new String[size];
+      for (int i = 0; i < size; i++) {
+        int index = (head + i) % capacity;
+        newTimestamps[i] = timestamps[index];
+        newLevels[i] = levels[index].name();
+        newMessages[i] = messages[index];
+        messages[index] = null;
+      }
+      head = 0;
+      size = 0;
+      newDropped = dropped;
+    }
+    Logger.recordOutput(prefix + "Timestamps", newTimestamps);
+    Logger.recordOutput(prefix + "Levels", newLevels);
+    Logger.recordOutput(prefix + "Messages", newMessages);
+    if (newDropped != recordedDropped) {
+      recordedDropped = newDropped;
+      Logger.recordOutput(prefix + "Dropped", newDropped);
+    }
+  }
+
+  /** Prints the messages that were never recorded, once logging has ended. */
+  void printAndClear() {
+    synchronized (this) {
+      for (int i = 0; i < size; i++) {
+        int index = (head + i) % capacity;
+        Logger.printMessage(levels[index], messages[index]);
+      }
+    }
+    clear();
+  }
+
+  /** Removes all messages. */
+  synchronized void clear() {
+    for (int i = 0; i < capacity; i++) {
+      messages[i] = null;
+    }
+    head = 0;
+    size = 0;
+    dropped = 0;
+    recordedDropped = 0;
+  }
+}
@@ -0,0 +1,232 @@
+package org.psilynx.psikit.core;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Java Flight Recorder events for the phases of the logging pipeline, so that they show up next to
+ * the JVM's own events in JDK Mission Control. Enabled by starting the JVM with {@code
+ * -Dpsikit.jfr=true}.
+ *
+ * <p>Each {@code begin} method returns an event to pass to the matching {@code commit} method, or
+ * null when events are disabled or JFR is not recording, so nothing is allocated in that case.
+ * Android has no {@code jdk.jfr}, so every reference to it is kept in {@link Recorder}, which is only
+ * loaded when the property is set.
+ */
+public final class JfrEvents {
+  /** Whether the events are enabled for this JVM. */
+  public static final boolean enabled = loadRecorder();
+
+  private JfrEvents() {}
+
+  private static boolean loadRecorder() {
+    if (!Boolean.getBoolean("psikit.jfr")) {
+      return false;
+    }
+    try {
+      Recorder.load();
+      return true;
+    } catch (LinkageError e) {
+      Logger.logWarning("[PsiKit] psikit.jfr is set, but Java Flight Recorder is not available");
+      return false;
+    }
+  }
+
+  /** Begins a whole Logger cycle, from periodicBeforeUser to the end of periodicAfterUser. */
+  static Object beginCycle() {
+    return enabled ? Recorder.beginCycle() : null;
+  }
+
+  static void commitCycle(Object event, long cycle) {
+    if (event != null) {
+      Recorder.commitCycle(event, cycle);
+    }
+  }
+
+  /** Begins reading or writing one inputs object. */
+  static Object beginProcessInputs() {
+    return enabled ? Recorder.beginProcessInputs() : null;
+  }
+
+  static void commitProcessInputs(Object event, String key) {
+    if (event != null) {
+      Recorder.commitProcessInputs(event, key);
+    }
+  }
+
+  /** Begins recording the automatic and built-in outputs after user code. */
+  static Object beginRecordOutputs() {
+    return enabled ? Recorder.beginRecordOutputs() : null;
+  }
+
+  static void commitRecordOutputs(Object event) {
+    if (event != null) {
+      Recorder.commit(event);
+    }
+  }
+
+  /** Begins handing one cycle to a data receiver. */
+  static Object beginReceiverPut() {
+    return enabled ? Recorder.beginReceiverPut() : null;
+  }
+
+  static void commitReceiverPut(Object event, String receiver) {
+    if (event != null) {
+      Recorder.commitReceiverPut(event, receiver);
+    }
+  }
+
+  /**
+   * Begins encoding one cycle. Called by receivers that encode data, such as {@code RLOGEncoder}.
+   */
+  public static Object beginEncodeTable() {
+    return enabled ? Recorder.beginEncodeTable() : null;
+  }
+
+  /**
+   * Commits an event returned by {@link #beginEncodeTable()}.
+   *
+   * @param event The event, which may be null.
+   * @param bytes The number of bytes encoded.
+   */
+  public static void commitEncodeTable(Object event, long bytes) {
+    if (event != null) {
+      Recorder.commitEncodeTable(event, bytes);
+    }
+  }
+
+  /** Begins decoding one cycle from a log. Called by replay sources, such as {@code RLOGDecoder}. */
+  public static Object beginReplayDecode() {
+    return enabled ? Recorder.beginReplayDecode() : null;
+  }
+
+  /**
+   * Commits an event returned by {@link #beginReplayDecode()}.
+   *
+   * @param event The event, which may be null.
+   */
+  public static void commitReplayDecode(Object event) {
+    if (event != null) {
+      Recorder.commit(event);
+    }
+  }
+
+  /** The only class that references {@code jdk.jfr}. */
+  private static final class Recorder {
+    // Whether an event type is being recorded does not depend on the instance
+    private static final CycleEvent cycle = new CycleEvent();
+    private static final ProcessInputsEvent processInputs = new ProcessInputsEvent();
+    private static final RecordOutputsEvent recordOutputs = new RecordOutputsEvent();
+    private static final ReceiverPutEvent receiverPut = new ReceiverPutEvent();
+    private static final EncodeTableEvent encodeTable = new EncodeTableEvent();
+    private static final ReplayDecodeEvent replayDecode = new ReplayDecodeEvent();
+
+    static void load() {}
+
+    private static <T extends Event> T begin(T event) {
+      event.begin();
+      return event;
+    }
+
+    static Object beginCycle() {
+      return cycle.isEnabled() ? begin(new CycleEvent()) : null;
+    }
+
+    static void commitCycle(Object event, long cycleCount) {
+      CycleEvent cycleEvent = (CycleEvent) event;
+      cycleEvent.cycle = cycleCount;
+      cycleEvent.commit();
+    }
+
+    static Object beginProcessInputs() {
+      return processInputs.isEnabled() ? begin(new ProcessInputsEvent()) : null;
+    }
+
+    static void commitProcessInputs(Object event, String key) {
+      ProcessInputsEvent inputsEvent = (ProcessInputsEvent) event;
+      inputsEvent.key = key;
+      inputsEvent.commit();
+    }
+
+    static Object beginRecordOutputs() {
+      return recordOutputs.isEnabled() ? begin(new RecordOutputsEvent()) : null;
+    }
+
+    static Object beginReceiverPut() {
+      return receiverPut.isEnabled() ? begin(new ReceiverPutEvent()) : null;
+    }
+
+    static void commitReceiverPut(Object event, String receiver) {
+      ReceiverPutEvent putEvent = (ReceiverPutEvent) event;
+      putEvent.receiver = receiver;
+      putEvent.commit();
+    }
+
+    static Object beginEncodeTable() {
+      return encodeTable.isEnabled() ? begin(new EncodeTableEvent()) : null;
+    }
+
+    static void commitEncodeTable(Object event, long bytes) {
+      EncodeTableEvent encodeEvent = (EncodeTableEvent) event;
+      encodeEvent.bytes = bytes;
+      encodeEvent.commit();
+    }
+
+    static Object beginReplayDecode() {
+      return replayDecode.isEnabled() ? begin(new ReplayDecodeEvent()) : null;
+    }
+
+    static void commit(Object event) {
+      ((Event) event).commit();
+    }
+  }
+
+  @Name("org.psilynx.psikit.LoggerCycle")
+  @Label("Logger Cycle")
+  @Category("PsiKit")
+  @Description("One cycle from periodicBeforeUser to the end of periodicAfterUser")
+  static final class CycleEvent extends Event {
+    @Label("Cycle")
+    long cycle;
+  }
+
+  @Name("org.psilynx.psikit.ProcessInputs")
+  @Label("Process Inputs")
+  @Category("PsiKit")
+  static final class ProcessInputsEvent extends Event {
+    @Label("Key")
+    String key;
+  }
+
+  @Name("org.psilynx.psikit.RecordOutputs")
+  @Label("Record Outputs")
+  @Category("PsiKit")
+  @Description("Automatic and built-in outputs recorded after user code")
+  static final class RecordOutputsEvent extends Event {}
+
+  @Name("org.psilynx.psikit.ReceiverPut")
+  @Label("Receiver Put")
+  @Category("PsiKit")
+  static final class ReceiverPutEvent extends Event {
+    @Label("Receiver")
+    String receiver;
+  }
+
+  @Name("org.psilynx.psikit.EncodeTable")
+  @Label("Encode Table")
+  @Category("PsiKit")
+  static final class EncodeTableEvent extends Event {
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+  }
+
+  @Name("org.psilynx.psikit.ReplayDecode")
+  @Label("Replay Decode")
+  @Category("PsiKit")
+  static final class ReplayDecodeEvent extends Event {}
+}
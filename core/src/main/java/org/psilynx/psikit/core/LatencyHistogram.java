@@ -0,0 +1,116 @@
+package org.psilynx.psikit.core;
+
+import java.util.Arrays;
+
+/**
+ * A fixed-size log-linear histogram of durations in nanoseconds. Each power of two is split into
+ * 16 equal buckets, so percentiles are accurate to within about 3% of the
+ * value while recording never allocates. Values from 0 to about 18 minutes are tracked, and larger
+ * values are counted in the last bucket.
+ *
+ * <p>This class is not thread-safe.
+ */
+public final class LatencyHistogram {
+  private static final int subBucketBits = 4;
+  private static final int subBucketCount = 1 << subBucketBits;
+  private static final int maxExponent = 40;
+  private static final long maxTrackableValue = (1L << maxExponent) - 1;
+  private static final int bucketCount = subBucketCount * (maxExponent - subBucketBits + 1);
+
+  private final long[] counts = new long[bucketCount];
+  private long count = 0;
+  private long sum = 0;
+  private long min = Long.MAX_VALUE;
+  private long max = 0;
+
+  /** Records one duration in nanoseconds. Negative values are recorded as zero. */
+  public void record(long nanos) {
+    long value = Math.max(0, nanos);
+    counts[bucketIndex(Math.min(value, maxTrackableValue))]++;
+    count++;
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /** Clears all recorded values. */
+  public void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    sum = 0;
+    min = Long.MAX_VALUE;
+    max = 0;
+  }
+
+  /** Returns the number of recorded values. */
+  public long getCount() {
+    return count;
+  }
+
+  /** Returns the mean of the recorded values in nanoseconds, or 0 if none were recorded. */
+  public double getMean() {
+    return count == 0 ? 0.0 : (double) sum / count;
+  }
+
+  /** Returns the smallest recorded value in nanoseconds, or 0 if none were recorded. */
+  public long getMin() {
+    return count == 0 ? 0 : min;
+  }
+
+  /** Returns the largest recorded value in nanoseconds, or 0 if none were recorded. */
+  public long getMax() {
+    return max;
+  }
+
+  /**
+   * Returns the value at the given percentile in nanoseconds, or 0 if none were recorded. The
+   * result is the middle of the bucket holding that value, clamped to the recorded range.
+   *
+   * @param percentile The percentile, from 0 to 100.
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (count == 0) {
+      return 0;
+    }
+    long target = (long) Math.ceil(Math.min(Math.max(percentile, 0.0), 100.0) / 100.0 * count);
+    if (target >= count) {
+      return max;
+    }
+    target = Math.max(target, 1);
+    long seen = 0;
+    for (int i = 0; i < bucketCount; i++) {
+      seen += counts[i];
+      if (seen >= target) {
+        long value = bucketLowerBound(i) + (bucketWidth(i) - 1) / 2;
+        return Math.min(Math.max(value, min), max);
+      }
+    }
+    return max;
+  }
+
+  private static int bucketIndex(long value) {
+    if (value < subBucketCount) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int shift = exponent - subBucketBits;
+    int subBucket = (int) (value >>> shift) - subBucketCount;
+    return subBucketCount + shift * subBucketCount + subBucket;
+  }
+
+  private static long bucketLowerBound(int index) {
+    if (index < subBucketCount) {
+      return index;
+    }
+    int shift = (index - subBucketCount) / subBucketCount;
+    int subBucket = (index - subBucketCount) % subBucketCount;
+    return (long) (subBucketCount + subBucket) << shift;
+  }
+
+  private static long bucketWidth(int index) {
+    if (index < subBucketCount) {
+      return 1;
+    }
+    return 1L << ((index - subBucketCount) / subBucketCount);
+  }
+}
@@ -8,21 +8,17 @@
 package org.psilynx.psikit.core;
 
 import org.psilynx.psikit.core.wpi.Struct;
-import org.psilynx.psikit.core.wpi.StructBuffer;
 import org.psilynx.psikit.core.wpi.StructSerializable;
 import org.psilynx.psikit.core.wpi.WPISerializable;
 
-import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Array;
-import java.lang.reflect.Field;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.Arrays;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 
 /** A table of logged data in allowable types. Can reference another higher level table. */
 public class LogTable {
@@ -30,8 +26,9 @@ public class LogTable {
   private final int depth;
   private final SharedTimestamp timestamp;
   private final Map<String, LogValue> data;
-  private final Map<String, StructBuffer<?>> structBuffers;
-  private final Map<String, Struct<?>> structTypeCache;
+  private final ByteSlab slab;
+  private final SharedPolicies policies;
+  private LogTable root;
 
   /** Timestamp wrapper to enable passing by reference to subtables. */
   private static class SharedTimestamp {
@@ -42,31 +39,41 @@ public class LogTable {
     }
   }
 
+  /** Record policies wrapper, shared with subtables but not with copies. */
+  private static class SharedPolicies {
+    public RecordPolicies value;
+  }
+
   /** Creates a new LogTable. */
   private LogTable(
       String prefix,
       int depth,
       SharedTimestamp timestamp,
       Map<String, LogValue> data,
-      Map<String, StructBuffer<?>> structBuffers,
-      Map<String, Struct<?>> structTypeCache) {
+      ByteSlab slab,
+      SharedPolicies policies) {
     this.prefix = prefix;
     this.depth = depth;
     this.timestamp = timestamp;
     this.data = data;
-    this.structBuffers = structBuffers;
-    this.structTypeCache = structTypeCache;
+    this.slab = slab;
+    this.policies = policies;
   }
 
-  /** Creates a new LogTable, to serve as the root table. */
-  public LogTable(double timestamp) {
+  /** Creates a new LogTable with its own slab. */
+  private LogTable(String prefix, int depth, double timestamp, Map<String, LogValue> data) {
     this(
-        "",
-        0,
+        prefix,
+        depth,
         new SharedTimestamp(timestamp),
-        new HashMap<>(),
-        new HashMap<>(),
-        new HashMap<>());
+        data,
+        new ByteSlab(data),
+        new SharedPolicies());
+  }
+
+  /** Creates a new LogTable, to serve as the root table. */
+  public LogTable(double timestamp) {
+    this("", 0, timestamp, new HashMap<>());
   }
   
   /**
@@ -77,11 +84,9 @@ public class LogTable {
     this.depth = source.depth;
     prefix = source.prefix;
     data = new HashMap<>();
-    structBuffers = new HashMap<>();
-    structTypeCache = new HashMap<>();
+    slab = new ByteSlab(data);
+    policies = new SharedPolicies();
     data.putAll(source.data);
-    structBuffers.putAll(source.structBuffers);
-    structTypeCache.putAll(source.structTypeCache);
   }
   
   /** Creates a new LogTable, to reference a subtable. */
@@ -91,9 +96,10 @@ public class LogTable {
         parent.depth + 1,
         parent.timestamp,
         parent.data,
-        parent.structBuffers,
-        parent.structTypeCache
+        parent.slab,
+        parent.policies
         );
+    this.root = parent.getRoot();
   }
 
   /**
@@ -101,16 +107,8 @@ public class LogTable {
    * modified without affecting the copy.
    */
   public static LogTable clone(LogTable source) {
-    Map<String, LogValue> data = new HashMap<>(source.data);
-      Map<String, StructBuffer<?>> structBuffers = new HashMap<>(source.structBuffers);
-      Map<String, Struct<?>> structTypeCache = new HashMap<>(source.structTypeCache);
     return new LogTable(
-        source.prefix,
-        source.depth,
-        new SharedTimestamp(source.timestamp.value),
-        data,
-        structBuffers,
-        structTypeCache);
+        source.prefix, source.depth, source.timestamp.value, new HashMap<>(source.data));
   }
 
   /** Updates the timestamp of the table. */
@@ -123,6 +121,38 @@ public class LogTable {
     return timestamp.value;
   }
 
+  /** Returns the prefix of this table, including the trailing slash (empty for the root table). */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * Returns the root table sharing data with this table. Reading or writing the root with keys that
+   * already include {@link #getPrefix()} skips joining the prefix on every access, which generated
+   * {@code AutoLogged} inputs use with their precomputed keys.
+   */
+  public LogTable getRoot() {
+    if (prefix.isEmpty()) {
+      return this;
+    }
+    if (root == null) {
+      root = new LogTable("", 0, timestamp, data, slab, policies);
+    }
+    return root;
+  }
+
+  /**
+   * Sets the record policies checked before each value is stored in this table and its subtables.
+   * Copies made with {@link #clone(LogTable)} have no policies.
+   */
+  void setRecordPolicies(RecordPolicies recordPolicies) {
+    policies.value = recordPolicies;
+  }
+
+  private String fullKey(String key) {
+    return prefix.isEmpty() ? key : prefix + key;
+  }
+
   /**
    * Creates a new LogTable for referencing a single subtable. Modifications to the subtable will be
    * reflected in the original object.
@@ -160,16 +190,15 @@ public class LogTable {
    * Checks whether the field can be updated with the specified type (it doesn't exist or is already
    * the correct type). Sends a warning to the Driver Station if the existing type is different.
    */
-  private boolean writeAllowed(String key, LoggableType type, String customTypeStr) {
-    LogValue currentValue = data.get(prefix + key);
+  private boolean writeAllowed(String fullKey, LoggableType type, String customTypeStr) {
+    LogValue currentValue = data.get(fullKey);
     if (currentValue == null) {
       return true;
     }
     if (!currentValue.type.equals(type)) {
       Logger.logError(
           "Failed to write to field \""
-              + prefix
-              + key
+              + fullKey
               + "\" - attempted to write "
               + type
               + " value but expected "
@@ -181,8 +210,7 @@ public class LogTable {
         && !currentValue.customTypeStr.equals(customTypeStr)) {
       Logger.logError(
           "Failed to write to field \""
-              + prefix
-              + key
+              + fullKey
               + "\" - attempted to write "
               + customTypeStr
               + " value but expected "
@@ -198,17 +226,22 @@ public class LogTable {
    */
   public void put(String key, LogValue value) {
     if (value == null) return;
-    if (writeAllowed(key, value.type, value.customTypeStr)) {
-      data.put(prefix + key, value);
+    String fullKey = fullKey(key);
+    if (writeAllowed(fullKey, value.type, value.customTypeStr)) {
+      RecordPolicies recordPolicies = policies.value;
+      if (recordPolicies != null
+          && !recordPolicies.allow(fullKey, data.get(fullKey), value, timestamp.value)) {
+        return;
+      }
+      data.put(fullKey, value);
     }
   }
 
   /** Writes a new Raw value to the table. Skipped if the key already exists as a different type. */
   public void put(String key, byte[] value) {
     if (value == null) return;
-    byte[] valueClone = new byte[value.length];
-    System.arraycopy(value, 0, valueClone, 0, value.length);
-    put(key, new LogValue(valueClone, null));
+    slab.begin(value.length).put(value);
+    put(key, slab.finish(null));
   }
 
   /**
@@ -453,46 +486,21 @@ public class LogTable {
     value.toLog(getSubtable(key));
   }
 
-  private void addStructSchema(Struct<?> struct, Set<String> seen) {
-    String typeString = struct.getTypeString();
-    String key = "/.schema/" + typeString;
-    if (data.containsKey(key)) {
-      return;
-    }
-    if (!seen.add(typeString)) {
-      throw new UnsupportedOperationException(typeString + ": circular reference with " + seen);
-    }
-    try {
-      data.put(key, new LogValue(struct.getSchema().getBytes("UTF-8"), "structschema"));
-    } catch (UnsupportedEncodingException e) {
-      Logger.logError(
-        "unsuported encoding for "
-        + struct.getTypeString() + "\n"
-        + Arrays.toString(e.getStackTrace())
-      );
-    }
-    for (Struct<?> inner : struct.getNested()) {
-      addStructSchema(inner, seen);
-    }
-    seen.remove(typeString);
-  }
-
   /**
    * Writes a new struct value to the table. Skipped if the key already exists as a different type.
    */
   @SuppressWarnings("unchecked")
   public <T> void put(String key, Struct<T> struct, T value) {
     if (value == null) return;
-    addStructSchema(struct, new HashSet<>());
-    if (!structBuffers.containsKey(struct.getTypeString())) {
-      structBuffers.put(struct.getTypeString(), StructBuffer.create(struct));
+    StructRegistry.Info info = StructRegistry.get(struct);
+    info.register(data);
+    if (struct.isImmutable()) {
+      put(key, LogValue.deferred(struct, value, 1, info.typeString));
+      return;
     }
-    StructBuffer<T> buffer = (StructBuffer<T>) structBuffers.get(struct.getTypeString());
-    ByteBuffer bb = buffer.write(value);
-    byte[] array = new byte[bb.position()];
-    bb.position(0);
-    bb.get(array);
-    put(key, new LogValue(array, struct.getTypeString()));
+    ByteBuffer bb = slab.begin(struct.getSize());
+    struct.pack(bb, value);
+    put(key, slab.finish(info.typeString));
   }
 
   /**
@@ -502,16 +510,26 @@ public class LogTable {
   @SuppressWarnings("unchecked")
   public <T> void put(String key, Struct<T> struct, T... value) {
     if (value == null) return;
-    addStructSchema(struct, new HashSet<>());
-    if (!structBuffers.containsKey(struct.getTypeString())) {
-      structBuffers.put(struct.getTypeString(), StructBuffer.create(struct));
+    StructRegistry.Info info = StructRegistry.get(struct);
+    info.register(data);
+    if (struct.isImmutable() && !containsNull(value)) {
+      put(key, LogValue.deferred(struct, value.clone(), value.length, info.arrayTypeString));
+      return;
+    }
+    ByteBuffer bb = slab.begin(struct.getSize() * value.length);
+    for (T element : value) {
+      struct.pack(bb, element);
     }
-    StructBuffer<T> buffer = (StructBuffer<T>) structBuffers.get(struct.getTypeString());
-    ByteBuffer bb = buffer.writeArray(value);
-    byte[] array = new byte[bb.position()];
-    bb.position(0);
-    bb.get(array);
-    put(key, new LogValue(array, struct.getTypeString() + "[]"));
+    put(key, slab.finish(info.arrayTypeString));
+  }
+
+  private static boolean containsNull(Object[] values) {
+    for (Object value : values) {
+      if (value == null) {
+        return true; // Fails while recording, as with other structs
+      }
+    }
+    return false;
   }
 
   /**
@@ -527,25 +545,6 @@ public class LogTable {
   }
 
 
-  private Struct<?> findStructType(Class<?> classObj) {
-    if (!structTypeCache.containsKey(classObj.getName())) {
-      structTypeCache.put(classObj.getName(), null);
-      Field field = null;
-      try {
-        field = classObj.getDeclaredField("struct");
-      } catch (NoSuchFieldException | SecurityException e) {
-      }
-      if (field != null) {
-        try {
-          structTypeCache.put(classObj.getName(), (Struct<?>) field.get(null));
-        } catch (IllegalArgumentException | IllegalAccessException e) {
-        }
-      }
-    }
-    return structTypeCache.get(classObj.getName());
-  }
-
-
   /**
    * Writes a new auto serialized value to the table. Skipped if the key already exists as a
    * different type.
@@ -554,7 +553,7 @@ public class LogTable {
   public <T extends WPISerializable> void put(String key, T value) {
     if (value == null) return;
     // If struct is supported, write as struct
-    Struct<T> struct = (Struct<T>) findStructType(value.getClass());
+    Struct<T> struct = (Struct<T>) StructRegistry.forClass(value.getClass());
     if (struct != null) {
       put(key, struct, value);
     } else {
@@ -573,7 +572,7 @@ public class LogTable {
   public <T extends StructSerializable> void put(String key, T[] value){
     if (value == null) return;
     // If struct is supported, write as struct
-    Struct<T> struct = (Struct<T>) findStructType(value.getClass().getComponentType());
+    Struct<T> struct = (Struct<T>) StructRegistry.forClass(value.getClass().getComponentType());
     if (struct != null) {
       put(key, struct, value);
     } else {
@@ -598,17 +597,17 @@ public class LogTable {
 
   /** Removes a field from the table. */
   public void remove(String key) {
-    data.remove(prefix + key);
+    data.remove(fullKey(key));
   }
 
   /** Reads a generic value from the table. */
   public LogValue get(String key) {
-    return data.get(prefix + key);
+    return data.get(fullKey(key));
   }
 
   /** Reads a Raw value from the table. */
   public byte[] get(String key, byte[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getRaw(defaultValue);
     } else {
       return defaultValue;
@@ -630,7 +629,7 @@ public class LogTable {
 
   /** Reads a Boolean value from the table. */
   public boolean get(String key, boolean defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getBoolean(defaultValue);
     } else {
       return defaultValue;
@@ -639,7 +638,7 @@ public class LogTable {
 
   /** Reads a BooleanArray value from the table. */
   public boolean[] get(String key, boolean[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getBooleanArray(defaultValue);
     } else {
       return defaultValue;
@@ -661,7 +660,7 @@ public class LogTable {
 
   /** Reads an Integer value from the table. */
   public int get(String key, int defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return (int) get(key).getInteger(defaultValue);
     } else {
       return defaultValue;
@@ -670,7 +669,10 @@ public class LogTable {
 
   /** Reads an IntegerArray value from the table. */
   public int[] get(String key, int[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
+      if (defaultValue == null) {
+        defaultValue = new int[0];
+      }
       long[] defaultValueLong = new long[defaultValue.length];
       for (int i = 0; i < defaultValue.length; i++) {
         defaultValueLong[i] = defaultValue[i];
@@ -701,7 +703,7 @@ public class LogTable {
 
   /** Reads an Integer value from the table. */
   public long get(String key, long defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getInteger(defaultValue);
     } else {
       return defaultValue;
@@ -710,7 +712,7 @@ public class LogTable {
 
   /** Reads an IntegerArray value from the table. */
   public long[] get(String key, long[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getIntegerArray(defaultValue);
     } else {
       return defaultValue;
@@ -732,7 +734,7 @@ public class LogTable {
 
   /** Reads a Float value from the table. */
   public float get(String key, float defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getFloat(defaultValue);
     } else {
       return defaultValue;
@@ -741,7 +743,7 @@ public class LogTable {
 
   /** Reads a FloatArray value from the table. */
   public float[] get(String key, float[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getFloatArray(defaultValue);
     } else {
       return defaultValue;
@@ -763,7 +765,7 @@ public class LogTable {
 
   /** Reads a Double value from the table. */
   public double get(String key, double defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getDouble(defaultValue);
     } else {
       return defaultValue;
@@ -772,7 +774,7 @@ public class LogTable {
 
   /** Reads a DoubleArray value from the table. */
   public double[] get(String key, double[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getDoubleArray(defaultValue);
     } else {
       return defaultValue;
@@ -794,7 +796,7 @@ public class LogTable {
 
   /** Reads a String value from the table. */
   public String get(String key, String defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getString(defaultValue);
     } else {
       return defaultValue;
@@ -803,7 +805,7 @@ public class LogTable {
 
   /** Reads a StringArray value from the table. */
   public String[] get(String key, String[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       return get(key).getStringArray(defaultValue);
     } else {
       return defaultValue;
@@ -826,7 +828,7 @@ public class LogTable {
   /** Reads an enum value from the table. */
   @SuppressWarnings("unchecked")
   public <E extends Enum<E>> E get(String key, E defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       String name = get(key).getString(defaultValue.name());
       return (E) Enum.valueOf(defaultValue.getClass(), name);
     } else {
@@ -837,7 +839,7 @@ public class LogTable {
   /** Reads an enum array value from the table. */
   @SuppressWarnings({"unchecked", "rawtypes"})
   public <E extends Enum<E>> E[] get(String key, E[] defaultValue) {
-    if (data.containsKey(prefix + key)) {
+    if (data.containsKey(fullKey(key))) {
       String[] names = get(key).getStringArray(null);
       if (names == null) return defaultValue;
       Class<? extends Enum> enumClass =
@@ -877,32 +879,43 @@ public class LogTable {
     return defaultValue;
   }
 
-  /** Reads a struct value from the table. */
-  @SuppressWarnings("unchecked")
+  /**
+   * Reads a struct value from the table. Values of immutable types are decoded once and the same
+   * object is returned until the value changes.
+   */
   public <T> T get(String key, Struct<T> struct, T defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      if (!structBuffers.containsKey(struct.getTypeString())) {
-        structBuffers.put(struct.getTypeString(), StructBuffer.create(struct));
-      }
-      StructBuffer<T> buffer = (StructBuffer<T>) structBuffers.get(struct.getTypeString());
-      return buffer.read(get(key).getRaw());
-    } else {
+    LogValue value = data.get(fullKey(key));
+    if (value == null || value.type != LoggableType.Raw) {
       return defaultValue;
     }
+    return value.getStruct(struct);
   }
 
-  /** Reads a struct array value from the table. */
+  /**
+   * Reads a struct array value from the table. Elements of immutable types are decoded once, and
+   * each call returns a new array holding the same objects until the value changes.
+   */
   @SuppressWarnings("unchecked")
   public <T> T[] get(String key, Struct<T> struct, T... defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      if (!structBuffers.containsKey(struct.getTypeString())) {
-        structBuffers.put(struct.getTypeString(), StructBuffer.create(struct));
-      }
-      StructBuffer<T> buffer = (StructBuffer<T>) structBuffers.get(struct.getTypeString());
-      return buffer.readArray(get(key).getRaw());
-    } else {
+    LogValue value = data.get(fullKey(key));
+    if (value == null || value.type != LoggableType.Raw) {
       return defaultValue;
     }
+    return value.getStructArray(struct);
+  }
+
+  /**
+   * Reads a struct value into an existing object without allocating a new one, for types whose
+   * struct supports {@link Struct#unpackInto}. Returns false, leaving the object unchanged, if the
+   * key does not exist.
+   */
+  public <T> boolean readInto(String key, Struct<T> struct, T out) {
+    LogValue value = data.get(fullKey(key));
+    if (value == null || value.type != LoggableType.Raw) {
+      return false;
+    }
+    struct.unpackInto(out, value.getRawBuffer());
+    return true;
   }
 
   /** Reads a 2D struct array value from the table. */
@@ -928,10 +941,10 @@ public class LogTable {
   /** Reads a serialized (struct/protobuf) value from the table. */
   @SuppressWarnings("unchecked")
   public <T extends WPISerializable> T get(String key, T defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      String typeString = data.get(prefix + key).customTypeStr;
+    if (data.containsKey(fullKey(key))) {
+      String typeString = data.get(fullKey(key)).customTypeStr;
       if (typeString.startsWith("struct:")) {
-        Struct<T> struct = (Struct<T>) findStructType(defaultValue.getClass());
+        Struct<T> struct = (Struct<T>) StructRegistry.forClass(defaultValue.getClass());
         if (struct != null) {
           return get(key, struct, defaultValue);
         }
@@ -943,10 +956,10 @@ public class LogTable {
   /** Reads a serialized (struct) array value from the table. */
   @SuppressWarnings("unchecked")
   public <T extends StructSerializable> T[] get(String key, T... defaultValue) {
-    if (data.containsKey(prefix + key)) {
-      String typeString = data.get(prefix + key).customTypeStr;
+    if (data.containsKey(fullKey(key))) {
+      String typeString = data.get(fullKey(key)).customTypeStr;
       if (typeString.startsWith("struct:")) {
-        Struct<T> struct = (Struct<T>) findStructType(defaultValue.getClass().getComponentType());
+        Struct<T> struct = (Struct<T>) StructRegistry.forClass(defaultValue.getClass().getComponentType());
         if (struct != null) {
           return get(key, struct, defaultValue);
         }
@@ -1037,6 +1050,9 @@ public class LogTable {
     public final LoggableType type;
     public final String customTypeStr;
     private final Object value;
+    private int rawOffset = 0; // Region of a Raw byte[] value, which may be shared
+    private int rawLength = 0;
+    private volatile Decoded decoded = null; // Last struct decoded from a Raw value
 
     @Override
     public String toString() {
@@ -1046,7 +1062,7 @@ public class LogTable {
       if( type == LoggableType.Integer ) return ((long) value) + "";
       if( type == LoggableType.Float ) return ((float) value) + "";
       if( type == LoggableType.String ) return ((String) value);
-      if( type == LoggableType.Raw ) return Arrays.toString(((byte[]) value));
+      if( type == LoggableType.Raw ) return Arrays.toString(getRaw());
       if( type == LoggableType.BooleanArray ) return Arrays.toString(((boolean[]) value));
       if( type == LoggableType.IntegerArray ) return Arrays.toString(((long[]) value));
       if( type == LoggableType.FloatArray ) return Arrays.toString(((float[]) value));
@@ -1056,6 +1072,46 @@ public class LogTable {
 
     }
     public LogValue(byte[] value, String typeStr) {
+      this(value, 0, value.length, typeStr);
+    }
+
+    private LogValue(byte[] value, int offset, int length, String typeStr) {
+      type = LoggableType.Raw;
+      customTypeStr = typeStr;
+      this.value = value;
+      rawOffset = offset;
+      rawLength = length;
+    }
+
+    /** Returns a Raw value holding a region of an array that must not be modified afterwards. */
+    static LogValue slice(byte[] array, int offset, int length, String typeStr) {
+      return new LogValue(array, offset, length, typeStr);
+    }
+
+    /** Returns whether this is a Raw value holding a region of the given array. */
+    boolean isSliceOf(byte[] array) {
+      return value == array;
+    }
+
+    /** Returns an equal Raw value holding its bytes in an array of its own. */
+    LogValue compact() {
+      LogValue copy =
+          new LogValue(
+              Arrays.copyOfRange((byte[]) value, rawOffset, rawOffset + rawLength), customTypeStr);
+      copy.decoded = decoded;
+      return copy;
+    }
+
+    /**
+     * Returns a Raw value holding immutable struct objects, which are packed the first time the
+     * bytes are read. Recording only stores the reference, and packing happens on whichever thread
+     * reads the value first, normally the receiver thread.
+     */
+    static LogValue deferred(Struct<?> struct, Object value, int count, String typeStr) {
+      return new LogValue(new Deferred(struct, value, count), typeStr);
+    }
+
+    private LogValue(Deferred value, String typeStr) {
       type = LoggableType.Raw;
       customTypeStr = typeStr;
       this.value = value;
@@ -1172,10 +1228,41 @@ public class LogTable {
     }
 
     public Object getObject(Object defaultValue){
+      if (type == LoggableType.Raw) {
+        return getRaw();
+      }
       return value != null ? value : defaultValue;
     }
+
+    /**
+     * Returns a Raw value as an array. Values stored in a shared slab are copied; use {@link
+     * #getRawLength()} and {@link #getRaw(byte[], int)} to avoid the copy.
+     */
     public byte[] getRaw(byte[] defaultValue) {
-      return type == LoggableType.Raw ? (byte[]) value : defaultValue;
+      if (type != LoggableType.Raw) {
+        return defaultValue;
+      }
+      byte[] array = rawArray();
+      if (rawOffset == 0 && getRawLength() == array.length) {
+        return array;
+      }
+      return Arrays.copyOfRange(array, rawOffset, rawOffset + getRawLength());
+    }
+
+    /** Returns the length of a Raw value, or 0 for other types. */
+    public int getRawLength() {
+      if (type != LoggableType.Raw) {
+        return 0;
+      }
+      return value instanceof Deferred ? ((Deferred) value).bytes().length : rawLength;
+    }
+
+    /** Copies a Raw value into the given array, which must have room for {@link #getRawLength()}. */
+    public void getRaw(byte[] destination, int destinationOffset) {
+      if (type != LoggableType.Raw) {
+        return;
+      }
+      System.arraycopy(rawArray(), rawOffset, destination, destinationOffset, getRawLength());
     }
 
     public boolean getBoolean(boolean defaultValue) {
@@ -1243,7 +1330,12 @@ public class LogTable {
         if (otherValue.type.equals(type)) {
           switch (type) {
             case Raw:
-              return Arrays.equals(getRaw(), otherValue.getRaw());
+              if (value instanceof Deferred
+                  && otherValue.value instanceof Deferred
+                  && ((Deferred) value).isSame((Deferred) otherValue.value)) {
+                return true; // Same objects, no need to pack
+              }
+              return rawEquals(otherValue);
             case Boolean:
             case Integer:
             case Float:
@@ -1266,10 +1358,189 @@ public class LogTable {
       return false;
     }
 
+    /**
+     * Returns a little endian buffer over a Raw value without copying it, with the value starting
+     * at index 0. The buffer must not be modified.
+     */
+    public ByteBuffer getRawBuffer() {
+      ByteBuffer bb = ByteBuffer.wrap(rawArray(), rawOffset, getRawLength()).slice();
+      return bb.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /** Returns the struct object held by a Raw value, decoding it once for immutable types. */
+    @SuppressWarnings("unchecked")
+    <T> T getStruct(Struct<T> struct) {
+      if (value instanceof Deferred && ((Deferred) value).holds(struct, false)) {
+        return (T) ((Deferred) value).value; // Recorded in this process, no need to decode
+      }
+      Decoded cached = decoded;
+      if (cached != null && cached.holds(struct, false)) {
+        return (T) cached.value;
+      }
+      T result = struct.unpack(getRawBuffer());
+      if (struct.isImmutable()) {
+        decoded = new Decoded(struct, false, result);
+      }
+      return result;
+    }
+
+    /** Returns the struct array held by a Raw value, decoding it once for immutable types. */
+    @SuppressWarnings("unchecked")
+    <T> T[] getStructArray(Struct<T> struct) {
+      if (value instanceof Deferred && ((Deferred) value).holds(struct, true)) {
+        return ((T[]) ((Deferred) value).value).clone();
+      }
+      Decoded cached = decoded;
+      if (cached != null && cached.holds(struct, true)) {
+        return ((T[]) cached.value).clone(); // Callers may change the array, but not the elements
+      }
+      ByteBuffer bb = getRawBuffer();
+      int size = struct.getSize();
+      if (bb.remaining() % size != 0) {
+        throw new RuntimeException("buffer size not a multiple of struct size");
+      }
+      T[] result = (T[]) Array.newInstance(struct.getTypeClass(), bb.remaining() / size);
+      for (int i = 0; i < result.length; i++) {
+        result[i] = struct.unpack(bb);
+      }
+      if (struct.isImmutable()) {
+        decoded = new Decoded(struct, true, result);
+        return result.clone();
+      }
+      return result;
+    }
+
+    /**
+     * Returns whether this value differs from another, like {@code !equals(other)}, except that
+     * deferred struct values of the same struct compare their objects with {@code equals} instead
+     * of packing them. Record policies use this so they never pack values on the main thread.
+     */
+    boolean differsFrom(LogValue other) {
+      if (value instanceof Deferred && other.value instanceof Deferred) {
+        Deferred deferred = (Deferred) value;
+        Deferred otherDeferred = (Deferred) other.value;
+        if (deferred.struct == otherDeferred.struct) {
+          return !deferred.objectsEqual(otherDeferred);
+        }
+      }
+      return !equals(other);
+    }
+
+    /** Compares two Raw values in place, without copying slab regions. */
+    private boolean rawEquals(LogValue other) {
+      int length = getRawLength();
+      if (length != other.getRawLength()) {
+        return false;
+      }
+      byte[] a = rawArray();
+      byte[] b = other.rawArray();
+      if (a == b && rawOffset == other.rawOffset) {
+        return true;
+      }
+      for (int i = 0; i < length; i++) {
+        if (a[rawOffset + i] != b[other.rawOffset + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /** Returns the array holding a Raw value, starting at {@code rawOffset}. */
+    private byte[] rawArray() {
+      return value instanceof Deferred ? ((Deferred) value).bytes() : (byte[]) value;
+    }
+
     @Override
     public int hashCode() {
       return Objects.hash(type, customTypeStr, value);
     }
+
+    /**
+     * A struct object or array decoded from a Raw value, with the struct used to decode it. The
+     * same bytes may be read both ways, so a hit needs the struct and the shape to match.
+     */
+    private static final class Decoded {
+      final Struct<?> struct;
+      final boolean array;
+      final Object value; // One object, or an array of objects
+
+      Decoded(Struct<?> struct, boolean array, Object value) {
+        this.struct = struct;
+        this.array = array;
+        this.value = value;
+      }
+
+      boolean holds(Struct<?> struct, boolean array) {
+        return this.struct == struct && this.array == array;
+      }
+    }
+
+    /** Immutable struct objects waiting to be packed, with the bytes cached once packed. */
+    private static final class Deferred {
+      private final Struct<Object> struct;
+      private final Object value; // One object, or an array of count objects
+      private final int count;
+      private volatile byte[] bytes = null;
+
+      @SuppressWarnings("unchecked")
+      Deferred(Struct<?> struct, Object value, int count) {
+        this.struct = (Struct<Object>) struct;
+        this.value = value;
+        this.count = count;
+      }
+
+      byte[] bytes() {
+        byte[] packed = bytes;
+        if (packed == null) {
+          // Packing twice from two threads gives the same bytes, so no lock is needed
+          packed = new byte[struct.getSize() * count];
+          ByteBuffer bb = ByteBuffer.wrap(packed).order(ByteOrder.LITTLE_ENDIAN);
+          if (value instanceof Object[]) {
+            for (Object element : (Object[]) value) {
+              struct.pack(bb, element);
+            }
+          } else {
+            struct.pack(bb, value);
+          }
+          bytes = packed;
+        }
+        return packed;
+      }
+
+      /** Returns whether this holds objects of the given struct, as an array or a single object. */
+      boolean holds(Struct<?> struct, boolean array) {
+        return this.struct == struct && (value instanceof Object[]) == array;
+      }
+
+      /** Returns whether both hold the same objects, which must pack to the same bytes. */
+      boolean isSame(Deferred other) {
+        if (struct != other.struct) {
+          return false;
+        }
+        if (value instanceof Object[] && other.value instanceof Object[]) {
+          Object[] a = (Object[]) value;
+          Object[] b = (Object[]) other.value;
+          if (a.length != b.length) {
+            return false;
+          }
+          for (int i = 0; i < a.length; i++) {
+            if (a[i] != b[i]) {
+              return false;
+            }
+          }
+          return true;
+        }
+        return value == other.value;
+      }
+
+      /** Returns whether both hold equal objects of the same struct, without packing either. */
+      boolean objectsEqual(Deferred other) {
+        if (value instanceof Object[] && other.value instanceof Object[]) {
+          return Arrays.equals((Object[]) value, (Object[]) other.value);
+        }
+        return Objects.equals(value, other.value);
+      }
+    }
   }
 
   /** Represents all possible data types that can be logged. */
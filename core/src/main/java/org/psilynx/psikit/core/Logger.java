@@ -14,6 +14,7 @@ import static org.psilynx.psikit.core.Logger.LogLevel.INFO;
 import static org.psilynx.psikit.core.Logger.LogLevel.WARNING;
 
 import org.psilynx.psikit.core.mechanism.LoggedMechanism2d;
+import org.psilynx.psikit.core.tunable.LiveTunables;
 import org.psilynx.psikit.core.wpi.Struct;
 import org.psilynx.psikit.core.wpi.StructSerializable;
 import org.psilynx.psikit.core.wpi.WPISerializable;
@@ -22,69 +23,102 @@ import java.io.Closeable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 /** Central class for recording and replaying log data. */
 public class Logger {
-  private static final int receiverQueueCapcity = 500; // 10s at 50Hz
-  private static double startTime = 0.0;
-  private static boolean running = false;
-  private static long cycleCount = 0;
-  private static LogTable entry = new LogTable(0);
-  private static LogTable outputTable;
-  private static Map<String, String> metadata = new HashMap<>();
-  private static List<LoggedNetworkInput> dashboardInputs = new ArrayList<>();
-  private static ConsoleSource console = null;
-  private static LogReplaySource replaySource;
-  private static final BlockingQueue<LogTable> receiverQueue =
-      new ArrayBlockingQueue<>(receiverQueueCapcity);
-  private static ReceiverThread receiverThread = new ReceiverThread(receiverQueue);
-  private static boolean receiverQueueFault = false;
-  private static DoubleSupplier timeSource =
-          () -> System.nanoTime() / 1000000000.0 - startTime;
-  private static boolean simulation = false;
-  private static boolean replay = false;
-  private static boolean enableConsole = true;
+  private static final LoggerContext defaultContext = new LoggerContext();
+  private static final ThreadLocal<LoggerContext> threadContext = new ThreadLocal<>();
+  private static volatile boolean threadContextsUsed = false;
   private static LogLevel currentLogLevel = LogLevel.INFO;
 
   private Logger() {}
 
+  /**
+   * Returns the context used by the calling thread: the one bound with {@link
+   * LoggerContext#bind()}, or the default context shared by all other threads.
+   */
+  public static LoggerContext getContext() {
+    // Skip the thread local lookup entirely unless a context has ever been bound
+    if (threadContextsUsed) {
+      LoggerContext context = threadContext.get();
+      if (context != null) {
+        return context;
+      }
+    }
+    return defaultContext;
+  }
+
+  static LoggerContext getThreadContext() {
+    return threadContext.get();
+  }
+
+  static void setThreadContext(LoggerContext context) {
+    if (context == null || context == defaultContext) {
+      // Unbound threads already use the default context, so keep the fast path in getContext
+      threadContext.remove();
+    } else {
+      threadContextsUsed = true;
+      threadContext.set(context);
+    }
+  }
+
   public static void reset(){
+    LoggerContext context = getContext();
     // Attempt to fully stop any previous run (including stale receiver threads) so that
     // subsequent Logger.start() calls are safe within the same JVM (e.g., unit test suites).
     end();
-    if (receiverThread != null && receiverThread.isAlive()) {
-      receiverThread.interrupt();
+    if (context.receiverThread != null && context.receiverThread.isAlive()) {
+      context.receiverThread.interrupt();
       try {
-        receiverThread.join();
+        context.receiverThread.join();
       } catch (InterruptedException e) {
         Thread.currentThread().interrupt();
       }
     }
 
-    startTime = 0.0;
-    running = false;
-    cycleCount = 0;
-    entry = new LogTable(0);
-    outputTable = null;
-    metadata = new HashMap<>();
-    dashboardInputs = new ArrayList<>();
-    console = null;
-    replaySource = null;
-    receiverQueue.clear();
-    receiverThread = new ReceiverThread(receiverQueue);
-    receiverQueueFault = false;
-        Logger.timeSource = () -> System.nanoTime() / 1000000000.0 - startTime;
-    simulation = false;
-    replay = false;
-    enableConsole = true;
+    context.startTime = 0.0;
+    context.running = false;
+    context.cycleCount = 0;
+    context.diagnostics.clear();
+    context.entry = new LogTable(0);
+    context.outputTable = null;
+    context.inputsTables = new HashMap<>();
+    context.metadata = new HashMap<>();
+    context.dashboardInputs = new ArrayList<>();
+    context.outputPolicies = new LinkedHashMap<>();
+    context.inputPolicies = new LinkedHashMap<>();
+    context.recordPolicies = null;
+    if (context == defaultContext) {
+      LiveTunables.clear();
+    }
+    context.console = null;
+    context.replaySource = null;
+    context.receiverQueue.clear();
+    context.receiverThread = new ReceiverThread(context);
+    context.receiverQueueFault = false;
+    context.timeSource = () -> System.nanoTime() / 1000000000.0 - context.startTime;
+    context.simulation = false;
+    context.replay = false;
+    context.enableConsole = true;
+    context.profilerSections = new LinkedHashMap<>();
+    context.profilerPublishPeriod = 50;
+    context.allocationTracker = null;
+    if (context.loopWatchdog != null) {
+      context.loopWatchdog.end();
+      context.loopWatchdog = null;
+    }
+    if (context.samplingProfiler != null) {
+      context.samplingProfiler.end();
+      context.samplingProfiler = null;
+    }
   }
 
   /**
@@ -92,15 +126,16 @@ public class Logger {
    * @param newTimeSource a monotonic time source in seconds
    */
   public static void setTimeSource(DoubleSupplier newTimeSource){
-    Logger.timeSource = newTimeSource;
+    getContext().timeSource = newTimeSource;
   }
   /**
    * Sets the source to use for replaying data. Use null to disable replay. This method only works
    * during setup before starting to log.
    */
   public static void setReplaySource(LogReplaySource replaySource) {
-    if (!running) {
-      Logger.replaySource = replaySource;
+    LoggerContext context = getContext();
+    if (!context.running) {
+      context.replaySource = replaySource;
     }
   }
 
@@ -109,8 +144,9 @@ public class Logger {
    * before starting to log.
    */
   public static void addDataReceiver(LogDataReceiver dataReceiver) {
-    if (!running) {
-      receiverThread.addDataReceiver(dataReceiver);
+    LoggerContext context = getContext();
+    if (!context.running) {
+      context.receiverThread.addDataReceiver(dataReceiver);
     }
   }
 
@@ -119,7 +155,7 @@ public class Logger {
    * be called by the user.
    */
   public static void registerDashboardInput(LoggedNetworkInput dashboardInput) {
-    dashboardInputs.add(dashboardInput);
+    getContext().dashboardInputs.add(dashboardInput);
   }
 
   /**
@@ -130,53 +166,244 @@ public class Logger {
    * @param value The value of the metadata field.
    */
   public static void recordMetadata(String key, String value) {
-    if (!running) {
-      metadata.put(key, value);
+    LoggerContext context = getContext();
+    if (!context.running) {
+      context.metadata.put(key, value);
     }
   }
 
   /** Disables automatic console capture. */
   public static void disableConsoleCapture() {
-    enableConsole = false;
+    getContext().enableConsole = false;
+  }
+
+  /**
+   * Enables logging the bytes allocated by the main thread in each phase of the cycle under {@code
+   * PsiKit/Allocation}, and the garbage collection count and time per cycle under {@code
+   * PsiKit/GC}. Allocation is only measured on desktop JVMs; Android only reports GC activity.
+   */
+  public static void enableAllocationTracking() {
+    LoggerContext context = getContext();
+    if (context.allocationTracker == null) {
+      context.allocationTracker = AllocationTracker.create();
+      if (context.allocationTracker == null) {
+        Logger.logWarning("Allocation tracking is not supported on this platform");
+      }
+    }
+  }
+
+  /**
+   * Enables a watchdog that samples the main thread's stack whenever the time from {@link
+   * #periodicBeforeUser()} to {@link #periodicAfterUser(double, double)} exceeds the budget. The
+   * number of overruns, the length of the last one, and the merged stack samples are logged under
+   * {@code PsiKit/Watchdog}.
+   *
+   * @param budgetSeconds The allowed time for each cycle, such as 0.02.
+   */
+  public static void enableLoopWatchdog(double budgetSeconds) {
+    LoggerContext context = getContext();
+    if (context.loopWatchdog != null) {
+      context.loopWatchdog.end();
+    }
+    context.loopWatchdog = new LoopWatchdog(budgetSeconds);
+    if (context.running) {
+      context.loopWatchdog.start();
+    }
+  }
+
+  /**
+   * Enables a profiler that samples the main thread's stack at the given rate for the whole session,
+   * logging the 20 most common stacks. See {@link #enableSamplingProfiler(double, int)}.
+   *
+   * @param sampleRateHz How many samples to take per second, such as 100.
+   */
+  public static void enableSamplingProfiler(double sampleRateHz) {
+    enableSamplingProfiler(sampleRateHz, 20);
+  }
+
+  /**
+   * Enables a profiler that samples the main thread's stack at the given rate for the whole session.
+   * Every second the most common stacks are logged under {@code
+   * PsiKit/SamplingProfiler/CollapsedStacks} as lines of {@code "root;...;leaf count"}, which flame
+   * graph tools can read directly.
+   *
+   * @param sampleRateHz How many samples to take per second, such as 100.
+   * @param topStacks How many of the most common stacks to log.
+   */
+  public static void enableSamplingProfiler(double sampleRateHz, int topStacks) {
+    LoggerContext context = getContext();
+    if (context.samplingProfiler != null) {
+      context.samplingProfiler.end();
+    }
+    context.samplingProfiler = new SamplingProfiler(sampleRateHz, topStacks);
+    if (context.running) {
+      context.samplingProfiler.start();
+    }
+  }
+
+  /**
+   * Sets the policy deciding when new values of an output are stored, such as a deadband for a
+   * noisy measurement. The policy applies to the key and every key under it, and the most specific
+   * policy wins. Use an empty key for all outputs.
+   *
+   * @param key The output key or subtable, without the "RealOutputs" or "ReplayOutputs" prefix.
+   * @param policy The policy, or null to remove it.
+   */
+  public static void setOutputPolicy(String key, RecordPolicy policy) {
+    LoggerContext context = getContext();
+    setPolicy(context, context.outputPolicies, key, policy);
+  }
+
+  /**
+   * Sets the policy deciding when new values of an input are stored. Unlike outputs, inputs are
+   * logged exactly unless a policy is set here, because replayed code reads them back from the
+   * log. Policies for inputs are not applied while replaying.
+   *
+   * @param key The inputs key passed to {@link #processInputs(String, LoggableInputs)}, optionally
+   *     followed by a field name.
+   * @param policy The policy, or null to remove it.
+   */
+  public static void setInputPolicy(String key, RecordPolicy policy) {
+    LoggerContext context = getContext();
+    setPolicy(context, context.inputPolicies, key, policy);
+  }
+
+  private static void setPolicy(
+      LoggerContext context, Map<String, RecordPolicy> policies, String key, RecordPolicy policy) {
+    if (policy == null) {
+      policies.remove(key);
+    } else {
+      policies.put(key, policy);
+    }
+    if (context.running) {
+      applyRecordPolicies(context);
+    }
+  }
+
+  /**
+   * Applies the current policies and profile to the session's record policies, which are kept for
+   * the whole session so the suppressed write count and each key's state carry over.
+   */
+  private static void applyRecordPolicies(LoggerContext context) {
+    Map<String, RecordPolicy> rules = new HashMap<>();
+    String outputPrefix = context.outputTable.getPrefix();
+    for (Map.Entry<String, RecordPolicy> rule : context.outputPolicies.entrySet()) {
+      rules.put(
+          rule.getKey().isEmpty() ? outputPrefix : outputPrefix + rule.getKey(), rule.getValue());
+    }
+    context.loggingProfileGeneration = LoggingProfile.getGeneration();
+    LoggingProfile.Matcher profile = null;
+    if (context.replaySource == null) {
+      rules.putAll(context.inputPolicies);
+      // Replayed inputs must be read back exactly
+      profile = LoggingProfile.getActiveMatcher();
+    }
+    if (context.recordPolicies == null) {
+      context.recordPolicies = new RecordPolicies();
+    }
+    context.recordPolicies.update(rules, profile);
+    context.entry.setRecordPolicies(
+        context.recordPolicies.isEmpty() ? null : context.recordPolicies);
+  }
+
+  /**
+   * Adds a logging profile that can be activated with {@link #setLoggingProfile(String)},
+   * replacing any profile with the same name. Profiles are kept when the Logger is reset, so they
+   * can be added once and switched between OpModes. Profiles are process-wide, shared by every
+   * {@link LoggerContext}.
+   */
+  public static void addLoggingProfile(LoggingProfile profile) {
+    LoggingProfile.add(profile);
+  }
+
+  /**
+   * Activates a logging profile from the next cycle, so only the keys it includes are stored. This
+   * can be called while logging is running. Profiles are not applied while replaying.
+   *
+   * <p>The active profile is process-wide, not per {@link LoggerContext}: it applies to every
+   * context that is running or started later, not just the one bound to the calling thread.
+   *
+   * @param name The name of a profile added with {@link #addLoggingProfile(LoggingProfile)}, or
+   *     null to log every key.
+   */
+  public static void setLoggingProfile(String name) {
+    if (!LoggingProfile.activate(name)) {
+      Logger.logWarning("Logging profile \"" + name + "\" has not been added");
+    }
+  }
+
+  /** Returns the name of the active logging profile, or null if every key is logged. */
+  public static String getLoggingProfile() {
+    return LoggingProfile.getActiveName();
+  }
+
+  /**
+   * Returns a handle for checking whether a key is logged by the active profile, to skip computing
+   * values that would not be stored. Create it once and keep it.
+   *
+   * <p>Example:
+   * <pre>
+   * private final LoggingProfile.Key velocityKey = Logger.profileKey("RealOutputs/Arm/Velocity");
+   * ...
+   * if (velocityKey.isEnabled()) {
+   *   Logger.recordOutput("Arm/Velocity", readVelocity());
+   * }
+   * </pre>
+   *
+   * @param key The full key, including a prefix such as "RealOutputs/" for outputs.
+   */
+  public static LoggingProfile.Key profileKey(String key) {
+    return new LoggingProfile.Key(key);
   }
 
   /** Returns whether a replay source is currently being used. */
   public static boolean hasReplaySource() {
-    return replaySource != null;
+    return getContext().replaySource != null;
   }
 
   /** Starts running the logging system, including any data receivers or the replay source. */
   public static void start() {
-    if (!running) {
-      running = true;
-      startTime = getTimestamp();
+    LoggerContext context = getContext();
+    if (!context.running) {
+      context.diagnostics.clear();
+      context.running = true;
+      context.startTime = getTimestamp();
 
       // Start console capture
-      if (enableConsole) {
-          console = new ConsoleSourceImpl();
+      if (context.enableConsole) {
+          context.console = new ConsoleSourceImpl();
       }
 
       // Start replay source
-      if (replaySource != null) {
-        replaySource.start();
+      if (context.replaySource != null) {
+        context.replaySource.start();
       }
 
       // Create output table
-      if (replaySource == null) {
-        outputTable = entry.getSubtable("RealOutputs");
+      if (context.replaySource == null) {
+        context.outputTable = context.entry.getSubtable("RealOutputs");
       } else {
-        outputTable = entry.getSubtable("ReplayOutputs");
+        context.outputTable = context.entry.getSubtable("ReplayOutputs");
       }
+      applyRecordPolicies(context);
 
       // Record metadata
       LogTable metadataTable =
-          entry.getSubtable(replaySource == null ? "RealMetadata" : "ReplayMetadata");
-      for (Map.Entry<String, String> item : metadata.entrySet()) {
+          context.entry.getSubtable(
+              context.replaySource == null ? "RealMetadata" : "ReplayMetadata");
+      for (Map.Entry<String, String> item : context.metadata.entrySet()) {
         metadataTable.put(item.getKey(), item.getValue());
       }
 
       // Start receiver thread
-      receiverThread.start();
+      context.pipelineMetrics.reset(context.receiverThread.getReceivers());
+      context.receiverThread.start();
+      if (context.loopWatchdog != null) {
+        context.loopWatchdog.start();
+      }
+      if (context.samplingProfiler != null) {
+        context.samplingProfiler.start();
+      }
 
       //TODO: supposed to tell the robot to use this timestamp thing
       //RobotController.setTimeSource(Logger::getTimestamp);
@@ -188,37 +415,47 @@ public class Logger {
 
   /** Ends the logging system, including any data receivers or the replay source. */
   public static void end() {
-    if (running) {
-      running = false;
-      if (console != null) {
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.running = false;
+      if (context.console != null) {
         try {
-          console.close();
+          context.console.close();
         } catch (Exception e) {
           Logger.logError("Failed to stop console capture.");
         }
       }
-      if (replaySource != null) {
-        replaySource.end();
+      if (context.replaySource != null) {
+        context.replaySource.end();
+      }
+      if (context.loopWatchdog != null) {
+        context.loopWatchdog.end();
+      }
+      if (context.samplingProfiler != null) {
+        context.samplingProfiler.end();
       }
+      context.diagnostics.printAndClear();
+      context.entry.setRecordPolicies(null);
+      context.recordPolicies = null;
 
       // Stop the receiver thread and allow it to drain queued entries before ending receivers.
-      receiverThread.interrupt();
+      context.receiverThread.interrupt();
       try {
-        receiverThread.join();
+        context.receiverThread.join();
       } catch (InterruptedException e) {
         Logger.logError(
           "error ending the receiver ("
-          + receiverThread.getName() + ") thread\n"
+          + context.receiverThread.getName() + ") thread\n"
           + Arrays.toString(e.getStackTrace())
         );
       }
 
       // ReceiverThread instances cannot be restarted once stopped.
       // Recreate it so a subsequent Logger.start() in the same JVM is safe.
-      List<LogDataReceiver> existingReceivers = receiverThread.getReceivers();
-      receiverThread = new ReceiverThread(receiverQueue);
+      List<LogDataReceiver> existingReceivers = context.receiverThread.getReceivers();
+      context.receiverThread = new ReceiverThread(context);
       for (LogDataReceiver receiver : existingReceivers) {
-        receiverThread.addDataReceiver(receiver);
+        context.receiverThread.addDataReceiver(receiver);
       }
       //TODO: supposed to tell the robot to use the normal time source
       //RobotController.setTimeSource(RobotController::getFPGATime);
@@ -230,15 +467,33 @@ public class Logger {
    * timestamp, replay entry, and dashboard inputs.
    */
   public static void periodicBeforeUser() {
-    cycleCount++;
-    if (running) {
+    LoggerContext context = getContext();
+    context.cycleCount++;
+    if (context.running) {
+      context.jfrCycle = JfrEvents.beginCycle();
+      if (context.loggingProfileGeneration != LoggingProfile.getGeneration()) {
+        applyRecordPolicies(context);
+      }
+      AllocationTracker allocationTracker = context.allocationTracker;
+      if (allocationTracker != null) {
+        allocationTracker.startBeforeUser();
+      }
+      LoopWatchdog loopWatchdog = context.loopWatchdog;
+      if (loopWatchdog != null) {
+        loopWatchdog.arm();
+      }
+      SamplingProfiler samplingProfiler = context.samplingProfiler;
+      if (samplingProfiler != null) {
+        samplingProfiler.setMainThread();
+      }
+
       // Get next entry
-      if (replaySource == null) {
-        synchronized (entry) {
-          entry.setTimestamp(timeSource.getAsDouble());
+      if (context.replaySource == null) {
+        synchronized (context.entry) {
+          context.entry.setTimestamp(context.timeSource.getAsDouble());
         }
       } else {
-        if (!replaySource.updateTable(entry)) {
+        if (!context.replaySource.updateTable(context.entry)) {
           Logger.logInfo(
             "logger received false from " +
             "replay source, ending"
@@ -251,6 +506,17 @@ public class Logger {
       // Update Driver Station
       double entryUpdateEnd = getTimestamp();
 
+      // Apply live changes staged since the last cycle, then update dashboard inputs
+      if (context.replaySource == null && context == defaultContext) {
+        LiveTunables.swap(); // Process-wide, so only the default context applies updates
+      }
+      for (LoggedNetworkInput input : context.dashboardInputs) {
+        input.periodic();
+      }
+      if (allocationTracker != null) {
+        allocationTracker.endBeforeUser();
+      }
+
       // Record timing data
       //recordOutput(
               //"Logger/EntryUpdateMS",
@@ -265,11 +531,33 @@ public class Logger {
    * operations to occur between cycles rather than interferring with the main thread.
    */
   public static void periodicAfterUser(double userCodeLength, double periodicBeforeLength) {
-    if (running) {
+    LoggerContext context = getContext();
+    if (context.running) {
+      AllocationTracker allocationTracker = context.allocationTracker;
+      if (allocationTracker != null) {
+        allocationTracker.startAfterUser();
+        allocationTracker.startAutoLog();
+      }
+      Object recordOutputsEvent = JfrEvents.beginRecordOutputs();
+      LoopWatchdog loopWatchdog = context.loopWatchdog;
+      if (loopWatchdog != null) {
+        loopWatchdog.disarm();
+        loopWatchdog.record();
+      }
+      SamplingProfiler samplingProfiler = context.samplingProfiler;
+      if (samplingProfiler != null) {
+        samplingProfiler.record();
+      }
+
       // Update automatic outputs from user code
       double autoLogStart = getRealTimestamp();
-      AutoLogOutputManager.periodic();
+      context.autoLogOutputManager.periodic();
       double autoLogEnd = getRealTimestamp();
+      if (allocationTracker != null) {
+        allocationTracker.endAutoLog();
+        allocationTracker.record();
+      }
+      Profiler.periodic(context);
       // Record timing data
       recordOutput("Logger/AutoLogMS", (autoLogEnd - autoLogStart) * 1000.0);
       recordOutput("LoggedRobot/UserCodeMS", userCodeLength * 1000.0);
@@ -278,36 +566,63 @@ public class Logger {
       recordOutput(
           "LoggedRobot/FullCycleMS",
           (periodicBeforeLength + userCodeLength) * 1000.0);
-      recordOutput("Logger/QueuedCycles", receiverQueue.size());
+      recordOutput("Logger/QueuedCycles", context.receiverQueue.size());
+      context.pipelineMetrics.periodic(context.cycleCount);
+      RecordPolicies recordPolicies = context.recordPolicies;
+      if (recordPolicies != null
+          && (!recordPolicies.isEmpty() || recordPolicies.getSuppressedWrites() > 0)) {
+        recordOutput("PsiKit/RecordPolicies/SuppressedWrites", recordPolicies.getSuppressedWrites());
+      }
+      context.diagnostics.record();
 
       double consoleCaptureStart = getRealTimestamp();
-      if (enableConsole) {
-        String consoleData = console.getNewData();
+      if (context.enableConsole) {
+        String consoleData = context.console.getNewData();
         if (!consoleData.isEmpty()) {
           // Normalize line endings to avoid double-spaced output in viewers that
           // treat both '\r' and '\n' as line breaks.
           String normalizedConsoleData = consoleData.replace("\r\n", "\n").replace("\r", "\n");
           recordOutput("Console", normalizedConsoleData.trim());
         }
+        long droppedBytes = context.console.getDroppedBytes();
+        if (droppedBytes > 0) {
+          recordOutput("PsiKit/Console/DroppedBytes", droppedBytes);
+        }
       }
       double consoleCaptureEnd = getRealTimestamp();
+      JfrEvents.commitRecordOutputs(recordOutputsEvent);
 
+      // Send a copy of the data to the receivers. The original object will be
+      // kept and updated with the next timestamp (and new data if replaying).
+      long snapshotStart = System.nanoTime();
+      LogTable snapshot = LogTable.clone(context.entry);
+      long snapshotNanos = System.nanoTime() - snapshotStart;
       try {
-        // Send a copy of the data to the receivers. The original object will be
-        // kept and updated with the next timestamp (and new data if replaying).
-        receiverQueue.add(LogTable.clone(entry));
-        receiverQueueFault = false;
+        context.receiverQueue.add(snapshot);
+        context.receiverQueueFault = false;
       } catch (IllegalStateException exception) {
-        receiverQueueFault = true;
+        context.receiverQueueFault = true;
         Logger.logCritical(
             "[PsiKit] Capacity of receiver queue exceeded, data will NOT be logged."
         );
       }
+      context.pipelineMetrics.recordSnapshot(
+          snapshotNanos, context.receiverQueue.size(), context.receiverQueueFault);
+      if (allocationTracker != null) {
+        allocationTracker.endAfterUser();
+      }
+      JfrEvents.commitCycle(context.jfrCycle, context.cycleCount);
+      context.jfrCycle = null;
     }
   }
 
   public static LogTable getEntry(){
-    return entry;
+    return getContext().entry;
+  }
+
+  /** Returns the measurements of the logging pipeline for the current session. */
+  public static PipelineMetrics getPipelineMetrics() {
+    return getContext().pipelineMetrics;
   }
 
   /**
@@ -315,7 +630,7 @@ public class Logger {
    * up, meaning that data is no longer being saved.
    */
   public static boolean getReceiverQueueFault() {
-    return receiverQueueFault;
+    return getContext().receiverQueueFault;
   }
 
   /**
@@ -323,11 +638,12 @@ public class Logger {
    * (microseconds).
    */
   public static double getTimestamp() {
-    synchronized (entry) {
-      if (!running || entry == null) {
-        return timeSource.getAsDouble();
+    LoggerContext context = getContext();
+    synchronized (context.entry) {
+      if (!context.running || context.entry == null) {
+        return context.timeSource.getAsDouble();
       } else {
-        return entry.getTimestamp();
+        return context.entry.getTimestamp();
       }
     }
   }
@@ -339,7 +655,7 @@ public class Logger {
    * replayed.
    */
   public static double getRealTimestamp() {
-    return timeSource.getAsDouble();
+    return getContext().timeSource.getAsDouble();
   }
 
   /**
@@ -351,6 +667,9 @@ public class Logger {
    *   doWork();
    * }
    * </pre>
+   *
+   * <p>This records only the latest duration. For code that runs every cycle, {@link Profiler}
+   * keeps a histogram of all durations without allocating.
    */
   public static final class TimedBlock implements Closeable {
     private final String key;
@@ -395,7 +714,7 @@ public class Logger {
    * function</b>.
    */
   public static void runEveryN(int n, Runnable function) {
-    if (cycleCount % n == 0) {
+    if (getContext().cycleCount % n == 0) {
       function.run();
     }
   }
@@ -412,12 +731,21 @@ public class Logger {
    * @param inputs The inputs to log or update.
    */
   public static void processInputs(String key, LoggableInputs inputs) {
-    if (running) {
-      if (replaySource == null) {
-        inputs.toLog(entry.getSubtable(key));
+    LoggerContext context = getContext();
+    if (context.running) {
+      // Reuse the subtable so its prefix is the same string every cycle
+      LogTable table = context.inputsTables.get(key);
+      if (table == null) {
+        table = context.entry.getSubtable(key);
+        context.inputsTables.put(key, table);
+      }
+      Object event = JfrEvents.beginProcessInputs();
+      if (context.replaySource == null) {
+        inputs.toLog(table);
       } else {
-        inputs.fromLog(entry.getSubtable(key));
+        inputs.fromLog(table);
       }
+      JfrEvents.commitProcessInputs(event, key);
     }
   }
 
@@ -433,8 +761,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, byte[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -450,8 +779,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, byte[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -467,8 +797,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, boolean value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -484,8 +815,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, BooleanSupplier value) {
-    if (running) {
-      outputTable.put(key, value.getAsBoolean());
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value.getAsBoolean());
     }
   }
 
@@ -501,8 +833,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, boolean[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -518,8 +851,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, boolean[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -535,8 +869,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, int value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -552,8 +887,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, IntSupplier value) {
-    if (running) {
-      outputTable.put(key, value.getAsInt());
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value.getAsInt());
     }
   }
 
@@ -569,8 +905,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, int[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -586,8 +923,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, int[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -603,8 +941,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, long value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -620,8 +959,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, LongSupplier value) {
-    if (running) {
-      outputTable.put(key, value.getAsLong());
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value.getAsLong());
     }
   }
 
@@ -637,8 +977,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, long[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -654,8 +995,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, long[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -671,8 +1013,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, float value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -688,8 +1031,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, float[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -705,8 +1049,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, float[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -722,8 +1067,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, double value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -739,8 +1085,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, DoubleSupplier value) {
-    if (running) {
-      outputTable.put(key, value.getAsDouble());
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value.getAsDouble());
     }
   }
 
@@ -756,8 +1103,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, double[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -773,8 +1121,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, double[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -790,8 +1139,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, String value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -807,8 +1157,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, String[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -824,8 +1175,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, String[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -841,8 +1193,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <E extends Enum<E>> void recordOutput(String key, E value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -858,8 +1211,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <E extends Enum<E>> void recordOutput(String key, E[] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -875,8 +1229,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <E extends Enum<E>> void recordOutput(String key, E[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
   /**
@@ -894,8 +1249,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <T> void recordOutput(String key, Struct<T> struct, T value) {
-    if (running) {
-      outputTable.put(key, struct, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, struct, value);
     }
   }
 
@@ -915,8 +1271,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <T> void recordOutput(String key, Struct<T> struct, T[] value) {
-    if (running) {
-      outputTable.put(key, struct, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, struct, value);
     }
   }
 
@@ -932,8 +1289,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <T> void recordOutput(String key, Struct<T> struct, T[][] value) {
-    if (running) {
-      outputTable.put(key, struct, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, struct, value);
     }
   }
   /**
@@ -952,8 +1310,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <T extends WPISerializable> void recordOutput(String key, T value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -977,8 +1336,9 @@ public class Logger {
           String key,
           T[] value
   ) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
 
@@ -998,8 +1358,9 @@ public class Logger {
    * @param value The value of the field.
    */
   public static <T extends StructSerializable> void recordOutput(String key, T[][] value) {
-    if (running) {
-      outputTable.put(key, value);
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.outputTable.put(key, value);
     }
   }
   /**
@@ -1017,28 +1378,29 @@ public class Logger {
    * @param value The value of the field.
    */
   public static void recordOutput(String key, LoggedMechanism2d value) {
-    if (running) {
-      value.logOutput(outputTable.getSubtable(key));
+    LoggerContext context = getContext();
+    if (context.running) {
+      value.logOutput(context.outputTable.getSubtable(key));
     }
   }
 
   public static boolean isSimulation() {
-      return simulation;
+      return getContext().simulation;
   }
   public static void setSimulation(boolean simulation) {
-      Logger.simulation = simulation;
+      getContext().simulation = simulation;
   }
 
   /** Returns whether the logging system has been started and is currently running. */
   public static boolean isRunning() {
-    return running;
+    return getContext().running;
   }
 
   public static boolean isReplay() {
-    return replay;
+    return getContext().replay;
   }
   public static void setReplay(boolean replay) {
-    Logger.replay = replay;
+    getContext().replay = replay;
   }
 
   public static LogLevel getLogLevel() {
@@ -1049,30 +1411,144 @@ public class Logger {
     Logger.currentLogLevel = logLevel;
   }
 
+  /** Returns whether messages of the given level are currently logged. */
+  public static boolean isLoggable(LogLevel level) {
+    return currentLogLevel.ordinal() >= level.ordinal();
+  }
+
   public static void logDebug(String message){
-    if(currentLogLevel.ordinal() >= DEBUG.ordinal()){
-      System.out.println("[PsiKit] DD: " + message);
+    if(isLoggable(DEBUG)){
+      log(DEBUG, message);
     }
   }
   public static void logInfo(String message){
-    if(currentLogLevel.ordinal() >= INFO.ordinal()){
-      System.out.println("[PsiKit] II: " + message);
+    if(isLoggable(INFO)){
+      log(INFO, message);
     }
   }
   public static void logWarning(String message){
-    if(currentLogLevel.ordinal() >= WARNING.ordinal()){
-      System.out.println("[PsiKit] WW: " + message);
+    if(isLoggable(WARNING)){
+      log(WARNING, message);
     }
   }
   public static void logError(String message){
-    if(currentLogLevel.ordinal() >= ERROR.ordinal()){
-      System.out.println("[PsiKit] EE: " + message);
+    if(isLoggable(ERROR)){
+      log(ERROR, message);
     }
   }
   public static void logCritical(String message){
-    if(currentLogLevel.ordinal() >= CRITICAL.ordinal()){
-      System.out.println("[PsiKit] CC: " + message);
+    if(isLoggable(CRITICAL)){
+      log(CRITICAL, message);
+    }
+  }
+
+  /**
+   * Logs a debug message that is only built if debug messages are enabled.
+   *
+   * <p>Example: {@code Logger.logDebug(() -> "decoded " + table)}
+   */
+  public static void logDebug(Supplier<String> message){
+    if(isLoggable(DEBUG)){
+      log(DEBUG, message.get());
+    }
+  }
+  /** Logs an info message that is only built if info messages are enabled. */
+  public static void logInfo(Supplier<String> message){
+    if(isLoggable(INFO)){
+      log(INFO, message.get());
+    }
+  }
+  /** Logs a warning that is only built if warnings are enabled. */
+  public static void logWarning(Supplier<String> message){
+    if(isLoggable(WARNING)){
+      log(WARNING, message.get());
+    }
+  }
+
+  /**
+   * Logs a debug message, replacing each {@code {}} in the format with the next argument. The
+   * message is only formatted if debug messages are enabled, so nothing is built in hot paths.
+   *
+   * <p>Example: {@code Logger.logDebug("value of {}: {}", key, value)}
+   */
+  public static void logDebug(String format, Object arg){
+    if(isLoggable(DEBUG)){
+      log(DEBUG, format(format, arg, null, null, 1));
+    }
+  }
+  public static void logDebug(String format, Object arg1, Object arg2){
+    if(isLoggable(DEBUG)){
+      log(DEBUG, format(format, arg1, arg2, null, 2));
+    }
+  }
+  public static void logDebug(String format, Object arg1, Object arg2, Object arg3){
+    if(isLoggable(DEBUG)){
+      log(DEBUG, format(format, arg1, arg2, arg3, 3));
+    }
+  }
+  /** Logs an info message, replacing each {@code {}} in the format with the next argument. */
+  public static void logInfo(String format, Object arg){
+    if(isLoggable(INFO)){
+      log(INFO, format(format, arg, null, null, 1));
+    }
+  }
+  public static void logInfo(String format, Object arg1, Object arg2){
+    if(isLoggable(INFO)){
+      log(INFO, format(format, arg1, arg2, null, 2));
+    }
+  }
+
+  private static String format(String format, Object arg1, Object arg2, Object arg3, int count) {
+    StringBuilder builder = new StringBuilder(format.length() + 16 * count);
+    int start = 0;
+    for (int i = 0; i < count; i++) {
+      int index = format.indexOf("{}", start);
+      if (index < 0) {
+        break;
+      }
+      builder.append(format, start, index);
+      builder.append(i == 0 ? arg1 : i == 1 ? arg2 : arg3);
+      start = index + 2;
+    }
+    return builder.append(format, start, format.length()).toString();
+  }
+
+  /**
+   * While logging is running, messages are kept with the log under {@code PsiKit/Diagnostics/}
+   * rather than printed, so console capture does not record them a second time. Critical messages
+   * are printed as well.
+   */
+  private static void log(LogLevel level, String message) {
+    LoggerContext context = getContext();
+    if (context.running) {
+      context.diagnostics.add(context.timeSource.getAsDouble(), level, message);
+      if (level != CRITICAL) {
+        return;
+      }
+    }
+    printMessage(level, message);
+  }
+
+  static void printMessage(LogLevel level, String message) {
+    String tag;
+    switch (level) {
+      case CRITICAL:
+        tag = "CC";
+        break;
+      case ERROR:
+        tag = "EE";
+        break;
+      case WARNING:
+        tag = "WW";
+        break;
+      case INFO:
+        tag = "II";
+        break;
+      default:
+        tag = "DD";
+        break;
     }
+    System.out.println("[PsiKit] " + tag + ": " + message);
   }
 
   /**
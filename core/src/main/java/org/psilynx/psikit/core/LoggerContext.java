@@ -0,0 +1,88 @@
+package org.psilynx.psikit.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Holds the state of one logging or replay session: the current entry, receiver queue and thread,
+ * replay source and {@code @AutoLogOutput} registrations.
+ *
+ * <p>The static {@link Logger} API always operates on the context bound to the calling thread, or
+ * the default context if none is bound. Robot code never needs to touch this class. To run several
+ * independent sessions at once (for example, replaying many logs in parallel), create one context
+ * per thread and bind it before calling any {@link Logger} methods:
+ *
+ * <pre>
+ * try (LoggerContext.Binding ignored = new LoggerContext().bind()) {
+ *   Logger.setReplaySource(new RLOGReplay(path));
+ *   Logger.start();
+ *   ...
+ * }
+ * </pre>
+ *
+ * <p>Console capture redirects {@code System.out} for the whole JVM, so it should be disabled with
+ * {@link Logger#disableConsoleCapture()} when sessions run concurrently. Logging profiles ({@link
+ * Logger#setLoggingProfile(String)}) and live tunable values ({@link
+ * org.psilynx.psikit.core.tunable.LiveTunables}) are also process-wide rather than per context.
+ */
+public final class LoggerContext {
+  private static final int receiverQueueCapacity = 500; // 10s at 50Hz
+
+  double startTime = 0.0;
+  boolean running = false;
+  long cycleCount = 0;
+  LogTable entry = new LogTable(0);
+  LogTable outputTable;
+  Map<String, LogTable> inputsTables = new HashMap<>();
+  Map<String, String> metadata = new HashMap<>();
+  List<LoggedNetworkInput> dashboardInputs = new ArrayList<>();
+  ConsoleSource console = null;
+  LogReplaySource replaySource;
+  final BlockingQueue<LogTable> receiverQueue = new ArrayBlockingQueue<>(receiverQueueCapacity);
+  ReceiverThread receiverThread = new ReceiverThread(this);
+  boolean receiverQueueFault = false;
+  DoubleSupplier timeSource = () -> System.nanoTime() / 1000000000.0 - startTime;
+  boolean simulation = false;
+  boolean replay = false;
+  boolean enableConsole = true;
+  final AutoLogOutputManager autoLogOutputManager = new AutoLogOutputManager();
+  final PipelineMetrics pipelineMetrics = new PipelineMetrics();
+  AllocationTracker allocationTracker = null;
+  LoopWatchdog loopWatchdog = null;
+  SamplingProfiler samplingProfiler = null;
+  Object jfrCycle = null;
+  final DiagnosticsRing diagnostics = new DiagnosticsRing();
+  Map<String, Profiler.Section> profilerSections = new LinkedHashMap<>();
+  int profilerPublishPeriod = 50;
+  Map<String, RecordPolicy> outputPolicies = new LinkedHashMap<>();
+  Map<String, RecordPolicy> inputPolicies = new LinkedHashMap<>();
+  RecordPolicies recordPolicies = null;
+  int loggingProfileGeneration = -1;
+
+  /** Binds this context to the current thread until the returned binding is closed. */
+  public Binding bind() {
+    Binding binding = new Binding(Logger.getThreadContext());
+    Logger.setThreadContext(this);
+    return binding;
+  }
+
+  /** Restores the previously bound context when closed. */
+  public static final class Binding implements AutoCloseable {
+    private final LoggerContext previous;
+
+    private Binding(LoggerContext previous) {
+      this.previous = previous;
+    }
+
+    @Override
+    public void close() {
+      Logger.setThreadContext(previous);
+    }
+  }
+}
@@ -0,0 +1,264 @@
+package org.psilynx.psikit.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A named set of include and exclude rules choosing which keys are logged, such as a lean
+ * "competition" profile and a detailed "tuning" profile. Profiles are added with {@link
+ * Logger#addLoggingProfile(LoggingProfile)} and one is made active with {@link
+ * Logger#setLoggingProfile(String)}, which takes effect at the start of the next cycle.
+ *
+ * <p>Rules are globs over full log keys (such as {@code "RealOutputs/Drive/Pose"} or {@code
+ * "HardwareMap/left_front/currentVel"}), where {@code *} matches within one level, {@code **}
+ * matches any number of levels, and a rule for a subtable also covers every key under it. The last
+ * matching rule wins, and keys that match no rule are logged. Start with {@code exclude("**")} to
+ * log only the included keys.
+ *
+ * <p>Values for excluded keys are not stored. Code that computes values only for logging can skip
+ * that work too by checking a {@link Key} from {@link Logger#profileKey(String)}.
+ *
+ * <p>Unlike the rest of the session state, profiles and the active profile are shared by the whole
+ * process rather than kept per {@link LoggerContext}: activating a profile changes what every
+ * running context stores. They describe the robot program rather than one session, so they are
+ * added once and stay active across OpModes and Logger resets.
+ */
+public final class LoggingProfile {
+  private static final Map<String, LoggingProfile> profiles = new ConcurrentHashMap<>();
+  private static volatile Matcher activeMatcher = null;
+  private static volatile String activeName = null;
+  private static volatile int generation = 0;
+
+  private final String name;
+  private final List<String> patterns = new ArrayList<>();
+  private final List<Boolean> includes = new ArrayList<>();
+
+  public LoggingProfile(String name) {
+    this.name = name;
+  }
+
+  /** Returns the name of this profile. */
+  public String getName() {
+    return name;
+  }
+
+  /** Adds rules logging the keys matching the given globs. */
+  public LoggingProfile include(String... globs) {
+    return addRules(true, globs);
+  }
+
+  /** Adds rules skipping the keys matching the given globs. */
+  public LoggingProfile exclude(String... globs) {
+    return addRules(false, globs);
+  }
+
+  private LoggingProfile addRules(boolean include, String... globs) {
+    synchronized (this) {
+      for (String glob : globs) {
+        patterns.add(glob);
+        includes.add(include);
+      }
+    }
+    if (profiles.get(name) == this && name.equals(activeName)) {
+      activate(name); // Apply changes to the active profile
+    }
+    return this;
+  }
+
+  /** Compiles the rules added so far. */
+  private synchronized Matcher compile() {
+    Node root = new Node();
+    for (int i = 0; i < patterns.size(); i++) {
+      Node node = root;
+      for (String segment : split(patterns.get(i))) {
+        node = node.child(segment);
+      }
+      node.rule = Math.max(node.rule, i);
+    }
+    boolean[] ruleIncludes = new boolean[includes.size()];
+    for (int i = 0; i < ruleIncludes.length; i++) {
+      ruleIncludes[i] = includes.get(i);
+    }
+    return new Matcher(root, ruleIncludes);
+  }
+
+  static synchronized void add(LoggingProfile profile) {
+    profiles.put(profile.name, profile);
+    if (profile.name.equals(activeName)) {
+      activate(profile.name);
+    }
+  }
+
+  /** Activates the named profile, or logs every key if null. Returns false if it was not added. */
+  static synchronized boolean activate(String name) {
+    if (name == null) {
+      activeName = null;
+      activeMatcher = null;
+      generation++;
+      return true;
+    }
+    LoggingProfile profile = profiles.get(name);
+    if (profile == null) {
+      return false;
+    }
+    Matcher matcher = profile.compile();
+    activeName = name;
+    activeMatcher = matcher;
+    generation++;
+    return true;
+  }
+
+  static String getActiveName() {
+    return activeName;
+  }
+
+  /** Returns a number that changes whenever the active profile or its rules change. */
+  static int getGeneration() {
+    return generation;
+  }
+
+  /** Returns the rules of the active profile, or null if every key is logged. */
+  static Matcher getActiveMatcher() {
+    return activeMatcher;
+  }
+
+  private static String[] split(String key) {
+    int start = 0;
+    while (start < key.length() && key.charAt(start) == '/') {
+      start++; // Keys such as "/Odometry" are stored with a leading slash
+    }
+    return start == key.length() ? new String[0] : key.substring(start).split("/+");
+  }
+
+  /**
+   * A key whose state in the active profile is looked up once, then again only after the profile
+   * changes. Checking it is cheap enough to guard work in every cycle.
+   */
+  public static final class Key {
+    private final String key;
+    private int checkedGeneration = -1;
+    private boolean enabled = true;
+
+    Key(String key) {
+      this.key = key;
+    }
+
+    /** Returns the full key. */
+    public String getKey() {
+      return key;
+    }
+
+    /**
+     * Returns whether this key is logged by the active profile. Always true while replaying, since
+     * profiles are not applied then and replayed outputs should match a run without a profile.
+     */
+    public boolean isEnabled() {
+      if (Logger.hasReplaySource()) {
+        return true;
+      }
+      int current = generation;
+      if (current != checkedGeneration) {
+        Matcher matcher = activeMatcher;
+        enabled = matcher == null || matcher.isIncluded(key);
+        checkedGeneration = current;
+      }
+      return enabled;
+    }
+  }
+
+  /** A compiled profile: a trie of rule segments, with globs kept separately at each level. */
+  static final class Matcher {
+    private final Node root;
+    private final boolean[] includes;
+
+    private Matcher(Node root, boolean[] includes) {
+      this.root = root;
+      this.includes = includes;
+    }
+
+    /** Returns whether a full key is logged. */
+    boolean isIncluded(String key) {
+      int rule = root.match(split(key), 0);
+      return rule < 0 || includes[rule];
+    }
+  }
+
+  private static final class Node {
+    private final Map<String, Node> literals = new HashMap<>();
+    private final List<String> globs = new ArrayList<>();
+    private final List<Node> globNodes = new ArrayList<>();
+    private Node anyLevels = null; // "**"
+    private int rule = -1; // Last rule ending here
+
+    Node child(String segment) {
+      if (segment.equals("**")) {
+        if (anyLevels == null) {
+          anyLevels = new Node();
+        }
+        return anyLevels;
+      }
+      if (segment.indexOf('*') < 0) {
+        return literals.computeIfAbsent(segment, s -> new Node());
+      }
+      int index = globs.indexOf(segment);
+      if (index >= 0) {
+        return globNodes.get(index);
+      }
+      Node node = new Node();
+      globs.add(segment);
+      globNodes.add(node);
+      return node;
+    }
+
+    /** Returns the last rule matching the key from this level, or -1. */
+    int match(String[] segments, int index) {
+      int best = rule; // A rule for a subtable covers every key under it
+      if (anyLevels != null) {
+        for (int i = index; i <= segments.length; i++) {
+          best = Math.max(best, anyLevels.match(segments, i));
+        }
+      }
+      if (index == segments.length) {
+        return best;
+      }
+      String segment = segments[index];
+      Node literal = literals.get(segment);
+      if (literal != null) {
+        best = Math.max(best, literal.match(segments, index + 1));
+      }
+      for (int i = 0; i < globs.size(); i++) {
+        if (globMatches(globs.get(i), segment)) {
+          best = Math.max(best, globNodes.get(i).match(segments, index + 1));
+        }
+      }
+      return best;
+    }
+
+    private static boolean globMatches(String glob, String segment) {
+      return globMatches(glob, 0, segment, 0);
+    }
+
+    private static boolean globMatches(String glob, int g, String segment, int s) {
+      while (g < glob.length()) {
+        char c = glob.charAt(g);
+        if (c == '*') {
+          for (int i = s; i <= segment.length(); i++) {
+            if (globMatches(glob, g + 1, segment, i)) {
+              return true;
+            }
+          }
+          return false;
+        }
+        if (s >= segment.length() || segment.charAt(s) != c) {
+          return false;
+        }
+        g++;
+        s++;
+      }
+      return s == segment.length();
+    }
+  }
+}
@@ -0,0 +1,181 @@
+package org.psilynx.psikit.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Samples the main thread's stack when a cycle runs over budget. Enabled with {@link
+ * Logger#enableLoopWatchdog(double)}.
+ *
+ * <p>The main thread only writes a timestamp when the cycle starts and clears it after user code.
+ * A background thread polls that timestamp, and once the budget has passed it takes a stack sample
+ * every fifth of the budget until the cycle finishes. Identical samples are merged and frames
+ * shared with the most common stack are elided, then the report is logged on the next cycle.
+ */
+final class LoopWatchdog {
+  private static final int maxSamples = 20;
+  private static final int maxFrames = 32;
+  private static final String prefix = "PsiKit/Watchdog/";
+
+  private final long budgetNanos;
+  private final long sampleIntervalNanos;
+  private final long idlePollNanos;
+
+  private volatile Thread mainThread;
+  private volatile long armedAtNanos = 0; // Zero when disarmed
+  private volatile Thread thread;
+  private final AtomicReference<String> pendingReport = new AtomicReference<>();
+
+  // Main thread only
+  private long overrunCount = 0;
+  private long lastOverrunNanos = 0;
+  private boolean overrunThisCycle = false;
+
+  LoopWatchdog(double budgetSeconds) {
+    if (!(budgetSeconds > 0.0)) {
+      throw new IllegalArgumentException("Watchdog budget must be positive");
+    }
+    budgetNanos = (long) (budgetSeconds * 1e9);
+    sampleIntervalNanos = Math.max(budgetNanos / 5, 1_000_000L);
+    idlePollNanos = Math.max(budgetNanos / 4, 1_000_000L);
+  }
+
+  /** Starts the watchdog thread. */
+  void start() {
+    if (thread != null) {
+      return;
+    }
+    final Thread t = new Thread(this::run, "PsiKit_LoopWatchdog");
+    t.setDaemon(true);
+    thread = t;
+    t.start();
+  }
+
+  /** Stops the watchdog thread. */
+  void end() {
+    final Thread t = thread;
+    if (t != null) {
+      t.interrupt();
+      thread = null;
+    }
+    armedAtNanos = 0;
+  }
+
+  /** Called by the main thread when a cycle starts. */
+  void arm() {
+    Thread current = Thread.currentThread();
+    if (mainThread != current) {
+      mainThread = current;
+    }
+    armedAtNanos = System.nanoTime();
+  }
+
+  /** Called by the main thread when user code has finished. */
+  void disarm() {
+    long armed = armedAtNanos;
+    if (armed == 0) {
+      return;
+    }
+    armedAtNanos = 0;
+    long elapsed = System.nanoTime() - armed;
+    if (elapsed > budgetNanos) {
+      overrunCount++;
+      lastOverrunNanos = elapsed;
+      overrunThisCycle = true;
+    }
+  }
+
+  /** Records overruns and any finished stack report as outputs. Called by the main thread. */
+  void record() {
+    if (overrunThisCycle) {
+      overrunThisCycle = false;
+      Logger.recordOutput(prefix + "Overruns", overrunCount);
+      Logger.recordOutput(prefix + "OverrunMS", lastOverrunNanos / 1e6);
+    }
+    if (pendingReport.get() != null) {
+      String report = pendingReport.getAndSet(null);
+      if (report != null) {
+        Logger.recordOutput(prefix + "OverrunStack", report);
+      }
+    }
+  }
+
+  private void run() {
+    Thread self = Thread.currentThread();
+    while (!self.isInterrupted()) {
+      long armed = armedAtNanos;
+      if (armed == 0) {
+        LockSupport.parkNanos(idlePollNanos);
+        continue;
+      }
+      long wait = armed + budgetNanos - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+        continue;
+      }
+
+      // Over budget, sample until the cycle finishes
+      Thread target = mainThread;
+      List<StackTraceElement[]> samples = new ArrayList<>();
+      while (armedAtNanos == armed && samples.size() < maxSamples && !self.isInterrupted()) {
+        StackTraceElement[] stack = target.getStackTrace();
+        if (stack.length > 0) {
+          samples.add(stack);
+        }
+        LockSupport.parkNanos(sampleIntervalNanos);
+      }
+      if (!samples.isEmpty()) {
+        pendingReport.set(format(samples));
+      }
+
+      // Report each overrun once, however long it lasts
+      while (armedAtNanos == armed && !self.isInterrupted()) {
+        LockSupport.parkNanos(idlePollNanos);
+      }
+    }
+  }
+
+  /** Merges identical samples, most common first, eliding frames shared with the first stack. */
+  private static String format(List<StackTraceElement[]> samples) {
+    Map<List<StackTraceElement>, Integer> counts = new LinkedHashMap<>();
+    for (StackTraceElement[] sample : samples) {
+      List<StackTraceElement> stack =
+          Arrays.asList(Arrays.copyOf(sample, Math.min(sample.length, maxFrames)));
+      Integer count = counts.get(stack);
+      counts.put(stack, count == null ? 1 : count + 1);
+    }
+    List<Map.Entry<List<StackTraceElement>, Integer>> stacks = new ArrayList<>(counts.entrySet());
+    stacks.sort((a, b) -> b.getValue() - a.getValue());
+
+    StringBuilder report = new StringBuilder();
+    List<StackTraceElement> first = stacks.get(0).getKey();
+    for (Map.Entry<List<StackTraceElement>, Integer> entry : stacks) {
+      List<StackTraceElement> stack = entry.getKey();
+      report
+          .append(entry.getValue())
+          .append('/')
+          .append(samples.size())
+          .append(" samples:\n");
+      int shared = 0;
+      if (stack != first) {
+        while (shared < stack.size()
+            && shared < first.size()
+            && stack.get(stack.size() - 1 - shared).equals(first.get(first.size() - 1 - shared))) {
+          shared++;
+        }
+      }
+      for (int i = 0; i < stack.size() - shared; i++) {
+        report.append("  at ").append(stack.get(i)).append('\n');
+      }
+      if (shared > 0) {
+        report.append("  ... ").append(shared).append(" frames as above\n");
+      }
+    }
+    return report.toString().trim();
+  }
+}
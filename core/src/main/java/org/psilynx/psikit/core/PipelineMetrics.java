@@ -0,0 +1,229 @@
+package org.psilynx.psikit.core;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measurements of the logging pipeline for one {@link LoggerContext}: how long the main thread
+ * takes to snapshot each cycle, how full the receiver queue gets, how long each data receiver
+ * spends in {@code putTable}, how many bytes the RLOG receivers encode, and how many keys change
+ * per cycle.
+ *
+ * <p>Read the latest values with {@link Logger#getPipelineMetrics()}. Every sample period (each
+ * cycle by default) they are also recorded as outputs under {@code PsiKit/Pipeline/}. Values
+ * measured on the receiver thread lag the main thread by at least one cycle.
+ */
+public final class PipelineMetrics {
+  private static final String prefix = "PsiKit/Pipeline/";
+
+  private volatile int samplePeriod = 1;
+
+  // Written by the main thread
+  private long snapshotNanos = 0;
+  private int queueDepth = 0;
+  private int queueHighWaterMark = 0;
+  private long droppedCycles = 0;
+
+  // Written by the receiver thread
+  private volatile int keysTotal = 0;
+  private volatile int keysChanged = 0;
+  private volatile long encodedBytes = 0;
+  private volatile long receivedCycles = 0;
+  private volatile String[] receiverNames = new String[0];
+  private volatile String[] receiverKeys = new String[0];
+  private volatile AtomicLongArray receiverNanos = new AtomicLongArray(0);
+  private long pendingEncodedBytes = 0;
+  private Map<String, LogTable.LogValue> lastValues = null; // Only kept before sampled cycles
+  private long lastValuesCycle = -1;
+
+  PipelineMetrics() {}
+
+  /**
+   * Records encoded bytes for the cycle currently being sent to receivers. Called by receivers that
+   * encode data, such as {@code RLOGWriter}; ignored outside of the receiver thread.
+   *
+   * @param bytes The number of bytes encoded.
+   */
+  public static void recordEncodedBytes(long bytes) {
+    if (Thread.currentThread() instanceof ReceiverThread) {
+      Logger.getContext().pipelineMetrics.pendingEncodedBytes += bytes;
+    }
+  }
+
+  /**
+   * Sets how often the metrics are recorded as outputs and keys are compared between cycles.
+   *
+   * @param cycles The number of cycles between samples, or 0 to disable.
+   */
+  public void setSamplePeriod(int cycles) {
+    if (cycles < 0) {
+      throw new IllegalArgumentException("Sample period must not be negative");
+    }
+    samplePeriod = cycles;
+  }
+
+  /** Returns the number of cycles between samples, or 0 if disabled. */
+  public int getSamplePeriod() {
+    return samplePeriod;
+  }
+
+  /** Returns how long the main thread took to copy the last cycle for the receivers. */
+  public long getSnapshotNanos() {
+    return snapshotNanos;
+  }
+
+  /** Returns the number of cycles waiting for the receiver thread after the last cycle. */
+  public int getQueueDepth() {
+    return queueDepth;
+  }
+
+  /** Returns the highest queue depth seen since logging started. */
+  public int getQueueHighWaterMark() {
+    return queueHighWaterMark;
+  }
+
+  /** Returns the number of cycles dropped because the receiver queue was full. */
+  public long getDroppedCycles() {
+    return droppedCycles;
+  }
+
+  /** Returns the number of keys in the last cycle handled by the receiver thread. */
+  public int getKeysTotal() {
+    return keysTotal;
+  }
+
+  /** Returns the number of keys whose value changed in the last cycle. */
+  public int getKeysChanged() {
+    return keysChanged;
+  }
+
+  /** Returns the bytes encoded by all receivers for the last cycle. */
+  public long getEncodedBytes() {
+    return encodedBytes;
+  }
+
+  /** Returns the number of cycles the receiver thread has sent to every receiver. */
+  public long getReceivedCycles() {
+    return receivedCycles;
+  }
+
+  /** Returns the number of data receivers. */
+  public int getReceiverCount() {
+    return receiverNames.length;
+  }
+
+  /** Returns the name of a receiver, which is its class name with a suffix if repeated. */
+  public String getReceiverName(int index) {
+    return receiverNames[index];
+  }
+
+  /** Returns how long a receiver spent in {@code putTable} for the last cycle. */
+  public long getReceiverNanos(int index) {
+    return receiverNanos.get(index);
+  }
+
+  /** Resets all values and names the receivers, before the receiver thread starts. */
+  void reset(List<LogDataReceiver> receivers) {
+    snapshotNanos = 0;
+    queueDepth = 0;
+    queueHighWaterMark = 0;
+    droppedCycles = 0;
+    keysTotal = 0;
+    keysChanged = 0;
+    encodedBytes = 0;
+    receivedCycles = 0;
+    pendingEncodedBytes = 0;
+    lastValues = null;
+    lastValuesCycle = -1;
+
+    String[] names = new String[receivers.size()];
+    String[] keys = new String[names.length];
+    Map<String, Integer> nameCounts = new HashMap<>();
+    for (int i = 0; i < names.length; i++) {
+      // Lambdas and anonymous classes have no usable name
+      Class<?> type = receivers.get(i).getClass();
+      String name =
+          type.isAnonymousClass() || type.isSynthetic() || type.getSimpleName().contains("/")
+              ? "Receiver"
+              : type.getSimpleName();
+      Integer count = nameCounts.get(name);
+      nameCounts.put(name, count == null ? 1 : count + 1);
+      names[i] = count == null ? name : name + (count + 1);
+      keys[i] = prefix + "Receivers/" + names[i] + "/PutTableMS";
+    }
+    receiverNanos = new AtomicLongArray(names.length);
+    receiverKeys = keys;
+    receiverNames = names;
+  }
+
+  /** Records the result of handing one cycle to the receiver queue. */
+  void recordSnapshot(long nanos, int depth, boolean dropped) {
+    snapshotNanos = nanos;
+    queueDepth = depth;
+    queueHighWaterMark = Math.max(queueHighWaterMark, depth);
+    if (dropped) {
+      droppedCycles++;
+    }
+  }
+
+  /** Records the metrics as outputs if this cycle is sampled. Called on the main thread. */
+  void periodic(long cycleCount) {
+    if (samplePeriod == 0 || cycleCount % samplePeriod != 0) {
+      return;
+    }
+    Logger.recordOutput(prefix + "SnapshotMS", snapshotNanos / 1e6);
+    Logger.recordOutput(prefix + "QueueDepth", queueDepth);
+    Logger.recordOutput(prefix + "QueueHighWaterMark", queueHighWaterMark);
+    Logger.recordOutput(prefix + "DroppedCycles", droppedCycles);
+    Logger.recordOutput(prefix + "KeysTotal", keysTotal);
+    Logger.recordOutput(prefix + "KeysChanged", keysChanged);
+    Logger.recordOutput(prefix + "EncodedBytes", encodedBytes);
+    String[] keys = receiverKeys;
+    AtomicLongArray nanos = receiverNanos;
+    for (int i = 0; i < keys.length; i++) {
+      Logger.recordOutput(keys[i], nanos.get(i) / 1e6);
+    }
+  }
+
+  /** Records how long one receiver took. Called on the receiver thread. */
+  void recordReceiver(int index, long nanos) {
+    receiverNanos.set(index, nanos);
+  }
+
+  /**
+   * Finishes one cycle on the receiver thread. On sampled cycles its keys are compared to the
+   * previous cycle, which is only kept when the next cycle will be sampled.
+   */
+  void recordReceived(LogTable entry) {
+    encodedBytes = pendingEncodedBytes;
+    pendingEncodedBytes = 0;
+    long cycle = receivedCycles;
+    int period = samplePeriod;
+    Map<String, LogTable.LogValue> values = null;
+    if (period != 0 && (cycle + 1) % period == 0) {
+      values = entry.getAll(false);
+      Map<String, LogTable.LogValue> last = lastValuesCycle == cycle - 1 ? lastValues : null;
+      if (last != null || cycle == 0) { // Skipped if the period changed since the last cycle
+        int changed = 0;
+        for (Map.Entry<String, LogTable.LogValue> field : values.entrySet()) {
+          LogTable.LogValue lastValue = last == null ? null : last.get(field.getKey());
+          LogTable.LogValue value = field.getValue();
+          if (lastValue != value && !value.equals(lastValue)) {
+            changed++;
+          }
+        }
+        keysTotal = values.size();
+        keysChanged = changed;
+      }
+    }
+    if (period != 0 && (cycle + 2) % period == 0) {
+      lastValues = values != null ? values : entry.getAll(false);
+      lastValuesCycle = cycle;
+    } else {
+      lastValues = null;
+    }
+    receivedCycles++;
+  }
+}
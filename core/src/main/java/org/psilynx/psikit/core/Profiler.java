@@ -0,0 +1,123 @@
+package org.psilynx.psikit.core;
+
+/**
+ * Measures how long named sections of code take without allocating per measurement. Each section
+ * keeps a {@link LatencyHistogram}, and every publish period (50 cycles by default) the count,
+ * mean, median, 99th percentile and maximum in milliseconds are recorded as outputs under {@code
+ * Profiler/<name>/}, then the histogram is cleared. This shows outliers that a single sample per
+ * cycle would hide.
+ *
+ * <p>Register sections once, for example as fields, and reuse the handle every cycle:
+ *
+ * <pre>
+ * private final Profiler.Section updateSection = Profiler.section("Drive/Update");
+ *
+ * try (Profiler.Section s = updateSection.enter()) {
+ *   update();
+ * }
+ * </pre>
+ *
+ * <p>Sections belong to the current {@link LoggerContext} and, like the rest of {@link Logger},
+ * should only be used from the main thread.
+ */
+public final class Profiler {
+  private Profiler() {}
+
+  /**
+   * Returns the section with the given name, registering it on first use.
+   *
+   * @param name The name used in the output keys, such as "Drive/Update".
+   */
+  public static Section section(String name) {
+    LoggerContext context = Logger.getContext();
+    Section section = context.profilerSections.get(name);
+    if (section == null) {
+      section = new Section(name);
+      context.profilerSections.put(name, section);
+    }
+    return section;
+  }
+
+  /**
+   * Sets how many cycles of samples are combined before publishing each section.
+   *
+   * @param cycles The publish period in cycles, at least 1.
+   */
+  public static void setPublishPeriod(int cycles) {
+    if (cycles < 1) {
+      throw new IllegalArgumentException("Publish period must be at least 1 cycle");
+    }
+    Logger.getContext().profilerPublishPeriod = cycles;
+  }
+
+  /** Publishes and clears every section at the end of each publish period. */
+  static void periodic(LoggerContext context) {
+    if (context.profilerSections.isEmpty()
+        || context.cycleCount % context.profilerPublishPeriod != 0) {
+      return;
+    }
+    for (Section section : context.profilerSections.values()) {
+      section.publish();
+    }
+  }
+
+  /** A named section of code. Not reentrant; nested sections need their own handles. */
+  public static final class Section implements AutoCloseable {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final String countKey;
+    private final String meanKey;
+    private final String p50Key;
+    private final String p99Key;
+    private final String maxKey;
+    private long startNanos;
+    private boolean entered = false;
+
+    private Section(String name) {
+      String prefix = "Profiler/" + name + "/";
+      countKey = prefix + "Count";
+      meanKey = prefix + "MeanMS";
+      p50Key = prefix + "P50MS";
+      p99Key = prefix + "P99MS";
+      maxKey = prefix + "MaxMS";
+    }
+
+    /** Starts timing the section, returning this handle for use with try-with-resources. */
+    public Section enter() {
+      entered = true;
+      startNanos = System.nanoTime();
+      return this;
+    }
+
+    /** Stops timing the section and records the duration. Ignored if not entered. */
+    public void exit() {
+      if (entered) {
+        histogram.record(System.nanoTime() - startNanos);
+        entered = false;
+      }
+    }
+
+    @Override
+    public void close() {
+      exit();
+    }
+
+    /** Records a duration measured elsewhere, in nanoseconds. */
+    public void record(long nanos) {
+      histogram.record(nanos);
+    }
+
+    /** Returns the samples recorded since the last publish. */
+    public LatencyHistogram getHistogram() {
+      return histogram;
+    }
+
+    private void publish() {
+      Logger.recordOutput(countKey, histogram.getCount());
+      Logger.recordOutput(meanKey, histogram.getMean() / 1e6);
+      Logger.recordOutput(p50Key, histogram.getValueAtPercentile(50.0) / 1e6);
+      Logger.recordOutput(p99Key, histogram.getValueAtPercentile(99.0) / 1e6);
+      Logger.recordOutput(maxKey, histogram.getMax() / 1e6);
+      histogram.reset();
+    }
+  }
+}
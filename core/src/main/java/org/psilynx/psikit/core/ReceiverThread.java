@@ -13,13 +13,15 @@ import java.util.concurrent.BlockingQueue;
 
 public class ReceiverThread extends Thread {
 
+  private final LoggerContext context;
   private final BlockingQueue<LogTable> queue;
   private List<LogDataReceiver> dataReceivers = new ArrayList<>();
 
-  ReceiverThread(BlockingQueue<LogTable> queue) {
+  ReceiverThread(LoggerContext context) {
     super("PsiKit_LogReceiver");
     this.setDaemon(true);
-    this.queue = queue;
+    this.context = context;
+    this.queue = context.receiverQueue;
   }
 
   void addDataReceiver(LogDataReceiver dataReceiver) {
@@ -31,6 +33,12 @@ public class ReceiverThread extends Thread {
   }
 
   public void run() {
+    // Receivers see the same context as the thread that started logging (binding the default
+    // context is a no-op, so a single session never enables the thread local lookup)
+    Logger.setThreadContext(context);
+
+    PipelineMetrics metrics = context.pipelineMetrics;
+
     // Start data receivers
     for (int i = 0; i < dataReceivers.size(); i++) {
       dataReceivers.get(i).start();
@@ -42,8 +50,13 @@ public class ReceiverThread extends Thread {
 
         // Send data to receivers
         for (int i = 0; i < dataReceivers.size(); i++) {
+          long start = System.nanoTime();
+          Object event = JfrEvents.beginReceiverPut();
           dataReceivers.get(i).putTable(entry);
+          JfrEvents.commitReceiverPut(event, metrics.getReceiverName(i));
+          metrics.recordReceiver(i, System.nanoTime() - start);
         }
+        metrics.recordReceived(entry);
       }
     } catch (InterruptedException ignored) {
       // Normal shutdown path.
@@ -52,12 +65,17 @@ public class ReceiverThread extends Thread {
       LogTable entry;
       while ((entry = queue.poll()) != null) {
         for (int i = 0; i < dataReceivers.size(); i++) {
+          long start = System.nanoTime();
+          Object event = JfrEvents.beginReceiverPut();
           try {
             dataReceivers.get(i).putTable(entry);
           } catch (InterruptedException ignored) {
             // Ignore; we're shutting down.
           }
+          JfrEvents.commitReceiverPut(event, metrics.getReceiverName(i));
+          metrics.recordReceiver(i, System.nanoTime() - start);
         }
+        metrics.recordReceived(entry);
       }
 
       // End all data receivers
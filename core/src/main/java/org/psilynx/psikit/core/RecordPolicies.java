@@ -0,0 +1,85 @@
+package org.psilynx.psikit.core;
+
+import org.psilynx.psikit.core.LogTable.LogValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The record policies active for one logging session, keyed by full table key. A rule for {@code
+ * "A/B"} applies to the key {@code "A/B"} and every key under {@code "A/B/"}, and the longest
+ * matching rule wins. Keys excluded by the active {@link LoggingProfile} are never stored. The
+ * result for each key is looked up once and cached, so each write costs a single map lookup.
+ */
+final class RecordPolicies {
+  private static final RecordPolicy.KeyState noPolicy = new RecordPolicy.KeyState(null);
+
+  private final Map<String, RecordPolicy> rules = new HashMap<>();
+  private final List<String> rulePrefixes = new ArrayList<>(); // Longest first
+  private final Map<String, RecordPolicy.KeyState> keyStates = new HashMap<>();
+  // States from before the last update, reused by keys whose policy did not change
+  private final Map<String, RecordPolicy.KeyState> previousStates = new HashMap<>();
+  private LoggingProfile.Matcher profile = null;
+  private long suppressedWrites = 0;
+
+  /**
+   * Replaces the rules, keyed by full key, and the compiled profile whose excluded keys are never
+   * stored. Keys whose policy is unchanged keep their state, such as the cycles since their last
+   * write, so changing policies or switching profiles while running does not cause a burst of
+   * writes.
+   */
+  void update(Map<String, RecordPolicy> newRules, LoggingProfile.Matcher newProfile) {
+    rules.clear();
+    rules.putAll(newRules);
+    rulePrefixes.clear();
+    rulePrefixes.addAll(newRules.keySet());
+    rulePrefixes.sort((a, b) -> b.length() - a.length());
+    profile = newProfile;
+    previousStates.putAll(keyStates);
+    keyStates.clear();
+  }
+
+  boolean isEmpty() {
+    return rules.isEmpty() && profile == null;
+  }
+
+  /** Returns whether a value should be stored, counting it if suppressed. */
+  boolean allow(String fullKey, LogValue stored, LogValue value, double timestamp) {
+    RecordPolicy.KeyState state = keyStates.get(fullKey);
+    if (state == null) {
+      state = resolve(fullKey);
+      RecordPolicy.KeyState previous = previousStates.remove(fullKey);
+      if (previous != null && previous.policy == state.policy) {
+        state = previous;
+      }
+      keyStates.put(fullKey, state);
+    }
+    if (state.policy == null || state.policy.allow(state, stored, value, timestamp)) {
+      return true;
+    }
+    suppressedWrites++;
+    return false;
+  }
+
+  /** Returns the number of writes suppressed since the session started. */
+  long getSuppressedWrites() {
+    return suppressedWrites;
+  }
+
+  private RecordPolicy.KeyState resolve(String fullKey) {
+    if (profile != null && !profile.isIncluded(fullKey)) {
+      return new RecordPolicy.KeyState(RecordPolicy.never);
+    }
+    for (String prefix : rulePrefixes) {
+      if (prefix.isEmpty()
+          || fullKey.equals(prefix)
+          || (fullKey.startsWith(prefix)
+              && (prefix.endsWith("/") || fullKey.charAt(prefix.length()) == '/'))) {
+        return new RecordPolicy.KeyState(rules.get(prefix));
+      }
+    }
+    return noPolicy;
+  }
+}
@@ -0,0 +1,192 @@
+package org.psilynx.psikit.core;
+
+import org.psilynx.psikit.core.LogTable.LogValue;
+
+/**
+ * A rule deciding whether a new value for a key is stored, set with {@link
+ * Logger#setOutputPolicy(String, RecordPolicy)}. When a write is suppressed, the key keeps its
+ * previous value, so receivers that only send changes have nothing new to send.
+ *
+ * <p>Deadbands apply to numeric values and arrays (compared element by element); other types are
+ * stored only when they change. The first value for a key, and any change in array length, is
+ * always stored. Immutable struct values are compared with their own {@code equals}, so policies
+ * do not pack them on the main thread.
+ */
+public final class RecordPolicy {
+  private enum Kind {
+    ABSOLUTE_DEADBAND,
+    RELATIVE_DEADBAND,
+    EVERY_N_CYCLES,
+    MIN_INTERVAL,
+    ON_CHANGE,
+    NEVER
+  }
+
+  private final Kind kind;
+  private final double threshold;
+  private final int cycles;
+
+  private RecordPolicy(Kind kind, double threshold, int cycles) {
+    this.kind = kind;
+    this.threshold = threshold;
+    this.cycles = cycles;
+  }
+
+  /**
+   * Stores a value only if it differs from the stored value by more than the given amount.
+   *
+   * @param deadband The largest change that is ignored, such as 1e-6.
+   */
+  public static RecordPolicy absoluteDeadband(double deadband) {
+    if (!(deadband >= 0.0)) {
+      throw new IllegalArgumentException("Deadband must not be negative");
+    }
+    return new RecordPolicy(Kind.ABSOLUTE_DEADBAND, deadband, 0);
+  }
+
+  /**
+   * Stores a value only if it differs from the stored value by more than the given fraction of the
+   * stored value.
+   *
+   * @param fraction The largest relative change that is ignored, such as 0.001 for 0.1%.
+   */
+  public static RecordPolicy relativeDeadband(double fraction) {
+    if (!(fraction >= 0.0)) {
+      throw new IllegalArgumentException("Deadband must not be negative");
+    }
+    return new RecordPolicy(Kind.RELATIVE_DEADBAND, fraction, 0);
+  }
+
+  /**
+   * Stores only the first of every {@code cycles} writes to a key.
+   *
+   * @param cycles The number of writes per stored value, such as 5 to log at 10Hz from a 50Hz loop.
+   */
+  public static RecordPolicy everyNCycles(int cycles) {
+    if (cycles < 1) {
+      throw new IllegalArgumentException("Cycles must be at least one");
+    }
+    return new RecordPolicy(Kind.EVERY_N_CYCLES, 0.0, cycles);
+  }
+
+  /**
+   * Stores a value only if the given time has passed since the last stored value, measured with the
+   * log timestamp so that replay makes the same decisions.
+   *
+   * @param seconds The minimum time between stored values.
+   */
+  public static RecordPolicy minInterval(double seconds) {
+    if (!(seconds >= 0.0)) {
+      throw new IllegalArgumentException("Interval must not be negative");
+    }
+    return new RecordPolicy(Kind.MIN_INTERVAL, seconds, 0);
+  }
+
+  /** Stores a value only if it is not equal to the stored value. */
+  public static RecordPolicy onChange() {
+    return new RecordPolicy(Kind.ON_CHANGE, 0.0, 0);
+  }
+
+  /** Never stores a value, for keys excluded by the active {@link LoggingProfile}. */
+  static final RecordPolicy never = new RecordPolicy(Kind.NEVER, 0.0, 0);
+
+  /** Per-key state for one policy. */
+  static final class KeyState {
+    final RecordPolicy policy;
+    long writes = 0;
+    double lastStoredTimestamp = Double.NEGATIVE_INFINITY;
+
+    KeyState(RecordPolicy policy) {
+      this.policy = policy;
+    }
+  }
+
+  /** Returns whether the value should replace the stored value, updating the key's state. */
+  boolean allow(KeyState state, LogValue stored, LogValue value, double timestamp) {
+    boolean allowed;
+    switch (kind) {
+      case EVERY_N_CYCLES:
+        allowed = state.writes % cycles == 0;
+        state.writes++;
+        return allowed;
+      case MIN_INTERVAL:
+        allowed = timestamp - state.lastStoredTimestamp >= threshold;
+        break;
+      case ON_CHANGE:
+        allowed = stored == null || value.differsFrom(stored);
+        break;
+      case NEVER:
+        return false;
+      default:
+        allowed = stored == null || exceedsDeadband(stored, value);
+        break;
+    }
+    if (allowed) {
+      state.lastStoredTimestamp = timestamp;
+    }
+    return allowed;
+  }
+
+  private boolean exceedsDeadband(LogValue stored, LogValue value) {
+    switch (value.type) {
+      case Integer:
+        return exceeds(stored.getInteger(), value.getInteger());
+      case Float:
+        return exceeds(stored.getFloat(), value.getFloat());
+      case Double:
+        return exceeds(stored.getDouble(), value.getDouble());
+      case IntegerArray:
+        {
+          long[] a = stored.getIntegerArray();
+          long[] b = value.getIntegerArray();
+          if (a.length != b.length) {
+            return true;
+          }
+          for (int i = 0; i < a.length; i++) {
+            if (exceeds(a[i], b[i])) {
+              return true;
+            }
+          }
+          return false;
+        }
+      case FloatArray:
+        {
+          float[] a = stored.getFloatArray();
+          float[] b = value.getFloatArray();
+          if (a.length != b.length) {
+            return true;
+          }
+          for (int i = 0; i < a.length; i++) {
+            if (exceeds(a[i], b[i])) {
+              return true;
+            }
+          }
+          return false;
+        }
+      case DoubleArray:
+        {
+          double[] a = stored.getDoubleArray();
+          double[] b = value.getDoubleArray();
+          if (a.length != b.length) {
+            return true;
+          }
+          for (int i = 0; i < a.length; i++) {
+            if (exceeds(a[i], b[i])) {
+              return true;
+            }
+          }
+          return false;
+        }
+      default:
+        return value.differsFrom(stored);
+    }
+  }
+
+  private boolean exceeds(double stored, double value) {
+    if (Double.isNaN(stored) != Double.isNaN(value)) {
+      return true;
+    }
+    double limit = kind == Kind.ABSOLUTE_DEADBAND ? threshold : threshold * Math.abs(stored);
+    return Math.abs(value - stored) > limit;
+  }
+}
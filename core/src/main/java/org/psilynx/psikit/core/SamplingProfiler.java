@@ -0,0 +1,147 @@
+package org.psilynx.psikit.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Continuously samples the main thread's stack and counts the samples per collapsed stack (root
+ * first, frames separated by semicolons), the input format of flame graph tools. Enabled with
+ * {@link Logger#enableSamplingProfiler(double, int)}.
+ *
+ * <p>Sampling and aggregation happen on a background thread. At most 1000 distinct stacks are
+ * kept; later new stacks are counted as {@code [other]}. Every second the most common stacks since
+ * logging started are handed to the main thread and logged as lines of {@code "stack count"}, so
+ * the last value in a log is the profile of the whole session.
+ */
+final class SamplingProfiler {
+  private static final int maxStacks = 1000;
+  private static final int maxFrames = 64;
+  private static final long publishIntervalNanos = 1_000_000_000L;
+  private static final String otherStack = "[other]";
+  private static final String prefix = "PsiKit/SamplingProfiler/";
+
+  private final long sampleIntervalNanos;
+  private final int topStacks;
+
+  private volatile Thread mainThread;
+  private volatile Thread thread;
+  private volatile long sampleCount = 0;
+  private final AtomicReference<String[]> pendingTop = new AtomicReference<>();
+
+  // Profiler thread only
+  private final Map<String, long[]> counts = new HashMap<>();
+  private final StringBuilder builder = new StringBuilder();
+
+  SamplingProfiler(double sampleRateHz, int topStacks) {
+    if (!(sampleRateHz > 0.0)) {
+      throw new IllegalArgumentException("Sample rate must be positive");
+    }
+    if (topStacks < 1) {
+      throw new IllegalArgumentException("At least one stack must be logged");
+    }
+    this.sampleIntervalNanos = Math.max((long) (1e9 / sampleRateHz), 100_000L);
+    this.topStacks = topStacks;
+  }
+
+  /** Starts the sampling thread. */
+  void start() {
+    if (thread != null) {
+      return;
+    }
+    final Thread t = new Thread(this::run, "PsiKit_SamplingProfiler");
+    t.setDaemon(true);
+    thread = t;
+    t.start();
+  }
+
+  /** Stops the sampling thread. */
+  void end() {
+    final Thread t = thread;
+    if (t != null) {
+      t.interrupt();
+      thread = null;
+    }
+  }
+
+  /** Called by the main thread each cycle so the profiler knows which thread to sample. */
+  void setMainThread() {
+    Thread current = Thread.currentThread();
+    if (mainThread != current) {
+      mainThread = current;
+    }
+  }
+
+  /** Records the latest top stacks as outputs when a new set is ready. Called by the main thread. */
+  void record() {
+    if (pendingTop.get() != null) {
+      String[] top = pendingTop.getAndSet(null);
+      if (top != null) {
+        Logger.recordOutput(prefix + "Samples", sampleCount);
+        Logger.recordOutput(prefix + "CollapsedStacks", top);
+      }
+    }
+  }
+
+  private void run() {
+    Thread self = Thread.currentThread();
+    long nextPublish = System.nanoTime() + publishIntervalNanos;
+    while (!self.isInterrupted()) {
+      LockSupport.parkNanos(sampleIntervalNanos);
+      Thread target = mainThread;
+      if (target != null) {
+        sample(target.getStackTrace());
+      }
+      long now = System.nanoTime();
+      if (now - nextPublish >= 0) {
+        pendingTop.set(top());
+        nextPublish = now + publishIntervalNanos;
+      }
+    }
+  }
+
+  private void sample(StackTraceElement[] stack) {
+    if (stack.length == 0) {
+      return;
+    }
+    builder.setLength(0);
+    int frames = Math.min(stack.length, maxFrames);
+    if (frames < stack.length) {
+      builder.append("[truncated];");
+    }
+    for (int i = frames - 1; i >= 0; i--) {
+      builder.append(stack[i].getClassName()).append('.').append(stack[i].getMethodName());
+      if (i > 0) {
+        builder.append(';');
+      }
+    }
+    String key = builder.toString();
+    long[] count = counts.get(key);
+    if (count == null) {
+      if (counts.size() >= maxStacks) {
+        key = otherStack;
+        count = counts.get(key);
+      }
+      if (count == null) {
+        count = new long[1];
+        counts.put(key, count);
+      }
+    }
+    count[0]++;
+    sampleCount++;
+  }
+
+  private String[] top() {
+    List<Map.Entry<String, long[]>> entries = new ArrayList<>(counts.entrySet());
+    entries.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+    String[] top = new String[Math.min(topStacks, entries.size())];
+    for (int i = 0; i < top.length; i++) {
+      Map.Entry<String, long[]> entry = entries.get(i);
+      top[i] = entry.getKey() + " " + entry.getValue()[0];
+    }
+    return top;
+  }
+}
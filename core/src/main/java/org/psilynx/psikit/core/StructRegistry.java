@@ -0,0 +1,128 @@
+package org.psilynx.psikit.core;
+
+import org.psilynx.psikit.core.LogTable.LogValue;
+import org.psilynx.psikit.core.wpi.Struct;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide struct information, worked out once and shared by every table. Each class's struct
+ * is found through its static {@code struct} field the first time it is logged, and each struct's
+ * type strings and schemas (including nested structs) are built the first time it is written.
+ * Every schema is also recorded by type name, so two structs that share a type name but not a
+ * schema are reported instead of one of them being silently decoded with the other's layout.
+ */
+final class StructRegistry {
+  private static final Object noStruct = new Object();
+  private static final Map<Class<?>, Object> classStructs = new ConcurrentHashMap<>();
+  private static final Map<Struct<?>, Info> infos = new ConcurrentHashMap<>();
+  private static final Map<String, String> schemasByType = new ConcurrentHashMap<>();
+
+  private StructRegistry() {}
+
+  /** Returns the struct declared by a class, or null if it has none. */
+  static Struct<?> forClass(Class<?> type) {
+    Object struct = classStructs.get(type);
+    if (struct == null) {
+      struct = findStruct(type);
+      classStructs.put(type, struct);
+    }
+    return struct == noStruct ? null : (Struct<?>) struct;
+  }
+
+  /** Returns the type strings and schemas of a struct. */
+  static Info get(Struct<?> struct) {
+    Info info = infos.get(struct);
+    if (info == null) {
+      info = new Info(struct); // May be built twice by racing threads, which is harmless
+      infos.put(struct, info);
+    }
+    return info;
+  }
+
+  private static Object findStruct(Class<?> type) {
+    try {
+      Field field = type.getDeclaredField("struct");
+      if (Modifier.isStatic(field.getModifiers())) {
+        Object value = field.get(null);
+        if (value instanceof Struct) {
+          return value;
+        }
+      }
+    } catch (NoSuchFieldException
+        | SecurityException
+        | IllegalArgumentException
+        | IllegalAccessException e) {
+    }
+    return noStruct;
+  }
+
+  /** What a table needs to store values of one struct. */
+  static final class Info {
+    final String typeString;
+    final String arrayTypeString;
+    private final String[] schemaKeys; // This struct first, then nested structs
+    private final LogValue[] schemas;
+
+    private Info(Struct<?> struct) {
+      typeString = struct.getTypeString();
+      arrayTypeString = typeString + "[]";
+      List<String> keys = new ArrayList<>();
+      List<LogValue> values = new ArrayList<>();
+      addSchemas(struct, new HashSet<>(), keys, values);
+      schemaKeys = keys.toArray(new String[0]);
+      schemas = values.toArray(new LogValue[0]);
+    }
+
+    private static void addSchemas(
+        Struct<?> struct, Set<String> seen, List<String> keys, List<LogValue> values) {
+      String typeString = struct.getTypeString();
+      String key = "/.schema/" + typeString;
+      if (keys.contains(key)) {
+        return;
+      }
+      if (!seen.add(typeString)) {
+        throw new UnsupportedOperationException(typeString + ": circular reference with " + seen);
+      }
+      String schema = struct.getSchema();
+      String previous = schemasByType.putIfAbsent(typeString, schema);
+      if (previous != null && !previous.equals(schema)) {
+        Logger.logError(
+            "Struct type "
+                + typeString
+                + " is logged with two different schemas (\""
+                + previous
+                + "\" and \""
+                + schema
+                + "\"), give each struct a unique type name");
+      }
+      keys.add(key);
+      values.add(new LogValue(schema.getBytes(StandardCharsets.UTF_8), "structschema"));
+      for (Struct<?> inner : struct.getNested()) {
+        addSchemas(inner, seen, keys, values);
+      }
+      seen.remove(typeString);
+    }
+
+    /**
+     * Adds the schemas to a table's data unless they are already there. They are always added
+     * together, so checking the first key is enough.
+     */
+    void register(Map<String, LogValue> data) {
+      if (data.containsKey(schemaKeys[0])) {
+        return;
+      }
+      for (int i = 0; i < schemaKeys.length; i++) {
+        data.putIfAbsent(schemaKeys[i], schemas[i]);
+      }
+    }
+  }
+}
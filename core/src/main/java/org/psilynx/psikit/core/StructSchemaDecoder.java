@@ -0,0 +1,362 @@
+package org.psilynx.psikit.core;
+
+import org.psilynx.psikit.core.LogTable.LogValue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads struct values using only the schemas stored in a log under {@code /.schema/}, without the
+ * Java classes that wrote them. Each schema is compiled once into a {@link Layout} of field offsets,
+ * and {@link Field}s read primitives straight from the payload, so analysis tools can pull a single
+ * number such as {@code translation.x} from a {@code Pose2d} without building any objects.
+ *
+ * <pre>{@code
+ * StructSchemaDecoder decoder = new StructSchemaDecoder();
+ * decoder.addSchemas(table);
+ * StructSchemaDecoder.Field x = decoder.getLayout("Pose2d").field("translation.x");
+ * double value = x.getDouble(table.get("RealOutputs/Pose").getRawBuffer(), 0);
+ * }</pre>
+ *
+ * <p>Payloads are read little endian, as structs are stored. Bit-field members are not supported.
+ */
+public final class StructSchemaDecoder {
+  private static final String schemaPrefix = "/.schema/struct:";
+
+  /** The primitive types a struct member can have. */
+  public enum Type {
+    BOOL(1),
+    CHAR(1),
+    INT8(1),
+    INT16(2),
+    INT32(4),
+    INT64(8),
+    UINT8(1),
+    UINT16(2),
+    UINT32(4),
+    UINT64(8),
+    FLOAT(4),
+    DOUBLE(8),
+    STRUCT(0);
+
+    private final int size;
+
+    Type(int size) {
+      this.size = size;
+    }
+
+    private static Type parse(String name) {
+      switch (name) {
+        case "bool":
+          return BOOL;
+        case "char":
+          return CHAR;
+        case "int8":
+          return INT8;
+        case "int16":
+          return INT16;
+        case "int32":
+          return INT32;
+        case "int64":
+          return INT64;
+        case "uint8":
+          return UINT8;
+        case "uint16":
+          return UINT16;
+        case "uint32":
+          return UINT32;
+        case "uint64":
+          return UINT64;
+        case "float":
+        case "float32":
+          return FLOAT;
+        case "double":
+        case "float64":
+          return DOUBLE;
+        default:
+          return STRUCT;
+      }
+    }
+  }
+
+  private final Map<String, String> schemas = new HashMap<>();
+  private final Map<String, Layout> layouts = new HashMap<>();
+
+  /** Adds the schema of a struct type, such as {@code "Pose2d"}. */
+  public synchronized void addSchema(String typeName, String schema) {
+    if (!schema.equals(schemas.put(typeName, schema))) {
+      layouts.clear(); // Nested layouts may have changed
+    }
+  }
+
+  /** Adds every struct schema stored in a table. */
+  public void addSchemas(LogTable table) {
+    for (Map.Entry<String, LogValue> entry : table.getAll(false).entrySet()) {
+      String key = entry.getKey();
+      if (key.startsWith(schemaPrefix)) {
+        addSchema(
+            key.substring(schemaPrefix.length()),
+            new String(entry.getValue().getRaw(), StandardCharsets.UTF_8));
+      }
+    }
+  }
+
+  /**
+   * Returns the compiled layout of a struct type. The type may also be given as a log type string
+   * such as {@code "struct:Pose2d[]"}.
+   *
+   * @throws IllegalArgumentException If the type or a nested type has no schema, or a schema is
+   *     invalid.
+   */
+  public synchronized Layout getLayout(String typeName) {
+    if (typeName.startsWith("struct:")) {
+      typeName = typeName.substring("struct:".length());
+    }
+    if (typeName.endsWith("[]")) {
+      typeName = typeName.substring(0, typeName.length() - 2);
+    }
+    return compile(typeName, new HashSet<>());
+  }
+
+  private Layout compile(String typeName, Set<String> compiling) {
+    Layout layout = layouts.get(typeName);
+    if (layout != null) {
+      return layout;
+    }
+    String schema = schemas.get(typeName);
+    if (schema == null) {
+      throw new IllegalArgumentException("No schema for struct " + typeName);
+    }
+    if (!compiling.add(typeName)) {
+      throw new IllegalArgumentException(typeName + ": circular reference with " + compiling);
+    }
+    List<Field> fields = new ArrayList<>();
+    int offset = 0;
+    for (String declaration : schema.split(";")) {
+      declaration = declaration.trim();
+      if (declaration.isEmpty()) {
+        continue;
+      }
+      if (declaration.startsWith("enum")) {
+        int end = declaration.indexOf('}');
+        if (end < 0) {
+          throw new IllegalArgumentException(typeName + ": invalid enum in \"" + declaration + "\"");
+        }
+        declaration = declaration.substring(end + 1).trim(); // Values are not needed to read it
+      }
+      if (declaration.indexOf(':') >= 0) {
+        throw new IllegalArgumentException(
+            typeName + ": bit-fields are not supported in \"" + declaration + "\"");
+      }
+      String[] parts = declaration.split("\\s+", 2);
+      if (parts.length != 2) {
+        throw new IllegalArgumentException(typeName + ": invalid member \"" + declaration + "\"");
+      }
+      String name = parts[1].replace(" ", "");
+      int length = 1;
+      boolean array = false;
+      int bracket = name.indexOf('[');
+      if (bracket >= 0) {
+        if (!name.endsWith("]")) {
+          throw new IllegalArgumentException(typeName + ": invalid member \"" + declaration + "\"");
+        }
+        length = Integer.parseInt(name.substring(bracket + 1, name.length() - 1));
+        name = name.substring(0, bracket);
+        array = true;
+      }
+      Type type = Type.parse(parts[0]);
+      Layout nested = type == Type.STRUCT ? compile(parts[0], compiling) : null;
+      int size = nested != null ? nested.size : type.size;
+      fields.add(new Field(name, type, nested, offset, size, array ? length : 0));
+      offset += size * length;
+    }
+    compiling.remove(typeName);
+    layout = new Layout(typeName, fields, offset);
+    layouts.put(typeName, layout);
+    return layout;
+  }
+
+  /** The members of one struct type, in order. */
+  public static final class Layout {
+    private final String typeName;
+    private final List<Field> fields;
+    private final Map<String, Field> byName = new HashMap<>();
+    private final int size;
+
+    private Layout(String typeName, List<Field> fields, int size) {
+      this.typeName = typeName;
+      this.fields = Collections.unmodifiableList(fields);
+      this.size = size;
+      for (Field field : fields) {
+        byName.put(field.name, field);
+      }
+    }
+
+    public String getTypeName() {
+      return typeName;
+    }
+
+    /** Returns the size of one value in bytes, which is also the stride of struct arrays. */
+    public int getSize() {
+      return size;
+    }
+
+    public List<Field> getFields() {
+      return fields;
+    }
+
+    /**
+     * Returns a field found by a path through nested structs, such as {@code "translation.x"} or
+     * {@code "modules[2].angle"}. The returned field's offset is from the start of this struct.
+     *
+     * @throws IllegalArgumentException If no such field exists.
+     */
+    public Field field(String path) {
+      Layout layout = this;
+      Field result = null;
+      int offset = 0;
+      for (String part : path.split("\\.")) {
+        if (layout == null) {
+          throw new IllegalArgumentException(result.name + " in " + path + " is not a struct");
+        }
+        int index = -1;
+        int bracket = part.indexOf('[');
+        if (bracket >= 0 && part.endsWith("]")) {
+          index = Integer.parseInt(part.substring(bracket + 1, part.length() - 1));
+          part = part.substring(0, bracket);
+        }
+        Field field = layout.byName.get(part);
+        if (field == null) {
+          throw new IllegalArgumentException("No field " + part + " in " + layout.typeName);
+        }
+        offset += field.offset;
+        if (index >= 0) {
+          if (index >= field.getLength()) {
+            throw new IllegalArgumentException(part + " has no element " + index);
+          }
+          offset += index * field.size;
+          field = new Field(field.name, field.type, field.layout, field.offset, field.size, 0);
+        }
+        result = field;
+        layout = field.layout;
+      }
+      return offset == result.offset
+          ? result
+          : new Field(result.name, result.type, result.layout, offset, result.size, result.length);
+    }
+  }
+
+  /** A member of a struct, reading its value from a payload without creating objects. */
+  public static final class Field {
+    private final String name;
+    private final Type type;
+    private final Layout layout;
+    private final int offset;
+    private final int size;
+    private final int length; // 0 if not an array
+
+    private Field(String name, Type type, Layout layout, int offset, int size, int length) {
+      this.name = name;
+      this.type = type;
+      this.layout = layout;
+      this.offset = offset;
+      this.size = size;
+      this.length = length;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public Type getType() {
+      return type;
+    }
+
+    /** Returns the layout of a nested struct member, or null for primitives. */
+    public Layout getLayout() {
+      return layout;
+    }
+
+    /** Returns the offset from the start of the struct in bytes. */
+    public int getOffset() {
+      return offset;
+    }
+
+    public boolean isArray() {
+      return length > 0;
+    }
+
+    /** Returns the number of elements, which is 1 for members that are not arrays. */
+    public int getLength() {
+      return Math.max(length, 1);
+    }
+
+    /** Reads a numeric member as a double, from the struct starting at {@code base}. */
+    public double getDouble(ByteBuffer bb, int base) {
+      return getDouble(bb, base, 0);
+    }
+
+    /** Reads one element of a numeric array member as a double. */
+    public double getDouble(ByteBuffer bb, int base, int index) {
+      int position = base + offset + index * size;
+      switch (type) {
+        case FLOAT:
+          return bb.getFloat(position);
+        case DOUBLE:
+          return bb.getDouble(position);
+        case UINT64:
+          long value = bb.getLong(position);
+          return value >= 0 ? value : (value >>> 1) * 2.0 + (value & 1);
+        default:
+          return getLong(bb, base, index);
+      }
+    }
+
+    /** Reads an integer, bool or char member as a long, from the struct starting at {@code base}. */
+    public long getLong(ByteBuffer bb, int base) {
+      return getLong(bb, base, 0);
+    }
+
+    /** Reads one element of an integer array member as a long. */
+    public long getLong(ByteBuffer bb, int base, int index) {
+      int position = base + offset + index * size;
+      switch (type) {
+        case BOOL:
+        case CHAR:
+        case UINT8:
+          return bb.get(position) & 0xFFL;
+        case INT8:
+          return bb.get(position);
+        case INT16:
+          return bb.getShort(position);
+        case UINT16:
+          return bb.getShort(position) & 0xFFFFL;
+        case INT32:
+          return bb.getInt(position);
+        case UINT32:
+          return bb.getInt(position) & 0xFFFFFFFFL;
+        case INT64:
+        case UINT64:
+          return bb.getLong(position);
+        case FLOAT:
+          return (long) bb.getFloat(position);
+        case DOUBLE:
+          return (long) bb.getDouble(position);
+        default:
+          throw new UnsupportedOperationException(name + " is a struct, not a number");
+      }
+    }
+
+    /** Reads a bool member, from the struct starting at {@code base}. */
+    public boolean getBoolean(ByteBuffer bb, int base) {
+      return getLong(bb, base, 0) != 0;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package org.psilynx.psikit.core.nt4;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Minimal MessagePack decoder covering the types used by NT4 value messages. Integers are returned
+ * as {@link Long}, arrays as {@code Object[]}, binary as {@code byte[]}.
+ */
+public class MessagePackReader {
+  private final ByteBuffer buffer;
+
+  public MessagePackReader(byte[] data, int offset, int length) {
+    this.buffer = ByteBuffer.wrap(data, offset, length);
+  }
+
+  public MessagePackReader(byte[] data) {
+    this(data, 0, data.length);
+  }
+
+  /** Returns whether there is more data to read. */
+  public boolean hasNext() {
+    return buffer.hasRemaining();
+  }
+
+  /**
+   * Reads the next value.
+   *
+   * @throws IllegalArgumentException If the data is truncated or uses an unsupported type.
+   */
+  public Object next() {
+    try {
+      return readValue();
+    } catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException("Truncated MessagePack data", e);
+    }
+  }
+
+  private Object readValue() {
+    int b = buffer.get() & 0xff;
+    if (b <= 0x7f) return (long) b;
+    if (b >= 0xe0) return (long) (byte) b;
+    if ((b & 0xf0) == 0x90) return readArray(b & 0x0f);
+    if ((b & 0xe0) == 0xa0) return readString(b & 0x1f);
+    switch (b) {
+      case 0xc0:
+        return null;
+      case 0xc2:
+        return false;
+      case 0xc3:
+        return true;
+      case 0xc4:
+        return readBinary(buffer.get() & 0xff);
+      case 0xc5:
+        return readBinary(buffer.getShort() & 0xffff);
+      case 0xc6:
+        return readBinary(buffer.getInt());
+      case 0xca:
+        return buffer.getFloat();
+      case 0xcb:
+        return buffer.getDouble();
+      case 0xcc:
+        return (long) (buffer.get() & 0xff);
+      case 0xcd:
+        return (long) (buffer.getShort() & 0xffff);
+      case 0xce:
+        return buffer.getInt() & 0xffffffffL;
+      case 0xcf:
+      case 0xd3:
+        return buffer.getLong();
+      case 0xd0:
+        return (long) buffer.get();
+      case 0xd1:
+        return (long) buffer.getShort();
+      case 0xd2:
+        return (long) buffer.getInt();
+      case 0xd9:
+        return readString(buffer.get() & 0xff);
+      case 0xda:
+        return readString(buffer.getShort() & 0xffff);
+      case 0xdb:
+        return readString(buffer.getInt());
+      case 0xdc:
+        return readArray(buffer.getShort() & 0xffff);
+      case 0xdd:
+        return readArray(buffer.getInt());
+      default:
+        throw new IllegalArgumentException("Unsupported MessagePack type 0x" + Integer.toHexString(b));
+    }
+  }
+
+  private Object[] readArray(int length) {
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalArgumentException("Invalid MessagePack array length " + length);
+    }
+    Object[] values = new Object[length];
+    for (int i = 0; i < length; i++) {
+      values[i] = readValue();
+    }
+    return values;
+  }
+
+  private String readString(int length) {
+    return new String(readBinary(length), StandardCharsets.UTF_8);
+  }
+
+  private byte[] readBinary(int length) {
+    if (length < 0 || length > buffer.remaining()) {
+      throw new IllegalArgumentException("Invalid MessagePack length " + length);
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return bytes;
+  }
+}
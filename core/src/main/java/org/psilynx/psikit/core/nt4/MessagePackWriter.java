@@ -0,0 +1,178 @@
+package org.psilynx.psikit.core.nt4;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Minimal MessagePack encoder covering the types used by NT4 value messages. Writes into a
+ * growable byte array that can be reset and reused, so steady-state encoding does not allocate.
+ */
+public class MessagePackWriter {
+  private byte[] buffer;
+  private int size = 0;
+
+  public MessagePackWriter() {
+    this(256);
+  }
+
+  public MessagePackWriter(int initialCapacity) {
+    buffer = new byte[Math.max(16, initialCapacity)];
+  }
+
+  /** Discards all written data, keeping the allocated capacity. */
+  public void reset() {
+    size = 0;
+  }
+
+  /** Returns the number of bytes written. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns the internal buffer. Only the first {@link #size()} bytes are valid. */
+  public byte[] buffer() {
+    return buffer;
+  }
+
+  /** Returns a copy of the written bytes. */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, size);
+  }
+
+  /** Appends raw, already encoded bytes. */
+  public MessagePackWriter writeRaw(byte[] bytes, int offset, int length) {
+    ensureCapacity(length);
+    System.arraycopy(bytes, offset, buffer, size, length);
+    size += length;
+    return this;
+  }
+
+  public MessagePackWriter packNil() {
+    return writeByte(0xc0);
+  }
+
+  public MessagePackWriter packBoolean(boolean value) {
+    return writeByte(value ? 0xc3 : 0xc2);
+  }
+
+  public MessagePackWriter packLong(long value) {
+    if (value >= 0) {
+      if (value < 128) {
+        return writeByte((int) value);
+      } else if (value < (1L << 8)) {
+        return writeByte(0xcc).writeByte((int) value);
+      } else if (value < (1L << 16)) {
+        return writeByte(0xcd).writeShort((int) value);
+      } else if (value < (1L << 32)) {
+        return writeByte(0xce).writeInt((int) value);
+      } else {
+        return writeByte(0xcf).writeLong(value);
+      }
+    } else {
+      if (value >= -32) {
+        return writeByte((int) value & 0xff);
+      } else if (value >= Byte.MIN_VALUE) {
+        return writeByte(0xd0).writeByte((int) value);
+      } else if (value >= Short.MIN_VALUE) {
+        return writeByte(0xd1).writeShort((int) value);
+      } else if (value >= Integer.MIN_VALUE) {
+        return writeByte(0xd2).writeInt((int) value);
+      } else {
+        return writeByte(0xd3).writeLong(value);
+      }
+    }
+  }
+
+  public MessagePackWriter packFloat(float value) {
+    return writeByte(0xca).writeInt(Float.floatToRawIntBits(value));
+  }
+
+  public MessagePackWriter packDouble(double value) {
+    return writeByte(0xcb).writeLong(Double.doubleToRawLongBits(value));
+  }
+
+  public MessagePackWriter packString(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    int length = bytes.length;
+    if (length < 32) {
+      writeByte(0xa0 | length);
+    } else if (length < (1 << 8)) {
+      writeByte(0xd9).writeByte(length);
+    } else if (length < (1 << 16)) {
+      writeByte(0xda).writeShort(length);
+    } else {
+      writeByte(0xdb).writeInt(length);
+    }
+    return writeRaw(bytes, 0, length);
+  }
+
+  public MessagePackWriter packBinary(byte[] value) {
+    packBinaryHeader(value.length);
+    return writeRaw(value, 0, value.length);
+  }
+
+  /**
+   * Appends a binary header and space for its data, returning the offset in {@link #buffer()} where
+   * the caller writes exactly {@code length} bytes.
+   */
+  public int reserveBinary(int length) {
+    packBinaryHeader(length);
+    ensureCapacity(length);
+    int offset = size;
+    size += length;
+    return offset;
+  }
+
+  private void packBinaryHeader(int length) {
+    if (length < (1 << 8)) {
+      writeByte(0xc4).writeByte(length);
+    } else if (length < (1 << 16)) {
+      writeByte(0xc5).writeShort(length);
+    } else {
+      writeByte(0xc6).writeInt(length);
+    }
+  }
+
+  public MessagePackWriter packArrayHeader(int length) {
+    if (length < 16) {
+      return writeByte(0x90 | length);
+    } else if (length < (1 << 16)) {
+      return writeByte(0xdc).writeShort(length);
+    } else {
+      return writeByte(0xdd).writeInt(length);
+    }
+  }
+
+  private MessagePackWriter writeByte(int value) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) value;
+    return this;
+  }
+
+  private MessagePackWriter writeShort(int value) {
+    ensureCapacity(2);
+    buffer[size++] = (byte) (value >>> 8);
+    buffer[size++] = (byte) value;
+    return this;
+  }
+
+  private MessagePackWriter writeInt(int value) {
+    ensureCapacity(4);
+    buffer[size++] = (byte) (value >>> 24);
+    buffer[size++] = (byte) (value >>> 16);
+    buffer[size++] = (byte) (value >>> 8);
+    buffer[size++] = (byte) value;
+    return this;
+  }
+
+  private MessagePackWriter writeLong(long value) {
+    writeInt((int) (value >>> 32));
+    return writeInt((int) value);
+  }
+
+  private void ensureCapacity(int additional) {
+    if (size + additional > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + additional));
+    }
+  }
+}
@@ -0,0 +1,408 @@
+package org.psilynx.psikit.core.nt4;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * State for one NT4 client connected to {@link NT4Publisher}. Handles the WebSocket handshake and
+ * framing (RFC 6455) and tracks the client's subscriptions. Only used from the publisher's server
+ * thread, so it is not thread-safe.
+ */
+class NT4Connection {
+  static final String protocolV40 = "networktables.first.wpi.edu";
+  static final String protocolV41 = "v4.1.networktables.first.wpi.edu";
+
+  static final int opcodeContinuation = 0x0;
+  static final int opcodeText = 0x1;
+  static final int opcodeBinary = 0x2;
+  static final int opcodeClose = 0x8;
+  static final int opcodePing = 0x9;
+  static final int opcodePong = 0xA;
+
+  private static final String websocketGuid = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+  private static final int maxMessageBytes = 1 << 20;
+
+  /** A received WebSocket data message. */
+  static class Message {
+    final int opcode;
+    final byte[] payload;
+
+    Message(int opcode, byte[] payload) {
+      this.opcode = opcode;
+      this.payload = payload;
+    }
+  }
+
+  /** A single client subscription. */
+  static class Subscription {
+    final String[] topics;
+    final boolean prefix;
+    final boolean topicsOnly;
+
+    Subscription(String[] topics, boolean prefix, boolean topicsOnly) {
+      this.topics = topics;
+      this.prefix = prefix;
+      this.topicsOnly = topicsOnly;
+    }
+
+    boolean matches(String name) {
+      for (String topic : topics) {
+        if (prefix ? name.startsWith(topic) : name.equals(topic)) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  final SocketChannel channel;
+  final SelectionKey key;
+  final String address;
+
+  private ByteBuffer readBuffer = ByteBuffer.allocate(4096);
+  private final ArrayDeque<ByteBuffer> outbound = new ArrayDeque<>();
+  private long queuedBytes = 0;
+  private boolean handshakeComplete = false;
+  private boolean closing = false;
+  private int fragmentedOpcode = -1;
+  private ByteArrayOutputStream fragmentedPayload = null;
+
+  final Map<Long, Subscription> subscriptions = new HashMap<>();
+  /** Topics announced to this client. */
+  final BitSet announced = new BitSet();
+  /** Topics whose values this client wants. */
+  final BitSet wanted = new BitSet();
+  /** True if every topic matches a value subscription, so whole cycles can be forwarded. */
+  boolean wantsAll = false;
+  /** True if this client fell behind and must be sent the latest value of every topic. */
+  boolean needsResend = false;
+
+  NT4Connection(SocketChannel channel, SelectionKey key) {
+    this.channel = channel;
+    this.key = key;
+    String remote;
+    try {
+      remote = String.valueOf(channel.getRemoteAddress());
+    } catch (IOException e) {
+      remote = "unknown";
+    }
+    this.address = remote;
+  }
+
+  boolean isHandshakeComplete() {
+    return handshakeComplete;
+  }
+
+  boolean isClosing() {
+    return closing;
+  }
+
+  long getQueuedBytes() {
+    return queuedBytes;
+  }
+
+  /** Returns whether the topic name matches any subscription, and whether values are wanted. */
+  int match(String name) {
+    int result = 0;
+    for (Subscription subscription : subscriptions.values()) {
+      if (subscription.matches(name)) {
+        result |= subscription.topicsOnly ? 1 : 3;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Reads available bytes from the socket.
+   *
+   * @return False if the connection has been closed by the peer.
+   */
+  boolean read() throws IOException {
+    if (!readBuffer.hasRemaining()) {
+      if (readBuffer.capacity() >= maxMessageBytes + 16) {
+        throw new IOException("NT4 client message too large");
+      }
+      ByteBuffer larger = ByteBuffer.allocate(readBuffer.capacity() * 2);
+      readBuffer.flip();
+      larger.put(readBuffer);
+      readBuffer = larger;
+    }
+    return channel.read(readBuffer) >= 0;
+  }
+
+  /**
+   * Attempts to complete the HTTP upgrade handshake from buffered data.
+   *
+   * @return True once the handshake has completed successfully.
+   * @throws IOException If the request is not a valid NT4 WebSocket upgrade.
+   */
+  boolean tryHandshake() throws IOException {
+    readBuffer.flip();
+    int end = indexOfHeaderEnd(readBuffer);
+    if (end < 0) {
+      readBuffer.compact();
+      return false;
+    }
+    byte[] requestBytes = new byte[end];
+    readBuffer.get(requestBytes);
+    readBuffer.compact();
+
+    String[] lines = new String(requestBytes, StandardCharsets.ISO_8859_1).split("\r\n");
+    if (lines.length == 0 || !lines[0].startsWith("GET /nt/")) {
+      rejectHandshake("404 Not Found");
+      throw new IOException("NT4 client requested an invalid path: " + lines[0]);
+    }
+    String websocketKey = null;
+    String protocols = "";
+    for (String line : lines) {
+      int colon = line.indexOf(':');
+      if (colon < 0) continue;
+      String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+      String value = line.substring(colon + 1).trim();
+      if (name.equals("sec-websocket-key")) {
+        websocketKey = value;
+      } else if (name.equals("sec-websocket-protocol")) {
+        protocols = protocols.isEmpty() ? value : protocols + "," + value;
+      }
+    }
+
+    String protocol = null;
+    for (String offered : protocols.split(",")) {
+      offered = offered.trim();
+      if (offered.equals(protocolV40)) {
+        protocol = protocolV40;
+        break;
+      } else if (offered.equals(protocolV41)) {
+        protocol = protocolV41;
+      }
+    }
+    if (websocketKey == null || protocol == null) {
+      rejectHandshake("400 Bad Request");
+      throw new IOException("NT4 client sent an invalid WebSocket upgrade");
+    }
+
+    String response =
+        "HTTP/1.1 101 Switching Protocols\r\n"
+            + "Upgrade: websocket\r\n"
+            + "Connection: Upgrade\r\n"
+            + "Sec-WebSocket-Accept: "
+            + acceptKey(websocketKey)
+            + "\r\n"
+            + "Sec-WebSocket-Protocol: "
+            + protocol
+            + "\r\n\r\n";
+    enqueue(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+    handshakeComplete = true;
+    return true;
+  }
+
+  private void rejectHandshake(String status) {
+    String response = "HTTP/1.1 " + status + "\r\nContent-Length: 0\r\n\r\n";
+    enqueue(ByteBuffer.wrap(response.getBytes(StandardCharsets.ISO_8859_1)));
+    closing = true;
+  }
+
+  /**
+   * Parses the next complete WebSocket message from buffered data. Control frames are handled
+   * internally.
+   *
+   * @return The next data message, or null if no complete message is buffered.
+   */
+  Message nextMessage() throws IOException {
+    while (true) {
+      readBuffer.flip();
+      if (readBuffer.remaining() < 2) {
+        readBuffer.compact();
+        return null;
+      }
+      int start = readBuffer.position();
+      int b0 = readBuffer.get(start) & 0xff;
+      int b1 = readBuffer.get(start + 1) & 0xff;
+      boolean fin = (b0 & 0x80) != 0;
+      int opcode = b0 & 0x0f;
+      boolean masked = (b1 & 0x80) != 0;
+      long length = b1 & 0x7f;
+      int headerLength = 2;
+      if (length == 126) {
+        if (readBuffer.remaining() < 4) {
+          readBuffer.compact();
+          return null;
+        }
+        length = readBuffer.getShort(start + 2) & 0xffff;
+        headerLength = 4;
+      } else if (length == 127) {
+        if (readBuffer.remaining() < 10) {
+          readBuffer.compact();
+          return null;
+        }
+        length = readBuffer.getLong(start + 2);
+        headerLength = 10;
+      }
+      if (!masked) {
+        throw new IOException("NT4 client sent an unmasked frame");
+      }
+      if (length < 0 || length > maxMessageBytes) {
+        throw new IOException("NT4 client frame too large (" + length + " bytes)");
+      }
+      int total = headerLength + 4 + (int) length;
+      if (readBuffer.remaining() < total) {
+        readBuffer.compact();
+        return null;
+      }
+
+      byte[] mask = new byte[4];
+      readBuffer.position(start + headerLength);
+      readBuffer.get(mask);
+      byte[] payload = new byte[(int) length];
+      readBuffer.get(payload);
+      readBuffer.compact();
+      for (int i = 0; i < payload.length; i++) {
+        payload[i] ^= mask[i & 3];
+      }
+
+      switch (opcode) {
+        case opcodePing:
+          sendFrame(opcodePong, payload, 0, payload.length);
+          continue;
+        case opcodePong:
+          continue;
+        case opcodeClose:
+          sendFrame(opcodeClose, payload, 0, Math.min(2, payload.length));
+          closing = true;
+          return null;
+        case opcodeContinuation:
+          if (fragmentedPayload == null) {
+            throw new IOException("NT4 client sent an unexpected continuation frame");
+          }
+          fragmentedPayload.write(payload, 0, payload.length);
+          if (fragmentedPayload.size() > maxMessageBytes) {
+            throw new IOException("NT4 client message too large");
+          }
+          if (fin) {
+            Message message = new Message(fragmentedOpcode, fragmentedPayload.toByteArray());
+            fragmentedPayload = null;
+            return message;
+          }
+          continue;
+        case opcodeText:
+        case opcodeBinary:
+          if (fin) {
+            return new Message(opcode, payload);
+          }
+          fragmentedOpcode = opcode;
+          fragmentedPayload = new ByteArrayOutputStream();
+          fragmentedPayload.write(payload, 0, payload.length);
+          continue;
+        default:
+          throw new IOException("NT4 client sent unknown opcode " + opcode);
+      }
+    }
+  }
+
+  /** Queues a WebSocket frame. The payload is not copied and must not be modified afterwards. */
+  void sendFrame(int opcode, byte[] payload, int offset, int length) {
+    ByteBuffer header;
+    if (length < 126) {
+      header = ByteBuffer.allocate(2);
+      header.put((byte) (0x80 | opcode)).put((byte) length);
+    } else if (length < (1 << 16)) {
+      header = ByteBuffer.allocate(4);
+      header.put((byte) (0x80 | opcode)).put((byte) 126).putShort((short) length);
+    } else {
+      header = ByteBuffer.allocate(10);
+      header.put((byte) (0x80 | opcode)).put((byte) 127).putLong(length);
+    }
+    header.flip();
+    enqueue(header);
+    if (length > 0) {
+      enqueue(ByteBuffer.wrap(payload, offset, length));
+    }
+  }
+
+  private void enqueue(ByteBuffer buffer) {
+    outbound.add(buffer);
+    queuedBytes += buffer.remaining();
+  }
+
+  /**
+   * Writes as much queued data as the socket accepts without blocking.
+   *
+   * @return True if all queued data has been written.
+   */
+  boolean flush() throws IOException {
+    while (!outbound.isEmpty()) {
+      ByteBuffer buffer = outbound.peek();
+      int written = channel.write(buffer);
+      queuedBytes -= written;
+      if (buffer.hasRemaining()) {
+        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        return false;
+      }
+      outbound.poll();
+    }
+    key.interestOps(SelectionKey.OP_READ);
+    return true;
+  }
+
+  void close() {
+    key.cancel();
+    try {
+      channel.close();
+    } catch (IOException ignored) {
+    }
+  }
+
+  private static int indexOfHeaderEnd(ByteBuffer buffer) {
+    int start = buffer.position();
+    for (int i = start; i + 3 < buffer.limit(); i++) {
+      if (buffer.get(i) == '\r'
+          && buffer.get(i + 1) == '\n'
+          && buffer.get(i + 2) == '\r'
+          && buffer.get(i + 3) == '\n') {
+        return i + 4 - start;
+      }
+    }
+    return -1;
+  }
+
+  /** Computes the Sec-WebSocket-Accept value for a client key. */
+  static String acceptKey(String websocketKey) {
+    try {
+      MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+      byte[] digest =
+          sha1.digest((websocketKey + websocketGuid).getBytes(StandardCharsets.ISO_8859_1));
+      return base64(digest);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-1 is not available", e);
+    }
+  }
+
+  private static final char[] base64Alphabet =
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+  /** Base64 encoder (java.util.Base64 is not available on older Android versions). */
+  static String base64(byte[] data) {
+    StringBuilder builder = new StringBuilder((data.length + 2) / 3 * 4);
+    for (int i = 0; i < data.length; i += 3) {
+      int b0 = data[i] & 0xff;
+      int b1 = i + 1 < data.length ? data[i + 1] & 0xff : 0;
+      int b2 = i + 2 < data.length ? data[i + 2] & 0xff : 0;
+      builder.append(base64Alphabet[b0 >> 2]);
+      builder.append(base64Alphabet[((b0 & 0x03) << 4) | (b1 >> 4)]);
+      builder.append(i + 1 < data.length ? base64Alphabet[((b1 & 0x0f) << 2) | (b2 >> 6)] : '=');
+      builder.append(i + 2 < data.length ? base64Alphabet[b2 & 0x3f] : '=');
+    }
+    return builder.toString();
+  }
+}
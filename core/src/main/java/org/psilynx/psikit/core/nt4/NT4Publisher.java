@@ -0,0 +1,692 @@
+package org.psilynx.psikit.core.nt4;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import org.psilynx.psikit.core.LogDataReceiver;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.LogTable.LogValue;
+import org.psilynx.psikit.core.Logger;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Publishes log data over the NetworkTables 4 WebSocket protocol, so that tools which expect NT4
+ * (such as AdvantageScope's NetworkTables mode) can connect directly. Topics are published under
+ * {@code rootTable} (default "/AdvantageKit") and are read-only for clients.
+ *
+ * <p>Each cycle, the values that changed since the previous cycle are encoded once into a single
+ * batch of MessagePack value messages on the receiver thread. A server thread then forwards the
+ * batch as one binary WebSocket frame per client using non-blocking sockets. Clients that fall
+ * behind are skipped rather than blocking the others, and are sent the latest value of every topic
+ * once they catch up.
+ */
+public class NT4Publisher implements LogDataReceiver {
+  public static final int defaultPort = 5810;
+  public static final String defaultRootTable = "/AdvantageKit";
+
+  /** Clients with more than this many bytes queued are skipped until they catch up. */
+  private static final long maxQueuedBytes = 1 << 20;
+
+  private final int port;
+  private final String rootTable;
+  private ServerThread thread;
+
+  // Receiver thread state
+  private final Map<String, Topic> topics = new HashMap<>();
+  private Map<String, LogValue> lastValues = new HashMap<>();
+  private final MessagePackWriter writer = new MessagePackWriter(4096);
+  private int nextTopicId = 0;
+
+  public NT4Publisher() {
+    this(defaultPort, defaultRootTable);
+  }
+
+  public NT4Publisher(int port) {
+    this(port, defaultRootTable);
+  }
+
+  /**
+   * Creates a new NT4 publisher.
+   *
+   * @param port The TCP port to listen on.
+   * @param rootTable The table to publish all log keys under, without a trailing slash.
+   */
+  public NT4Publisher(int port, String rootTable) {
+    this.port = port;
+    this.rootTable = rootTable.endsWith("/")
+        ? rootTable.substring(0, rootTable.length() - 1)
+        : rootTable;
+  }
+
+  public void start() {
+    if (thread != null) {
+      return;
+    }
+
+    final ServerThread t = new ServerThread(port);
+    if (!t.isBound()) {
+      Logger.logError("NT4 publisher failed to start (requested port " + port + ")");
+      return;
+    }
+
+    thread = t;
+    thread.start();
+    Logger.logInfo("NT4 publisher started on port " + port);
+  }
+
+  public void end() {
+    final ServerThread t = thread;
+    if (t != null) {
+      t.close();
+      thread = null;
+    }
+  }
+
+  public void putTable(LogTable table) throws InterruptedException {
+    final ServerThread t = thread;
+    if (t == null) {
+      return;
+    }
+
+    long timestampUs = (long) (table.getTimestamp() * 1000000.0);
+    Map<String, LogValue> newValues = table.getAll(false);
+    List<Topic> newTopics = null;
+    int[] topicIds = new int[newValues.size() + 1];
+    int[] offsets = new int[newValues.size() + 2];
+    int count = 0;
+    writer.reset();
+
+    // Timestamp topic, matching AdvantageKit's NT4 layout
+    Topic timestampTopic = getTopic(timestampKey, LogTable.LoggableType.Integer, "int");
+    if (!timestampTopic.announcedToServer) {
+      newTopics = addNewTopic(newTopics, timestampTopic);
+    }
+    topicIds[count] = timestampTopic.id;
+    offsets[count] = writer.size();
+    encodeMessage(timestampTopic, timestampUs, new LogValue(timestampUs, null));
+    count++;
+
+    for (Map.Entry<String, LogValue> field : newValues.entrySet()) {
+      LogValue value = field.getValue();
+      if (value.equals(lastValues.get(field.getKey()))) {
+        continue;
+      }
+      Topic topic = getTopic(field.getKey(), value.type, value.getNT4Type());
+      if (!topic.announcedToServer) {
+        newTopics = addNewTopic(newTopics, topic);
+      }
+      topicIds[count] = topic.id;
+      offsets[count] = writer.size();
+      encodeMessage(topic, timestampUs, value);
+      count++;
+    }
+    offsets[count] = writer.size();
+    lastValues = newValues;
+
+    t.cycles.add(
+        new Cycle(
+            timestampUs,
+            newTopics == null ? new Topic[0] : newTopics.toArray(new Topic[0]),
+            topicIds,
+            offsets,
+            count,
+            writer.toByteArray()));
+    t.selector.wakeup();
+  }
+
+  private static List<Topic> addNewTopic(List<Topic> newTopics, Topic topic) {
+    if (newTopics == null) {
+      newTopics = new ArrayList<>();
+    }
+    topic.announcedToServer = true;
+    newTopics.add(topic);
+    return newTopics;
+  }
+
+  /** Returns the cached topic for a key, assigning a new ID the first time it is seen. */
+  private Topic getTopic(String key, LogTable.LoggableType type, String typeString) {
+    Topic topic = topics.get(key);
+    if (topic == null) {
+      String name = rootTable + (key.startsWith("/") ? key : "/" + key);
+      topic = new Topic(nextTopicId++, name, typeString, typeIndex(type));
+      topics.put(key, topic);
+    }
+    return topic;
+  }
+
+  /** Encodes one NT4 value message: [topicId, timestampUs, typeIndex, value]. */
+  private void encodeMessage(Topic topic, long timestampUs, LogValue value) {
+    writer.packArrayHeader(4);
+    writer.packLong(topic.id);
+    writer.packLong(timestampUs);
+    writer.packLong(topic.typeIndex);
+    switch (value.type) {
+      case Raw:
+        int offset = writer.reserveBinary(value.getRawLength());
+        value.getRaw(writer.buffer(), offset);
+        break;
+      case Boolean:
+        writer.packBoolean(value.getBoolean());
+        break;
+      case Integer:
+        writer.packLong(value.getInteger());
+        break;
+      case Float:
+        writer.packFloat(value.getFloat());
+        break;
+      case Double:
+        writer.packDouble(value.getDouble());
+        break;
+      case String:
+        writer.packString(value.getString());
+        break;
+      case BooleanArray:
+        boolean[] booleanArray = value.getBooleanArray();
+        writer.packArrayHeader(booleanArray.length);
+        for (boolean item : booleanArray) {
+          writer.packBoolean(item);
+        }
+        break;
+      case IntegerArray:
+        long[] intArray = value.getIntegerArray();
+        writer.packArrayHeader(intArray.length);
+        for (long item : intArray) {
+          writer.packLong(item);
+        }
+        break;
+      case FloatArray:
+        float[] floatArray = value.getFloatArray();
+        writer.packArrayHeader(floatArray.length);
+        for (float item : floatArray) {
+          writer.packFloat(item);
+        }
+        break;
+      case DoubleArray:
+        double[] doubleArray = value.getDoubleArray();
+        writer.packArrayHeader(doubleArray.length);
+        for (double item : doubleArray) {
+          writer.packDouble(item);
+        }
+        break;
+      case StringArray:
+        String[] stringArray = value.getStringArray();
+        writer.packArrayHeader(stringArray.length);
+        for (String item : stringArray) {
+          writer.packString(item);
+        }
+        break;
+    }
+  }
+
+  /**
+   * Returns the NT4 data type index for a loggable type.
+   *
+   * <p>https://github.com/wpilibsuite/allwpilib/blob/main/ntcore/doc/networktables4.adoc#supported-data-types
+   */
+  static int typeIndex(LogTable.LoggableType type) {
+    switch (type) {
+      case Boolean:
+        return 0;
+      case Double:
+        return 1;
+      case Integer:
+        return 2;
+      case Float:
+        return 3;
+      case String:
+        return 4;
+      case BooleanArray:
+        return 16;
+      case DoubleArray:
+        return 17;
+      case IntegerArray:
+        return 18;
+      case FloatArray:
+        return 19;
+      case StringArray:
+        return 20;
+      case Raw:
+      default:
+        return 5;
+    }
+  }
+
+  /** A published topic. The ID is assigned once and reused for every value message. */
+  private static class Topic {
+    final int id;
+    final String name;
+    final String type;
+    final int typeIndex;
+    /** Set on the receiver thread once the topic has been handed to the server thread. */
+    boolean announcedToServer = false;
+
+    Topic(int id, String name, String type, int typeIndex) {
+      this.id = id;
+      this.name = name;
+      this.type = type;
+      this.typeIndex = typeIndex;
+    }
+  }
+
+  /** The encoded value messages for one cycle, shared by all clients. */
+  private static class Cycle {
+    final long timestampUs;
+    final Topic[] newTopics;
+    final int[] topicIds;
+    final int[] offsets;
+    final int count;
+    final byte[] encoded;
+
+    Cycle(
+        long timestampUs,
+        Topic[] newTopics,
+        int[] topicIds,
+        int[] offsets,
+        int count,
+        byte[] encoded) {
+      this.timestampUs = timestampUs;
+      this.newTopics = newTopics;
+      this.topicIds = topicIds;
+      this.offsets = offsets;
+      this.count = count;
+      this.encoded = encoded;
+    }
+  }
+
+  private class ServerThread extends Thread {
+    final ConcurrentLinkedQueue<Cycle> cycles = new ConcurrentLinkedQueue<>();
+    Selector selector;
+    private ServerSocketChannel server;
+    private volatile boolean closed = false;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<NT4Connection> connections = new ArrayList<>();
+    private final List<Topic> allTopics = new ArrayList<>();
+    // Latest encoded value message per topic ID, as a slice of a cycle's encoded bytes
+    private byte[][] latestEncoded = new byte[64][];
+    private int[] latestOffset = new int[64];
+    private int[] latestLength = new int[64];
+    private long latestTimestampUs = 0;
+    private long latestTimestampNanos = System.nanoTime();
+
+    ServerThread(int port) {
+      super("PsiKit_NT4Publisher");
+      this.setDaemon(true);
+
+      try {
+        selector = Selector.open();
+        ServerSocketChannel s = ServerSocketChannel.open();
+        s.socket().setReuseAddress(true);
+        s.bind(new InetSocketAddress(port));
+        s.configureBlocking(false);
+        s.register(selector, SelectionKey.OP_ACCEPT);
+        server = s;
+      } catch (IOException e) {
+        Logger.logError(
+            "error while opening a socket in NT4 publisher on port "
+                + port
+                + ": "
+                + e.getClass().getSimpleName()
+                + ": "
+                + e.getMessage());
+        server = null;
+      }
+    }
+
+    boolean isBound() {
+      return server != null;
+    }
+
+    public void run() {
+      try {
+        while (!closed) {
+          selector.select(100);
+          Cycle cycle;
+          while ((cycle = cycles.poll()) != null) {
+            processCycle(cycle);
+          }
+
+          Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+          while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            if (!key.isValid()) {
+              continue;
+            }
+            if (key.isAcceptable()) {
+              accept();
+              continue;
+            }
+            NT4Connection connection = (NT4Connection) key.attachment();
+            try {
+              if (key.isReadable()) {
+                if (!connection.read()) {
+                  disconnect(connection, "closed by client");
+                  continue;
+                }
+                handleInput(connection);
+              }
+              if (key.isValid() && key.isWritable()) {
+                connection.flush();
+              }
+              if (connection.isClosing() && connection.getQueuedBytes() == 0) {
+                disconnect(connection, "closed");
+              }
+            } catch (IOException e) {
+              disconnect(connection, e.getMessage());
+            }
+          }
+        }
+      } catch (IOException e) {
+        if (!closed) {
+          Logger.logError(
+              "NT4 publisher threw an exception: "
+                  + e.getClass().getSimpleName()
+                  + ": "
+                  + e.getMessage());
+        }
+      } finally {
+        shutdown();
+      }
+    }
+
+    private void accept() throws IOException {
+      SocketChannel channel = server.accept();
+      if (channel == null) {
+        return;
+      }
+      channel.configureBlocking(false);
+      channel.socket().setTcpNoDelay(true);
+      SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+      NT4Connection connection = new NT4Connection(channel, key);
+      key.attach(connection);
+      connections.add(connection);
+    }
+
+    private void handleInput(NT4Connection connection) throws IOException {
+      if (!connection.isHandshakeComplete()) {
+        if (!connection.tryHandshake()) {
+          return;
+        }
+        Logger.logInfo("Connected to NT4 client - " + connection.address);
+      }
+      NT4Connection.Message message;
+      while ((message = connection.nextMessage()) != null) {
+        if (message.opcode == NT4Connection.opcodeText) {
+          handleText(connection, message.payload);
+        } else {
+          handleBinary(connection, message.payload);
+        }
+      }
+      connection.flush();
+    }
+
+    /** Handles JSON control messages (subscribe/unsubscribe). Publishing is not supported. */
+    private void handleText(NT4Connection connection, byte[] payload) {
+      JsonNode root;
+      try {
+        root = mapper.readTree(payload);
+      } catch (IOException e) {
+        Logger.logWarning("NT4 client sent invalid JSON - " + connection.address);
+        return;
+      }
+      if (!root.isArray()) {
+        return;
+      }
+      boolean subscriptionsChanged = false;
+      for (JsonNode message : root) {
+        String method = message.path("method").asText();
+        JsonNode params = message.path("params");
+        if (method.equals("subscribe")) {
+          JsonNode topicsNode = params.path("topics");
+          String[] topicNames = new String[topicsNode.size()];
+          for (int i = 0; i < topicNames.length; i++) {
+            topicNames[i] = topicsNode.get(i).asText();
+          }
+          JsonNode options = params.path("options");
+          connection.subscriptions.put(
+              params.path("subuid").asLong(),
+              new NT4Connection.Subscription(
+                  topicNames,
+                  options.path("prefix").asBoolean(false),
+                  options.path("topicsonly").asBoolean(false)));
+          subscriptionsChanged = true;
+        } else if (method.equals("unsubscribe")) {
+          connection.subscriptions.remove(params.path("subuid").asLong());
+          subscriptionsChanged = true;
+        } else {
+          Logger.logDebug("Ignoring NT4 \"{}\" message - {}", method, connection.address);
+        }
+      }
+      if (subscriptionsChanged) {
+        updateSubscriptions(connection);
+      }
+    }
+
+    /** Handles binary messages. Only time synchronization requests are answered. */
+    private void handleBinary(NT4Connection connection, byte[] payload) {
+      MessagePackReader reader = new MessagePackReader(payload);
+      try {
+        while (reader.hasNext()) {
+          Object message = reader.next();
+          if (!(message instanceof Object[])) continue;
+          Object[] fields = (Object[]) message;
+          if (fields.length == 4 && Long.valueOf(-1).equals(fields[0])) {
+            MessagePackWriter response = new MessagePackWriter(32);
+            response.packArrayHeader(4);
+            response.packLong(-1);
+            response.packLong(getServerTimeUs());
+            response.packLong(2);
+            response.packLong(fields[3] instanceof Long ? (Long) fields[3] : 0);
+            connection.sendFrame(
+                NT4Connection.opcodeBinary, response.buffer(), 0, response.size());
+          }
+        }
+      } catch (IllegalArgumentException e) {
+        Logger.logWarning("NT4 client sent invalid MessagePack - " + connection.address);
+      }
+    }
+
+    /** Returns the current server time, on the same time base as the logged timestamps. */
+    private long getServerTimeUs() {
+      return latestTimestampUs + (System.nanoTime() - latestTimestampNanos) / 1000;
+    }
+
+    /**
+     * Recomputes the announced and wanted topics after a subscription change, announcing newly
+     * matched topics and sending their latest values.
+     */
+    private void updateSubscriptions(NT4Connection connection) {
+      List<Topic> toAnnounce = new ArrayList<>();
+      List<Topic> toSend = new ArrayList<>();
+      for (Topic topic : allTopics) {
+        int match = connection.match(topic.name);
+        if (match != 0 && !connection.announced.get(topic.id)) {
+          toAnnounce.add(topic);
+        }
+        boolean wanted = (match & 2) != 0;
+        if (wanted && !connection.wanted.get(topic.id)) {
+          toSend.add(topic);
+        }
+        connection.wanted.set(topic.id, wanted);
+      }
+      connection.wantsAll = wantsFutureTopics(connection);
+      announce(connection, toAnnounce);
+      sendLatest(connection, toSend);
+    }
+
+    /** Whether the client wants the values of every topic, including ones not yet published. */
+    private boolean wantsFutureTopics(NT4Connection connection) {
+      for (NT4Connection.Subscription subscription : connection.subscriptions.values()) {
+        if (subscription.topicsOnly || !subscription.prefix) continue;
+        for (String topic : subscription.topics) {
+          if (rootTable.startsWith(topic) || topic.equals(rootTable + "/")) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    private void announce(NT4Connection connection, List<Topic> toAnnounce) {
+      if (toAnnounce.isEmpty()) {
+        return;
+      }
+      ArrayNode messages = mapper.createArrayNode();
+      for (Topic topic : toAnnounce) {
+        ObjectNode message = messages.addObject();
+        message.put("method", "announce");
+        ObjectNode params = message.putObject("params");
+        params.put("name", topic.name);
+        params.put("id", topic.id);
+        params.put("type", topic.type);
+        params.putObject("properties");
+        connection.announced.set(topic.id);
+      }
+      try {
+        byte[] json = mapper.writeValueAsBytes(messages);
+        connection.sendFrame(NT4Connection.opcodeText, json, 0, json.length);
+      } catch (IOException e) {
+        Logger.logError("failed to encode NT4 announcement: " + e.getMessage());
+      }
+    }
+
+    private void sendLatest(NT4Connection connection, List<Topic> toSend) {
+      MessagePackWriter batch = new MessagePackWriter();
+      for (Topic topic : toSend) {
+        if (topic.id < latestEncoded.length && latestEncoded[topic.id] != null) {
+          batch.writeRaw(latestEncoded[topic.id], latestOffset[topic.id], latestLength[topic.id]);
+        }
+      }
+      if (batch.size() > 0) {
+        connection.sendFrame(NT4Connection.opcodeBinary, batch.buffer(), 0, batch.size());
+      }
+    }
+
+    private void processCycle(Cycle cycle) {
+      latestTimestampUs = cycle.timestampUs;
+      latestTimestampNanos = System.nanoTime();
+      for (Topic topic : cycle.newTopics) {
+        allTopics.add(topic);
+      }
+      for (int i = 0; i < cycle.count; i++) {
+        int id = cycle.topicIds[i];
+        if (id >= latestEncoded.length) {
+          int newLength = Math.max(latestEncoded.length * 2, id + 1);
+          latestEncoded = Arrays.copyOf(latestEncoded, newLength);
+          latestOffset = Arrays.copyOf(latestOffset, newLength);
+          latestLength = Arrays.copyOf(latestLength, newLength);
+        }
+        latestEncoded[id] = cycle.encoded;
+        latestOffset[id] = cycle.offsets[i];
+        latestLength[id] = cycle.offsets[i + 1] - cycle.offsets[i];
+      }
+
+      for (int c = connections.size() - 1; c >= 0; c--) {
+        NT4Connection connection = connections.get(c);
+        if (!connection.isHandshakeComplete() || connection.subscriptions.isEmpty()) {
+          continue;
+        }
+
+        // Announce new topics matching this client's subscriptions
+        List<Topic> toAnnounce = null;
+        for (Topic topic : cycle.newTopics) {
+          int match = connection.match(topic.name);
+          connection.wanted.set(topic.id, (match & 2) != 0);
+          if (match != 0) {
+            if (toAnnounce == null) toAnnounce = new ArrayList<>();
+            toAnnounce.add(topic);
+          }
+        }
+        if (toAnnounce != null) {
+          announce(connection, toAnnounce);
+        }
+
+        // Skip slow clients rather than letting their backlog grow
+        if (connection.getQueuedBytes() > maxQueuedBytes) {
+          connection.needsResend = true;
+        } else if (connection.needsResend) {
+          List<Topic> toSend = new ArrayList<>();
+          for (Topic topic : allTopics) {
+            if (connection.wanted.get(topic.id)) toSend.add(topic);
+          }
+          sendLatest(connection, toSend);
+          connection.needsResend = false;
+        } else if (connection.wantsAll) {
+          // Common case: forward the shared batch without copying
+          connection.sendFrame(
+              NT4Connection.opcodeBinary, cycle.encoded, 0, cycle.offsets[cycle.count]);
+        } else {
+          MessagePackWriter batch = new MessagePackWriter();
+          for (int i = 0; i < cycle.count; i++) {
+            if (connection.wanted.get(cycle.topicIds[i])) {
+              batch.writeRaw(
+                  cycle.encoded, cycle.offsets[i], cycle.offsets[i + 1] - cycle.offsets[i]);
+            }
+          }
+          if (batch.size() > 0) {
+            connection.sendFrame(NT4Connection.opcodeBinary, batch.buffer(), 0, batch.size());
+          }
+        }
+
+        try {
+          connection.flush();
+        } catch (IOException e) {
+          disconnect(connection, e.getMessage());
+        }
+      }
+    }
+
+    private void disconnect(NT4Connection connection, String reason) {
+      connection.close();
+      if (connections.remove(connection)) {
+        Logger.logInfo(
+            "Disconnected from NT4 client (" + reason + ") - " + connection.address);
+      }
+    }
+
+    private void shutdown() {
+      for (NT4Connection connection : connections) {
+        connection.close();
+      }
+      connections.clear();
+      try {
+        if (server != null) {
+          server.close();
+        }
+        selector.close();
+      } catch (IOException e) {
+        Logger.logError(
+            "NT4 publisher could not be closed while shutting down: "
+                + e.getClass().getSimpleName()
+                + ": "
+                + e.getMessage());
+      }
+    }
+
+    void close() {
+      closed = true;
+      selector.wakeup();
+      try {
+        join(1000);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
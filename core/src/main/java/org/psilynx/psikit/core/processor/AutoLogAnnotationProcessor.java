@@ -0,0 +1,763 @@
+package org.psilynx.psikit.core.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a {@code LoggableInputs} implementation for every class annotated with {@code @AutoLog}.
+ * For {@code ModuleIOInputs}, the generated {@code ModuleIOInputsAutoLogged} extends the inputs
+ * class and logs each field under its name with the first letter capitalized.
+ *
+ * <p>The generated code writes straight to the root table with keys that are only rebuilt when the
+ * table prefix changes, and uses the typed {@code put}/{@code get} overloads so primitive fields are
+ * never boxed. Supported field types are the primitives {@code boolean}, {@code int}, {@code long},
+ * {@code float} and {@code double}, {@code String}, enums, any type with a static {@code struct}
+ * field (such as {@code Pose2d}), and one or two dimensional arrays of these (one dimensional only
+ * for enums and structs, plus {@code byte[]}).
+ *
+ * <p>With {@code @AutoLog(struct = true)}, the generated class instead logs all fields as one
+ * struct value under the table's own key, with a schema derived from the fields. Only fixed size
+ * fields are allowed then: primitives, enums (stored as their ordinal) and struct types. The struct
+ * type name is the binary class name with {@code .} and {@code $} replaced by {@code _}, so
+ * {@code frc.robot.ArmIO.ArmInputs} is logged as {@code struct:frc_robot_ArmIO_ArmInputs}.
+ */
+public class AutoLogAnnotationProcessor extends AbstractProcessor {
+  private static final String annotationName = "org.psilynx.psikit.core.AutoLog";
+  private static final String corePackage = "org.psilynx.psikit.core";
+
+  /** Qualified name of the class that claimed each generated struct type name. */
+  private final Map<String, String> structTypeNames = new HashMap<>();
+
+  private enum Kind {
+    DIRECT,
+    DIRECT_ARRAY_2D,
+    ENUM,
+    ENUM_ARRAY,
+    STRUCT,
+    STRUCT_ARRAY
+  }
+
+  private static class InputField {
+    final String name;
+    final String type;
+    final String elementType;
+    final Kind kind;
+
+    InputField(String name, String type, String elementType, Kind kind) {
+      this.name = name;
+      this.type = type;
+      this.elementType = elementType;
+      this.kind = kind;
+    }
+  }
+
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return Collections.singleton(annotationName);
+  }
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    for (TypeElement annotation : annotations) {
+      for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+        if (element.getKind() != ElementKind.CLASS) {
+          error(element, "@AutoLog can only be applied to classes");
+          continue;
+        }
+        TypeElement type = (TypeElement) element;
+        boolean structMode = isStructMode(type);
+        List<InputField> fields = collectFields(type, structMode);
+        if (structMode && !claimStructTypeName(type)) {
+          continue;
+        }
+        if (fields != null) {
+          generate(type, fields, structMode);
+        }
+      }
+    }
+    return true;
+  }
+
+  /** Returns whether the class is annotated with {@code @AutoLog(struct = true)}. */
+  private static boolean isStructMode(TypeElement type) {
+    for (AnnotationMirror mirror : type.getAnnotationMirrors()) {
+      if (!mirror.getAnnotationType().toString().equals(annotationName)) {
+        continue;
+      }
+      for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+          mirror.getElementValues().entrySet()) {
+        if (entry.getKey().getSimpleName().contentEquals("struct")) {
+          return Boolean.TRUE.equals(entry.getValue().getValue());
+        }
+      }
+    }
+    return false;
+  }
+
+  /** Returns the struct type name written to the log for an {@code @AutoLog(struct = true)} class. */
+  private String structTypeName(TypeElement type) {
+    return processingEnv
+        .getElementUtils()
+        .getBinaryName(type)
+        .toString()
+        .replace('.', '_')
+        .replace('$', '_');
+  }
+
+  /**
+   * Records the struct type name of the class, reporting an error if another class already maps
+   * to the same name (for example {@code a.B_C} and {@code a.B.C}).
+   */
+  private boolean claimStructTypeName(TypeElement type) {
+    String qualifiedName = type.getQualifiedName().toString();
+    String previous = structTypeNames.putIfAbsent(structTypeName(type), qualifiedName);
+    if (previous != null && !previous.equals(qualifiedName)) {
+      error(
+          type,
+          "@AutoLog(struct = true) type name "
+              + structTypeName(type)
+              + " is already used by "
+              + previous);
+      return false;
+    }
+    return true;
+  }
+
+  /** Returns the loggable fields of the class, or null if an error was reported. */
+  private List<InputField> collectFields(TypeElement type, boolean structMode) {
+    boolean valid = true;
+    if (type.getModifiers().contains(Modifier.PRIVATE)
+        || type.getModifiers().contains(Modifier.FINAL)) {
+      error(type, "@AutoLog classes must not be private or final");
+      valid = false;
+    }
+    if (type.getNestingKind() == NestingKind.MEMBER
+        && !type.getModifiers().contains(Modifier.STATIC)) {
+      error(type, "Nested @AutoLog classes must be static");
+      valid = false;
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      error(type, "@AutoLog classes must not be generic");
+      valid = false;
+    }
+
+    List<InputField> fields = new ArrayList<>();
+    for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+      Set<Modifier> modifiers = field.getModifiers();
+      if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+        continue;
+      }
+      if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL)) {
+        error(field, "@AutoLog fields must not be private or final");
+        valid = false;
+        continue;
+      }
+      InputField input = classify(field);
+      if (input == null) {
+        error(field, "Unsupported @AutoLog field type: " + field.asType());
+        valid = false;
+        continue;
+      }
+      if (structMode && structSchemaType(input) == null) {
+        error(field, "@AutoLog(struct = true) fields must have a fixed size: " + field.asType());
+        valid = false;
+        continue;
+      }
+      fields.add(input);
+    }
+    return valid ? fields : null;
+  }
+
+  private InputField classify(VariableElement field) {
+    String name = field.getSimpleName().toString();
+    TypeMirror type = field.asType();
+    String typeName = typeName(type);
+    if (isDirect(type, true)) {
+      return new InputField(name, typeName, null, Kind.DIRECT);
+    }
+    if (isEnum(type)) {
+      return new InputField(name, typeName, null, Kind.ENUM);
+    }
+    if (isStruct(type)) {
+      return new InputField(name, typeName, null, Kind.STRUCT);
+    }
+    if (type.getKind() == TypeKind.ARRAY) {
+      TypeMirror component = ((ArrayType) type).getComponentType();
+      String componentName = typeName(component);
+      if (isDirect(component, false)) {
+        return new InputField(name, typeName, componentName, Kind.DIRECT);
+      }
+      if (isEnum(component)) {
+        return new InputField(name, typeName, componentName, Kind.ENUM_ARRAY);
+      }
+      if (isStruct(component)) {
+        return new InputField(name, typeName, componentName, Kind.STRUCT_ARRAY);
+      }
+      if (component.getKind() == TypeKind.ARRAY) {
+        TypeMirror inner = ((ArrayType) component).getComponentType();
+        if (isDirect(inner, false) || inner.getKind() == TypeKind.BYTE) {
+          return new InputField(name, typeName, componentName, Kind.DIRECT_ARRAY_2D);
+        }
+      }
+    }
+    return null;
+  }
+
+  /** Whether the type has a typed LogTable overload (scalars, or array elements with byte[]). */
+  private boolean isDirect(TypeMirror type, boolean scalar) {
+    switch (type.getKind()) {
+      case BOOLEAN:
+      case INT:
+      case LONG:
+      case FLOAT:
+      case DOUBLE:
+        return true;
+      case BYTE:
+        return !scalar;
+      case DECLARED:
+        return typeName(type).equals("java.lang.String");
+      default:
+        return false;
+    }
+  }
+
+  private boolean isEnum(TypeMirror type) {
+    return type.getKind() == TypeKind.DECLARED
+        && ((DeclaredType) type).asElement().getKind() == ElementKind.ENUM;
+  }
+
+  private boolean isStruct(TypeMirror type) {
+    if (type.getKind() != TypeKind.DECLARED) {
+      return false;
+    }
+    for (VariableElement field :
+        ElementFilter.fieldsIn(((DeclaredType) type).asElement().getEnclosedElements())) {
+      if (field.getSimpleName().contentEquals("struct")
+          && field.getModifiers().contains(Modifier.STATIC)
+          && field.getModifiers().contains(Modifier.PUBLIC)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String typeName(TypeMirror type) {
+    return processingEnv.getTypeUtils().erasure(type).toString();
+  }
+
+  private void generate(TypeElement type, List<InputField> fields, boolean structMode) {
+    PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+    String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    String className = type.getSimpleName() + "AutoLogged";
+    String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+
+    StringBuilder out = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      out.append("package ").append(packageName).append(";\n\n");
+    }
+    if (structMode) {
+      out.append("import java.nio.ByteBuffer;\n");
+    }
+    out.append("import ").append(corePackage).append(".LogTable;\n");
+    out.append("import ").append(corePackage).append(".LoggableInputs;\n");
+    if (structMode) {
+      out.append("import ").append(corePackage).append(".wpi.Struct;\n");
+    }
+    out.append("\n");
+    out.append("/** Generated by AutoLogAnnotationProcessor from {@link ")
+        .append(type.getQualifiedName())
+        .append("}. */\n");
+    out.append("public class ")
+        .append(className)
+        .append(" extends ")
+        .append(type.getQualifiedName())
+        .append(" implements LoggableInputs, Cloneable {\n");
+
+    if (structMode) {
+      appendStructLogging(out, type, className, fields);
+    } else {
+      appendFieldLogging(out, fields);
+    }
+
+    out.append("  @Override\n  public ").append(className).append(" clone() {\n");
+    out.append("    ").append(className).append(" copy = new ").append(className).append("();\n");
+    for (InputField field : fields) {
+      appendClone(out, field);
+    }
+    out.append("    return copy;\n  }\n");
+
+    out.append("}\n");
+
+    try (Writer writer =
+        processingEnv.getFiler().createSourceFile(qualifiedName, type).openWriter()) {
+      writer.write(out.toString());
+    } catch (IOException e) {
+      error(type, "Failed to write " + qualifiedName + ": " + e.getMessage());
+    }
+  }
+
+  /** Appends toLog and fromLog writing each field under its own key. */
+  private static void appendFieldLogging(StringBuilder out, List<InputField> fields) {
+    // Keys relative to the table, and the same keys with the table prefix prepended
+    out.append("  private static final String[] keys = {");
+    for (int i = 0; i < fields.size(); i++) {
+      out.append(i == 0 ? "" : ", ").append('"').append(keyName(fields.get(i).name)).append('"');
+    }
+    out.append("};\n");
+    out.append("  private String keyPrefix;\n");
+    out.append("  private final String[] fullKeys = new String[keys.length];\n\n");
+
+    out.append("  @Override\n  public void toLog(LogTable table) {\n");
+    out.append("    LogTable root = updateKeys(table);\n");
+    for (int i = 0; i < fields.size(); i++) {
+      appendToLog(out, fields.get(i), i);
+    }
+    out.append("  }\n\n");
+
+    out.append("  @Override\n  public void fromLog(LogTable table) {\n");
+    out.append("    LogTable root = updateKeys(table);\n");
+    for (int i = 0; i < fields.size(); i++) {
+      appendFromLog(out, fields.get(i), i);
+    }
+    out.append("  }\n\n");
+
+    out.append("  private LogTable updateKeys(LogTable table) {\n");
+    out.append("    String prefix = table.getPrefix();\n");
+    out.append("    if (prefix != keyPrefix && !prefix.equals(keyPrefix)) {\n");
+    out.append("      for (int i = 0; i < keys.length; i++) {\n");
+    out.append("        fullKeys[i] = prefix + keys[i];\n");
+    out.append("      }\n");
+    out.append("      keyPrefix = prefix;\n");
+    out.append("    }\n");
+    out.append("    return table.getRoot();\n");
+    out.append("  }\n\n");
+  }
+
+  /**
+   * Appends toLog and fromLog writing every field as one struct value, with a nested {@code Struct}
+   * implementation whose schema lists the fields in declaration order.
+   */
+  private void appendStructLogging(
+      StringBuilder out, TypeElement type, String className, List<InputField> fields) {
+    String simpleName = type.getSimpleName().toString();
+    out.append("  public static final Struct<")
+        .append(className)
+        .append("> struct = new InputsStruct();\n");
+    out.append("  private String keyPrefix;\n");
+    out.append("  private String fullKey;\n\n");
+
+    out.append("  @Override\n  public void toLog(LogTable table) {\n");
+    out.append("    table.getRoot().put(updateKey(table), struct, this);\n");
+    out.append("  }\n\n");
+
+    out.append("  @Override\n  public void fromLog(LogTable table) {\n");
+    out.append("    table.getRoot().readInto(updateKey(table), struct, this);\n");
+    out.append("  }\n\n");
+
+    // The value is stored under the table's own key, so the fields appear under it as before
+    out.append("  private String updateKey(LogTable table) {\n");
+    out.append("    String prefix = table.getPrefix();\n");
+    out.append("    if (prefix != keyPrefix && !prefix.equals(keyPrefix)) {\n");
+    out.append("      fullKey = prefix.isEmpty() ? \"")
+        .append(simpleName)
+        .append("\" : prefix.substring(0, prefix.length() - 1);\n");
+    out.append("      keyPrefix = prefix;\n");
+    out.append("    }\n");
+    out.append("    return fullKey;\n");
+    out.append("  }\n\n");
+
+    StringBuilder size = new StringBuilder();
+    StringBuilder schema = new StringBuilder();
+    StringBuilder nested = new StringBuilder();
+    for (InputField field : fields) {
+      String schemaType = structSchemaType(field);
+      size.append(size.length() == 0 ? "" : " + ");
+      schema.append(schema.length() == 0 ? "\"" : " + \";");
+      if (field.kind == Kind.STRUCT) {
+        size.append(field.type).append(".struct.getSize()");
+        schema.append("\" + ").append(field.type).append(".struct.getTypeName() + \" ");
+        nested.append(nested.length() == 0 ? "" : ", ").append(field.type).append(".struct");
+      } else {
+        size.append(structFieldSize(schemaType));
+        if (field.kind == Kind.ENUM) {
+          schema.append(enumSpec(field.type)).append(' ');
+        }
+        schema.append(schemaType).append(' ');
+      }
+      schema.append(keyName(field.name)).append('"');
+    }
+
+    out.append("  private static class InputsStruct implements Struct<")
+        .append(className)
+        .append("> {\n");
+    out.append("    @Override\n    public Class<")
+        .append(className)
+        .append("> getTypeClass() {\n      return ")
+        .append(className)
+        .append(".class;\n    }\n\n");
+    out.append("    @Override\n    public String getTypeName() {\n      return \"")
+        .append(structTypeName(type))
+        .append("\";\n    }\n\n");
+    out.append("    @Override\n    public int getSize() {\n      return ")
+        .append(size.length() == 0 ? "0" : size)
+        .append(";\n    }\n\n");
+    out.append("    @Override\n    public String getSchema() {\n      return ")
+        .append(schema.length() == 0 ? "\"\"" : schema)
+        .append(";\n    }\n\n");
+    out.append("    @Override\n    public Struct<?>[] getNested() {\n")
+        .append("      return new Struct<?>[] {")
+        .append(nested)
+        .append("};\n    }\n\n");
+    out.append("    @Override\n    public ")
+        .append(className)
+        .append(" unpack(ByteBuffer bb) {\n      ")
+        .append(className)
+        .append(" value = new ")
+        .append(className)
+        .append("();\n      unpackInto(value, bb);\n      return value;\n    }\n\n");
+
+    out.append("    @Override\n    public void unpackInto(")
+        .append(className)
+        .append(" out, ByteBuffer bb) {\n");
+    for (InputField field : fields) {
+      appendStructUnpack(out, field);
+    }
+    out.append("    }\n\n");
+
+    out.append("    @Override\n    public void pack(ByteBuffer bb, ")
+        .append(className)
+        .append(" value) {\n");
+    for (InputField field : fields) {
+      appendStructPack(out, field);
+    }
+    out.append("    }\n");
+    out.append("  }\n\n");
+  }
+
+  /** Returns the struct schema type of a field, or null if it has no fixed size. */
+  private static String structSchemaType(InputField field) {
+    switch (field.kind) {
+      case DIRECT:
+        switch (field.type) {
+          case "boolean":
+            return "bool";
+          case "int":
+            return "int32";
+          case "long":
+            return "int64";
+          case "float":
+            return "float";
+          case "double":
+            return "double";
+          default:
+            return null;
+        }
+      case ENUM:
+        return "int32";
+      case STRUCT:
+        return field.type;
+      default:
+        return null;
+    }
+  }
+
+  private static int structFieldSize(String schemaType) {
+    switch (schemaType) {
+      case "bool":
+        return 1;
+      case "int64":
+      case "double":
+        return 8;
+      default:
+        return 4;
+    }
+  }
+
+  /** Returns the schema enum specification naming each constant of an enum by its ordinal. */
+  private String enumSpec(String enumType) {
+    StringBuilder spec = new StringBuilder("enum {");
+    int ordinal = 0;
+    TypeElement element = processingEnv.getElementUtils().getTypeElement(enumType);
+    for (Element constant : element.getEnclosedElements()) {
+      if (constant.getKind() == ElementKind.ENUM_CONSTANT) {
+        spec.append(ordinal == 0 ? "" : ", ").append(constant.getSimpleName()).append('=');
+        spec.append(ordinal++);
+      }
+    }
+    return spec.append('}').toString();
+  }
+
+  private static void appendStructPack(StringBuilder out, InputField field) {
+    String name = "value." + field.name;
+    switch (structSchemaType(field)) {
+      case "bool":
+        out.append("      bb.put(").append(name).append(" ? (byte) 1 : (byte) 0);\n");
+        return;
+      case "int32":
+        if (field.kind == Kind.ENUM) {
+          out.append("      bb.putInt(")
+              .append(name)
+              .append(" == null ? -1 : ")
+              .append(name)
+              .append(".ordinal());\n");
+        } else {
+          out.append("      bb.putInt(").append(name).append(");\n");
+        }
+        return;
+      case "int64":
+        out.append("      bb.putLong(").append(name).append(");\n");
+        return;
+      case "float":
+        out.append("      bb.putFloat(").append(name).append(");\n");
+        return;
+      case "double":
+        out.append("      bb.putDouble(").append(name).append(");\n");
+        return;
+      default:
+        // A null struct field is written as zeros
+        out.append("      if (").append(name).append(" != null) {\n");
+        out.append("        ")
+            .append(field.type)
+            .append(".struct.pack(bb, ")
+            .append(name)
+            .append(");\n");
+        out.append("      } else {\n");
+        out.append("        for (int i = 0; i < ")
+            .append(field.type)
+            .append(".struct.getSize(); i++) {\n");
+        out.append("          bb.put((byte) 0);\n");
+        out.append("        }\n");
+        out.append("      }\n");
+    }
+  }
+
+  private static void appendStructUnpack(StringBuilder out, InputField field) {
+    String name = "out." + field.name;
+    switch (structSchemaType(field)) {
+      case "bool":
+        out.append("      ").append(name).append(" = bb.get() != 0;\n");
+        return;
+      case "int32":
+        if (field.kind == Kind.ENUM) {
+          out.append("      {\n");
+          out.append("        int ordinal = bb.getInt();\n");
+          out.append("        ")
+              .append(field.type)
+              .append("[] values = ")
+              .append(field.type)
+              .append(".values();\n");
+          out.append("        ")
+              .append(name)
+              .append(" = ordinal >= 0 && ordinal < values.length ? values[ordinal] : null;\n");
+          out.append("      }\n");
+        } else {
+          out.append("      ").append(name).append(" = bb.getInt();\n");
+        }
+        return;
+      case "int64":
+        out.append("      ").append(name).append(" = bb.getLong();\n");
+        return;
+      case "float":
+        out.append("      ").append(name).append(" = bb.getFloat();\n");
+        return;
+      case "double":
+        out.append("      ").append(name).append(" = bb.getDouble();\n");
+        return;
+      default:
+        out.append("      ")
+            .append(name)
+            .append(" = ")
+            .append(field.type)
+            .append(".struct.unpack(bb);\n");
+    }
+  }
+
+  private static void appendToLog(StringBuilder out, InputField field, int index) {
+    String key = "fullKeys[" + index + "]";
+    String name = field.name;
+    switch (field.kind) {
+      case DIRECT:
+      case DIRECT_ARRAY_2D:
+      case ENUM:
+      case ENUM_ARRAY:
+        out.append("    root.put(").append(key).append(", ").append(name).append(");\n");
+        break;
+      case STRUCT:
+        out.append("    root.put(")
+            .append(key)
+            .append(", ")
+            .append(field.type)
+            .append(".struct, ")
+            .append(name)
+            .append(");\n");
+        break;
+      case STRUCT_ARRAY:
+        out.append("    root.put(")
+            .append(key)
+            .append(", ")
+            .append(field.elementType)
+            .append(".struct, ")
+            .append(name)
+            .append(");\n");
+        break;
+    }
+  }
+
+  private static void appendFromLog(StringBuilder out, InputField field, int index) {
+    String key = "fullKeys[" + index + "]";
+    String name = field.name;
+    switch (field.kind) {
+      case DIRECT:
+      case DIRECT_ARRAY_2D:
+        out.append("    ")
+            .append(name)
+            .append(" = root.get(")
+            .append(key)
+            .append(", ")
+            .append(name)
+            .append(");\n");
+        break;
+      case ENUM:
+        // Read by name so an unset field does not need a default value to find the enum class
+        out.append("    {\n");
+        out.append("      String value = root.get(").append(key).append(", (String) null);\n");
+        out.append("      if (value != null) {\n");
+        out.append("        ")
+            .append(name)
+            .append(" = ")
+            .append(field.type)
+            .append(".valueOf(value);\n");
+        out.append("      }\n");
+        out.append("    }\n");
+        break;
+      case ENUM_ARRAY:
+        out.append("    {\n");
+        out.append("      String[] values = root.get(").append(key).append(", (String[]) null);\n");
+        out.append("      if (values != null) {\n");
+        out.append("        ")
+            .append(name)
+            .append(" = new ")
+            .append(field.elementType)
+            .append("[values.length];\n");
+        out.append("        for (int i = 0; i < values.length; i++) {\n");
+        out.append("          ")
+            .append(name)
+            .append("[i] = ")
+            .append(field.elementType)
+            .append(".valueOf(values[i]);\n");
+        out.append("        }\n");
+        out.append("      }\n");
+        out.append("    }\n");
+        break;
+      case STRUCT:
+        out.append("    ")
+            .append(name)
+            .append(" = root.get(")
+            .append(key)
+            .append(", ")
+            .append(field.type)
+            .append(".struct, ")
+            .append(name)
+            .append(");\n");
+        break;
+      case STRUCT_ARRAY:
+        out.append("    ")
+            .append(name)
+            .append(" = root.get(")
+            .append(key)
+            .append(", ")
+            .append(field.elementType)
+            .append(".struct, ")
+            .append(name)
+            .append(");\n");
+        break;
+    }
+  }
+
+  private static void appendClone(StringBuilder out, InputField field) {
+    String name = field.name;
+    switch (field.kind) {
+      case DIRECT:
+      case ENUM:
+      case STRUCT:
+        if (field.elementType != null) {
+          appendArrayClone(out, name); // One dimensional array
+          break;
+        }
+        out.append("    copy.").append(name).append(" = this.").append(name).append(";\n");
+        break;
+      case ENUM_ARRAY:
+      case STRUCT_ARRAY:
+        appendArrayClone(out, name);
+        break;
+      case DIRECT_ARRAY_2D:
+        out.append("    if (this.").append(name).append(" != null) {\n");
+        out.append("      copy.")
+            .append(name)
+            .append(" = new ")
+            .append(field.elementType.replace("[]", ""))
+            .append("[this.")
+            .append(name)
+            .append(".length][];\n");
+        out.append("      for (int i = 0; i < this.").append(name).append(".length; i++) {\n");
+        out.append("        copy.")
+            .append(name)
+            .append("[i] = this.")
+            .append(name)
+            .append("[i] == null ? null : this.")
+            .append(name)
+            .append("[i].clone();\n");
+        out.append("      }\n");
+        out.append("    }\n");
+        break;
+    }
+  }
+
+  private static void appendArrayClone(StringBuilder out, String name) {
+    out.append("    copy.")
+        .append(name)
+        .append(" = this.")
+        .append(name)
+        .append(" == null ? null : this.")
+        .append(name)
+        .append(".clone();\n");
+  }
+
+  private static String keyName(String fieldName) {
+    return Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+  }
+
+  private void error(Element element, String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+}
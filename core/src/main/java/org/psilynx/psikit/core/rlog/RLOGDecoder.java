@@ -1,10 +1,12 @@
 package org.psilynx.psikit.core.rlog;
 
+import org.psilynx.psikit.core.JfrEvents;
 import org.psilynx.psikit.core.LogTable;
 import org.psilynx.psikit.core.LogTable.LoggableType;
 import org.psilynx.psikit.core.Logger;
 import org.psilynx.psikit.core.Pair;
 
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.IOException;
@@ -30,8 +32,34 @@ public class RLOGDecoder {
   private Double bufferedNextTimestamp = null;
 
   public LogTable decodeTable(DataInputStream input) {
+    return decodeTable(input, false);
+  }
+
+  /**
+   * Decodes a single self-contained cycle, such as one frame received from a live stream. Unlike
+   * {@link #decodeTable(DataInputStream)}, reaching the end of the frame ends only the current
+   * cycle, so the decoder can keep being fed frames as they arrive.
+   *
+   * @param frame The encoded cycle, beginning with a timestamp record (and the log revision if
+   *     this is the first frame given to this decoder).
+   * @return The decoded table, or null if the frame could not be decoded.
+   */
+  public LogTable decodeFrame(byte[] frame) {
+    return decodeTable(new DataInputStream(new ByteArrayInputStream(frame)), true);
+  }
+
+  private LogTable decodeTable(DataInputStream input, boolean framed) {
+    Object event = JfrEvents.beginReplayDecode();
+    try {
+      return decodeCycle(input, framed);
+    } finally {
+      JfrEvents.commitReplayDecode(event);
+    }
+  }
+
+  private LogTable decodeCycle(DataInputStream input, boolean framed) {
     try {
-      if (eofReached) {
+      if (eofReached && !framed) {
         return null;
       }
       if (logRevision == null) {
@@ -81,6 +109,10 @@ public class RLOGDecoder {
         try {
           type = input.readByte();
         } catch (EOFException e) {
+          if (framed) {
+            // End of this frame only, the stream continues with the next frame.
+            return new LogTable(table.getTimestamp(), table);
+          }
           Logger.logInfo("got EOF, ending read of input file");
           eofReached = true;
           return new LogTable(table.getTimestamp(), table);
@@ -134,13 +166,17 @@ public class RLOGDecoder {
       StandardCharsets.UTF_8
     );
     keyIDs.put(keyID, new Pair<>(key, type));
-    Logger.logDebug("Key defined: ID=" + keyID + ", key=" + key + ", type=" + type);
+    if (Logger.isLoggable(Logger.LogLevel.DEBUG)) {
+      Logger.logDebug("Key defined: ID=" + keyID + ", key=" + key + ", type=" + type);
+    }
   }
 
   private void decodeValue(DataInputStream input) throws IOException {
     Pair<String, String> keyID = keyIDs.get(input.readShort());
     int length = input.readUnsignedShort();
-    Logger.logDebug("length of value: " + length);
+    if (Logger.isLoggable(Logger.LogLevel.DEBUG)) {
+      Logger.logDebug("length of value: " + length);
+    }
 
     // Read exactly this record's payload to avoid desync across records.
     final byte[] payload = input.readNBytes(length);
@@ -267,8 +303,8 @@ public class RLOGDecoder {
         table.put(key, new LogTable.LogValue(payload, typeString));
         break;
     }
-    try {
-      Logger.logDebug("value: " + table.get(key).toString());
-    } catch (Exception ignored){ }
+    if (Logger.isLoggable(Logger.LogLevel.DEBUG)) {
+      Logger.logDebug("value: " + table.get(key));
+    }
   }
 }
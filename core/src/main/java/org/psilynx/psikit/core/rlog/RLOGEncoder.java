@@ -7,6 +7,7 @@
 
 package org.psilynx.psikit.core.rlog;
 
+import org.psilynx.psikit.core.JfrEvents;
 import org.psilynx.psikit.core.LogTable;
 import org.psilynx.psikit.core.LogTable.LogValue;
 import org.psilynx.psikit.core.Logger;
@@ -108,6 +109,7 @@ public class RLOGEncoder {
 
   /** Encodes a single table and stores the result. */
   public void encodeTable(LogTable table, boolean includeRevision) {
+    Object event = JfrEvents.beginEncodeTable();
     List<ByteBuffer> buffers = new ArrayList<>();
 
     Map<String, LogValue> newMap = table.getAll(false);
@@ -121,7 +123,9 @@ public class RLOGEncoder {
 
     // Encode timestamp
     buffers.add(encodeTimestamp(table.getTimestamp()));
-    Logger.logDebug("encoded timestamp: " + table.getTimestamp());
+    if (Logger.isLoggable(Logger.LogLevel.DEBUG)) {
+      Logger.logDebug("encoded timestamp: " + table.getTimestamp());
+    }
 
     // Encode new/changed fields
     for (Map.Entry<String, LogValue> field : newMap.entrySet()) {
@@ -153,6 +157,7 @@ public class RLOGEncoder {
     for (ByteBuffer buffer : buffers) {
       nextOutput.put(buffer.array());
     }
+    JfrEvents.commitEncodeTable(event, capacity);
   }
 
   private static ByteBuffer encodeTimestamp(double timestamp) {
@@ -188,9 +193,8 @@ public class RLOGEncoder {
       ByteBuffer valueBuffer;
       switch (value.type) {
         case Raw:
-          byte[] byteArray = value.getRaw();
-          valueBuffer = ByteBuffer.allocate(byteArray.length);
-          valueBuffer.put(byteArray);
+          valueBuffer = ByteBuffer.allocate(value.getRawLength());
+          value.getRaw(valueBuffer.array(), 0);
           break;
         case Boolean:
           valueBuffer = ByteBuffer.allocate(1).put(value.getBoolean() ? (byte) 1 : (byte) 0);
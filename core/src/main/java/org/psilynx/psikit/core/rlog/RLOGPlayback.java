@@ -0,0 +1,228 @@
+package org.psilynx.psikit.core.rlog;
+
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Streams an existing RLOG file to the clients of an {@link RLOGServer} as if it were a live robot,
+ * paced by the recorded timestamps. Useful for testing viewers and measuring server throughput
+ * without hardware.
+ *
+ * <p>Can be run from a desktop with {@code RLOGPlayback <file> [speed|max] [port]}.
+ */
+public class RLOGPlayback {
+  /** Speed value that plays back as fast as the server can broadcast. */
+  public static final double maxSpeed = Double.POSITIVE_INFINITY;
+
+  private static final long reportIntervalNanos = 1_000_000_000L;
+
+  private final String filename;
+  private final RLOGServer server;
+  private final double speed;
+
+  private volatile Thread thread;
+  private volatile long cycles = 0;
+  private volatile long bytes = 0;
+  private volatile double elapsedSecs = 0.0;
+
+  /**
+   * Creates a new playback.
+   *
+   * @param filename The RLOG file to play back.
+   * @param server The server to broadcast through, which should already be started.
+   * @param speed The playback rate relative to real time, or {@link #maxSpeed}.
+   */
+  public RLOGPlayback(String filename, RLOGServer server, double speed) {
+    if (!(speed > 0.0)) {
+      throw new IllegalArgumentException("Playback speed must be positive");
+    }
+    this.filename = filename;
+    this.server = server;
+    this.speed = speed;
+  }
+
+  /** Starts playing back on a background thread. */
+  public void start() {
+    if (thread != null) {
+      return;
+    }
+    final Thread t =
+        new Thread(
+            () -> {
+              try {
+                run();
+              } catch (InterruptedException ignored) {
+              } catch (IOException e) {
+                Logger.logError(
+                    "RLOG playback of "
+                        + filename
+                        + " failed: "
+                        + e.getClass().getSimpleName()
+                        + ": "
+                        + e.getMessage());
+              }
+            },
+            "PsiKit_RLOGPlayback");
+    t.setDaemon(true);
+    thread = t;
+    t.start();
+  }
+
+  /** Stops a playback started with {@link #start()}. */
+  public void end() {
+    final Thread t = thread;
+    if (t != null) {
+      t.interrupt();
+      thread = null;
+    }
+  }
+
+  /**
+   * Plays back the whole file on the calling thread, returning once the end is reached.
+   *
+   * @throws IOException If the file could not be read.
+   * @throws InterruptedException If the thread is interrupted while waiting.
+   */
+  public void run() throws IOException, InterruptedException {
+    cycles = 0;
+    bytes = 0;
+    elapsedSecs = 0.0;
+    try (InputStream stream = open()) {
+      DataInputStream input = new DataInputStream(stream);
+      RLOGDecoder decoder = new RLOGDecoder();
+      boolean paced = !Double.isInfinite(speed);
+      long startNanos = System.nanoTime();
+      long lastReportNanos = startNanos;
+      long lastReportCycles = 0;
+      long lastReportBytes = 0;
+      double firstTimestamp = Double.NaN;
+
+      LogTable table;
+      while ((table = decoder.decodeTable(input)) != null) {
+        if (Thread.currentThread().isInterrupted()) {
+          throw new InterruptedException();
+        }
+        if (paced) {
+          if (Double.isNaN(firstTimestamp)) {
+            firstTimestamp = table.getTimestamp();
+          }
+          long targetNanos =
+              startNanos + (long) ((table.getTimestamp() - firstTimestamp) / speed * 1e9);
+          long waitNanos = targetNanos - System.nanoTime();
+          if (waitNanos > 0) {
+            Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+          }
+        }
+        bytes += server.putTable(table, true);
+        cycles++;
+
+        long now = System.nanoTime();
+        if (now - lastReportNanos >= reportIntervalNanos) {
+          double secs = (now - lastReportNanos) / 1e9;
+          Logger.logInfo(
+              String.format(
+                  "RLOG playback: %.0f cycles/s, %.1f kB/s",
+                  (cycles - lastReportCycles) / secs, (bytes - lastReportBytes) / secs / 1000.0));
+          lastReportNanos = now;
+          lastReportCycles = cycles;
+          lastReportBytes = bytes;
+        }
+        elapsedSecs = (now - startNanos) / 1e9;
+      }
+      Logger.logInfo(
+          String.format(
+              "RLOG playback finished: %d cycles in %.2f s (%.0f cycles/s, %.1f kB/s)",
+              cycles, elapsedSecs, getCyclesPerSecond(), getBytesPerSecond() / 1000.0));
+    }
+  }
+
+  /** Returns the number of cycles played back so far. */
+  public long getCycles() {
+    return cycles;
+  }
+
+  /** Returns the average number of cycles per second played back so far. */
+  public double getCyclesPerSecond() {
+    return elapsedSecs > 0.0 ? cycles / elapsedSecs : 0.0;
+  }
+
+  /** Returns the average number of encoded bytes per second handed to the server so far. */
+  public double getBytesPerSecond() {
+    return elapsedSecs > 0.0 ? bytes / elapsedSecs : 0.0;
+  }
+
+  /** Opens the file memory mapped when possible, or buffered otherwise. */
+  private InputStream open() throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(filename, "r")) {
+      FileChannel channel = file.getChannel();
+      if (channel.size() <= Integer.MAX_VALUE) {
+        // The mapping stays valid after the channel is closed
+        return new ByteBufferInputStream(
+            channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+      }
+    }
+    return new BufferedInputStream(new FileInputStream(filename), 1 << 16);
+  }
+
+  private static class ByteBufferInputStream extends InputStream {
+    private final ByteBuffer buffer;
+
+    ByteBufferInputStream(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int count = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, count);
+      return count;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+
+  public static void main(String[] args) throws IOException, InterruptedException {
+    if (args.length < 1) {
+      System.out.println("Usage: RLOGPlayback <file> [speed|max] [port]");
+      return;
+    }
+    double speed = 1.0;
+    if (args.length > 1) {
+      speed = args[1].equalsIgnoreCase("max") ? maxSpeed : Double.parseDouble(args[1]);
+    }
+    RLOGServer server =
+        args.length > 2 ? new RLOGServer(Integer.parseInt(args[2])) : new RLOGServer();
+    server.start();
+    if (!server.isRunning()) {
+      return;
+    }
+    try {
+      new RLOGPlayback(args[0], server, speed).run();
+    } finally {
+      server.end();
+    }
+  }
+}
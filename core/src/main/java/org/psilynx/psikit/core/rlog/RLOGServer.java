@@ -10,6 +10,7 @@ package org.psilynx.psikit.core.rlog;
 import org.psilynx.psikit.core.LogDataReceiver;
 import org.psilynx.psikit.core.LogTable;
 import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.PipelineMetrics;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -22,6 +23,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
 /** Sends log data over a socket connection using the RLOG format. */
 public class RLOGServer implements LogDataReceiver {
@@ -31,6 +33,10 @@ public class RLOGServer implements LogDataReceiver {
 
   private static final byte[] KEEPALIVE_BYTES = new byte[4];
 
+  private final AtomicLong cyclesSent = new AtomicLong();
+  private final AtomicLong bytesSent = new AtomicLong();
+  private final AtomicLong cyclesDropped = new AtomicLong();
+
   private final Object encoderLock = new Object();
   private final Object socketsLock = new Object();
 
@@ -68,10 +74,22 @@ public class RLOGServer implements LogDataReceiver {
   }
 
   public void putTable(LogTable table) throws InterruptedException {
+    putTable(table, false);
+  }
+
+  /**
+   * Encodes a table and queues it for broadcast.
+   *
+   * @param block Whether to wait for space in the broadcast queue instead of dropping the cycle.
+   *     Used by {@link RLOGPlayback} so that playing back faster than the broadcast thread can
+   *     send measures throughput instead of dropping data.
+   * @return The number of bytes queued, or 0 if the cycle was dropped.
+   */
+  int putTable(LogTable table, boolean block) throws InterruptedException {
     // Avoid TOCTOU races: Logger thread can call putTable() while another thread calls end().
     final ServerThread t = thread;
     if (t == null) {
-      return;
+      return 0;
     }
 
     // If broadcast is behind, drop this cycle and encode changes in the next cycle.
@@ -81,7 +99,37 @@ public class RLOGServer implements LogDataReceiver {
       encoder.encodeTable(table, false);
       data = encodeData(encoder.getOutput().array());
     }
-    t.broadcastQueue.offer(data);
+    PipelineMetrics.recordEncodedBytes(data.length);
+    if (block) {
+      t.broadcastQueue.put(data);
+    } else if (!t.broadcastQueue.offer(data)) {
+      cyclesDropped.incrementAndGet();
+      return 0;
+    }
+    return data.length;
+  }
+
+  /** Returns whether the server is running. */
+  public boolean isRunning() {
+    return thread != null;
+  }
+
+  /** Returns the number of cycles sent by the broadcast thread since the server was created. */
+  public long getCyclesSent() {
+    return cyclesSent.get();
+  }
+
+  /**
+   * Returns the number of bytes sent by the broadcast thread since the server was created, counted
+   * once regardless of how many clients are connected.
+   */
+  public long getBytesSent() {
+    return bytesSent.get();
+  }
+
+  /** Returns the number of cycles dropped because the broadcast queue was full. */
+  public long getCyclesDropped() {
+    return cyclesDropped.get();
   }
 
   private byte[] encodeData(byte[] data) {
@@ -103,6 +151,8 @@ public class RLOGServer implements LogDataReceiver {
     ArrayBlockingQueue<byte[]> broadcastQueue = new ArrayBlockingQueue<>(500);
     List<Socket> sockets = new ArrayList<>();
     List<Double> lastHeartbeats = new ArrayList<>();
+    List<RLOGTunableUpdates.Parser> updateParsers = new ArrayList<>();
+    byte[] readBuffer = new byte[4096];
 
     public ServerThread(int port) {
       super("PsiKit_RLOGServer");
@@ -160,6 +210,7 @@ public class RLOGServer implements LogDataReceiver {
           synchronized (socketsLock) {
             sockets.add(socket);
             lastHeartbeats.add(System.nanoTime() / 1000000000.0);
+            updateParsers.add(new RLOGTunableUpdates.Parser());
           }
           Logger.logInfo(
             "Connected to RLOG client - "
@@ -191,6 +242,10 @@ public class RLOGServer implements LogDataReceiver {
         // Get queue data
         List<byte[]> broadcastData = new ArrayList<>();
         broadcastQueue.drainTo(broadcastData);
+        for (byte[] data : broadcastData) {
+          bytesSent.addAndGet(data.length);
+        }
+        cyclesSent.addAndGet(broadcastData.size());
 
         // Broadcast to each client
         synchronized (socketsLock) {
@@ -199,14 +254,23 @@ public class RLOGServer implements LogDataReceiver {
             if (socket.isClosed()) {
               sockets.remove(i);
               lastHeartbeats.remove(i);
+              updateParsers.remove(i);
               continue;
             }
 
             try {
-              // Read heartbeat
+              // Read heartbeat and any tunable updates
               InputStream inputStream = socket.getInputStream();
               if (inputStream.available() > 0) {
-                inputStream.skip(inputStream.available());
+                while (inputStream.available() > 0) {
+                  int length =
+                      inputStream.read(
+                          readBuffer, 0, Math.min(readBuffer.length, inputStream.available()));
+                  if (length <= 0) {
+                    break;
+                  }
+                  updateParsers.get(i).feed(readBuffer, 0, length);
+                }
                 lastHeartbeats.set(i, System.nanoTime() / 1000000000.0);
               }
 
@@ -217,6 +281,7 @@ public class RLOGServer implements LogDataReceiver {
                 printDisconnectMessage(socket, "timeout");
                 sockets.remove(i);
                 lastHeartbeats.remove(i);
+                updateParsers.remove(i);
                 continue;
               }
 
@@ -239,6 +304,7 @@ public class RLOGServer implements LogDataReceiver {
 
               sockets.remove(i);
               lastHeartbeats.remove(i);
+              updateParsers.remove(i);
             }
           }
         }
@@ -276,6 +342,7 @@ public class RLOGServer implements LogDataReceiver {
         }
         sockets.clear();
         lastHeartbeats.clear();
+        updateParsers.clear();
       }
 
       if (broadcastThread != null) {
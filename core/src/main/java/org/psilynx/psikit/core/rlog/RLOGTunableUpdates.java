@@ -0,0 +1,86 @@
+package org.psilynx.psikit.core.rlog;
+
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.tunable.LiveTunables;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Wire format for tunable updates sent by clients over an {@link RLOGServer} socket.
+ *
+ * <p>Each update is {@code [magic "PKTU"][int length][RLOG data]}, where the RLOG data is a single
+ * cycle encoded with the revision byte. Anything outside an update (such as the heartbeat bytes
+ * sent by viewers) is ignored, so updates can be interleaved with heartbeats freely.
+ */
+public final class RLOGTunableUpdates {
+  private static final byte[] magic = {'P', 'K', 'T', 'U'};
+  private static final int maxUpdateLength = 1 << 16;
+
+  private RLOGTunableUpdates() {}
+
+  /** Encodes a table of updates, with keys relative to "NetworkInputs", to send to the robot. */
+  public static byte[] encode(LogTable updates) {
+    RLOGEncoder encoder = new RLOGEncoder();
+    encoder.encodeTable(updates, true);
+    byte[] data = encoder.getOutput().array();
+    return ByteBuffer.allocate(magic.length + Integer.BYTES + data.length)
+        .put(magic)
+        .putInt(data.length)
+        .put(data)
+        .array();
+  }
+
+  /** Incrementally parses updates from one client connection and stages them. */
+  static class Parser {
+    private final byte[] header = new byte[magic.length + Integer.BYTES];
+    private int headerSize = 0;
+    private byte[] body = null;
+    private int bodySize = 0;
+
+    void feed(byte[] data, int offset, int length) {
+      int end = offset + length;
+      int i = offset;
+      while (i < end) {
+        if (body != null) {
+          int count = Math.min(end - i, body.length - bodySize);
+          System.arraycopy(data, i, body, bodySize, count);
+          bodySize += count;
+          i += count;
+          if (bodySize == body.length) {
+            stage(body);
+            body = null;
+          }
+        } else if (headerSize < magic.length) {
+          byte b = data[i++];
+          if (b == magic[headerSize]) {
+            header[headerSize++] = b;
+          } else {
+            headerSize = b == magic[0] ? 1 : 0;
+          }
+        } else {
+          header[headerSize++] = data[i++];
+          if (headerSize == header.length) {
+            int bodyLength = ByteBuffer.wrap(header, magic.length, Integer.BYTES).getInt();
+            headerSize = 0;
+            if (bodyLength > 0 && bodyLength <= maxUpdateLength) {
+              body = new byte[bodyLength];
+              bodySize = 0;
+            } else {
+              Logger.logWarning("Ignoring tunable update with invalid length " + bodyLength);
+            }
+          }
+        }
+      }
+    }
+
+    private static void stage(byte[] data) {
+      LogTable table = new RLOGDecoder().decodeFrame(data);
+      if (table == null) {
+        Logger.logWarning("Ignoring tunable update that could not be decoded");
+        return;
+      }
+      LiveTunables.stage(table.getAll(false));
+    }
+  }
+}
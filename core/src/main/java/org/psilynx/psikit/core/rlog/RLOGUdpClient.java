@@ -0,0 +1,239 @@
+package org.psilynx.psikit.core.rlog;
+
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+
+/**
+ * Receives log data sent by {@link RLOGUdpServer}. Reassembles fragmented frames, and discards
+ * deltas after any loss until the next keyframe arrives.
+ */
+public class RLOGUdpClient implements Closeable {
+  private final DatagramSocket socket;
+  private final InetAddress group;
+  private final NetworkInterface networkInterface;
+  private final byte[] receiveBuffer = new byte[65535];
+  private final DatagramPacket packet = new DatagramPacket(receiveBuffer, receiveBuffer.length);
+
+  private RLOGDecoder decoder = null;
+  private boolean synced = false;
+  private int lastSequence = 0;
+
+  private int pendingSequence = 0;
+  private boolean pendingKeyframe = false;
+  private byte[][] pendingFragments = null;
+  private int pendingReceived = 0;
+
+  private long framesDecoded = 0;
+  private long framesLost = 0;
+
+  /** Creates a client listening for the default multicast group and port. */
+  public RLOGUdpClient() throws IOException {
+    this(RLOGUdpServer.defaultGroup, RLOGUdpServer.defaultPort);
+  }
+
+  /**
+   * Creates a client listening on the given port. If the host is a multicast group, the client
+   * joins it on all interfaces that support multicast.
+   *
+   * @param host The multicast group to join, or any other address to receive unicast/broadcast.
+   * @param port The UDP port the server sends to.
+   */
+  public RLOGUdpClient(String host, int port) throws IOException {
+    InetAddress address = InetAddress.getByName(host);
+    if (address.isMulticastAddress()) {
+      MulticastSocket s = new MulticastSocket(null);
+      s.setReuseAddress(true);
+      s.bind(new InetSocketAddress(port));
+      s.joinGroup(address);
+      socket = s;
+      group = address;
+    } else {
+      socket = new DatagramSocket(null);
+      socket.setReuseAddress(true);
+      socket.bind(new InetSocketAddress(port));
+      group = null;
+    }
+    networkInterface = null;
+  }
+
+  /**
+   * Creates a client joining a multicast group on a specific interface (e.g. the loopback
+   * interface for local testing).
+   */
+  public RLOGUdpClient(String group, int port, NetworkInterface networkInterface)
+      throws IOException {
+    InetAddress address = InetAddress.getByName(group);
+    MulticastSocket s = new MulticastSocket(null);
+    s.setReuseAddress(true);
+    s.bind(new InetSocketAddress(port));
+    s.joinGroup(new InetSocketAddress(address, port), networkInterface);
+    socket = s;
+    this.group = address;
+    this.networkInterface = networkInterface;
+  }
+
+  /**
+   * Blocks until the next complete cycle is received and decoded.
+   *
+   * @param timeoutMs The maximum time to wait, in milliseconds.
+   * @return The decoded table, or null if no cycle could be decoded before the timeout.
+   */
+  public LogTable receive(int timeoutMs) throws IOException {
+    long deadline = System.nanoTime() + timeoutMs * 1_000_000L;
+    while (true) {
+      int remainingMs = (int) ((deadline - System.nanoTime()) / 1_000_000L);
+      if (remainingMs <= 0) {
+        return null;
+      }
+      socket.setSoTimeout(remainingMs);
+      try {
+        packet.setLength(receiveBuffer.length);
+        socket.receive(packet);
+      } catch (SocketTimeoutException e) {
+        return null;
+      }
+      byte[] frame = acceptDatagram(packet.getData(), packet.getLength());
+      if (frame == null) {
+        continue;
+      }
+      LogTable table = decodeFrame(frame);
+      if (table != null) {
+        return table;
+      }
+    }
+  }
+
+  /** Returns the number of frames decoded since this client was created. */
+  public long getFramesDecoded() {
+    return framesDecoded;
+  }
+
+  /** Returns the number of frames detected as lost (including those skipped while resyncing). */
+  public long getFramesLost() {
+    return framesLost;
+  }
+
+  /** Returns whether the client is currently in sync with the server's delta stream. */
+  public boolean isSynced() {
+    return synced;
+  }
+
+  /**
+   * Adds a datagram to the frame being reassembled. Returns the complete frame once all of its
+   * fragments have arrived, otherwise null.
+   */
+  private byte[] acceptDatagram(byte[] data, int length) {
+    if (length < RLOGUdpServer.headerBytes) {
+      return null;
+    }
+    ByteBuffer header = ByteBuffer.wrap(data, 0, length);
+    byte version = header.get();
+    if (version != RLOGUdpServer.protocolVersion) {
+      Logger.logWarning("Ignoring RLOG UDP datagram with unsupported version " + version);
+      return null;
+    }
+    boolean keyframe = (header.get() & RLOGUdpServer.keyframeFlag) != 0;
+    int sequence = header.getInt();
+    int fragmentIndex = header.getShort();
+    int fragmentCount = header.getShort();
+    if (fragmentCount < 1 || fragmentIndex < 0 || fragmentIndex >= fragmentCount) {
+      return null;
+    }
+
+    if (synced && sequence - lastSequence <= 0) {
+      return null; // Duplicate or reordered frame that has already been decoded
+    }
+
+    // Start a new frame, abandoning any partial one
+    if (pendingFragments == null || sequence != pendingSequence) {
+      if (pendingFragments != null && sequence - pendingSequence < 0) {
+        return null; // Late fragment from an abandoned frame
+      }
+      pendingSequence = sequence;
+      pendingKeyframe = keyframe;
+      pendingFragments = new byte[fragmentCount][];
+      pendingReceived = 0;
+    }
+    if (pendingFragments.length != fragmentCount || pendingFragments[fragmentIndex] != null) {
+      return null;
+    }
+
+    byte[] fragment = new byte[length - RLOGUdpServer.headerBytes];
+    System.arraycopy(data, RLOGUdpServer.headerBytes, fragment, 0, fragment.length);
+    pendingFragments[fragmentIndex] = fragment;
+    pendingReceived++;
+    if (pendingReceived < fragmentCount) {
+      return null;
+    }
+
+    // Frame complete, concatenate fragments
+    int totalLength = 0;
+    for (byte[] f : pendingFragments) {
+      totalLength += f.length;
+    }
+    byte[] frame = new byte[totalLength];
+    int offset = 0;
+    for (byte[] f : pendingFragments) {
+      System.arraycopy(f, 0, frame, offset, f.length);
+      offset += f.length;
+    }
+    pendingFragments = null;
+    return frame;
+  }
+
+  private LogTable decodeFrame(byte[] frame) {
+    int sequence = pendingSequence;
+    if (pendingKeyframe) {
+      // Keyframes hold the full state, so start from a clean decoder
+      if (synced && sequence - lastSequence > 1) {
+        framesLost += sequence - lastSequence - 1;
+      }
+      decoder = new RLOGDecoder();
+      synced = true;
+    } else if (!synced || sequence - lastSequence != 1) {
+      if (synced) {
+        framesLost += Math.max(0, sequence - lastSequence - 1);
+        Logger.logWarning("RLOG UDP client lost sync, waiting for next keyframe");
+      }
+      framesLost++;
+      synced = false;
+      lastSequence = sequence;
+      return null;
+    }
+    lastSequence = sequence;
+
+    LogTable table = decoder.decodeFrame(frame);
+    if (table == null) {
+      synced = false;
+      return null;
+    }
+    framesDecoded++;
+    return table;
+  }
+
+  @Override
+  public void close() {
+    if (group != null && socket instanceof MulticastSocket) {
+      try {
+        if (networkInterface != null) {
+          ((MulticastSocket) socket).leaveGroup(new InetSocketAddress(group, 0), networkInterface);
+        } else {
+          ((MulticastSocket) socket).leaveGroup(group);
+        }
+      } catch (IOException ignored) {
+      }
+    }
+    socket.close();
+  }
+}
@@ -0,0 +1,265 @@
+package org.psilynx.psikit.core.rlog;
+
+import org.psilynx.psikit.core.LogDataReceiver;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.PipelineMetrics;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends log data as UDP datagrams to a multicast, broadcast or unicast address using the RLOG
+ * format. Unlike {@link RLOGServer}, each cycle is sent exactly once no matter how many viewers are
+ * listening, so the robot-side cost does not grow with the number of clients.
+ *
+ * <p>Every cycle is sent as one <b>frame</b>. A frame is either the RLOG delta for that cycle, or
+ * (every {@code keyframeInterval} cycles) a <b>keyframe</b> holding the full contents of the table
+ * including the log revision and all key definitions, so that receivers can join late or recover
+ * after losing a datagram. Frames larger than {@code maxDatagramPayload} are split into fragments.
+ *
+ * <p>Each datagram carries the following header (big endian), followed by the fragment bytes:
+ * <pre>
+ *   [byte version][byte flags][int sequence][short fragmentIndex][short fragmentCount]
+ * </pre>
+ * {@code sequence} increments by one for every frame. Bit 0 of {@code flags} marks a keyframe. A
+ * receiver that misses any fragment must discard deltas until the next keyframe; see
+ * {@link RLOGUdpClient}.
+ */
+public class RLOGUdpServer implements LogDataReceiver {
+  public static final byte protocolVersion = (byte) 1;
+  public static final byte keyframeFlag = (byte) 1;
+  public static final int headerBytes = 1 + 1 + Integer.BYTES + Short.BYTES + Short.BYTES;
+
+  public static final String defaultGroup = "239.50.50.58";
+  public static final int defaultPort = 5801;
+
+  private final InetSocketAddress destination;
+  private final int keyframeInterval;
+  private final int maxDatagramPayload;
+  private final RLOGEncoder encoder = new RLOGEncoder();
+
+  private SendThread thread;
+  private int sequence = 0;
+  private int cyclesSinceKeyframe = 0;
+  private boolean forceKeyframe = true;
+
+  /** Creates a server sending to the default multicast group and port. */
+  public RLOGUdpServer() {
+    this(defaultGroup, defaultPort);
+  }
+
+  /**
+   * Creates a server sending to the given address, with a keyframe every 50 cycles.
+   *
+   * @param host A multicast group, broadcast address or unicast host.
+   * @param port The destination UDP port.
+   */
+  public RLOGUdpServer(String host, int port) {
+    this(host, port, 50, 1200);
+  }
+
+  /**
+   * Creates a server sending to the given address.
+   *
+   * @param host A multicast group, broadcast address or unicast host.
+   * @param port The destination UDP port.
+   * @param keyframeInterval The number of cycles between keyframes.
+   * @param maxDatagramPayload The maximum number of frame bytes per datagram, excluding the header.
+   *     Keep this below the network MTU to avoid IP fragmentation.
+   */
+  public RLOGUdpServer(String host, int port, int keyframeInterval, int maxDatagramPayload) {
+    if (keyframeInterval < 1) {
+      throw new IllegalArgumentException("keyframeInterval must be at least 1");
+    }
+    if (maxDatagramPayload < 1 || maxDatagramPayload > 65507 - headerBytes) {
+      throw new IllegalArgumentException("maxDatagramPayload out of range: " + maxDatagramPayload);
+    }
+    this.destination = new InetSocketAddress(host, port);
+    this.keyframeInterval = keyframeInterval;
+    this.maxDatagramPayload = maxDatagramPayload;
+  }
+
+  public void start() {
+    if (thread != null) {
+      return;
+    }
+    if (destination.isUnresolved()) {
+      Logger.logError("RLOG UDP server failed to resolve " + destination.getHostString());
+      return;
+    }
+
+    final SendThread t = new SendThread();
+    if (!t.isOpen()) {
+      Logger.logError("RLOG UDP server failed to start (destination " + destination + ")");
+      return;
+    }
+
+    thread = t;
+    thread.start();
+    Logger.logInfo("RLOG UDP server started, sending to " + destination);
+  }
+
+  public void end() {
+    final SendThread t = thread;
+    if (t != null) {
+      t.close();
+      thread = null;
+    }
+  }
+
+  public void putTable(LogTable table) throws InterruptedException {
+    final SendThread t = thread;
+    if (t == null) {
+      return;
+    }
+
+    // The encoder must see every cycle so that deltas stay consistent with its last table.
+    encoder.encodeTable(table, false);
+    boolean keyframe = forceKeyframe || ++cyclesSinceKeyframe >= keyframeInterval;
+    byte[] frame =
+        keyframe ? encoder.getNewcomerData().array() : encoder.getOutput().array();
+    PipelineMetrics.recordEncodedBytes(frame.length);
+
+    // If sending is behind, drop this cycle. Receivers will lose sync, so resend the full state
+    // on the next cycle rather than waiting for the keyframe interval.
+    if (t.queue.offer(new Frame(sequence, keyframe, frame))) {
+      sequence++;
+      forceKeyframe = false;
+      if (keyframe) {
+        cyclesSinceKeyframe = 0;
+      }
+    } else {
+      forceKeyframe = true;
+    }
+  }
+
+  /** Returns the number of frames sent so far. */
+  public long getFramesSent() {
+    final SendThread t = thread;
+    return t == null ? 0 : t.framesSent;
+  }
+
+  /** Returns the number of datagrams that failed to send. */
+  public long getSendErrors() {
+    final SendThread t = thread;
+    return t == null ? 0 : t.sendErrors;
+  }
+
+  private static class Frame {
+    final int sequence;
+    final boolean keyframe;
+    final byte[] data;
+
+    Frame(int sequence, boolean keyframe, byte[] data) {
+      this.sequence = sequence;
+      this.keyframe = keyframe;
+      this.data = data;
+    }
+  }
+
+  private class SendThread extends Thread {
+    final ArrayBlockingQueue<Frame> queue = new ArrayBlockingQueue<>(100);
+    private final byte[] datagramBuffer = new byte[headerBytes + maxDatagramPayload];
+    private final DatagramPacket packet =
+        new DatagramPacket(datagramBuffer, datagramBuffer.length, destination);
+    private volatile DatagramSocket socket;
+    volatile long framesSent = 0;
+    volatile long sendErrors = 0;
+
+    SendThread() {
+      super("PsiKit_RLOGUdpServer");
+      this.setDaemon(true);
+
+      try {
+        InetAddress address = destination.getAddress();
+        if (address.isMulticastAddress()) {
+          MulticastSocket s = new MulticastSocket();
+          s.setTimeToLive(1);
+          s.setLoopbackMode(false); // false enables loopback, so clients on this host receive too
+          socket = s;
+        } else {
+          socket = new DatagramSocket();
+          socket.setBroadcast(true);
+        }
+      } catch (IOException e) {
+        Logger.logError(
+            "error while opening a datagram socket in RLOG UDP server: "
+                + e.getClass().getSimpleName()
+                + ": "
+                + e.getMessage());
+        socket = null;
+      }
+    }
+
+    boolean isOpen() {
+      return socket != null;
+    }
+
+    public void run() {
+      while (!isInterrupted()) {
+        Frame frame;
+        try {
+          frame = queue.poll(100, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          return;
+        }
+        if (frame == null) {
+          continue;
+        }
+        send(frame);
+      }
+    }
+
+    private void send(Frame frame) {
+      final DatagramSocket s = socket;
+      if (s == null) {
+        return;
+      }
+      int fragmentCount =
+          Math.max(1, (frame.data.length + maxDatagramPayload - 1) / maxDatagramPayload);
+      if (fragmentCount > Short.MAX_VALUE) {
+        Logger.logError("RLOG UDP frame too large to send (" + frame.data.length + " bytes)");
+        return;
+      }
+      ByteBuffer header = ByteBuffer.wrap(datagramBuffer);
+      for (int i = 0; i < fragmentCount; i++) {
+        int offset = i * maxDatagramPayload;
+        int length = Math.min(maxDatagramPayload, frame.data.length - offset);
+        header.clear();
+        header.put(protocolVersion);
+        header.put(frame.keyframe ? keyframeFlag : 0);
+        header.putInt(frame.sequence);
+        header.putShort((short) i);
+        header.putShort((short) fragmentCount);
+        System.arraycopy(frame.data, offset, datagramBuffer, headerBytes, length);
+        packet.setLength(headerBytes + length);
+        try {
+          s.send(packet);
+        } catch (IOException e) {
+          sendErrors++;
+          if (s.isClosed()) {
+            return;
+          }
+        }
+      }
+      framesSent++;
+    }
+
+    void close() {
+      this.interrupt();
+      final DatagramSocket s = socket;
+      socket = null;
+      if (s != null) {
+        s.close();
+      }
+    }
+  }
+}
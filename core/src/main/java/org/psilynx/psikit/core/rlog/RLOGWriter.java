@@ -10,6 +10,7 @@ package org.psilynx.psikit.core.rlog;
 import org.psilynx.psikit.core.LogDataReceiver;
 import org.psilynx.psikit.core.LogTable;
 import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.PipelineMetrics;
 
 import java.io.File;
 import java.io.FileOutputStream;
@@ -71,6 +72,7 @@ public class RLOGWriter implements LogDataReceiver {
         encoder.encodeTable(table, true);
         data = encoder.getOutput().array();
       }
+      PipelineMetrics.recordEncodedBytes(data.length);
       appendData(data);
     }
   }
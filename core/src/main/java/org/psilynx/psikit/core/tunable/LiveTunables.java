@@ -0,0 +1,101 @@
+package org.psilynx.psikit.core.tunable;
+
+import org.psilynx.psikit.core.LogTable.LogValue;
+import org.psilynx.psikit.core.LoggedNetworkInput;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Double-buffered store for values pushed to the robot by live clients.
+ *
+ * <p>Network threads call {@link #stage(Map)} at any time; staged values collect in a back buffer
+ * that is published with a compare-and-set, so neither side ever takes a lock. Once per cycle,
+ * {@link org.psilynx.psikit.core.Logger#periodicBeforeUser()} calls {@link #swap()}, which moves
+ * everything staged so far into the front buffer read by {@link LoggedTunable}s. Values can
+ * therefore only change between cycles, never while user code is running.
+ *
+ * <p>The store is process-wide, like the network connection that fills it, rather than kept per
+ * {@link org.psilynx.psikit.core.LoggerContext}. Only the default context (the one used when no
+ * context is bound to the thread) swaps and clears it. The front buffer is an immutable map that
+ * each swap replaces through a volatile reference, so tunables in sessions bound to other threads
+ * may read it safely and see the values the default session last applied.
+ */
+public final class LiveTunables {
+  private static final AtomicReference<Map<String, LogValue>> staged = new AtomicReference<>();
+  private static volatile Map<String, LogValue> front = Collections.emptyMap();
+
+  private LiveTunables() {}
+
+  /**
+   * Stages a batch of updates to be applied at the start of the next cycle. Safe to call from any
+   * thread. Keys may include a leading slash and the "NetworkInputs/" prefix.
+   */
+  public static void stage(Map<String, LogValue> updates) {
+    if (updates.isEmpty()) {
+      return;
+    }
+    Map<String, LogValue> normalized = new HashMap<>();
+    for (Map.Entry<String, LogValue> update : updates.entrySet()) {
+      normalized.put(normalizeKey(update.getKey()), update.getValue());
+    }
+    while (true) {
+      Map<String, LogValue> current = staged.get();
+      Map<String, LogValue> next;
+      if (current == null) {
+        next = normalized;
+      } else {
+        next = new HashMap<>(current);
+        next.putAll(normalized);
+      }
+      if (staged.compareAndSet(current, next)) {
+        return;
+      }
+    }
+  }
+
+  /** Stages a single update. Safe to call from any thread. */
+  public static void stage(String key, LogValue value) {
+    stage(Collections.singletonMap(key, value));
+  }
+
+  /**
+   * Applies all staged updates to the front buffer. This function should only be called by the
+   * Logger on the main thread of the default context.
+   *
+   * @return Whether any values were applied.
+   */
+  public static boolean swap() {
+    Map<String, LogValue> updates = staged.getAndSet(null);
+    if (updates == null) {
+      return false;
+    }
+    Map<String, LogValue> next = new HashMap<>(front);
+    next.putAll(updates);
+    front = Collections.unmodifiableMap(next);
+    return true;
+  }
+
+  /** Returns the latest applied value for a key, or null if none has been received. */
+  static LogValue get(String key) {
+    return front.get(key);
+  }
+
+  /** Discards all staged and applied values. */
+  public static void clear() {
+    staged.set(null);
+    front = Collections.emptyMap();
+  }
+
+  private static String normalizeKey(String key) {
+    if (key.startsWith("/")) {
+      key = key.substring(1);
+    }
+    if (key.startsWith(LoggedNetworkInput.prefix + "/")) {
+      key = key.substring(LoggedNetworkInput.prefix.length() + 1);
+    }
+    return key;
+  }
+}
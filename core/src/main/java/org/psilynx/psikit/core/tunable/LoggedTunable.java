@@ -0,0 +1,72 @@
+package org.psilynx.psikit.core.tunable;
+
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.LogTable.LogValue;
+import org.psilynx.psikit.core.LoggableInputs;
+import org.psilynx.psikit.core.LoggedNetworkInput;
+import org.psilynx.psikit.core.Logger;
+
+/**
+ * Base class for values that can be changed live from a connected client. The value in use each
+ * cycle is recorded as an input under "NetworkInputs", so replay reproduces every change at the
+ * same cycle it happened on the robot.
+ */
+public abstract class LoggedTunable extends LoggedNetworkInput {
+  protected final String key;
+  private boolean changed = true;
+
+  private final LoggableInputs inputs =
+      new LoggableInputs() {
+        public void toLog(LogTable table) {
+          LoggedTunable.this.toLog(table, key);
+        }
+
+        public void fromLog(LogTable table) {
+          LogValue value = table.get(key);
+          if (value != null && apply(value)) {
+            changed = true;
+          }
+        }
+      };
+
+  protected LoggedTunable(String key) {
+    this.key = removeSlash(key);
+    Logger.registerDashboardInput(this);
+  }
+
+  /** Returns the key of this value, relative to "NetworkInputs". */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Returns whether the value has changed since the last call to this method. Always returns true
+   * the first time it is called.
+   */
+  public boolean hasChanged() {
+    boolean result = changed;
+    changed = false;
+    return result;
+  }
+
+  /**
+   * Updates the current value from a received value.
+   *
+   * @return Whether the current value changed.
+   */
+  protected abstract boolean apply(LogValue value);
+
+  /** Writes the current value to the table. */
+  protected abstract void toLog(LogTable table, String key);
+
+  @Override
+  public void periodic() {
+    if (!Logger.hasReplaySource()) {
+      LogValue value = LiveTunables.get(key);
+      if (value != null && apply(value)) {
+        changed = true;
+      }
+    }
+    Logger.processInputs(prefix, inputs);
+  }
+}
@@ -0,0 +1,44 @@
+package org.psilynx.psikit.core.tunable;
+
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.LogTable.LogValue;
+
+/** A boolean that can be changed live from a connected client. */
+public class LoggedTunableBoolean extends LoggedTunable {
+  private final boolean defaultValue;
+  private boolean value;
+
+  public LoggedTunableBoolean(String key) {
+    this(key, false);
+  }
+
+  public LoggedTunableBoolean(String key, boolean defaultValue) {
+    super(key);
+    this.defaultValue = defaultValue;
+    this.value = defaultValue;
+  }
+
+  /** Returns the current value. */
+  public boolean get() {
+    return value;
+  }
+
+  /** Returns the value used before any change is received. */
+  public boolean getDefault() {
+    return defaultValue;
+  }
+
+  @Override
+  protected boolean apply(LogValue received) {
+    if (received.type != LogTable.LoggableType.Boolean || received.getBoolean() == value) {
+      return false;
+    }
+    value = received.getBoolean();
+    return true;
+  }
+
+  @Override
+  protected void toLog(LogTable table, String key) {
+    table.put(key, value);
+  }
+}
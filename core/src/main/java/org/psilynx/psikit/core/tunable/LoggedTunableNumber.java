@@ -0,0 +1,58 @@
+package org.psilynx.psikit.core.tunable;
+
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.LogTable.LogValue;
+
+/** A number that can be changed live from a connected client. */
+public class LoggedTunableNumber extends LoggedTunable {
+  private final double defaultValue;
+  private double value;
+
+  public LoggedTunableNumber(String key) {
+    this(key, 0.0);
+  }
+
+  public LoggedTunableNumber(String key, double defaultValue) {
+    super(key);
+    this.defaultValue = defaultValue;
+    this.value = defaultValue;
+  }
+
+  /** Returns the current value. */
+  public double get() {
+    return value;
+  }
+
+  /** Returns the value used before any change is received. */
+  public double getDefault() {
+    return defaultValue;
+  }
+
+  @Override
+  protected boolean apply(LogValue received) {
+    double newValue;
+    switch (received.type) {
+      case Double:
+        newValue = received.getDouble();
+        break;
+      case Float:
+        newValue = received.getFloat();
+        break;
+      case Integer:
+        newValue = received.getInteger();
+        break;
+      default:
+        return false;
+    }
+    if (Double.doubleToLongBits(newValue) == Double.doubleToLongBits(value)) {
+      return false;
+    }
+    value = newValue;
+    return true;
+  }
+
+  @Override
+  protected void toLog(LogTable table, String key) {
+    table.put(key, value);
+  }
+}
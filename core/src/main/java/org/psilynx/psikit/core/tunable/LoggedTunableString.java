@@ -0,0 +1,44 @@
+package org.psilynx.psikit.core.tunable;
+
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.LogTable.LogValue;
+
+/** A string that can be changed live from a connected client. */
+public class LoggedTunableString extends LoggedTunable {
+  private final String defaultValue;
+  private String value;
+
+  public LoggedTunableString(String key) {
+    this(key, "");
+  }
+
+  public LoggedTunableString(String key, String defaultValue) {
+    super(key);
+    this.defaultValue = defaultValue;
+    this.value = defaultValue;
+  }
+
+  /** Returns the current value. */
+  public String get() {
+    return value;
+  }
+
+  /** Returns the value used before any change is received. */
+  public String getDefault() {
+    return defaultValue;
+  }
+
+  @Override
+  protected boolean apply(LogValue received) {
+    if (received.type != LogTable.LoggableType.String || received.getString().equals(value)) {
+      return false;
+    }
+    value = received.getString();
+    return true;
+  }
+
+  @Override
+  protected void toLog(LogTable table, String key) {
+    table.put(key, value);
+  }
+}
@@ -0,0 +1,207 @@
+package org.psilynx.psikit.core.wpi.math;
+
+import org.psilynx.psikit.core.wpi.StructSerializable;
+
+/**
+ * A {@link Pose2d} that can be changed in place, for odometry and path following loops that update
+ * a pose every cycle without allocating. Operations modify this pose and return it, so they can be
+ * chained, and results that need a second pose are written to an {@code out} parameter. It is
+ * logged with the same struct type as {@link Pose2d}, so AdvantageScope and replay treat both the
+ * same.
+ *
+ * <pre>{@code
+ * private final MutablePose2d pose = new MutablePose2d();
+ *
+ * public void periodic() {
+ *   pose.transformBy(dxRobot, dyRobot, dTheta);
+ *   Logger.recordOutput("Odometry/Pose", MutablePose2d.struct, pose);
+ * }
+ * }</pre>
+ */
+public class MutablePose2d implements StructSerializable {
+  private final MutableTranslation2d m_translation = new MutableTranslation2d();
+  private final MutableRotation2d m_rotation = new MutableRotation2d();
+
+  /** Constructs a pose at the origin facing toward the positive X axis. */
+  public MutablePose2d() {}
+
+  /**
+   * Constructs a pose with the given position and heading.
+   *
+   * @param x The x component of the translational component of the pose.
+   * @param y The y component of the translational component of the pose.
+   * @param radians The heading of the pose in radians.
+   */
+  public MutablePose2d(double x, double y, double radians) {
+    set(x, y, radians);
+  }
+
+  /**
+   * Constructs a copy of an immutable pose.
+   *
+   * @param pose The pose to copy.
+   */
+  public MutablePose2d(Pose2d pose) {
+    set(pose);
+  }
+
+  /**
+   * Sets the position and heading.
+   *
+   * @param x The x component of the translational component of the pose.
+   * @param y The y component of the translational component of the pose.
+   * @param radians The heading of the pose in radians.
+   * @return This pose.
+   */
+  public MutablePose2d set(double x, double y, double radians) {
+    m_translation.set(x, y);
+    m_rotation.set(radians);
+    return this;
+  }
+
+  /**
+   * Copies an immutable pose.
+   *
+   * @param pose The pose to copy.
+   * @return This pose.
+   */
+  public MutablePose2d set(Pose2d pose) {
+    m_translation.set(pose.getTranslation());
+    m_rotation.set(pose.getRotation());
+    return this;
+  }
+
+  /**
+   * Copies another mutable pose.
+   *
+   * @param pose The pose to copy.
+   * @return This pose.
+   */
+  public MutablePose2d set(MutablePose2d pose) {
+    m_translation.set(pose.m_translation);
+    m_rotation.set(pose.m_rotation);
+    return this;
+  }
+
+  /**
+   * Moves the pose by an offset measured in its own frame, such as one odometry step. The
+   * translation is rotated by the current heading before it is added, then the heading is rotated.
+   *
+   * @param dx The forward offset.
+   * @param dy The leftward offset.
+   * @param dTheta The change in heading in radians.
+   * @return This pose.
+   */
+  public MutablePose2d transformBy(double dx, double dy, double dTheta) {
+    m_translation.set(
+        m_translation.getX() + dx * m_rotation.getCos() - dy * m_rotation.getSin(),
+        m_translation.getY() + dx * m_rotation.getSin() + dy * m_rotation.getCos());
+    m_rotation.rotateBy(Math.cos(dTheta), Math.sin(dTheta));
+    return this;
+  }
+
+  /**
+   * Moves the pose by a transform measured in its own frame, given as a pose relative to this one.
+   * This is the inverse of {@link #relativeTo(Pose2d, MutablePose2d)}.
+   *
+   * @param transform The offset to apply, in this pose's frame.
+   * @return This pose.
+   */
+  public MutablePose2d transformBy(Pose2d transform) {
+    Translation2d translation = transform.getTranslation();
+    Rotation2d rotation = transform.getRotation();
+    m_translation.set(
+        m_translation.getX()
+            + translation.getX() * m_rotation.getCos()
+            - translation.getY() * m_rotation.getSin(),
+        m_translation.getY()
+            + translation.getX() * m_rotation.getSin()
+            + translation.getY() * m_rotation.getCos());
+    m_rotation.rotateBy(rotation);
+    return this;
+  }
+
+  /**
+   * Rotates the pose around the origin, as {@link Pose2d#rotateBy(Rotation2d)} does.
+   *
+   * @param other The rotation to transform the pose by.
+   * @return This pose.
+   */
+  public MutablePose2d rotateBy(Rotation2d other) {
+    m_translation.rotateBy(other);
+    m_rotation.rotateBy(other);
+    return this;
+  }
+
+  /**
+   * Writes this pose relative to another pose into {@code out}, for example the error between a
+   * target and the current pose. {@code out} may be this pose.
+   *
+   * @param other The pose that is the origin of the new coordinate frame.
+   * @param out The pose to write the result to.
+   * @return {@code out}.
+   */
+  public MutablePose2d relativeTo(Pose2d other, MutablePose2d out) {
+    Rotation2d rotation = other.getRotation();
+    double dx = m_translation.getX() - other.getX();
+    double dy = m_translation.getY() - other.getY();
+    double cos = rotation.getCos();
+    double sin = -rotation.getSin();
+    out.m_translation.set(dx * cos - dy * sin, dx * sin + dy * cos);
+    out.m_rotation.set(m_rotation).rotateBy(cos, sin);
+    return out;
+  }
+
+  /**
+   * Returns the translation component of the pose. Changing it changes this pose.
+   *
+   * @return The translational component of the pose.
+   */
+  public MutableTranslation2d getTranslation() {
+    return m_translation;
+  }
+
+  /**
+   * Returns the X component of the pose's translation.
+   *
+   * @return The x component of the pose's translation.
+   */
+  public double getX() {
+    return m_translation.getX();
+  }
+
+  /**
+   * Returns the Y component of the pose's translation.
+   *
+   * @return The y component of the pose's translation.
+   */
+  public double getY() {
+    return m_translation.getY();
+  }
+
+  /**
+   * Returns the rotation component of the pose. Changing it changes this pose.
+   *
+   * @return The rotational component of the pose.
+   */
+  public MutableRotation2d getRotation() {
+    return m_rotation;
+  }
+
+  /**
+   * Returns an immutable copy of the pose.
+   *
+   * @return A Pose2d with the same position and heading.
+   */
+  public Pose2d toPose2d() {
+    return new Pose2d(m_translation.toTranslation2d(), m_rotation.toRotation2d());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("MutablePose2d(%s, %s)", m_translation, m_rotation);
+  }
+
+  /** MutablePose2d struct for serialization, stored as a Pose2d. */
+  public static final MutablePose2dStruct struct = new MutablePose2dStruct();
+}
@@ -0,0 +1,52 @@
+package org.psilynx.psikit.core.wpi.math;
+
+import org.psilynx.psikit.core.wpi.Struct;
+
+import java.nio.ByteBuffer;
+
+/** Packs a {@link MutablePose2d} with the same type and layout as {@link Pose2dStruct}. */
+public class MutablePose2dStruct implements Struct<MutablePose2d> {
+  @Override
+  public Class<MutablePose2d> getTypeClass() {
+    return MutablePose2d.class;
+  }
+
+  @Override
+  public String getTypeName() {
+    return Pose2d.struct.getTypeName();
+  }
+
+  @Override
+  public int getSize() {
+    return Pose2d.struct.getSize();
+  }
+
+  @Override
+  public String getSchema() {
+    return Pose2d.struct.getSchema();
+  }
+
+  @Override
+  public Struct<?>[] getNested() {
+    return Pose2d.struct.getNested();
+  }
+
+  @Override
+  public MutablePose2d unpack(ByteBuffer bb) {
+    MutablePose2d value = new MutablePose2d();
+    unpackInto(value, bb);
+    return value;
+  }
+
+  @Override
+  public void unpackInto(MutablePose2d out, ByteBuffer bb) {
+    MutableTranslation2d.struct.unpackInto(out.getTranslation(), bb);
+    MutableRotation2d.struct.unpackInto(out.getRotation(), bb);
+  }
+
+  @Override
+  public void pack(ByteBuffer bb, MutablePose2d value) {
+    MutableTranslation2d.struct.pack(bb, value.getTranslation());
+    MutableRotation2d.struct.pack(bb, value.getRotation());
+  }
+}
@@ -0,0 +1,318 @@
+package org.psilynx.psikit.core.wpi.math;
+
+import org.psilynx.psikit.core.wpi.StructSerializable;
+
+/**
+ * A {@link Pose3d} that can be changed in place, for loops such as vision localization that update
+ * a pose every cycle without allocating. The position and the rotation quaternion are stored as
+ * plain fields. Operations modify this pose and return it, so they can be chained, and results that
+ * need a second pose are written to an {@code out} parameter. It is logged with the same struct
+ * type as {@link Pose3d}.
+ */
+public class MutablePose3d implements StructSerializable {
+  private double m_x = 0.0;
+  private double m_y = 0.0;
+  private double m_z = 0.0;
+  private double m_qw = 1.0;
+  private double m_qx = 0.0;
+  private double m_qy = 0.0;
+  private double m_qz = 0.0;
+
+  /** Constructs a pose at the origin with no rotation. */
+  public MutablePose3d() {}
+
+  /**
+   * Constructs a copy of an immutable pose.
+   *
+   * @param pose The pose to copy.
+   */
+  public MutablePose3d(Pose3d pose) {
+    set(pose);
+  }
+
+  /**
+   * Sets the position and rotation.
+   *
+   * @param x The x component of the translational component of the pose.
+   * @param y The y component of the translational component of the pose.
+   * @param z The z component of the translational component of the pose.
+   * @param rotation The rotational component of the pose.
+   * @return This pose.
+   */
+  public MutablePose3d set(double x, double y, double z, Rotation3d rotation) {
+    Quaternion q = rotation.getQuaternion(); // Already normalized
+    m_x = x;
+    m_y = y;
+    m_z = z;
+    m_qw = q.getW();
+    m_qx = q.getX();
+    m_qy = q.getY();
+    m_qz = q.getZ();
+    return this;
+  }
+
+  /**
+   * Sets the position and the rotation as a quaternion, which is normalized like {@link
+   * Rotation3d#Rotation3d(Quaternion)} does.
+   *
+   * @param x The x component of the translational component of the pose.
+   * @param y The y component of the translational component of the pose.
+   * @param z The z component of the translational component of the pose.
+   * @param qw The W component of the rotation quaternion.
+   * @param qx The X component of the rotation quaternion.
+   * @param qy The Y component of the rotation quaternion.
+   * @param qz The Z component of the rotation quaternion.
+   * @return This pose.
+   */
+  public MutablePose3d set(
+      double x, double y, double z, double qw, double qx, double qy, double qz) {
+    m_x = x;
+    m_y = y;
+    m_z = z;
+    setRotation(qw, qx, qy, qz);
+    return this;
+  }
+
+  /**
+   * Copies an immutable pose.
+   *
+   * @param pose The pose to copy.
+   * @return This pose.
+   */
+  public MutablePose3d set(Pose3d pose) {
+    return set(pose.getX(), pose.getY(), pose.getZ(), pose.getRotation());
+  }
+
+  /**
+   * Copies another mutable pose.
+   *
+   * @param pose The pose to copy.
+   * @return This pose.
+   */
+  public MutablePose3d set(MutablePose3d pose) {
+    m_x = pose.m_x;
+    m_y = pose.m_y;
+    m_z = pose.m_z;
+    m_qw = pose.m_qw;
+    m_qx = pose.m_qx;
+    m_qy = pose.m_qy;
+    m_qz = pose.m_qz;
+    return this;
+  }
+
+  /**
+   * Moves the pose by a transform measured in its own frame, as {@link
+   * Pose3d#transformBy(Transform3d)} does.
+   *
+   * @param other The transform to transform the pose by.
+   * @return This pose.
+   */
+  public MutablePose3d transformBy(Transform3d other) {
+    Translation3d t = other.getTranslation();
+    Quaternion q = other.getRotation().getQuaternion();
+    setRotated(this, m_x, m_y, m_z, t.getX(), t.getY(), t.getZ(), m_qw, m_qx, m_qy, m_qz);
+    setProduct(this, m_qw, m_qx, m_qy, m_qz, q.getW(), q.getX(), q.getY(), q.getZ());
+    return this;
+  }
+
+  /**
+   * Rotates the pose around the origin, as {@link Pose3d#rotateBy(Rotation3d)} does.
+   *
+   * @param other The rotation to transform the pose by, which is applied extrinsically (from the
+   *     global frame).
+   * @return This pose.
+   */
+  public MutablePose3d rotateBy(Rotation3d other) {
+    Quaternion q = other.getQuaternion();
+    setRotated(this, 0.0, 0.0, 0.0, m_x, m_y, m_z, q.getW(), q.getX(), q.getY(), q.getZ());
+    setProduct(this, q.getW(), q.getX(), q.getY(), q.getZ(), m_qw, m_qx, m_qy, m_qz);
+    return this;
+  }
+
+  /**
+   * Writes this pose relative to another pose into {@code out}, as {@link
+   * Pose3d#relativeTo(Pose3d)} does. {@code out} may be this pose.
+   *
+   * @param other The pose that is the origin of the new coordinate frame.
+   * @param out The pose to write the result to.
+   * @return {@code out}.
+   */
+  public MutablePose3d relativeTo(Pose3d other, MutablePose3d out) {
+    Quaternion q = other.getRotation().getQuaternion();
+    // The inverse of a unit quaternion is its conjugate
+    double w = q.getW();
+    double x = -q.getX();
+    double y = -q.getY();
+    double z = -q.getZ();
+    setRotated(
+        out, 0.0, 0.0, 0.0, m_x - other.getX(), m_y - other.getY(), m_z - other.getZ(), w, x, y, z);
+    setProduct(out, w, x, y, z, m_qw, m_qx, m_qy, m_qz);
+    return out;
+  }
+
+  /** Sets the translation of {@code out} to origin + v rotated by the unit quaternion q. */
+  private static void setRotated(
+      MutablePose3d out,
+      double ox,
+      double oy,
+      double oz,
+      double vx,
+      double vy,
+      double vz,
+      double qw,
+      double qx,
+      double qy,
+      double qz) {
+    // t = 2 (q.xyz × v), v' = v + q.w t + q.xyz × t
+    double tx = 2.0 * (qy * vz - qz * vy);
+    double ty = 2.0 * (qz * vx - qx * vz);
+    double tz = 2.0 * (qx * vy - qy * vx);
+    out.m_x = ox + vx + qw * tx + (qy * tz - qz * ty);
+    out.m_y = oy + vy + qw * ty + (qz * tx - qx * tz);
+    out.m_z = oz + vz + qw * tz + (qx * ty - qy * tx);
+  }
+
+  /** Sets the rotation of {@code out} to the quaternion product a * b. */
+  private static void setProduct(
+      MutablePose3d out,
+      double aw,
+      double ax,
+      double ay,
+      double az,
+      double bw,
+      double bx,
+      double by,
+      double bz) {
+    out.setRotation(
+        aw * bw - (ax * bx + ay * by + az * bz),
+        aw * bx + bw * ax + (ay * bz - by * az),
+        aw * by + bw * ay + (bx * az - ax * bz),
+        aw * bz + bw * az + (ax * by - bx * ay));
+  }
+
+  private void setRotation(double qw, double qx, double qy, double qz) {
+    double norm = Math.sqrt(qw * qw + qx * qx + qy * qy + qz * qz);
+    if (norm == 0.0) {
+      m_qw = 1.0;
+      m_qx = 0.0;
+      m_qy = 0.0;
+      m_qz = 0.0;
+    } else {
+      m_qw = qw / norm;
+      m_qx = qx / norm;
+      m_qy = qy / norm;
+      m_qz = qz / norm;
+    }
+  }
+
+  /**
+   * Returns the X component of the pose's translation.
+   *
+   * @return The x component of the pose's translation.
+   */
+  public double getX() {
+    return m_x;
+  }
+
+  /**
+   * Returns the Y component of the pose's translation.
+   *
+   * @return The y component of the pose's translation.
+   */
+  public double getY() {
+    return m_y;
+  }
+
+  /**
+   * Returns the Z component of the pose's translation.
+   *
+   * @return The z component of the pose's translation.
+   */
+  public double getZ() {
+    return m_z;
+  }
+
+  /**
+   * Returns the W component of the rotation quaternion.
+   *
+   * @return The W component of the rotation quaternion.
+   */
+  public double getQw() {
+    return m_qw;
+  }
+
+  /**
+   * Returns the X component of the rotation quaternion.
+   *
+   * @return The X component of the rotation quaternion.
+   */
+  public double getQx() {
+    return m_qx;
+  }
+
+  /**
+   * Returns the Y component of the rotation quaternion.
+   *
+   * @return The Y component of the rotation quaternion.
+   */
+  public double getQy() {
+    return m_qy;
+  }
+
+  /**
+   * Returns the Z component of the rotation quaternion.
+   *
+   * @return The Z component of the rotation quaternion.
+   */
+  public double getQz() {
+    return m_qz;
+  }
+
+  /**
+   * Returns the counterclockwise rotation angle around the Z axis (yaw) in radians, as {@link
+   * Rotation3d#getZ()} does.
+   *
+   * @return The yaw in radians.
+   */
+  public double getYaw() {
+    // wpimath/algorithms.md
+    double cycz = 1.0 - 2.0 * (m_qy * m_qy + m_qz * m_qz);
+    double cysz = 2.0 * (m_qw * m_qz + m_qx * m_qy);
+    double cy_sq = cycz * cycz + cysz * cysz;
+    if (cy_sq > 1e-20) {
+      return Math.atan2(cysz, cycz);
+    } else {
+      return Math.atan2(2.0 * m_qw * m_qz, m_qw * m_qw - m_qz * m_qz);
+    }
+  }
+
+  /**
+   * Writes this pose projected into the X-Y plane into {@code out}, as {@link Pose3d#toPose2d()}
+   * does.
+   *
+   * @param out The pose to write the result to.
+   * @return {@code out}.
+   */
+  public MutablePose2d toPose2d(MutablePose2d out) {
+    return out.set(m_x, m_y, getYaw());
+  }
+
+  /**
+   * Returns an immutable copy of the pose.
+   *
+   * @return A Pose3d with the same position and rotation.
+   */
+  public Pose3d toPose3d() {
+    return new Pose3d(m_x, m_y, m_z, new Rotation3d(new Quaternion(m_qw, m_qx, m_qy, m_qz)));
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "MutablePose3d(X: %.2f, Y: %.2f, Z: %.2f, Q: [%.4f, %.4f, %.4f, %.4f])",
+        m_x, m_y, m_z, m_qw, m_qx, m_qy, m_qz);
+  }
+
+  /** MutablePose3d struct for serialization, stored as a Pose3d. */
+  public static final MutablePose3dStruct struct = new MutablePose3dStruct();
+}
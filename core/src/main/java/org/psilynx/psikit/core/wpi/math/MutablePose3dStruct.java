@@ -0,0 +1,64 @@
+package org.psilynx.psikit.core.wpi.math;
+
+import org.psilynx.psikit.core.wpi.Struct;
+
+import java.nio.ByteBuffer;
+
+/** Packs a {@link MutablePose3d} with the same type and layout as {@link Pose3dStruct}. */
+public class MutablePose3dStruct implements Struct<MutablePose3d> {
+  @Override
+  public Class<MutablePose3d> getTypeClass() {
+    return MutablePose3d.class;
+  }
+
+  @Override
+  public String getTypeName() {
+    return Pose3d.struct.getTypeName();
+  }
+
+  @Override
+  public int getSize() {
+    return Pose3d.struct.getSize();
+  }
+
+  @Override
+  public String getSchema() {
+    return Pose3d.struct.getSchema();
+  }
+
+  @Override
+  public Struct<?>[] getNested() {
+    return Pose3d.struct.getNested();
+  }
+
+  @Override
+  public MutablePose3d unpack(ByteBuffer bb) {
+    MutablePose3d value = new MutablePose3d();
+    unpackInto(value, bb);
+    return value;
+  }
+
+  @Override
+  public void unpackInto(MutablePose3d out, ByteBuffer bb) {
+    // Translation3d, then Rotation3d as its Quaternion
+    double x = bb.getDouble();
+    double y = bb.getDouble();
+    double z = bb.getDouble();
+    double qw = bb.getDouble();
+    double qx = bb.getDouble();
+    double qy = bb.getDouble();
+    double qz = bb.getDouble();
+    out.set(x, y, z, qw, qx, qy, qz);
+  }
+
+  @Override
+  public void pack(ByteBuffer bb, MutablePose3d value) {
+    bb.putDouble(value.getX());
+    bb.putDouble(value.getY());
+    bb.putDouble(value.getZ());
+    bb.putDouble(value.getQw());
+    bb.putDouble(value.getQx());
+    bb.putDouble(value.getQy());
+    bb.putDouble(value.getQz());
+  }
+}
@@ -0,0 +1,183 @@
+package org.psilynx.psikit.core.wpi.math;
+
+import org.psilynx.psikit.core.wpi.StructSerializable;
+
+/**
+ * A {@link Rotation2d} that can be changed in place, for loops that update a heading every cycle
+ * without allocating. Operations modify this rotation and return it, so they can be chained. It is
+ * logged with the same struct type as {@link Rotation2d}.
+ */
+public class MutableRotation2d implements StructSerializable {
+  private double m_value = 0.0;
+  private double m_cos = 1.0;
+  private double m_sin = 0.0;
+
+  /** Constructs a rotation of 0 radians. */
+  public MutableRotation2d() {}
+
+  /**
+   * Constructs a rotation with the given radian value.
+   *
+   * @param radians The value of the angle in radians.
+   */
+  public MutableRotation2d(double radians) {
+    set(radians);
+  }
+
+  /**
+   * Constructs a copy of an immutable rotation.
+   *
+   * @param rotation The rotation to copy.
+   */
+  public MutableRotation2d(Rotation2d rotation) {
+    set(rotation);
+  }
+
+  /**
+   * Sets the rotation to the given radian value.
+   *
+   * @param radians The value of the angle in radians.
+   * @return This rotation.
+   */
+  public MutableRotation2d set(double radians) {
+    m_value = radians;
+    m_cos = Math.cos(radians);
+    m_sin = Math.sin(radians);
+    return this;
+  }
+
+  /**
+   * Copies an immutable rotation, without recomputing its sine and cosine.
+   *
+   * @param rotation The rotation to copy.
+   * @return This rotation.
+   */
+  public MutableRotation2d set(Rotation2d rotation) {
+    m_value = rotation.getRadians();
+    m_cos = rotation.getCos();
+    m_sin = rotation.getSin();
+    return this;
+  }
+
+  /**
+   * Copies another mutable rotation.
+   *
+   * @param rotation The rotation to copy.
+   * @return This rotation.
+   */
+  public MutableRotation2d set(MutableRotation2d rotation) {
+    m_value = rotation.m_value;
+    m_cos = rotation.m_cos;
+    m_sin = rotation.m_sin;
+    return this;
+  }
+
+  /**
+   * Sets the rotation from x and y (cosine and sine) components, like {@link Rotation2d#Rotation2d(
+   * double, double)}. The result is bounded between -π and π.
+   *
+   * @param x The x component or cosine of the rotation.
+   * @param y The y component or sine of the rotation.
+   * @return This rotation.
+   */
+  public MutableRotation2d setComponents(double x, double y) {
+    double magnitude = Math.hypot(x, y);
+    if (magnitude > 1e-6) {
+      m_cos = x / magnitude;
+      m_sin = y / magnitude;
+    } else {
+      m_cos = 1.0;
+      m_sin = 0.0;
+    }
+    m_value = Math.atan2(m_sin, m_cos);
+    return this;
+  }
+
+  /**
+   * Adds another rotation to this one, as {@link Rotation2d#rotateBy(Rotation2d)} does.
+   *
+   * @param other The rotation to rotate by.
+   * @return This rotation.
+   */
+  public MutableRotation2d rotateBy(Rotation2d other) {
+    return rotateBy(other.getCos(), other.getSin());
+  }
+
+  /**
+   * Adds another rotation to this one, as {@link Rotation2d#rotateBy(Rotation2d)} does.
+   *
+   * @param other The rotation to rotate by.
+   * @return This rotation.
+   */
+  public MutableRotation2d rotateBy(MutableRotation2d other) {
+    return rotateBy(other.m_cos, other.m_sin);
+  }
+
+  /**
+   * Subtracts another rotation from this one, as {@link Rotation2d#minus(Rotation2d)} does.
+   *
+   * @param other The rotation to subtract.
+   * @return This rotation.
+   */
+  public MutableRotation2d minus(Rotation2d other) {
+    return rotateBy(other.getCos(), -other.getSin());
+  }
+
+  MutableRotation2d rotateBy(double cos, double sin) {
+    return setComponents(m_cos * cos - m_sin * sin, m_cos * sin + m_sin * cos);
+  }
+
+  /**
+   * Returns the radian value of the rotation.
+   *
+   * @return The radian value of the rotation.
+   */
+  public double getRadians() {
+    return m_value;
+  }
+
+  /**
+   * Returns the degree value of the rotation.
+   *
+   * @return The degree value of the rotation.
+   */
+  public double getDegrees() {
+    return Math.toDegrees(m_value);
+  }
+
+  /**
+   * Returns the cosine of the rotation.
+   *
+   * @return The cosine of the rotation.
+   */
+  public double getCos() {
+    return m_cos;
+  }
+
+  /**
+   * Returns the sine of the rotation.
+   *
+   * @return The sine of the rotation.
+   */
+  public double getSin() {
+    return m_sin;
+  }
+
+  /**
+   * Returns an immutable copy of the rotation.
+   *
+   * @return A Rotation2d with the same angle.
+   */
+  public Rotation2d toRotation2d() {
+    return new Rotation2d(m_value);
+  }
+
+  @Override
+  public String toString() {
+    return String.format(
+        "MutableRotation2d(Rads: %.2f, Deg: %.2f)", m_value, Math.toDegrees(m_value));
+  }
+
+  /** MutableRotation2d struct for serialization, stored as a Rotation2d. */
+  public static final MutableRotation2dStruct struct = new MutableRotation2dStruct();
+}
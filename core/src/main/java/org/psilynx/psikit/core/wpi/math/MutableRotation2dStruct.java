@@ -0,0 +1,45 @@
+package org.psilynx.psikit.core.wpi.math;
+
+import org.psilynx.psikit.core.wpi.Struct;
+
+import java.nio.ByteBuffer;
+
+/** Packs a {@link MutableRotation2d} with the same type and layout as {@link Rotation2dStruct}. */
+public class MutableRotation2dStruct implements Struct<MutableRotation2d> {
+  @Override
+  public Class<MutableRotation2d> getTypeClass() {
+    return MutableRotation2d.class;
+  }
+
+  @Override
+  public String getTypeName() {
+    return Rotation2d.struct.getTypeName();
+  }
+
+  @Override
+  public int getSize() {
+    return Rotation2d.struct.getSize();
+  }
+
+  @Override
+  public String getSchema() {
+    return Rotation2d.struct.getSchema();
+  }
+
+  @Override
+  public MutableRotation2d unpack(ByteBuffer bb) {
+    MutableRotation2d value = new MutableRotation2d();
+    unpackInto(value, bb);
+    return value;
+  }
+
+  @Override
+  public void unpackInto(MutableRotation2d out, ByteBuffer bb) {
+    out.set(bb.getDouble());
+  }
+
+  @Override
+  public void pack(ByteBuffer bb, MutableRotation2d value) {
+    bb.putDouble(value.getRadians());
+  }
+}
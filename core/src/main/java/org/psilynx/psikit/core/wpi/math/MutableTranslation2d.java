@@ -0,0 +1,196 @@
+package org.psilynx.psikit.core.wpi.math;
+
+import org.psilynx.psikit.core.wpi.StructSerializable;
+
+/**
+ * A {@link Translation2d} that can be changed in place, for loops that update a position every
+ * cycle without allocating. Operations modify this translation and return it, so they can be
+ * chained. It is logged with the same struct type as {@link Translation2d}.
+ */
+public class MutableTranslation2d implements StructSerializable {
+  private double m_x = 0.0;
+  private double m_y = 0.0;
+
+  /** Constructs a translation at the origin. */
+  public MutableTranslation2d() {}
+
+  /**
+   * Constructs a translation with the given x and y components.
+   *
+   * @param x The x component of the translation.
+   * @param y The y component of the translation.
+   */
+  public MutableTranslation2d(double x, double y) {
+    set(x, y);
+  }
+
+  /**
+   * Constructs a copy of an immutable translation.
+   *
+   * @param translation The translation to copy.
+   */
+  public MutableTranslation2d(Translation2d translation) {
+    set(translation);
+  }
+
+  /**
+   * Sets the x and y components.
+   *
+   * @param x The x component of the translation.
+   * @param y The y component of the translation.
+   * @return This translation.
+   */
+  public MutableTranslation2d set(double x, double y) {
+    m_x = x;
+    m_y = y;
+    return this;
+  }
+
+  /**
+   * Copies an immutable translation.
+   *
+   * @param translation The translation to copy.
+   * @return This translation.
+   */
+  public MutableTranslation2d set(Translation2d translation) {
+    return set(translation.getX(), translation.getY());
+  }
+
+  /**
+   * Copies another mutable translation.
+   *
+   * @param translation The translation to copy.
+   * @return This translation.
+   */
+  public MutableTranslation2d set(MutableTranslation2d translation) {
+    return set(translation.m_x, translation.m_y);
+  }
+
+  /**
+   * Adds another translation to this one.
+   *
+   * @param other The translation to add.
+   * @return This translation.
+   */
+  public MutableTranslation2d plus(Translation2d other) {
+    return set(m_x + other.getX(), m_y + other.getY());
+  }
+
+  /**
+   * Adds another translation to this one.
+   *
+   * @param other The translation to add.
+   * @return This translation.
+   */
+  public MutableTranslation2d plus(MutableTranslation2d other) {
+    return set(m_x + other.m_x, m_y + other.m_y);
+  }
+
+  /**
+   * Subtracts another translation from this one.
+   *
+   * @param other The translation to subtract.
+   * @return This translation.
+   */
+  public MutableTranslation2d minus(Translation2d other) {
+    return set(m_x - other.getX(), m_y - other.getY());
+  }
+
+  /**
+   * Subtracts another translation from this one.
+   *
+   * @param other The translation to subtract.
+   * @return This translation.
+   */
+  public MutableTranslation2d minus(MutableTranslation2d other) {
+    return set(m_x - other.m_x, m_y - other.m_y);
+  }
+
+  /**
+   * Multiplies the translation by a scalar.
+   *
+   * @param scalar The scalar to multiply by.
+   * @return This translation.
+   */
+  public MutableTranslation2d times(double scalar) {
+    return set(m_x * scalar, m_y * scalar);
+  }
+
+  /**
+   * Rotates the translation around the origin, as {@link Translation2d#rotateBy(Rotation2d)} does.
+   *
+   * @param other The rotation to rotate the translation by.
+   * @return This translation.
+   */
+  public MutableTranslation2d rotateBy(Rotation2d other) {
+    return rotateBy(other.getCos(), other.getSin());
+  }
+
+  /**
+   * Rotates the translation around the origin, as {@link Translation2d#rotateBy(Rotation2d)} does.
+   *
+   * @param other The rotation to rotate the translation by.
+   * @return This translation.
+   */
+  public MutableTranslation2d rotateBy(MutableRotation2d other) {
+    return rotateBy(other.getCos(), other.getSin());
+  }
+
+  MutableTranslation2d rotateBy(double cos, double sin) {
+    return set(m_x * cos - m_y * sin, m_x * sin + m_y * cos);
+  }
+
+  /**
+   * Returns the distance between this translation and another.
+   *
+   * @param other The translation to compute the distance to.
+   * @return The distance between the two translations.
+   */
+  public double getDistance(Translation2d other) {
+    return Math.hypot(other.getX() - m_x, other.getY() - m_y);
+  }
+
+  /**
+   * Returns the X component of the translation.
+   *
+   * @return The X component of the translation.
+   */
+  public double getX() {
+    return m_x;
+  }
+
+  /**
+   * Returns the Y component of the translation.
+   *
+   * @return The Y component of the translation.
+   */
+  public double getY() {
+    return m_y;
+  }
+
+  /**
+   * Returns the norm, or distance from the origin to the translation.
+   *
+   * @return The norm of the translation.
+   */
+  public double getNorm() {
+    return Math.hypot(m_x, m_y);
+  }
+
+  /**
+   * Returns an immutable copy of the translation.
+   *
+   * @return A Translation2d with the same components.
+   */
+  public Translation2d toTranslation2d() {
+    return new Translation2d(m_x, m_y);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("MutableTranslation2d(X: %.2f, Y: %.2f)", m_x, m_y);
+  }
+
+  /** MutableTranslation2d struct for serialization, stored as a Translation2d. */
+  public static final MutableTranslation2dStruct struct = new MutableTranslation2dStruct();
+}
@@ -0,0 +1,51 @@
+package org.psilynx.psikit.core.wpi.math;
+
+import org.psilynx.psikit.core.wpi.Struct;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Packs a {@link MutableTranslation2d} with the same type and layout as {@link
+ * Translation2dStruct}.
+ */
+public class MutableTranslation2dStruct implements Struct<MutableTranslation2d> {
+  @Override
+  public Class<MutableTranslation2d> getTypeClass() {
+    return MutableTranslation2d.class;
+  }
+
+  @Override
+  public String getTypeName() {
+    return Translation2d.struct.getTypeName();
+  }
+
+  @Override
+  public int getSize() {
+    return Translation2d.struct.getSize();
+  }
+
+  @Override
+  public String getSchema() {
+    return Translation2d.struct.getSchema();
+  }
+
+  @Override
+  public MutableTranslation2d unpack(ByteBuffer bb) {
+    MutableTranslation2d value = new MutableTranslation2d();
+    unpackInto(value, bb);
+    return value;
+  }
+
+  @Override
+  public void unpackInto(MutableTranslation2d out, ByteBuffer bb) {
+    double x = bb.getDouble();
+    double y = bb.getDouble();
+    out.set(x, y);
+  }
+
+  @Override
+  public void pack(ByteBuffer bb, MutableTranslation2d value) {
+    bb.putDouble(value.getX());
+    bb.putDouble(value.getY());
+  }
+}
@@ -0,0 +1,36 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+
+import static org.junit.Assert.*;
+
+public class AllocationTrackingTest {
+  private static volatile Object sink;
+
+  @Test
+  public void testUserCodeAllocationIsAttributed() {
+    try (TestSession session = new TestSession()) {
+      Logger.enableAllocationTracking();
+      session.startAndStep();
+
+      for (int i = 1; i <= 5; i++) {
+        session.beginCycle();
+        sink = new byte[1 << 20]; // 1 MB of "user code" allocation
+        session.endCycle();
+      }
+
+      LogTable entry = Logger.getEntry();
+      long userBytes = entry.get("RealOutputs/PsiKit/Allocation/UserCodeBytes", -1L);
+      long beforeUserBytes =
+          entry.get("RealOutputs/PsiKit/Allocation/PeriodicBeforeUserBytes", -1L);
+      assertTrue("User code allocated " + userBytes, userBytes >= 1 << 20);
+      assertTrue(beforeUserBytes >= 0 && beforeUserBytes < userBytes);
+      assertTrue(entry.get("RealOutputs/PsiKit/Allocation/AutoLogBytes", -1L) >= 0);
+      assertTrue(entry.get("RealOutputs/PsiKit/Allocation/PeriodicAfterUserBytes", -1L) >= 0);
+      assertTrue(entry.get("RealOutputs/PsiKit/GC/Count", -1L) >= 0);
+      assertTrue(entry.get("RealOutputs/PsiKit/GC/TimeMS", -1L) >= 0);
+    }
+  }
+}
@@ -0,0 +1,239 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.LoggableInputs;
+import org.psilynx.psikit.core.processor.AutoLogAnnotationProcessor;
+import org.psilynx.psikit.core.wpi.math.Pose2d;
+import org.psilynx.psikit.core.wpi.math.Rotation2d;
+
+import java.io.File;
+import java.lang.reflect.Array;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.*;
+
+public class AutoLogAnnotationProcessorTest {
+  private static final String source =
+      "package sample;\n"
+          + "import org.psilynx.psikit.core.AutoLog;\n"
+          + "import org.psilynx.psikit.core.wpi.math.Pose2d;\n"
+          + "public class DriveIO {\n"
+          + "  public enum Mode { IDLE, DRIVING }\n"
+          + "  @AutoLog\n"
+          + "  public static class DriveInputs {\n"
+          + "    public static final double unused = 1.0;\n"
+          + "    public boolean connected = false;\n"
+          + "    public int ticks = 0;\n"
+          + "    public long timestampMicros = 0;\n"
+          + "    public float temperature = 0.0f;\n"
+          + "    public double velocity = 0.0;\n"
+          + "    public String status = \"\";\n"
+          + "    public double[] currents = new double[] {};\n"
+          + "    public int[] faults = new int[] {};\n"
+          + "    public double[][] samples = new double[][] {};\n"
+          + "    public Mode mode = Mode.IDLE;\n"
+          + "    public Mode[] modes = new Mode[] {};\n"
+          + "    public Pose2d pose = Pose2d.kZero;\n"
+          + "    public Pose2d[] targets = new Pose2d[] {};\n"
+          + "  }\n"
+          + "}\n";
+
+  private static final String structSource =
+      "package sample;\n"
+          + "import org.psilynx.psikit.core.AutoLog;\n"
+          + "import org.psilynx.psikit.core.wpi.math.Pose2d;\n"
+          + "public class ArmIO {\n"
+          + "  public enum State { STOWED, RAISED }\n"
+          + "  @AutoLog(struct = true)\n"
+          + "  public static class ArmInputs {\n"
+          + "    public boolean connected = false;\n"
+          + "    public int ticks = 0;\n"
+          + "    public long timestampMicros = 0;\n"
+          + "    public float temperature = 0.0f;\n"
+          + "    public double angle = 0.0;\n"
+          + "    public State state = State.STOWED;\n"
+          + "    public Pose2d pose = Pose2d.kZero;\n"
+          + "  }\n"
+          + "}\n";
+
+  /** Compiles the sample source with the processor and loads the generated class. */
+  private static Class<?> compileSample() throws Exception {
+    return compile("DriveIO", source, "sample.DriveInputsAutoLogged");
+  }
+
+  private static Class<?> compile(String name, String source, String generatedName)
+      throws Exception {
+    File dir = Files.createTempDirectory("autolog").toFile();
+    dir.deleteOnExit();
+    File sourceDir = new File(dir, "sample");
+    sourceDir.mkdirs();
+    File sourceFile = new File(sourceDir, name + ".java");
+    Files.write(sourceFile.toPath(), source.getBytes(StandardCharsets.UTF_8));
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    assertNotNull("Tests must run on a JDK", compiler);
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null)) {
+      JavaCompiler.CompilationTask task =
+          compiler.getTask(
+              null,
+              files,
+              diagnostics,
+              Arrays.asList(
+                  "-d",
+                  dir.getPath(),
+                  "-classpath",
+                  System.getProperty("java.class.path"),
+                  "-implicit:class"),
+              null,
+              files.getJavaFileObjects(sourceFile));
+      task.setProcessors(Collections.singletonList(new AutoLogAnnotationProcessor()));
+      assertTrue(diagnostics.getDiagnostics().toString(), task.call());
+    }
+    URLClassLoader loader =
+        new URLClassLoader(
+            new URL[] {dir.toURI().toURL()}, AutoLogAnnotationProcessorTest.class.getClassLoader());
+    return loader.loadClass(generatedName);
+  }
+
+  private static void set(Object target, String name, Object value) throws Exception {
+    target.getClass().getField(name).set(target, value);
+  }
+
+  private static Object field(Object target, String name) throws Exception {
+    return target.getClass().getField(name).get(target);
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Object mode(Class<?> generated, String name) throws Exception {
+    Class<? extends Enum> modeType = (Class<? extends Enum>) generated.getField("mode").getType();
+    return Enum.valueOf(modeType, name);
+  }
+
+  @Test
+  public void testGeneratedInputsRoundTrip() throws Exception {
+    Class<?> generated = compileSample();
+    LoggableInputs inputs = (LoggableInputs) generated.getDeclaredConstructor().newInstance();
+    Object driving = mode(generated, "DRIVING");
+    Object modes = Array.newInstance(driving.getClass(), 2);
+    Array.set(modes, 0, driving);
+    Array.set(modes, 1, mode(generated, "IDLE"));
+    Pose2d pose = new Pose2d(1.0, 2.0, Rotation2d.fromDegrees(90));
+
+    set(inputs, "connected", true);
+    set(inputs, "ticks", 42);
+    set(inputs, "timestampMicros", 123456789L);
+    set(inputs, "temperature", 36.5f);
+    set(inputs, "velocity", 3.25);
+    set(inputs, "status", "ok");
+    set(inputs, "currents", new double[] {1.0, 2.0});
+    set(inputs, "faults", new int[] {7});
+    set(inputs, "samples", new double[][] {{1.0}, {2.0, 3.0}});
+    set(inputs, "mode", driving);
+    set(inputs, "modes", modes);
+    set(inputs, "pose", pose);
+    set(inputs, "targets", new Pose2d[] {pose, Pose2d.kZero});
+
+    LogTable table = new LogTable(0);
+    LogTable subtable = table.getSubtable("Drive");
+    inputs.toLog(subtable);
+
+    // Keys are the capitalized field names under the subtable
+    assertEquals(42, table.get("Drive/Ticks", 0));
+    assertTrue(table.get("Drive/Connected", false));
+    assertEquals(123456789L, table.get("Drive/TimestampMicros", 0L));
+    assertEquals("DRIVING", table.get("Drive/Mode", ""));
+    assertArrayEquals(new String[] {"DRIVING", "IDLE"}, table.get("Drive/Modes", new String[] {}));
+    assertEquals("struct:Pose2d", table.get("Drive/Pose").getWPILOGType());
+    assertFalse(table.getAll(false).containsKey("Drive/Unused"));
+
+    LoggableInputs restored = (LoggableInputs) generated.getDeclaredConstructor().newInstance();
+    restored.fromLog(subtable);
+    assertEquals(true, field(restored, "connected"));
+    assertEquals(42, field(restored, "ticks"));
+    assertEquals(123456789L, field(restored, "timestampMicros"));
+    assertEquals(36.5f, (float) field(restored, "temperature"), 0.0f);
+    assertEquals(3.25, (double) field(restored, "velocity"), 0.0);
+    assertEquals("ok", field(restored, "status"));
+    assertArrayEquals(new double[] {1.0, 2.0}, (double[]) field(restored, "currents"), 0.0);
+    assertArrayEquals(new int[] {7}, (int[]) field(restored, "faults"));
+    assertArrayEquals(new double[] {2.0, 3.0}, ((double[][]) field(restored, "samples"))[1], 0.0);
+    assertEquals(driving, field(restored, "mode"));
+    assertEquals(driving, Array.get(field(restored, "modes"), 0));
+    assertEquals(pose, field(restored, "pose"));
+    assertEquals(2, ((Pose2d[]) field(restored, "targets")).length);
+    assertEquals(pose, ((Pose2d[]) field(restored, "targets"))[0]);
+
+    // Logging to a different prefix rebuilds the keys
+    inputs.toLog(table.getSubtable("Other"));
+    assertEquals(42, table.get("Other/Ticks", 0));
+  }
+
+  @Test
+  public void testCloneCopiesArrays() throws Exception {
+    Class<?> generated = compileSample();
+    Object inputs = generated.getDeclaredConstructor().newInstance();
+    set(inputs, "ticks", 5);
+    set(inputs, "currents", new double[] {1.0});
+    set(inputs, "samples", new double[][] {{1.0}});
+
+    Object copy = generated.getMethod("clone").invoke(inputs);
+    ((double[]) field(inputs, "currents"))[0] = 9.0;
+    ((double[][]) field(inputs, "samples"))[0][0] = 9.0;
+    assertEquals(5, field(copy, "ticks"));
+    assertEquals(1.0, ((double[]) field(copy, "currents"))[0], 0.0);
+    assertEquals(1.0, ((double[][]) field(copy, "samples"))[0][0], 0.0);
+  }
+
+  @Test
+  public void testStructInputsRoundTrip() throws Exception {
+    Class<?> generated = compile("ArmIO", structSource, "sample.ArmInputsAutoLogged");
+    LoggableInputs inputs = (LoggableInputs) generated.getDeclaredConstructor().newInstance();
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    Object raised =
+        Enum.valueOf((Class<? extends Enum>) generated.getField("state").getType(), "RAISED");
+    Pose2d pose = new Pose2d(1.0, 2.0, Rotation2d.fromDegrees(90));
+    set(inputs, "connected", true);
+    set(inputs, "ticks", 42);
+    set(inputs, "timestampMicros", 123456789L);
+    set(inputs, "temperature", 36.5f);
+    set(inputs, "angle", 0.75);
+    set(inputs, "state", raised);
+    set(inputs, "pose", pose);
+
+    LogTable table = new LogTable(0);
+    LogTable subtable = table.getSubtable("Arm");
+    inputs.toLog(subtable);
+
+    // One value under the inputs key, described by a generated schema
+    assertEquals("struct:sample_ArmIO_ArmInputs", table.get("Arm").getWPILOGType());
+    assertEquals(1 + 4 + 8 + 4 + 8 + 4 + 24, table.get("Arm").getRawLength());
+    assertEquals(
+        "bool Connected;int32 Ticks;int64 TimestampMicros;float Temperature;double Angle;"
+            + "enum {STOWED=0, RAISED=1} int32 State;Pose2d Pose",
+        new String(table.get("/.schema/struct:sample_ArmIO_ArmInputs").getRaw(), StandardCharsets.UTF_8));
+    assertNotNull(table.get("/.schema/struct:Pose2d"));
+    assertNull(table.get("Arm/Ticks"));
+
+    LoggableInputs restored = (LoggableInputs) generated.getDeclaredConstructor().newInstance();
+    restored.fromLog(subtable);
+    assertEquals(true, field(restored, "connected"));
+    assertEquals(42, field(restored, "ticks"));
+    assertEquals(123456789L, field(restored, "timestampMicros"));
+    assertEquals(36.5f, (float) field(restored, "temperature"), 0.0f);
+    assertEquals(0.75, (double) field(restored, "angle"), 0.0);
+    assertEquals(raised, field(restored, "state"));
+    assertEquals(pose, field(restored, "pose"));
+  }
+}
@@ -0,0 +1,127 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.AutoLogOutput;
+import org.psilynx.psikit.core.AutoLogOutputManager;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+
+import static org.junit.Assert.*;
+
+public class AutoLogOutputManagerTest {
+  /** Every instance has the same hash code, which must not hide the other instances. */
+  static class Module {
+    private final String name;
+    private Drive drive;
+
+    @AutoLogOutput(key = "Modules/{name}/Speed")
+    private double speed;
+
+    Module(String name, double speed) {
+      this.name = name;
+      this.speed = speed;
+    }
+
+    @Override
+    public int hashCode() {
+      return 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof Module;
+    }
+  }
+
+  static class Drive {
+    private final Module[] modules;
+    private final double[] ignored = {1.0};
+
+    @AutoLogOutput private int moduleCount;
+
+    Drive(Module... modules) {
+      this.modules = modules;
+      this.moduleCount = modules.length;
+      for (Module module : modules) {
+        module.drive = this; // Cycle back to the parent
+      }
+    }
+  }
+
+  static class Readings {
+    @AutoLogOutput private double position = 1.5;
+    @AutoLogOutput private int count = 2;
+    @AutoLogOutput private boolean ready = true;
+    @AutoLogOutput private String state = "Idle";
+
+    @AutoLogOutput
+    private double getVelocity() {
+      return position * 2.0;
+    }
+  }
+
+  @Test
+  public void testReadsFieldsAndGetters() {
+    assertReadingsLogged();
+  }
+
+  @Test
+  public void testReflectionFallback() {
+    System.setProperty("psikit.autoLogReflection", "true");
+    try {
+      assertReadingsLogged();
+    } finally {
+      System.clearProperty("psikit.autoLogReflection");
+    }
+  }
+
+  private static void assertReadingsLogged() {
+    try (TestSession session = new TestSession()) {
+      Readings readings = new Readings();
+      AutoLogOutputManager.addObject(readings);
+      session.start();
+      session.step();
+
+      LogTable entry = Logger.getEntry();
+      assertEquals(1.5, entry.get("RealOutputs/Readings/Position", 0.0), 0.0);
+      assertEquals(2, entry.get("RealOutputs/Readings/Count", 0));
+      assertTrue(entry.get("RealOutputs/Readings/Ready", false));
+      assertEquals("Idle", entry.get("RealOutputs/Readings/State", ""));
+      assertEquals(3.0, entry.get("RealOutputs/Readings/Velocity", 0.0), 0.0);
+
+      // Members are read again every cycle
+      readings.position = -1.0;
+      readings.count = 5;
+      readings.ready = false;
+      readings.state = "Moving";
+      session.step();
+      entry = Logger.getEntry();
+      assertEquals(-1.0, entry.get("RealOutputs/Readings/Position", 0.0), 0.0);
+      assertEquals(5, entry.get("RealOutputs/Readings/Count", 0));
+      assertFalse(entry.get("RealOutputs/Readings/Ready", true));
+      assertEquals("Moving", entry.get("RealOutputs/Readings/State", ""));
+      assertEquals(-2.0, entry.get("RealOutputs/Readings/Velocity", 0.0), 0.0);
+    }
+  }
+
+  @Test
+  public void testScansEachInstanceOnce() {
+    try (TestSession session = new TestSession()) {
+      Drive drive =
+          new Drive(new Module("FL", 1.0), new Module("FR", 2.0), new Module("BL", 3.0));
+      AutoLogOutputManager.addObject(drive);
+      AutoLogOutputManager.addObject(drive);
+      session.start();
+      session.step();
+
+      LogTable entry = Logger.getEntry();
+      assertEquals(3, entry.get("RealOutputs/Drive/ModuleCount", 0));
+      assertEquals(1.0, entry.get("RealOutputs/Modules/FL/Speed", 0.0), 0.0);
+      assertEquals(2.0, entry.get("RealOutputs/Modules/FR/Speed", 0.0), 0.0);
+      assertEquals(3.0, entry.get("RealOutputs/Modules/BL/Speed", 0.0), 0.0);
+      double scanMs =
+          Double.parseDouble(entry.get("RealMetadata/AutoLogOutputScanMs", "-1"));
+      assertTrue(scanMs >= 0.0);
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.wpi.Struct;
+import org.psilynx.psikit.core.wpi.math.Translation2d;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class ByteSlabTest {
+  /** Translation2d's struct without the immutable flag, so values are packed when recorded. */
+  private static class EagerStruct implements Struct<Translation2d> {
+    @Override
+    public Class<Translation2d> getTypeClass() {
+      return Translation2d.class;
+    }
+
+    @Override
+    public String getTypeName() {
+      return Translation2d.struct.getTypeName();
+    }
+
+    @Override
+    public int getSize() {
+      return Translation2d.struct.getSize();
+    }
+
+    @Override
+    public String getSchema() {
+      return Translation2d.struct.getSchema();
+    }
+
+    @Override
+    public Translation2d unpack(ByteBuffer bb) {
+      return Translation2d.struct.unpack(bb);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, Translation2d value) {
+      Translation2d.struct.pack(bb, value);
+    }
+  }
+
+  @Test
+  public void testValuesKeepTheirBytes() {
+    EagerStruct struct = new EagerStruct();
+    LogTable table = new LogTable(0);
+    byte[] raw = {1, 2, 3};
+    table.put("Raw", raw);
+    raw[0] = 9; // The table keeps a copy
+    for (int i = 0; i < 300; i++) {
+      table.put("Point" + (i % 3), struct, new Translation2d(i, -i));
+    }
+    table.put("Points", struct, new Translation2d(1.0, 2.0), new Translation2d(3.0, 4.0));
+    table.put("Large", new byte[2000]);
+
+    assertArrayEquals(new byte[] {1, 2, 3}, table.get("Raw").getRaw());
+    assertEquals(3, table.get("Raw").getRawLength());
+    assertEquals(299.0, table.get("Point2", struct, new Translation2d()).getX(), 1e-9);
+    assertEquals(-297.0, table.get("Point0", struct, new Translation2d()).getY(), 1e-9);
+    assertEquals(4.0, table.get("Points", struct)[1].getY(), 1e-9);
+    assertEquals(2 * struct.getSize(), table.get("Points").getRawLength());
+    assertEquals(2000, table.get("Large").getRawLength());
+
+    byte[] copy = new byte[5];
+    table.get("Raw").getRaw(copy, 2);
+    assertArrayEquals(new byte[] {0, 0, 1, 2, 3}, copy);
+  }
+
+  @Test
+  public void testUnchangedValuesLeaveFullSlabs() {
+    EagerStruct struct = new EagerStruct();
+    LogTable table = new LogTable(0);
+    table.put("Still", struct, new Translation2d(5.0, 6.0));
+    LogTable snapshot = LogTable.clone(table);
+    for (int i = 0; i < 1000; i++) {
+      table.put("Moving", struct, new Translation2d(i, i));
+    }
+
+    // The value written before the slab filled now has an array of its own
+    LogTable.LogValue still = table.get("Still");
+    assertSame(still.getRaw(), still.getRaw());
+    assertEquals(16, still.getRawLength());
+    assertEquals(6.0, table.get("Still", struct, new Translation2d()).getY(), 1e-9);
+    assertEquals(snapshot.get("Still"), still);
+
+    // Values in the current slab are still regions of it
+    LogTable.LogValue moving = table.get("Moving");
+    assertNotSame(moving.getRaw(), moving.getRaw());
+    assertEquals(999.0, table.get("Moving", struct, new Translation2d()).getX(), 1e-9);
+  }
+
+  @Test
+  public void testEqualityComparesRegions() {
+    EagerStruct struct = new EagerStruct();
+    LogTable table = new LogTable(0);
+    table.put("A", struct, new Translation2d(1.0, 2.0));
+    table.put("B", struct, new Translation2d(1.0, 2.0));
+    table.put("C", struct, new Translation2d(1.0, 3.0));
+    assertEquals(table.get("A"), table.get("B"));
+    assertNotEquals(table.get("A"), table.get("C"));
+    assertEquals(
+        table.get("A"), new LogTable.LogValue(table.get("A").getRaw(), "struct:Translation2d"));
+    assertEquals(table.get("A"), translationValue(1.0, 2.0));
+  }
+
+  private static LogTable.LogValue translationValue(double x, double y) {
+    LogTable table = new LogTable(0);
+    table.put("Value", Translation2d.struct, new Translation2d(x, y)); // Packed lazily
+    return table.get("Value");
+  }
+}
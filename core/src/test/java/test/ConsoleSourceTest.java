@@ -0,0 +1,54 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.ConsoleSourceImpl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ConsoleSourceTest {
+  @Test
+  public void testOnlyNewDataIsRead() throws Exception {
+    ConsoleSourceImpl console = new ConsoleSourceImpl();
+    try {
+      System.out.print("first");
+      System.out.flush();
+      assertEquals("first", console.getNewData());
+      assertEquals("", console.getNewData());
+
+      // A character split across reads is completed on the next read
+      byte[] bytes = "été".getBytes(StandardCharsets.UTF_8);
+      System.out.write(bytes, 0, 1);
+      System.out.flush();
+      assertEquals("", console.getNewData());
+      System.out.write(bytes, 1, bytes.length - 1);
+      System.out.flush();
+      assertEquals("été", console.getNewData());
+      assertEquals(0, console.getDroppedBytes());
+    } finally {
+      console.close();
+    }
+  }
+
+  @Test
+  public void testOutputIsBounded() throws Exception {
+    ConsoleSourceImpl console = new ConsoleSourceImpl();
+    try {
+      char[] line = new char[100_000];
+      Arrays.fill(line, 'x');
+      System.err.print(new String(line));
+      System.err.flush();
+      String data = console.getNewData();
+      assertEquals(64 * 1024, data.length());
+      assertEquals(100_000 - 64 * 1024, console.getDroppedBytes());
+
+      System.err.print("after");
+      System.err.flush();
+      assertEquals("after", console.getNewData());
+    } finally {
+      console.close();
+    }
+  }
+}
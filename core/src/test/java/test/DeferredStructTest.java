@@ -0,0 +1,127 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.wpi.Struct;
+import org.psilynx.psikit.core.wpi.math.Pose2d;
+import org.psilynx.psikit.core.wpi.math.Rotation2d;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DeferredStructTest {
+  /** Pose2d's struct, recording which threads pack values and whether it claims immutability. */
+  private static class PoseStruct implements Struct<Pose2d> {
+    final List<String> packingThreads = Collections.synchronizedList(new ArrayList<>());
+    private final boolean immutable;
+
+    PoseStruct(boolean immutable) {
+      this.immutable = immutable;
+    }
+
+    @Override
+    public Class<Pose2d> getTypeClass() {
+      return Pose2d.class;
+    }
+
+    @Override
+    public String getTypeName() {
+      return Pose2d.struct.getTypeName();
+    }
+
+    @Override
+    public int getSize() {
+      return Pose2d.struct.getSize();
+    }
+
+    @Override
+    public String getSchema() {
+      return Pose2d.struct.getSchema();
+    }
+
+    @Override
+    public Struct<?>[] getNested() {
+      return Pose2d.struct.getNested();
+    }
+
+    @Override
+    public Pose2d unpack(ByteBuffer bb) {
+      return Pose2d.struct.unpack(bb);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, Pose2d value) {
+      packingThreads.add(Thread.currentThread().getName());
+      Pose2d.struct.pack(bb, value);
+    }
+
+    @Override
+    public boolean isImmutable() {
+      return immutable;
+    }
+  }
+
+  @Test
+  public void testDeferredMatchesEager() {
+    PoseStruct deferred = new PoseStruct(true);
+    PoseStruct eager = new PoseStruct(false);
+    Pose2d pose = new Pose2d(1.5, -2.0, new Rotation2d(0.25));
+    Pose2d[] poses = {pose, new Pose2d(3.0, 4.0, new Rotation2d(-1.0))};
+    LogTable table = new LogTable(0);
+
+    table.put("Deferred", deferred, pose);
+    table.put("DeferredArray", deferred, poses);
+    assertTrue(deferred.packingThreads.isEmpty());
+    table.put("Eager", eager, pose);
+    table.put("EagerArray", eager, poses);
+    assertEquals(3, eager.packingThreads.size());
+
+    assertArrayEquals(table.get("Eager").getRaw(), table.get("Deferred").getRaw());
+    assertArrayEquals(table.get("EagerArray").getRaw(), table.get("DeferredArray").getRaw());
+    assertEquals("struct:Pose2d", table.get("Deferred").customTypeStr);
+    assertEquals("struct:Pose2d[]", table.get("DeferredArray").customTypeStr);
+    assertEquals(table.get("Eager"), table.get("Deferred"));
+
+    // Packed once, then cached
+    assertEquals(3, deferred.packingThreads.size());
+    table.get("Deferred").getRaw();
+    assertEquals(3, deferred.packingThreads.size());
+
+    // Changing the caller's array afterwards does not change the logged value
+    poses[1] = pose;
+    assertEquals(2, table.get("DeferredArray", Pose2d.struct).length);
+    assertEquals(3.0, table.get("DeferredArray", Pose2d.struct)[1].getX(), 1e-9);
+    assertEquals(pose, table.get("Deferred", Pose2d.struct, new Pose2d()));
+  }
+
+  @Test
+  public void testPackedOnReceiverThread() {
+    PoseStruct struct = new PoseStruct(true);
+    try (TestSession session =
+        new TestSession(
+            table -> {
+              LogTable.LogValue value = table.get("RealOutputs/Pose");
+              if (value != null) {
+                value.getRaw();
+              }
+            })) {
+      session.start();
+      for (int i = 0; i < 5; i++) {
+        session.beginCycle();
+        Logger.recordOutput("Pose", struct, new Pose2d(i, 0.0, new Rotation2d()));
+        session.endCycle();
+      }
+      assertFalse(struct.packingThreads.contains(Thread.currentThread().getName()));
+      Logger.end();
+    }
+    assertEquals(5, struct.packingThreads.size());
+    for (String thread : struct.packingThreads) {
+      assertEquals("PsiKit_LogReceiver", thread);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+
+import static org.junit.Assert.*;
+
+public class DiagnosticsTest {
+  @Test
+  public void testMessagesAreLoggedUnderDiagnostics() {
+    try (TestSession session = new TestSession()) {
+      session.setTime(1.5);
+      session.start();
+
+      Logger.logWarning("first");
+      Logger.logInfo("count: {}, name: {}", 3, "drive");
+      session.endCycle();
+
+      LogTable entry = Logger.getEntry();
+      assertArrayEquals(
+          new String[] {"first", "count: 3, name: drive"},
+          entry.get("RealOutputs/PsiKit/Diagnostics/Messages", new String[0]));
+      assertArrayEquals(
+          new String[] {"WARNING", "INFO"},
+          entry.get("RealOutputs/PsiKit/Diagnostics/Levels", new String[0]));
+      assertEquals(
+          1.5, entry.get("RealOutputs/PsiKit/Diagnostics/Timestamps", new double[0])[0], 0.0);
+      assertNull(entry.get("RealOutputs/PsiKit/Diagnostics/Dropped"));
+
+      // Only the newest messages are kept
+      session.beginCycle();
+      for (int i = 0; i < 300; i++) {
+        Logger.logWarning("message " + i);
+      }
+      session.endCycle();
+      String[] messages = entry.get("RealOutputs/PsiKit/Diagnostics/Messages", new String[0]);
+      assertEquals(256, messages.length);
+      assertEquals("message 44", messages[0]);
+      assertEquals(44L, entry.get("RealOutputs/PsiKit/Diagnostics/Dropped", 0L));
+    }
+  }
+
+  @Test
+  public void testDisabledMessagesAreNotBuilt() {
+    Logger.LogLevel level = Logger.getLogLevel();
+    try {
+      Logger.setLogLevel(Logger.LogLevel.INFO);
+      assertFalse(Logger.isLoggable(Logger.LogLevel.DEBUG));
+      assertTrue(Logger.isLoggable(Logger.LogLevel.WARNING));
+      Logger.logDebug(
+          () -> {
+            throw new AssertionError("Supplier should not be called");
+          });
+    } finally {
+      Logger.setLogLevel(level);
+    }
+  }
+}
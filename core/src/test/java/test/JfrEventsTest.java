@@ -0,0 +1,84 @@
+package test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+import org.psilynx.psikit.core.JfrEvents;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.LoggableInputs;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.rlog.RLOGEncoder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class JfrEventsTest {
+  private static class Inputs implements LoggableInputs {
+    double value = 1.0;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("Value", value);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      value = table.get("Value", value);
+    }
+  }
+
+  @Test
+  public void testPhasesAreRecorded() throws Exception {
+    assumeTrue("Run with ./gradlew :core:jfrTest", JfrEvents.enabled);
+    Path file = Files.createTempFile("psikit", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("org.psilynx.psikit.LoggerCycle");
+      recording.enable("org.psilynx.psikit.ProcessInputs");
+      recording.enable("org.psilynx.psikit.RecordOutputs");
+      recording.enable("org.psilynx.psikit.ReceiverPut");
+      recording.enable("org.psilynx.psikit.EncodeTable");
+      recording.start();
+
+      RLOGEncoder encoder = new RLOGEncoder();
+      try (TestSession session = new TestSession(table -> encoder.encodeTable(table, true))) {
+        session.start();
+        Inputs inputs = new Inputs();
+        for (int i = 1; i <= 5; i++) {
+          Logger.processInputs("Drive", inputs);
+          session.endCycle();
+          session.beginCycle();
+        }
+      }
+
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+    Files.delete(file);
+    Set<String> names = new HashSet<>();
+    for (RecordedEvent event : events) {
+      String name = event.getEventType().getName();
+      names.add(name);
+      if (name.equals("org.psilynx.psikit.ProcessInputs")) {
+        assertEquals("Drive", event.getString("key"));
+      } else if (name.equals("org.psilynx.psikit.EncodeTable")) {
+        assertTrue(event.getLong("bytes") > 0);
+      } else if (name.equals("org.psilynx.psikit.ReceiverPut")) {
+        assertEquals("Receiver", event.getString("receiver"));
+      }
+    }
+    assertTrue(names.toString(), names.contains("org.psilynx.psikit.LoggerCycle"));
+    assertTrue(names.toString(), names.contains("org.psilynx.psikit.ProcessInputs"));
+    assertTrue(names.toString(), names.contains("org.psilynx.psikit.RecordOutputs"));
+    assertTrue(names.toString(), names.contains("org.psilynx.psikit.ReceiverPut"));
+    assertTrue(names.toString(), names.contains("org.psilynx.psikit.EncodeTable"));
+  }
+}
@@ -0,0 +1,183 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.rlog.RLOGServer;
+import org.psilynx.psikit.core.rlog.RLOGTunableUpdates;
+import org.psilynx.psikit.core.tunable.LiveTunables;
+import org.psilynx.psikit.core.tunable.LoggedTunableBoolean;
+import org.psilynx.psikit.core.tunable.LoggedTunableNumber;
+
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class LiveTunablesTest {
+
+  private double time = 0.0;
+
+  private void cycle() {
+    Logger.periodicBeforeUser();
+    Logger.periodicAfterUser(0, 0);
+  }
+
+  /** Connects once the receiver thread has started the server. */
+  private static Socket connect(int port) throws Exception {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (true) {
+      try {
+        return new Socket("127.0.0.1", port);
+      } catch (ConnectException e) {
+        if (System.currentTimeMillis() > deadline) {
+          throw e;
+        }
+        Thread.sleep(20);
+      }
+    }
+  }
+
+  @Test
+  public void testStagedValuesApplyAtCycleBoundary() {
+    Logger.reset();
+    Logger.disableConsoleCapture();
+    Logger.setTimeSource(() -> time);
+    LoggedTunableNumber kP = new LoggedTunableNumber("Drive/kP", 0.1);
+    LoggedTunableBoolean enabled = new LoggedTunableBoolean("/Drive/Enabled", true);
+    Logger.start();
+    try {
+      assertTrue(kP.hasChanged());
+      assertFalse(kP.hasChanged());
+      assertEquals(0.1, Logger.getEntry().get("NetworkInputs/Drive/kP", 0.0), 0.0);
+
+      LiveTunables.stage("NetworkInputs/Drive/kP", new LogTable.LogValue(0.5, null));
+      LiveTunables.stage("/Drive/Enabled", new LogTable.LogValue(false, null));
+      assertEquals(0.1, kP.get(), 0.0);
+      assertTrue(enabled.get());
+
+      time += 0.02;
+      cycle();
+      assertEquals(0.5, kP.get(), 0.0);
+      assertFalse(enabled.get());
+      assertTrue(kP.hasChanged());
+      assertEquals(0.5, Logger.getEntry().get("NetworkInputs/Drive/kP", 0.0), 0.0);
+      assertFalse(Logger.getEntry().get("NetworkInputs/Drive/Enabled", true));
+
+      // Values of the wrong type are ignored
+      LiveTunables.stage("Drive/kP", new LogTable.LogValue("fast", null));
+      time += 0.02;
+      cycle();
+      assertEquals(0.5, kP.get(), 0.0);
+      assertFalse(kP.hasChanged());
+    } finally {
+      Logger.end();
+    }
+  }
+
+  @Test
+  public void testBoundSessionsReadAppliedValues() {
+    Logger.reset();
+    Logger.disableConsoleCapture();
+    Logger.setTimeSource(() -> time);
+    Logger.start();
+    try {
+      LiveTunables.stage("Shared/kP", new LogTable.LogValue(3.0, null));
+      time += 0.02;
+      cycle();
+
+      // Sessions on other contexts read the front buffer but never swap it
+      try (TestSession session = new TestSession()) {
+        LoggedTunableNumber kP = new LoggedTunableNumber("Shared/kP", 1.0);
+        LiveTunables.stage("Shared/kP", new LogTable.LogValue(4.0, null));
+        session.start();
+        session.step();
+        assertEquals(3.0, kP.get(), 0.0);
+      }
+    } finally {
+      Logger.end();
+    }
+  }
+
+  @Test
+  public void testUpdatesOverRLOGServerAreReplayed() throws Exception {
+    int port;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+
+    Logger.reset();
+    Logger.disableConsoleCapture();
+    Logger.setTimeSource(() -> time);
+    RLOGServer server = new RLOGServer(port);
+    List<LogTable> recorded = new ArrayList<>();
+    Logger.addDataReceiver(server);
+    Logger.addDataReceiver(recorded::add);
+    LoggedTunableNumber kP = new LoggedTunableNumber("Arm/kP", 1.0);
+    Logger.start();
+    int changedAt;
+    try (Socket client = connect(port)) {
+      LogTable update = new LogTable(0.0);
+      update.put("Arm/kP", 2.5);
+      byte[] encoded = RLOGTunableUpdates.encode(update);
+
+      // Split the update across writes, surrounded by heartbeats
+      OutputStream out = client.getOutputStream();
+      out.write(new byte[] {6, 3, 2, 8});
+      out.write(encoded, 0, 7);
+      out.flush();
+      Thread.sleep(50);
+      out.write(encoded, 7, encoded.length - 7);
+      out.write(new byte[] {6, 3, 2, 8});
+      out.flush();
+
+      long deadline = System.currentTimeMillis() + 5000;
+      while (kP.get() != 2.5) {
+        assertTrue("Timed out waiting for update", System.currentTimeMillis() < deadline);
+        Thread.sleep(20);
+        time += 0.02;
+        cycle();
+      }
+      changedAt = (int) Math.round(time / 0.02);
+    } finally {
+      Logger.end();
+      server.end();
+    }
+
+    // Replay the recorded cycles without a server; the value must change on the same cycle
+    Iterator<LogTable> replayTables = recorded.iterator();
+    Logger.reset();
+    Logger.disableConsoleCapture();
+    Logger.setReplaySource(
+        table -> {
+          if (!replayTables.hasNext()) {
+            return false;
+          }
+          LogTable next = replayTables.next();
+          table.setTimestamp(next.getTimestamp());
+          for (Map.Entry<String, LogTable.LogValue> entry : next.getAll(false).entrySet()) {
+            table.put(entry.getKey(), entry.getValue());
+          }
+          return true;
+        });
+    LoggedTunableNumber replayedKP = new LoggedTunableNumber("Arm/kP", 1.0);
+    LiveTunables.stage("Arm/kP", new LogTable.LogValue(9.0, null));
+    Logger.start();
+    try {
+      Logger.periodicAfterUser(0, 0);
+      while (Logger.isRunning()) {
+        int cycleIndex = (int) Math.round(Logger.getTimestamp() / 0.02);
+        assertEquals(cycleIndex >= changedAt ? 2.5 : 1.0, replayedKP.get(), 0.0);
+        cycle();
+      }
+    } finally {
+      Logger.end();
+    }
+  }
+}
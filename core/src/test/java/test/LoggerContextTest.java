@@ -0,0 +1,144 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.LoggerContext;
+import org.psilynx.psikit.core.rlog.RLOGReplay;
+import org.psilynx.psikit.core.rlog.RLOGWriter;
+import org.psilynx.psikit.core.wpi.math.Pose2d;
+import org.psilynx.psikit.core.wpi.math.Rotation2d;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+public class LoggerContextTest {
+  private static final int sessionCount = 4;
+  private static final int cycleCount = 200;
+
+  /** Runs one task per session on its own thread, each with a fresh context bound. */
+  private static void runSessions(SessionTask task) throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(sessionCount);
+    try {
+      List<Future<Void>> futures = new ArrayList<>();
+      for (int i = 0; i < sessionCount; i++) {
+        final int id = i;
+        Callable<Void> callable =
+            () -> {
+              LoggerContext.Binding binding = new LoggerContext().bind();
+              try {
+                task.run(id);
+              } finally {
+                binding.close();
+              }
+              return null;
+            };
+        futures.add(executor.submit(callable));
+      }
+      for (Future<Void> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private interface SessionTask {
+    void run(int id) throws Exception;
+  }
+
+  @Test
+  public void testConcurrentRecordAndReplay() throws Exception {
+    File folder = Files.createTempDirectory("contexts").toFile();
+    folder.deleteOnExit();
+
+    // Record one log per session concurrently
+    runSessions(
+        id -> {
+          double[] time = {0.0};
+          Logger.disableConsoleCapture();
+          Logger.setTimeSource(() -> time[0]);
+          Logger.recordMetadata("Session", Integer.toString(id));
+          Logger.addDataReceiver(new RLOGWriter(folder.getPath() + "/", "session" + id));
+          TestInput inputs = new TestInput();
+          Logger.start();
+          Logger.periodicAfterUser(0, 0);
+          for (int i = 1; i <= cycleCount; i++) {
+            time[0] = i * 0.02;
+            Logger.periodicBeforeUser();
+            inputs.number = id * 1000 + i;
+            inputs.pose = new Pose2d(id, i, Rotation2d.kZero);
+            Logger.processInputs("Inputs", inputs);
+            Logger.recordOutput("Session/Id", id);
+            Logger.periodicAfterUser(0, 0);
+          }
+          Logger.end();
+        });
+
+    // The default context was never touched
+    assertFalse(Logger.isRunning());
+
+    // Replay every log concurrently, each session seeing only its own data
+    int[] replayedCycles = new int[sessionCount];
+    runSessions(
+        id -> {
+          Logger.disableConsoleCapture();
+          Logger.setReplaySource(
+              new RLOGReplay(new File(folder, "session" + id + ".rlog").getPath()));
+          TestInput inputs = new TestInput();
+          Logger.start();
+          Logger.periodicAfterUser(0, 0);
+          while (true) {
+            Logger.periodicBeforeUser();
+            if (!Logger.isRunning()) {
+              break;
+            }
+            Logger.processInputs("Inputs", inputs);
+            int cycle = (int) Math.round(Logger.getTimestamp() / 0.02);
+            assertEquals(id * 1000 + cycle, inputs.number);
+            assertEquals(id, inputs.pose.getX(), 1e-9);
+            assertEquals(cycle, inputs.pose.getY(), 1e-9);
+            assertEquals(id, Logger.getEntry().get("RealOutputs/Session/Id", -1));
+            replayedCycles[id]++;
+            Logger.periodicAfterUser(0, 0);
+          }
+          Logger.end();
+        });
+
+    for (int i = 0; i < sessionCount; i++) {
+      assertEquals(cycleCount, replayedCycles[i]);
+      new File(folder, "session" + i + ".rlog").delete();
+    }
+  }
+
+  @Test
+  public void testDefaultSessionKeepsFastPath() throws Exception {
+    // Whether getContext() looks up the thread local; restored afterwards for the other tests
+    Field used = Logger.class.getDeclaredField("threadContextsUsed");
+    used.setAccessible(true);
+    boolean wasUsed = used.getBoolean(null);
+    used.setBoolean(null, false);
+    try {
+      Logger.reset();
+      Logger.disableConsoleCapture();
+      Logger.setTimeSource(() -> 0.0);
+      Logger.addDataReceiver(table -> {});
+      Logger.start();
+      Logger.periodicAfterUser(0, 0);
+      Logger.periodicBeforeUser();
+      Logger.periodicAfterUser(0, 0);
+      Logger.end();
+      assertFalse(used.getBoolean(null));
+    } finally {
+      used.setBoolean(null, wasUsed);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package test;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.LoggingProfile;
+
+import static org.junit.Assert.*;
+
+public class LoggingProfileTest {
+  @Before
+  public void resetLogger() {
+    Logger.reset(); // Handles are always enabled if an earlier test left a replay source
+  }
+
+  @After
+  public void clearProfile() {
+    Logger.setLoggingProfile(null);
+  }
+
+  @Test
+  public void testKeyHandles() {
+    Logger.addLoggingProfile(
+        new LoggingProfile("competition")
+            .exclude("HardwareMap/*/currentVel", "RealOutputs/Debug", "/Odometry/**/PedroInches")
+            .include("RealOutputs/Debug/Keep"));
+    Logger.addLoggingProfile(
+        new LoggingProfile("minimal").exclude("**").include("RealOutputs/Drive/*Pose"));
+
+    LoggingProfile.Key velocity = Logger.profileKey("HardwareMap/left_front/currentVel");
+    LoggingProfile.Key position = Logger.profileKey("HardwareMap/left_front/currentPos");
+    LoggingProfile.Key debug = Logger.profileKey("RealOutputs/Debug/Loop/Time");
+    LoggingProfile.Key keep = Logger.profileKey("RealOutputs/Debug/Keep/Value");
+    LoggingProfile.Key pedro = Logger.profileKey("/Odometry/Main/PedroInches/x");
+    LoggingProfile.Key pose = Logger.profileKey("RealOutputs/Drive/EstimatedPose");
+    assertTrue(velocity.isEnabled());
+
+    Logger.setLoggingProfile("competition");
+    assertEquals("competition", Logger.getLoggingProfile());
+    assertFalse(velocity.isEnabled());
+    assertTrue(position.isEnabled());
+    assertFalse(debug.isEnabled());
+    assertTrue(keep.isEnabled());
+    assertFalse(pedro.isEnabled());
+
+    Logger.setLoggingProfile("minimal");
+    assertFalse(position.isEnabled());
+    assertTrue(pose.isEnabled());
+
+    // Unknown profiles keep the active one
+    Logger.setLoggingProfile("missing");
+    assertEquals("minimal", Logger.getLoggingProfile());
+  }
+
+  @Test
+  public void testHandlesAreEnabledInReplay() {
+    Logger.addLoggingProfile(new LoggingProfile("replay").exclude("RealOutputs/Debug"));
+    Logger.setLoggingProfile("replay");
+    LoggingProfile.Key debug = Logger.profileKey("RealOutputs/Debug/Value");
+    assertFalse(debug.isEnabled());
+    try (TestSession session = new TestSession()) {
+      Logger.setReplaySource(table -> true);
+      session.start();
+      assertTrue(debug.isEnabled());
+    }
+    assertFalse(debug.isEnabled());
+  }
+
+  @Test
+  public void testExcludedKeysAreNotStored() {
+    Logger.addLoggingProfile(new LoggingProfile("lean").exclude("RealOutputs/Verbose"));
+    try (TestSession session = new TestSession()) {
+      Logger.setLoggingProfile("lean");
+      session.start();
+      LogTable entry = Logger.getEntry();
+
+      Logger.recordOutput("Verbose/Value", 1.0);
+      Logger.recordOutput("Important", 2.0);
+      assertNull(entry.get("RealOutputs/Verbose/Value"));
+      assertEquals(2.0, entry.get("RealOutputs/Important", 0.0), 0.0);
+      session.endCycle();
+
+      // Switching takes effect from the next cycle
+      Logger.setLoggingProfile(null);
+      session.beginCycle();
+      Logger.recordOutput("Verbose/Value", 3.0);
+      assertEquals(3.0, entry.get("RealOutputs/Verbose/Value", 0.0), 0.0);
+    }
+  }
+}
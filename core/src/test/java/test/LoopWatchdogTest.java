@@ -0,0 +1,45 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+
+import static org.junit.Assert.*;
+
+public class LoopWatchdogTest {
+  private static void slowUserCode() throws InterruptedException {
+    Thread.sleep(150);
+  }
+
+  @Test
+  public void testOverrunIsSampled() throws Exception {
+    try (TestSession session = new TestSession()) {
+      Logger.enableLoopWatchdog(0.02);
+      session.startAndStep();
+
+      // Fast cycles never report
+      for (int i = 1; i <= 5; i++) {
+        session.step();
+      }
+      LogTable entry = Logger.getEntry();
+      assertNull(entry.get("RealOutputs/PsiKit/Watchdog/Overruns"));
+
+      session.beginCycle();
+      slowUserCode();
+      session.endCycle();
+      assertEquals(1L, entry.get("RealOutputs/PsiKit/Watchdog/Overruns", 0L));
+      assertTrue(entry.get("RealOutputs/PsiKit/Watchdog/OverrunMS", 0.0) >= 150.0);
+
+      // The stack report is logged on a following cycle
+      String report = null;
+      for (int i = 0; i < 50 && report == null; i++) {
+        Thread.sleep(10);
+        session.step();
+        report = entry.get("RealOutputs/PsiKit/Watchdog/OverrunStack", (String) null);
+      }
+      assertNotNull(report);
+      assertTrue(report, report.contains("slowUserCode"));
+      assertTrue(report, report.contains("samples:"));
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.wpi.Struct;
+import org.psilynx.psikit.core.wpi.math.MutablePose2d;
+import org.psilynx.psikit.core.wpi.math.MutablePose3d;
+import org.psilynx.psikit.core.wpi.math.Pose2d;
+import org.psilynx.psikit.core.wpi.math.Pose3d;
+import org.psilynx.psikit.core.wpi.math.Quaternion;
+import org.psilynx.psikit.core.wpi.math.Rotation2d;
+import org.psilynx.psikit.core.wpi.math.Rotation3d;
+import org.psilynx.psikit.core.wpi.math.Transform3d;
+import org.psilynx.psikit.core.wpi.math.Translation2d;
+import org.psilynx.psikit.core.wpi.math.Translation3d;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class MutableGeometryTest {
+  private static <T> byte[] pack(Struct<T> struct, T value) {
+    ByteBuffer bb = ByteBuffer.allocate(struct.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+    struct.pack(bb, value);
+    return bb.array();
+  }
+
+  private static void assertPose2d(Pose2d expected, MutablePose2d actual) {
+    assertEquals(expected.getX(), actual.getX(), 1e-9);
+    assertEquals(expected.getY(), actual.getY(), 1e-9);
+    assertEquals(expected.getRotation().getRadians(), actual.getRotation().getRadians(), 1e-9);
+  }
+
+  private static void assertPose3d(Pose3d expected, MutablePose3d actual) {
+    Quaternion q = expected.getRotation().getQuaternion();
+    assertEquals(expected.getX(), actual.getX(), 1e-9);
+    assertEquals(expected.getY(), actual.getY(), 1e-9);
+    assertEquals(expected.getZ(), actual.getZ(), 1e-9);
+    assertEquals(q.getW(), actual.getQw(), 1e-9);
+    assertEquals(q.getX(), actual.getQx(), 1e-9);
+    assertEquals(q.getY(), actual.getQy(), 1e-9);
+    assertEquals(q.getZ(), actual.getQz(), 1e-9);
+  }
+
+  @Test
+  public void testPose2dMath() {
+    Pose2d start = new Pose2d(1.0, 2.0, new Rotation2d(0.5));
+    Pose2d offset = new Pose2d(0.3, -0.2, new Rotation2d(0.1));
+    MutablePose2d pose = new MutablePose2d(start);
+
+    pose.transformBy(offset);
+    Pose2d expected =
+        new Pose2d(
+            start.getTranslation().plus(offset.getTranslation().rotateBy(start.getRotation())),
+            start.getRotation().plus(offset.getRotation()));
+    assertPose2d(expected, pose);
+
+    pose.set(start).transformBy(0.3, -0.2, 0.1);
+    assertPose2d(expected, pose);
+
+    pose.rotateBy(new Rotation2d(-1.2));
+    expected = expected.rotateBy(new Rotation2d(-1.2));
+    assertPose2d(expected, pose);
+
+    // Writing the result into the same pose reads every input first
+    pose.relativeTo(start, pose);
+    assertPose2d(
+        new Pose2d(
+            expected
+                .getTranslation()
+                .minus(start.getTranslation())
+                .rotateBy(start.getRotation().unaryMinus()),
+            expected.getRotation().minus(start.getRotation())),
+        pose);
+    assertPose2d(expected, new MutablePose2d(start).transformBy(pose.toPose2d()));
+  }
+
+  @Test
+  public void testPose3dMath() {
+    Pose3d start = new Pose3d(1.0, -2.0, 0.5, new Rotation3d(0.1, -0.4, 1.2));
+    Transform3d offset = new Transform3d(0.2, 0.3, -0.1, new Rotation3d(0.3, 0.2, -0.5));
+    Rotation3d rotation = new Rotation3d(-0.7, 0.25, 0.4);
+    MutablePose3d pose = new MutablePose3d(start);
+
+    Pose3d expected = start.transformBy(offset);
+    assertPose3d(expected, pose.transformBy(offset));
+    expected = expected.rotateBy(rotation);
+    assertPose3d(expected, pose.rotateBy(rotation));
+    assertPose3d(expected.relativeTo(start), pose.relativeTo(start, pose));
+
+    MutablePose2d projected = new MutablePose2d();
+    assertPose2d(expected.toPose2d(), new MutablePose3d(expected).toPose2d(projected));
+  }
+
+  @Test
+  public void testPacksLikeImmutableTypes() {
+    Pose2d pose2d = new Pose2d(new Translation2d(1.5, -3.0), new Rotation2d(2.0));
+    Pose3d pose3d =
+        new Pose3d(new Translation3d(1.0, 2.0, 3.0), new Rotation3d(0.5, -0.25, 1.0));
+    assertArrayEquals(
+        pack(Pose2d.struct, pose2d), pack(MutablePose2d.struct, new MutablePose2d(pose2d)));
+    assertArrayEquals(
+        pack(Pose3d.struct, pose3d), pack(MutablePose3d.struct, new MutablePose3d(pose3d)));
+    assertEquals(Pose2d.struct.getTypeString(), MutablePose2d.struct.getTypeString());
+    assertEquals(Pose3d.struct.getSchema(), MutablePose3d.struct.getSchema());
+  }
+
+  @Test
+  public void testLogsAsImmutableTypes() {
+    MutablePose2d pose = new MutablePose2d(1.0, 2.0, 0.5);
+    LogTable table = new LogTable(0);
+    table.put("Pose", MutablePose2d.struct, pose);
+    Pose2d logged = pose.toPose2d();
+    pose.transformBy(1.0, 0.0, 0.0); // Values are packed when recorded
+
+    assertEquals("struct:Pose2d", table.get("Pose").customTypeStr);
+    assertEquals(logged, table.get("Pose", Pose2d.struct, Pose2d.kZero));
+    assertTrue(table.readInto("Pose", MutablePose2d.struct, pose));
+    assertPose2d(logged, pose);
+
+    Pose3d pose3d = new Pose3d(1.0, 2.0, 3.0, new Rotation3d(0.1, 0.2, 0.3));
+    table.put("Pose3d", Pose3d.struct, pose3d);
+    MutablePose3d read = new MutablePose3d();
+    assertTrue(table.readInto("Pose3d", MutablePose3d.struct, read));
+    assertPose3d(pose3d, read);
+  }
+}
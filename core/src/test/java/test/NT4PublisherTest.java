@@ -0,0 +1,173 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.nt4.MessagePackReader;
+import org.psilynx.psikit.core.nt4.MessagePackWriter;
+import org.psilynx.psikit.core.nt4.NT4Publisher;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class NT4PublisherTest {
+
+  /** Minimal NT4 client, just enough to subscribe and read value messages. */
+  private static class Client implements AutoCloseable {
+    final Socket socket;
+    final DataInputStream in;
+    final OutputStream out;
+    final Map<Long, String> topicNames = new HashMap<>();
+    final Map<String, Object> values = new HashMap<>();
+    Object[] lastTimeSync = null;
+
+    Client(int port) throws IOException {
+      socket = new Socket("127.0.0.1", port);
+      socket.setSoTimeout(5000);
+      in = new DataInputStream(socket.getInputStream());
+      out = socket.getOutputStream();
+      String request =
+          "GET /nt/test HTTP/1.1\r\n"
+              + "Host: localhost\r\n"
+              + "Upgrade: websocket\r\n"
+              + "Connection: Upgrade\r\n"
+              + "Sec-WebSocket-Key: dGhlIHNhbXBsZSBub25jZQ==\r\n"
+              + "Sec-WebSocket-Protocol: v4.1.networktables.first.wpi.edu, networktables.first.wpi.edu\r\n"
+              + "Sec-WebSocket-Version: 13\r\n\r\n";
+      out.write(request.getBytes(StandardCharsets.ISO_8859_1));
+      out.flush();
+      StringBuilder response = new StringBuilder();
+      while (!response.toString().endsWith("\r\n\r\n")) {
+        response.append((char) in.readUnsignedByte());
+      }
+      assertTrue(response.toString(), response.toString().startsWith("HTTP/1.1 101"));
+      // Example key/accept pair from RFC 6455
+      assertTrue(response.toString().contains("Sec-WebSocket-Accept: s3pPLMBiTxaQ9kYGzzhZRbK+xOo="));
+      assertTrue(response.toString().contains("Sec-WebSocket-Protocol: networktables.first.wpi.edu"));
+    }
+
+    void send(int opcode, byte[] payload) throws IOException {
+      byte[] mask = {1, 2, 3, 4};
+      out.write(0x80 | opcode);
+      out.write(0x80 | 126);
+      out.write(payload.length >> 8);
+      out.write(payload.length);
+      out.write(mask);
+      for (int i = 0; i < payload.length; i++) {
+        out.write(payload[i] ^ mask[i & 3]);
+      }
+      out.flush();
+    }
+
+    /** Reads one frame and records any announcements or values. */
+    void readFrame() throws IOException {
+      int b0 = in.readUnsignedByte();
+      int b1 = in.readUnsignedByte();
+      long length = b1 & 0x7f;
+      if (length == 126) length = in.readUnsignedShort();
+      else if (length == 127) length = in.readLong();
+      byte[] payload = new byte[(int) length];
+      in.readFully(payload);
+      int opcode = b0 & 0x0f;
+      if (opcode == 1) {
+        String json = new String(payload, StandardCharsets.UTF_8);
+        for (String part : json.split("\\{\"method\":\"announce\"")) {
+          int nameStart = part.indexOf("\"name\":\"");
+          int idStart = part.indexOf("\"id\":");
+          if (nameStart < 0 || idStart < 0) continue;
+          String name = part.substring(nameStart + 8, part.indexOf('"', nameStart + 8));
+          long id = Long.parseLong(part.substring(idStart + 5).split("[,}]")[0]);
+          topicNames.put(id, name);
+        }
+      } else if (opcode == 2) {
+        MessagePackReader reader = new MessagePackReader(payload);
+        while (reader.hasNext()) {
+          Object[] message = (Object[]) reader.next();
+          if ((Long) message[0] == -1) {
+            lastTimeSync = message;
+            continue;
+          }
+          String name = topicNames.get((Long) message[0]);
+          assertNotNull("Value received before announcement", name);
+          values.put(name, message[3]);
+        }
+      }
+    }
+
+    void readUntil(String topic, Object expected) throws IOException {
+      long deadline = System.currentTimeMillis() + 5000;
+      while (!expected.equals(values.get(topic))) {
+        assertTrue("Timed out waiting for " + topic, System.currentTimeMillis() < deadline);
+        readFrame();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      socket.close();
+    }
+  }
+
+  private static int findFreePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  @Test
+  public void testSubscribeAndReceiveValues() throws Exception {
+    int port = findFreePort();
+    NT4Publisher publisher = new NT4Publisher(port);
+    publisher.start();
+    try (Client client = new Client(port)) {
+      client.send(
+          1,
+          ("[{\"method\":\"subscribe\",\"params\":{\"topics\":[\"\"],\"subuid\":1,"
+                  + "\"options\":{\"prefix\":true}}}]")
+              .getBytes(StandardCharsets.UTF_8));
+
+      LogTable table = new LogTable(1.0);
+      table.put("RealOutputs/Value", 1.5);
+      table.put("RealOutputs/Flags", new boolean[] {true, false});
+      table.put("RealOutputs/Name", "first");
+      publisher.putTable(LogTable.clone(table));
+
+      client.readUntil("/AdvantageKit/RealOutputs/Value", 1.5);
+      client.readUntil("/AdvantageKit/RealOutputs/Name", "first");
+      assertEquals(1000000L, client.values.get("/AdvantageKit/Timestamp"));
+      Object[] flags = (Object[]) client.values.get("/AdvantageKit/RealOutputs/Flags");
+      assertEquals(true, flags[0]);
+      assertEquals(false, flags[1]);
+
+      table.setTimestamp(1.02);
+      table.put("RealOutputs/Value", 2.5);
+      table.put("RealOutputs/Count", 42);
+      publisher.putTable(LogTable.clone(table));
+
+      client.readUntil("/AdvantageKit/RealOutputs/Value", 2.5);
+      client.readUntil("/AdvantageKit/RealOutputs/Count", 42L);
+      assertEquals("first", client.values.get("/AdvantageKit/RealOutputs/Name"));
+
+      // Time synchronization
+      MessagePackWriter timeSync = new MessagePackWriter();
+      timeSync.packArrayHeader(4).packLong(-1).packLong(0).packLong(2).packLong(12345);
+      client.send(2, timeSync.toByteArray());
+      long deadline = System.currentTimeMillis() + 5000;
+      while (client.lastTimeSync == null) {
+        assertTrue(System.currentTimeMillis() < deadline);
+        client.readFrame();
+      }
+      assertEquals(12345L, client.lastTimeSync[3]);
+      assertTrue((Long) client.lastTimeSync[1] >= 1020000L);
+    } finally {
+      publisher.end();
+    }
+  }
+}
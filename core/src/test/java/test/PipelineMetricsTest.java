@@ -0,0 +1,58 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.PipelineMetrics;
+import org.psilynx.psikit.core.rlog.RLOGWriter;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class PipelineMetricsTest {
+  private static final int cycleCount = 20;
+
+  @Test
+  public void testMetricsCoverEveryStage() throws Exception {
+    File folder = Files.createTempDirectory("pipeline").toFile();
+    folder.deleteOnExit();
+    try (TestSession session =
+        new TestSession(
+            new RLOGWriter(folder.getPath() + "/", "pipeline"), table -> Thread.sleep(2))) {
+      PipelineMetrics metrics = Logger.getPipelineMetrics();
+      metrics.setSamplePeriod(5);
+      session.startAndStep();
+      for (int i = 1; i <= cycleCount; i++) {
+        session.beginCycle();
+        Logger.recordOutput("Counter", i);
+        Logger.recordOutput("Constant", 1.0);
+        session.endCycle();
+      }
+
+      // Outputs are only recorded on sampled cycles
+      LogTable entry = Logger.getEntry();
+      assertTrue(entry.get("RealOutputs/PsiKit/Pipeline/QueueHighWaterMark", -1) >= 1);
+      assertEquals(0L, entry.get("RealOutputs/PsiKit/Pipeline/DroppedCycles", -1L));
+      assertNotNull(entry.get("RealOutputs/PsiKit/Pipeline/Receivers/RLOGWriter/PutTableMS"));
+      assertNotNull(entry.get("RealOutputs/PsiKit/Pipeline/Receivers/Receiver/PutTableMS"));
+
+      // Ending drains the queue (a cycle interrupted mid-send may be cut short)
+      Logger.end();
+      assertTrue(metrics.getReceivedCycles() >= cycleCount);
+      assertEquals(2, metrics.getReceiverCount());
+      assertEquals("RLOGWriter", metrics.getReceiverName(0));
+      assertEquals("Receiver", metrics.getReceiverName(1));
+      assertTrue(metrics.getReceiverNanos(1) >= 2_000_000L);
+      assertTrue(metrics.getSnapshotNanos() > 0);
+      assertTrue(metrics.getEncodedBytes() > 0);
+      assertTrue(metrics.getKeysTotal() > 2);
+      // The timestamp-driven outputs and the counter change, the constant does not
+      assertTrue(metrics.getKeysChanged() >= 1);
+      assertTrue(metrics.getKeysChanged() < metrics.getKeysTotal());
+    } finally {
+      new File(folder, "pipeline.rlog").delete();
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LatencyHistogram;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.Profiler;
+
+import static org.junit.Assert.*;
+
+public class ProfilerTest {
+  @Test
+  public void testHistogramPercentiles() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L); // 1 us to 1 ms
+    }
+    assertEquals(1000, histogram.getCount());
+    assertEquals(500_500.0, histogram.getMean(), 1e-6);
+    assertEquals(1_000_000, histogram.getMax());
+    assertEquals(1000, histogram.getMin());
+    assertEquals(500_000, histogram.getValueAtPercentile(50.0), 500_000 * 0.04);
+    assertEquals(990_000, histogram.getValueAtPercentile(99.0), 990_000 * 0.04);
+    assertEquals(1_000_000, histogram.getValueAtPercentile(100.0));
+
+    // Small values land in exact buckets, huge ones are clamped to the last bucket
+    histogram.reset();
+    histogram.record(3);
+    assertEquals(3, histogram.getValueAtPercentile(50.0));
+    histogram.record(Long.MAX_VALUE);
+    assertEquals(Long.MAX_VALUE, histogram.getMax());
+    assertEquals(0, new LatencyHistogram().getValueAtPercentile(99.0));
+  }
+
+  @Test
+  public void testSectionsPublishPerPeriod() {
+    try (TestSession session = new TestSession()) {
+      Profiler.setPublishPeriod(10);
+      Profiler.Section section = Profiler.section("Test/Section");
+      assertSame(section, Profiler.section("Test/Section"));
+      session.start();
+
+      // Ten cycles, the first of which was started by Logger.start()
+      for (int i = 0; i < 10; i++) {
+        if (i > 0) {
+          session.beginCycle();
+        }
+        try (Profiler.Section timed = section.enter()) {
+          assertSame(section, timed); // Timed by the try block
+        }
+        // One slow outlier among the samples
+        section.record(i == 5 ? 50_000_000L : 1_000_000L);
+        session.endCycle();
+      }
+
+      LogTable entry = Logger.getEntry();
+      assertEquals(20, entry.get("RealOutputs/Profiler/Test/Section/Count", 0L));
+      assertEquals(50.0, entry.get("RealOutputs/Profiler/Test/Section/MaxMS", 0.0), 1e-9);
+      assertEquals(50.0, entry.get("RealOutputs/Profiler/Test/Section/P99MS", 0.0), 50.0 * 0.04);
+      assertTrue(entry.get("RealOutputs/Profiler/Test/Section/P50MS", 1.0) < 1.0);
+      assertEquals(0, section.getHistogram().getCount());
+    }
+  }
+}
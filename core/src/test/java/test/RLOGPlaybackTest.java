@@ -0,0 +1,119 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.rlog.RLOGDecoder;
+import org.psilynx.psikit.core.rlog.RLOGEncoder;
+import org.psilynx.psikit.core.rlog.RLOGPlayback;
+import org.psilynx.psikit.core.rlog.RLOGServer;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+import static org.junit.Assert.*;
+
+public class RLOGPlaybackTest {
+  private static final int cycleCount = 50;
+
+  private static File writeLog() throws Exception {
+    File file = File.createTempFile("playback", ".rlog");
+    file.deleteOnExit();
+    RLOGEncoder encoder = new RLOGEncoder();
+    LogTable table = new LogTable(0);
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      for (int i = 0; i < cycleCount; i++) {
+        table.setTimestamp(i * 0.02);
+        table.put("RealOutputs/Cycle", i);
+        table.put("RealOutputs/Name", "cycle " + i);
+        encoder.encodeTable(LogTable.clone(table), true);
+        out.write(encoder.getOutput().array());
+      }
+    }
+    return file;
+  }
+
+  private static int findFreePort() throws Exception {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static Socket connect(int port) throws Exception {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (true) {
+      try {
+        return new Socket("127.0.0.1", port);
+      } catch (ConnectException e) {
+        if (System.currentTimeMillis() > deadline) {
+          throw e;
+        }
+        Thread.sleep(20);
+      }
+    }
+  }
+
+  @Test
+  public void testMaxSpeedPlaybackReachesClients() throws Exception {
+    File file = writeLog();
+    int port = findFreePort();
+    RLOGServer server = new RLOGServer(port);
+    server.start();
+    try (Socket client = connect(port)) {
+      client.setSoTimeout(5000);
+      // Wait for the server to send the (empty) newcomer data before playback starts
+      DataInputStream in = new DataInputStream(client.getInputStream());
+      byte[] frame = new byte[in.readInt()];
+      in.readFully(frame);
+      RLOGDecoder decoder = new RLOGDecoder();
+      decoder.decodeFrame(frame);
+
+      RLOGPlayback playback = new RLOGPlayback(file.getPath(), server, RLOGPlayback.maxSpeed);
+      playback.run();
+      assertEquals(cycleCount, playback.getCycles());
+      assertTrue(playback.getCyclesPerSecond() > 0);
+      assertTrue(playback.getBytesPerSecond() > 0);
+      assertEquals(0, server.getCyclesDropped());
+
+      LogTable last = null;
+      int received = 0;
+      while (received < cycleCount) {
+        frame = new byte[in.readInt()];
+        in.readFully(frame);
+        if (frame.length == 0) {
+          continue; // Keepalive
+        }
+        last = decoder.decodeFrame(frame);
+        received++;
+      }
+      assertNotNull(last);
+      assertEquals((cycleCount - 1) * 0.02, last.getTimestamp(), 1e-9);
+      assertEquals(cycleCount - 1, last.get("RealOutputs/Cycle", -1));
+      assertEquals("cycle " + (cycleCount - 1), last.get("RealOutputs/Name", ""));
+    } finally {
+      server.end();
+    }
+  }
+
+  @Test
+  public void testPlaybackIsPacedByTimestamps() throws Exception {
+    File file = writeLog();
+    RLOGServer server = new RLOGServer(findFreePort());
+    server.start();
+    try {
+      // 50 cycles at 20 ms span 0.98 s, so 4x speed should take about 245 ms
+      RLOGPlayback playback = new RLOGPlayback(file.getPath(), server, 4.0);
+      long start = System.nanoTime();
+      playback.run();
+      double elapsed = (System.nanoTime() - start) / 1e9;
+      assertEquals(cycleCount, playback.getCycles());
+      assertTrue("Playback took " + elapsed + " s", elapsed >= 0.23);
+      assertTrue("Playback took " + elapsed + " s", elapsed < 2.0);
+    } finally {
+      server.end();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.rlog.RLOGUdpClient;
+import org.psilynx.psikit.core.rlog.RLOGUdpServer;
+import org.psilynx.psikit.core.wpi.math.Pose2d;
+import org.psilynx.psikit.core.wpi.math.Rotation2d;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class RLOGUdpTest {
+
+  private static int findFreePort() throws Exception {
+    try (DatagramSocket socket = new DatagramSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  /** Returns whether a datagram sent to the group on this host is received by a member. */
+  private static boolean multicastLoopbackWorks(String group, int port) {
+    try (MulticastSocket receiver = new MulticastSocket(port);
+        MulticastSocket sender = new MulticastSocket()) {
+      InetAddress address = InetAddress.getByName(group);
+      receiver.joinGroup(address);
+      receiver.setSoTimeout(1000);
+      sender.setTimeToLive(1);
+      sender.setLoopbackMode(false);
+      sender.send(new DatagramPacket(new byte[1], 1, address, port));
+      receiver.receive(new DatagramPacket(new byte[16], 16));
+      receiver.leaveGroup(address);
+      return true;
+    } catch (IOException e) {
+      return false; // No multicast capable interface or route, or the probe timed out
+    }
+  }
+
+  @Test
+  public void testMulticastGroup() throws Exception {
+    String group = "239.50.50.59";
+    int port = findFreePort();
+    assumeTrue("No multicast loopback on this host", multicastLoopbackWorks(group, port));
+    try (RLOGUdpClient client = new RLOGUdpClient(group, port)) {
+      RLOGUdpServer server = new RLOGUdpServer(group, port);
+      server.start();
+
+      LogTable table = new LogTable(0);
+      for (int i = 0; i < 5; i++) {
+        table.setTimestamp(i * 0.02);
+        table.put("RealOutputs/Cycle", i);
+        server.putTable(LogTable.clone(table));
+      }
+
+      for (int i = 0; i < 5; i++) {
+        LogTable received = client.receive(2000);
+        assertNotNull("Timed out waiting for cycle " + i, received);
+        assertEquals(i, received.get("RealOutputs/Cycle", -1));
+      }
+      assertEquals(0, client.getFramesLost());
+      server.end();
+    }
+  }
+
+  @Test
+  public void testLoopbackStreamWithFragmentationAndKeyframes() throws Exception {
+    int port = findFreePort();
+    try (RLOGUdpClient client = new RLOGUdpClient("127.0.0.1", port)) {
+      // Small payload size forces keyframes and struct values to be split into several datagrams
+      RLOGUdpServer server = new RLOGUdpServer("127.0.0.1", port, 5, 64);
+      server.start();
+
+      LogTable table = new LogTable(0);
+      for (int i = 0; i < 20; i++) {
+        table.setTimestamp(i * 0.02);
+        table.put("RealOutputs/Cycle", i);
+        table.put("RealOutputs/Pose", new Pose2d(i, 2.0, Rotation2d.kZero));
+        if (i == 0) {
+          table.put("RealMetadata/Event", "loopback");
+        }
+        server.putTable(LogTable.clone(table));
+      }
+
+      for (int i = 0; i < 20; i++) {
+        LogTable received = client.receive(2000);
+        assertNotNull("Timed out waiting for cycle " + i, received);
+        assertEquals(i * 0.02, received.getTimestamp(), 1e-9);
+        assertEquals(i, received.get("RealOutputs/Cycle", -1));
+        assertEquals("loopback", received.get("RealMetadata/Event", ""));
+        Pose2d pose = received.get("RealOutputs/Pose", Pose2d.struct, Pose2d.kZero);
+        assertEquals(i, pose.getX(), 1e-9);
+      }
+      assertEquals(20, client.getFramesDecoded());
+      assertEquals(0, client.getFramesLost());
+      server.end();
+    }
+  }
+}
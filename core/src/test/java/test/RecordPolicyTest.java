@@ -0,0 +1,203 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.LoggableInputs;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.LoggingProfile;
+import org.psilynx.psikit.core.RecordPolicy;
+import org.psilynx.psikit.core.wpi.Struct;
+import org.psilynx.psikit.core.wpi.math.Translation2d;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class RecordPolicyTest {
+  private static class Inputs implements LoggableInputs {
+    double position = 0.0;
+
+    @Override
+    public void toLog(LogTable table) {
+      table.put("Position", position);
+    }
+
+    @Override
+    public void fromLog(LogTable table) {
+      position = table.get("Position", position);
+    }
+  }
+
+  /** Translation2d's immutable struct, counting values packed on the thread that created it. */
+  private static class CountingStruct implements Struct<Translation2d> {
+    private final Thread owner = Thread.currentThread();
+    volatile int ownerPacks = 0;
+
+    @Override
+    public Class<Translation2d> getTypeClass() {
+      return Translation2d.class;
+    }
+
+    @Override
+    public String getTypeName() {
+      return Translation2d.struct.getTypeName();
+    }
+
+    @Override
+    public int getSize() {
+      return Translation2d.struct.getSize();
+    }
+
+    @Override
+    public String getSchema() {
+      return Translation2d.struct.getSchema();
+    }
+
+    @Override
+    public Translation2d unpack(ByteBuffer bb) {
+      return Translation2d.struct.unpack(bb);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, Translation2d value) {
+      if (Thread.currentThread() == owner) {
+        ownerPacks++;
+      }
+      Translation2d.struct.pack(bb, value);
+    }
+
+    @Override
+    public boolean isImmutable() {
+      return true;
+    }
+  }
+
+  @Test
+  public void testOutputPolicies() {
+    try (TestSession session = new TestSession()) {
+      Logger.setOutputPolicy("Drive", RecordPolicy.absoluteDeadband(0.01));
+      Logger.setOutputPolicy("Drive/Decimated", RecordPolicy.everyNCycles(3));
+      Logger.setOutputPolicy("Slow", RecordPolicy.minInterval(0.1));
+      Logger.setOutputPolicy("Wheels", RecordPolicy.relativeDeadband(0.1));
+      session.start();
+      LogTable entry = Logger.getEntry();
+      Inputs inputs = new Inputs();
+
+      double[] stored = new double[6];
+      double[] decimated = new double[6];
+      double[] slow = new double[6];
+      for (int i = 0; i < 6; i++) {
+        if (i > 0) {
+          session.beginCycle(i * 0.04);
+        }
+        inputs.position = i * 0.001;
+        Logger.processInputs("Drive", inputs);
+        Logger.recordOutput("Drive/Velocity", 1.0 + i * 0.004);
+        Logger.recordOutput("Drive/Decimated", (double) i);
+        Logger.recordOutput("Slow", (double) i);
+        Logger.recordOutput("Other", (double) i);
+        stored[i] = entry.get("RealOutputs/Drive/Velocity", 0.0);
+        decimated[i] = entry.get("RealOutputs/Drive/Decimated", 0.0);
+        slow[i] = entry.get("RealOutputs/Slow", 0.0);
+
+        // Inputs keep exact values without an opt in
+        assertEquals(i * 0.001, entry.get("Drive/Position", -1.0), 0.0);
+        assertEquals(i, entry.get("RealOutputs/Other", -1.0), 0.0);
+        session.endCycle();
+      }
+
+      assertArrayEquals(new double[] {1.0, 1.0, 1.0, 1.012, 1.012, 1.012}, stored, 1e-9);
+      assertArrayEquals(new double[] {0, 0, 0, 3, 3, 3}, decimated, 0.0);
+      assertArrayEquals(new double[] {0, 0, 0, 3, 3, 3}, slow, 0.0);
+
+      Logger.recordOutput("Wheels", new double[] {10.0, 20.0});
+      Logger.recordOutput("Wheels", new double[] {10.5, 21.0});
+      assertArrayEquals(
+          new double[] {10.0, 20.0}, entry.get("RealOutputs/Wheels", new double[0]), 0.0);
+      Logger.recordOutput("Wheels", new double[] {10.5, 23.0});
+      assertArrayEquals(
+          new double[] {10.5, 23.0}, entry.get("RealOutputs/Wheels", new double[0]), 0.0);
+      session.step();
+      assertEquals(13L, entry.get("RealOutputs/PsiKit/RecordPolicies/SuppressedWrites", 0L));
+
+      // Snapshots sent to receivers do not apply policies
+      LogTable copy = LogTable.clone(entry);
+      copy.put("RealOutputs/Drive/Velocity", 1.0121);
+      assertEquals(1.0121, copy.get("RealOutputs/Drive/Velocity", 0.0), 0.0);
+    }
+  }
+
+  @Test
+  public void testInputPolicyIsOptIn() {
+    try (TestSession session = new TestSession()) {
+      Logger.setInputPolicy("Drive", RecordPolicy.onChange());
+      Logger.setInputPolicy("Arm/Position", RecordPolicy.absoluteDeadband(0.5));
+      session.start();
+      LogTable entry = Logger.getEntry();
+      Inputs inputs = new Inputs();
+
+      inputs.position = 1.0;
+      Logger.processInputs("Arm", inputs);
+      inputs.position = 1.4;
+      Logger.processInputs("Arm", inputs);
+      assertEquals(1.0, entry.get("Arm/Position", 0.0), 0.0);
+      inputs.position = 1.6;
+      Logger.processInputs("Arm", inputs);
+      assertEquals(1.6, entry.get("Arm/Position", 0.0), 0.0);
+    }
+  }
+
+  @Test
+  public void testStateSurvivesPolicyChanges() {
+    try (TestSession session = new TestSession()) {
+      Logger.addLoggingProfile(new LoggingProfile("policy-test").exclude("RealOutputs/Unused"));
+      Logger.setOutputPolicy("Decimated", RecordPolicy.everyNCycles(3));
+      session.start();
+      LogTable entry = Logger.getEntry();
+
+      double[] decimated = new double[7];
+      for (int i = 0; i < 7; i++) {
+        if (i == 4) {
+          Logger.setOutputPolicy("Other", RecordPolicy.onChange());
+        } else if (i == 5) {
+          Logger.setLoggingProfile("policy-test");
+        }
+        session.beginCycle();
+        Logger.recordOutput("Decimated", (double) i);
+        decimated[i] = entry.get("RealOutputs/Decimated", -1.0);
+        session.endCycle();
+      }
+
+      // Changing policies or the profile keeps each key's count and the suppressed total
+      assertArrayEquals(new double[] {0, 0, 0, 3, 3, 3, 6}, decimated, 0.0);
+      assertEquals(4L, entry.get("RealOutputs/PsiKit/RecordPolicies/SuppressedWrites", 0L));
+    } finally {
+      Logger.setLoggingProfile(null);
+    }
+  }
+
+  @Test
+  public void testStructPoliciesDoNotPack() {
+    CountingStruct struct = new CountingStruct();
+    try (TestSession session = new TestSession()) {
+      Logger.setOutputPolicy("Position", RecordPolicy.onChange());
+      Logger.setOutputPolicy("Target", RecordPolicy.absoluteDeadband(0.1));
+      session.start();
+      LogTable entry = Logger.getEntry();
+
+      Translation2d first = new Translation2d(1.0, 2.0);
+      Logger.recordOutput("Position", struct, first);
+      Logger.recordOutput("Position", struct, new Translation2d(1.0, 2.0));
+      assertSame(first, entry.get("RealOutputs/Position", struct, new Translation2d()));
+      Translation2d moved = new Translation2d(1.5, 2.0);
+      Logger.recordOutput("Position", struct, moved);
+      assertSame(moved, entry.get("RealOutputs/Position", struct, new Translation2d()));
+
+      Logger.recordOutput("Target", struct, new Translation2d[] {first});
+      Logger.recordOutput("Target", struct, new Translation2d[] {new Translation2d(1.0, 2.0)});
+      session.endCycle();
+      assertEquals(0, struct.ownerPacks);
+      assertEquals(2L, entry.get("RealOutputs/PsiKit/RecordPolicies/SuppressedWrites", 0L));
+    }
+  }
+}
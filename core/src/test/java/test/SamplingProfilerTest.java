@@ -0,0 +1,40 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+
+import static org.junit.Assert.*;
+
+public class SamplingProfilerTest {
+  private static volatile double sink;
+
+  private static void busyUserCode() {
+    long end = System.nanoTime() + 20_000_000L;
+    while (System.nanoTime() < end) {
+      sink += Math.sqrt(sink + 1.0);
+    }
+  }
+
+  @Test
+  public void testBusyMethodAppearsInCollapsedStacks() {
+    try (TestSession session = new TestSession()) {
+      Logger.enableSamplingProfiler(500, 5);
+      session.startAndStep();
+
+      LogTable entry = Logger.getEntry();
+      String[] stacks = null;
+      for (int i = 1; i <= 150 && stacks == null; i++) {
+        session.beginCycle();
+        busyUserCode();
+        session.endCycle();
+        stacks = entry.get("RealOutputs/PsiKit/SamplingProfiler/CollapsedStacks", (String[]) null);
+      }
+      assertNotNull(stacks);
+      assertTrue(stacks.length >= 1 && stacks.length <= 5);
+      assertTrue(stacks[0], stacks[0].contains("SamplingProfilerTest.busyUserCode"));
+      assertTrue(stacks[0].matches(".*;.* \\d+"));
+      assertTrue(entry.get("RealOutputs/PsiKit/SamplingProfiler/Samples", 0L) > 0);
+    }
+  }
+}
@@ -0,0 +1,93 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.StructSchemaDecoder;
+import org.psilynx.psikit.core.wpi.math.Pose2d;
+import org.psilynx.psikit.core.wpi.math.Rotation2d;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class StructSchemaDecoderTest {
+  @Test
+  public void testReadsLoggedPoses() {
+    LogTable table = new LogTable(0);
+    table.put("Pose", Pose2d.struct, new Pose2d(1.5, -2.0, new Rotation2d(0.25)));
+    table.put(
+        "Targets",
+        Pose2d.struct,
+        new Pose2d(3.0, 4.0, new Rotation2d()),
+        new Pose2d(5.0, 6.0, new Rotation2d(-1.0)));
+
+    StructSchemaDecoder decoder = new StructSchemaDecoder();
+    decoder.addSchemas(table);
+    StructSchemaDecoder.Layout layout = decoder.getLayout(table.get("Targets").customTypeStr);
+    assertEquals("Pose2d", layout.getTypeName());
+    assertEquals(24, layout.getSize());
+    assertEquals(2, layout.getFields().size());
+
+    StructSchemaDecoder.Field x = layout.field("translation.x");
+    StructSchemaDecoder.Field y = layout.field("translation.y");
+    StructSchemaDecoder.Field angle = layout.field("rotation.value");
+    assertEquals(8, y.getOffset());
+    assertEquals(16, angle.getOffset());
+
+    ByteBuffer pose = table.get("Pose").getRawBuffer();
+    assertEquals(1.5, x.getDouble(pose, 0), 0.0);
+    assertEquals(-2.0, y.getDouble(pose, 0), 0.0);
+    assertEquals(0.25, angle.getDouble(pose, 0), 0.0);
+
+    ByteBuffer targets = table.get("Targets").getRawBuffer();
+    assertEquals(5.0, x.getDouble(targets, layout.getSize()), 0.0);
+    assertEquals(-1.0, angle.getDouble(targets, layout.getSize()), 0.0);
+  }
+
+  @Test
+  public void testPrimitivesArraysAndEnums() {
+    StructSchemaDecoder decoder = new StructSchemaDecoder();
+    decoder.addSchema("Module", "enum {OFF=0, ON=1} int8 state;uint16 faults;double speeds[2]");
+    decoder.addSchema("Drive", "bool enabled; uint32 ticks; float32 volts; Module modules[2]");
+    StructSchemaDecoder.Layout drive = decoder.getLayout("struct:Drive");
+    assertEquals(1 + 4 + 4 + 2 * (1 + 2 + 16), drive.getSize());
+
+    ByteBuffer bb = ByteBuffer.allocate(drive.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+    bb.put((byte) 1).putInt(-1).putFloat(12.5f);
+    bb.put((byte) 0).putShort((short) 0xFFFF).putDouble(0.5).putDouble(1.5);
+    bb.put((byte) 1).putShort((short) 3).putDouble(2.5).putDouble(3.5);
+
+    assertTrue(drive.field("enabled").getBoolean(bb, 0));
+    assertEquals(0xFFFFFFFFL, drive.field("ticks").getLong(bb, 0));
+    assertEquals(12.5, drive.field("volts").getDouble(bb, 0), 0.0);
+    assertEquals(0xFFFF, drive.field("modules[0].faults").getLong(bb, 0));
+    assertEquals(1, drive.field("modules[1].state").getLong(bb, 0));
+    StructSchemaDecoder.Field speeds = drive.field("modules[1].speeds");
+    assertTrue(speeds.isArray());
+    assertEquals(2, speeds.getLength());
+    assertEquals(3.5, speeds.getDouble(bb, 0, 1), 0.0);
+  }
+
+  @Test
+  public void testInvalidSchemas() {
+    StructSchemaDecoder decoder = new StructSchemaDecoder();
+    decoder.addSchema("Outer", "Inner inner");
+    decoder.addSchema("Loop", "Loop next");
+    decoder.addSchema("Bits", "int8 a:4;int8 b:4");
+    for (String type : new String[] {"Outer", "Loop", "Bits", "Missing"}) {
+      try {
+        decoder.getLayout(type);
+        fail("Expected an error for " + type);
+      } catch (IllegalArgumentException expected) {
+      }
+    }
+    decoder.addSchema("Inner", "int64 value");
+    assertEquals(8, decoder.getLayout("Outer").getSize());
+    try {
+      decoder.getLayout("Outer").field("inner.missing");
+      fail("Expected an error for a missing field");
+    } catch (IllegalArgumentException expected) {
+    }
+  }
+}
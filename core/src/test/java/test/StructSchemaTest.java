@@ -0,0 +1,142 @@
+package test;
+
+import org.junit.Test;
+import org.psilynx.psikit.core.LogTable;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.wpi.Struct;
+import org.psilynx.psikit.core.wpi.math.Pose2d;
+import org.psilynx.psikit.core.wpi.math.Rotation2d;
+import org.psilynx.psikit.core.wpi.math.Translation2d;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class StructSchemaTest {
+  /** Rotation2d's struct, counting how often its schema is read. */
+  private static class CountingStruct implements Struct<Rotation2d> {
+    int schemaReads = 0;
+
+    @Override
+    public Class<Rotation2d> getTypeClass() {
+      return Rotation2d.class;
+    }
+
+    @Override
+    public String getTypeName() {
+      return "CountedRotation";
+    }
+
+    @Override
+    public int getSize() {
+      return Rotation2d.struct.getSize();
+    }
+
+    @Override
+    public String getSchema() {
+      schemaReads++;
+      return Rotation2d.struct.getSchema();
+    }
+
+    @Override
+    public Rotation2d unpack(ByteBuffer bb) {
+      return Rotation2d.struct.unpack(bb);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, Rotation2d value) {
+      Rotation2d.struct.pack(bb, value);
+    }
+  }
+
+  /** A Rotation2d struct stored under a fixed type name with the given schema. */
+  private static class NamedStruct implements Struct<Rotation2d> {
+    private final String schema;
+
+    NamedStruct(String schema) {
+      this.schema = schema;
+    }
+
+    @Override
+    public Class<Rotation2d> getTypeClass() {
+      return Rotation2d.class;
+    }
+
+    @Override
+    public String getTypeName() {
+      return "SharedName";
+    }
+
+    @Override
+    public int getSize() {
+      return Rotation2d.struct.getSize();
+    }
+
+    @Override
+    public String getSchema() {
+      return schema;
+    }
+
+    @Override
+    public Rotation2d unpack(ByteBuffer bb) {
+      return Rotation2d.struct.unpack(bb);
+    }
+
+    @Override
+    public void pack(ByteBuffer bb, Rotation2d value) {
+      Rotation2d.struct.pack(bb, value);
+    }
+  }
+
+  @Test
+  public void testSchemasWrittenOnce() {
+    CountingStruct struct = new CountingStruct();
+    LogTable first = new LogTable(0);
+    LogTable second = new LogTable(0);
+    for (int i = 0; i < 10; i++) {
+      first.put("Rotation", struct, new Rotation2d(i));
+      second.getSubtable("Sub").put("Rotations", struct, new Rotation2d(i), new Rotation2d());
+    }
+    assertEquals(1, struct.schemaReads);
+    assertEquals("double value", new String(first.get("/.schema/struct:CountedRotation").getRaw()));
+    assertNotNull(second.get("/.schema/struct:CountedRotation"));
+    assertEquals(9.0, first.get("Rotation", struct, new Rotation2d()).getRadians(), 1e-9);
+  }
+
+  @Test
+  public void testNestedSchemas() {
+    LogTable table = new LogTable(0);
+    table.put("Pose", new Pose2d(1.0, 2.0, new Rotation2d(0.5)));
+    assertNotNull(table.get("/.schema/struct:Pose2d"));
+    assertNotNull(table.get("/.schema/struct:Translation2d"));
+    assertNotNull(table.get("/.schema/struct:Rotation2d"));
+
+    // Copies keep the schemas and still find struct types by class
+    LogTable copy = LogTable.clone(table);
+    assertNotNull(copy.get("/.schema/struct:Pose2d"));
+    assertEquals(new Pose2d(1.0, 2.0, new Rotation2d(0.5)), copy.get("Pose", new Pose2d()));
+    copy.put("Translations", new Translation2d[] {new Translation2d(3.0, 4.0)});
+    assertEquals(4.0, copy.get("Translations", new Translation2d[0])[0].getY(), 1e-9);
+  }
+
+  @Test
+  public void testConflictingSchemasAreReported() {
+    try (TestSession session = new TestSession()) {
+      session.start();
+
+      // Same type name and schema is fine, a different schema is an error
+      Logger.recordOutput("Same", new NamedStruct("double value"), new Rotation2d(1.0));
+      Logger.recordOutput("Again", new NamedStruct("double value"), new Rotation2d(2.0));
+      session.endCycle();
+      assertNull(Logger.getEntry().get("RealOutputs/PsiKit/Diagnostics/Messages"));
+
+      session.beginCycle();
+      Logger.recordOutput("Other", new NamedStruct("double radians"), new Rotation2d(3.0));
+      session.endCycle();
+      String[] messages =
+          Logger.getEntry().get("RealOutputs/PsiKit/Diagnostics/Messages", new String[0]);
+      assertEquals(1, messages.length);
+      assertTrue(messages[0], messages[0].startsWith("Struct type struct:SharedName"));
+    }
+  }
+}
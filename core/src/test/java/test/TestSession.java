@@ -0,0 +1,80 @@
+package test;
+
+import org.psilynx.psikit.core.LogDataReceiver;
+import org.psilynx.psikit.core.Logger;
+import org.psilynx.psikit.core.LoggerContext;
+
+/**
+ * A logger session on a fresh context bound to the current thread, with a timestamp the test
+ * controls. Configure the logger after creating it, then call {@link #start()} and step cycles.
+ * Closing ends the logger if it is still running and restores the previous context.
+ */
+class TestSession implements AutoCloseable {
+  static final double period = 0.02;
+
+  private final LoggerContext.Binding binding;
+  private double time = 0.0;
+
+  /** Creates a session whose tables are discarded. */
+  TestSession() {
+    this(table -> {});
+  }
+
+  /** Creates a session that sends its tables to the given receivers. */
+  TestSession(LogDataReceiver... receivers) {
+    binding = new LoggerContext().bind();
+    Logger.disableConsoleCapture();
+    Logger.setTimeSource(() -> time);
+    for (LogDataReceiver receiver : receivers) {
+      Logger.addDataReceiver(receiver);
+    }
+  }
+
+  /** Starts the logger, which also begins the first cycle. */
+  void start() {
+    Logger.start();
+  }
+
+  /** Starts the logger and finishes the first cycle. */
+  void startAndStep() {
+    start();
+    endCycle();
+  }
+
+  /** Advances the timestamp by one period and begins the next cycle. */
+  void beginCycle() {
+    beginCycle(time + period);
+  }
+
+  /** Sets the timestamp and begins the next cycle. */
+  void beginCycle(double time) {
+    this.time = time;
+    Logger.periodicBeforeUser();
+  }
+
+  /** Finishes the current cycle. */
+  void endCycle() {
+    Logger.periodicAfterUser(0, 0);
+  }
+
+  /** Runs one cycle with no user code. */
+  void step() {
+    beginCycle();
+    endCycle();
+  }
+
+  void setTime(double time) {
+    this.time = time;
+  }
+
+  @Override
+  public void close() {
+    try {
+      if (Logger.isRunning()) {
+        Logger.end();
+      }
+    } finally {
+      binding.close();
+    }
+  }
+}
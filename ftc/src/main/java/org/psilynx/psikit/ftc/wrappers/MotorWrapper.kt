@@ -12,6 +12,8 @@ import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit
 import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit
 import org.psilynx.psikit.ftc.FtcLogTuning
 import org.psilynx.psikit.core.LogTable
+import org.psilynx.psikit.core.Logger
+import org.psilynx.psikit.core.LoggingProfile
 
 class MotorWrapper(
     private val device: DcMotorImplEx?
@@ -194,8 +196,23 @@ class MotorWrapper(
     private var lastNonBulkUpdateNs: Long = Long.MIN_VALUE
     private var syncedFromDeviceOnce: Boolean = false
 
+    // Handles into the active logging profile, so excluded fields are not read from hardware
+    private var profileKeysPrefix: String? = null
+    private var velocityProfileKey: LoggingProfile.Key? = null
+    private var encoderProfileKey: LoggingProfile.Key? = null
+
+    private fun updateProfileKeys(table: LogTable) {
+        val prefix = table.prefix
+        if (prefix != profileKeysPrefix) {
+            profileKeysPrefix = prefix
+            velocityProfileKey = Logger.profileKey(prefix + "currentVel")
+            encoderProfileKey = Logger.profileKey(prefix + "currentPos")
+        }
+    }
+
     private fun shouldLogVelocity(): Boolean {
         if (!logVelocity) return false
+        if (velocityProfileKey?.isEnabled == false) return false
 
         val name = psikitName
         if (velocityMotorNames.isNotEmpty()) {
@@ -211,6 +228,7 @@ class MotorWrapper(
 
     private fun shouldLogEncoderData(): Boolean {
         if (!logEncoderData) return false
+        if (encoderProfileKey?.isEnabled == false) return false
 
         val name = psikitName
         if (skipEncoderMotorNames.isNotEmpty()) {
@@ -265,6 +283,7 @@ class MotorWrapper(
         device!!
 
         val profile = logProfile
+        updateProfileKeys(table)
 
         if (profile != LOG_PROFILE_FULL) {
             // In FAST/BULK_ONLY, avoid readback-based drift in the first log sample.